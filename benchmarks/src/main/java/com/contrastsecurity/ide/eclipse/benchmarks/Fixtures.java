@@ -0,0 +1,193 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Contrast Security.
+ * All rights reserved. 
+ * 
+ * This program and the accompanying materials are made available under 
+ * the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License.
+ * 
+ * The terms of the GNU GPL version 3 which accompanies this distribution
+ * and is available at https://www.gnu.org/licenses/gpl-3.0.en.html
+ * 
+ * Contributors:
+ *     Contrast Security - initial API and implementation
+ *******************************************************************************/
+package com.contrastsecurity.ide.eclipse.benchmarks;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Random;
+import java.util.UUID;
+
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * Generates the inputs of the benchmarks. Every fixture comes from a fixed
+ * seed, so all runs measure exactly the same data.
+ */
+final class Fixtures {
+
+	private static final long SEED = 0xC0117A57L;
+
+	private static final String[] RULES = { "sql-injection", "xss-reflected", "path-traversal", "cmd-injection",
+			"crypto-bad-mac", "trust-boundary-violation", "unvalidated-redirect", "hql-injection" };
+	private static final String[] SEVERITIES = { "Critical", "High", "Medium", "Low", "Note" };
+	private static final String[] STATUSES = { "Reported", "Confirmed", "Suspicious", "Not a Problem", "Remediated" };
+	private static final String[] PACKAGES = { "com.acme.web", "com.acme.web.controller", "com.acme.service.account",
+			"org.springframework.web.servlet", "org.apache.catalina.core", "javax.servlet.http" };
+	private static final String[] CLASSES = { "LoginServlet", "AccountController", "OrderService",
+			"DispatcherServlet", "ApplicationFilterChain", "HttpServlet", "StandardWrapperValve" };
+	private static final String[] METHODS = { "doPost", "doGet", "service", "handle", "invoke", "findAccount" };
+
+	private Fixtures() {
+	}
+
+	static Random random() {
+		return new Random(SEED);
+	}
+
+	static String stackFrame(Random random) {
+		String className = pick(random, CLASSES);
+		return pick(random, PACKAGES) + "." + className + "." + pick(random, METHODS) + "(" + className + ".java:"
+				+ (1 + random.nextInt(2000)) + ")";
+	}
+
+	/**
+	 * @return Raw HTTP request as shown in the HTTP request tab, with the
+	 *         headers the plugin hides mixed in.
+	 */
+	static String httpRequest(Random random, int headers) {
+		StringBuilder builder = new StringBuilder("POST /acme/login HTTP/1.1\n");
+		for (int i = 0; i < headers; i++) {
+			switch (random.nextInt(5)) {
+			case 0:
+				builder.append("Authorization: Basic ").append(Long.toHexString(random.nextLong()));
+				break;
+			case 1:
+				builder.append("X-Auth-Token: ").append(Long.toHexString(random.nextLong()));
+				break;
+			case 2:
+				builder.append("Cookie: _tid=").append(Long.toHexString(random.nextLong()));
+				break;
+			default:
+				builder.append("X-Header-").append(i).append(": value ").append(random.nextInt(1000));
+			}
+			builder.append('\n');
+		}
+		builder.append("\nusername=admin&password=secret");
+		return builder.toString();
+	}
+
+	/**
+	 * @return Story text the way Team Server sends it, URL and HTML encoded
+	 *         and full of mustache tags.
+	 */
+	static String mustacheText(Random random, int paragraphs) {
+		StringBuilder builder = new StringBuilder();
+		for (int i = 0; i < paragraphs; i++) {
+			builder.append("{{#paragraph}}The {{#code}}").append(pick(random, CLASSES))
+					.append("{{/code}} passes user input to {{#focus}}").append(pick(random, METHODS))
+					.append("(){{/focus}} &lt;script&gt;alert(&quot;").append(random.nextInt(100))
+					.append("&quot;)&lt;/script&gt;{{{nl}}}{{#link}}https%3A%2F%2Fowasp.org%2F")
+					.append(pick(random, RULES)).append("{{/link}}{{/paragraph}}{{#p}}")
+					.append(pick(random, STATUSES)).append("{{/p}}");
+		}
+		return builder.toString();
+	}
+
+	static String htmlMarkup(Random random, int spans) {
+		StringBuilder builder = new StringBuilder();
+		for (int i = 0; i < spans; i++) {
+			builder.append("<span class='normal-code'>").append(pick(random, CLASSES))
+					.append("</span><span class='taint'>").append(pick(random, METHODS))
+					.append("</span><span class='code-string'><i>\"").append(random.nextInt(1000))
+					.append("\"</i></span>");
+		}
+		return builder.toString();
+	}
+
+	/**
+	 * @return JSON of a traces response as returned by Team Server.
+	 */
+	static String tracesJson(Random random, int count) throws IOException {
+		StringWriter json = new StringWriter();
+		JsonWriter writer = new JsonWriter(json);
+		writer.beginObject();
+		writer.name("success").value(true);
+		writer.name("count").value(count);
+		writer.name("traces").beginArray();
+		for (int i = 0; i < count; i++) {
+			String rule = pick(random, RULES);
+			writer.beginObject();
+			writer.name("uuid").value(uuid(random));
+			writer.name("title").value(rule + " from \"" + pick(random, METHODS) + "\" on " + pick(random, CLASSES));
+			writer.name("rule").value(rule);
+			writer.name("severity").value(pick(random, SEVERITIES));
+			writer.name("status").value(pick(random, STATUSES));
+			writer.name("language").value("Java");
+			writer.name("platform").value("Java");
+			writer.name("hash").value(Long.toHexString(random.nextLong()));
+			writer.name("evidence").value(mustacheText(random, 1));
+			writer.name("firstTimeSeen").value(1500000000000L + random.nextInt(1000000000));
+			writer.name("lastTimeSeen").value(1600000000000L + random.nextInt(1000000000));
+			writer.name("visible").value(true);
+			writer.name("application").beginObject();
+			writer.name("app_id").value(uuid(random));
+			writer.name("name").value("acme-" + random.nextInt(10));
+			writer.name("language").value("Java");
+			writer.endObject();
+			writer.endObject();
+		}
+		writer.endArray();
+		writer.endObject();
+		writer.close();
+		return json.toString();
+	}
+
+	/**
+	 * @return JSON of an event summary with the given number of events, each
+	 *         with a stack trace of the given depth.
+	 */
+	static String eventSummaryJson(Random random, int events, int frames) throws IOException {
+		StringWriter json = new StringWriter();
+		JsonWriter writer = new JsonWriter(json);
+		writer.beginObject();
+		writer.name("success").value(true);
+		writer.name("messages").beginArray().value("Event summary loaded").endArray();
+		writer.name("risk").value(mustacheText(random, 2));
+		writer.name("showEvidence").value(true);
+		writer.name("showEvents").value(true);
+		writer.name("events").beginArray();
+		for (int i = 0; i < events; i++) {
+			writer.beginObject();
+			writer.name("id").value(Integer.toString(i));
+			writer.name("important").value(random.nextBoolean());
+			writer.name("type").value(i == 0 ? "Creation" : i == events - 1 ? "Trigger" : "P2O");
+			writer.name("description").value(pick(random, METHODS) + " propagated tainted data");
+			writer.name("dupes").value(random.nextInt(4));
+			writer.name("extraDetails").value(htmlMarkup(random, 2));
+			writer.name("items").beginArray();
+			for (int j = 0; j < frames; j++) {
+				writer.beginObject();
+				writer.name("type").value("stacktrace");
+				writer.name("value").value(stackFrame(random));
+				writer.name("isStacktrace").value(true);
+				writer.endObject();
+			}
+			writer.endArray();
+			writer.endObject();
+		}
+		writer.endArray();
+		writer.endObject();
+		writer.close();
+		return json.toString();
+	}
+
+	private static String uuid(Random random) {
+		return new UUID(random.nextLong(), random.nextLong()).toString();
+	}
+
+	private static String pick(Random random, String[] values) {
+		return values[random.nextInt(values.length)];
+	}
+}
@@ -0,0 +1,77 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Contrast Security.
+ * All rights reserved. 
+ * 
+ * This program and the accompanying materials are made available under 
+ * the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License.
+ * 
+ * The terms of the GNU GPL version 3 which accompanies this distribution
+ * and is available at https://www.gnu.org/licenses/gpl-3.0.en.html
+ * 
+ * Contributors:
+ *     Contrast Security - initial API and implementation
+ *******************************************************************************/
+package com.contrastsecurity.ide.eclipse.benchmarks;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.contrastsecurity.models.EventSummaryResponse;
+import com.contrastsecurity.models.Traces;
+import com.google.gson.Gson;
+
+/**
+ * Deserialization of large responses, done the way the SDK does it: a plain
+ * {@link Gson} reading from a reader.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 2, jvmArgsAppend = { "-Xms1g", "-Xmx1g" })
+public class GsonBenchmark {
+
+	/**
+	 * Traces per response, events per event summary.
+	 */
+	@Param({ "50", "1000" })
+	int size;
+
+	private final Gson gson = new Gson();
+	private String traces;
+	private String eventSummary;
+
+	@Setup
+	public void setUp() throws IOException {
+		Random random = Fixtures.random();
+		traces = Fixtures.tracesJson(random, size);
+		eventSummary = Fixtures.eventSummaryJson(random, size, 30);
+	}
+
+	@Benchmark
+	public Traces traces() {
+		return gson.fromJson(new StringReader(traces), Traces.class);
+	}
+
+	@Benchmark
+	public EventSummaryResponse eventSummary() {
+		return gson.fromJson(new StringReader(eventSummary), EventSummaryResponse.class);
+	}
+
+}
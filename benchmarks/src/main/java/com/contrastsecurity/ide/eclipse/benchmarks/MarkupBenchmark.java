@@ -0,0 +1,75 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Contrast Security.
+ * All rights reserved. 
+ * 
+ * This program and the accompanying materials are made available under 
+ * the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License.
+ * 
+ * The terms of the GNU GPL version 3 which accompanies this distribution
+ * and is available at https://www.gnu.org/licenses/gpl-3.0.en.html
+ * 
+ * Contributors:
+ *     Contrast Security - initial API and implementation
+ *******************************************************************************/
+package com.contrastsecurity.ide.eclipse.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.contrastsecurity.ide.eclipse.ui.util.MarkupUtils;
+
+/**
+ * Markup stripping of event snippets (what
+ * ContrastUIActivator.removeHtmlMarkup delegates to) and of the overview and
+ * recommendation tabs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = { "-Xms512m", "-Xmx512m" })
+public class MarkupBenchmark {
+
+	@Param({ "1", "20" })
+	int paragraphs;
+
+	private String html;
+	private String mustache;
+
+	@Setup
+	public void setUp() {
+		Random random = Fixtures.random();
+		html = Fixtures.htmlMarkup(random, paragraphs);
+		mustache = Fixtures.mustacheText(random, paragraphs);
+	}
+
+	@Benchmark
+	public String removeHtmlMarkup() {
+		return MarkupUtils.removeHtmlMarkup(html);
+	}
+
+	@Benchmark
+	public String parseOverviewMustache() {
+		return MarkupUtils.parseOverviewMustache(mustache);
+	}
+
+	@Benchmark
+	public String parseRecommendationMustache() {
+		return MarkupUtils.parseRecommendationMustache(mustache);
+	}
+
+}
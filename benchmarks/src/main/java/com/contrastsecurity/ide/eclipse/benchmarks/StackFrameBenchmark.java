@@ -0,0 +1,87 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Contrast Security.
+ * All rights reserved. 
+ * 
+ * This program and the accompanying materials are made available under 
+ * the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License.
+ * 
+ * The terms of the GNU GPL version 3 which accompanies this distribution
+ * and is available at https://www.gnu.org/licenses/gpl-3.0.en.html
+ * 
+ * Contributors:
+ *     Contrast Security - initial API and implementation
+ *******************************************************************************/
+package com.contrastsecurity.ide.eclipse.benchmarks;
+
+import java.lang.reflect.Field;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.core.runtime.CoreException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.contrastsecurity.ide.eclipse.ui.util.StackFrameUtils;
+
+/**
+ * Stack frame parsing done when a frame of the events tab is opened.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = { "-Xms512m", "-Xmx512m" })
+public class StackFrameBenchmark {
+
+	private static final int FRAMES = 256;
+
+	private String[] frames;
+
+	@Setup
+	public void setUp() throws ReflectiveOperationException {
+		// JDT reads the Java-like extensions from the content type registry,
+		// which only exists in a running platform
+		Field extensions = Class.forName("org.eclipse.jdt.internal.core.util.Util")
+				.getDeclaredField("JAVA_LIKE_EXTENSIONS");
+		extensions.setAccessible(true);
+		extensions.set(null, new char[][] { "java".toCharArray() });
+
+		Random random = Fixtures.random();
+		frames = new String[FRAMES];
+		for (int i = 0; i < FRAMES; i++) {
+			frames[i] = Fixtures.stackFrame(random);
+		}
+	}
+
+	/**
+	 * Operation: all {@value #FRAMES} frames.
+	 */
+	@Benchmark
+	public void getTypeName(Blackhole blackhole) throws CoreException {
+		for (String frame : frames) {
+			blackhole.consume(StackFrameUtils.getTypeName(frame));
+		}
+	}
+
+	/**
+	 * Operation: all {@value #FRAMES} frames.
+	 */
+	@Benchmark
+	public void getLineNumber(Blackhole blackhole) throws CoreException {
+		for (String frame : frames) {
+			blackhole.consume(StackFrameUtils.getLineNumber(frame));
+		}
+	}
+
+}
@@ -0,0 +1,79 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Contrast Security.
+ * All rights reserved. 
+ * 
+ * This program and the accompanying materials are made available under 
+ * the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License.
+ * 
+ * The terms of the GNU GPL version 3 which accompanies this distribution
+ * and is available at https://www.gnu.org/licenses/gpl-3.0.en.html
+ * 
+ * Contributors:
+ *     Contrast Security - initial API and implementation
+ *******************************************************************************/
+package com.contrastsecurity.ide.eclipse.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.contrastsecurity.ide.eclipse.core.Util;
+
+/**
+ * String helpers of {@link Util} used for the HTTP request tab and the stored
+ * organization list.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = { "-Xms512m", "-Xmx512m" })
+public class UtilBenchmark {
+
+	@Param({ "10", "100" })
+	int size;
+
+	private String httpRequest;
+	private String list;
+	private String[] array;
+
+	@Setup
+	public void setUp() {
+		Random random = Fixtures.random();
+		httpRequest = Fixtures.httpRequest(random, size);
+		array = new String[size];
+		for (int i = 0; i < size; i++) {
+			array[i] = "organization-" + random.nextInt(100000) + ":" + Long.toHexString(random.nextLong());
+		}
+		list = Util.getStringFromList(array);
+	}
+
+	@Benchmark
+	public String filterHeaders() {
+		return Util.filterHeaders(httpRequest, "\n");
+	}
+
+	@Benchmark
+	public String[] getListFromString() {
+		return Util.getListFromString(list);
+	}
+
+	@Benchmark
+	public String getStringFromList() {
+		return Util.getStringFromList(array);
+	}
+
+}
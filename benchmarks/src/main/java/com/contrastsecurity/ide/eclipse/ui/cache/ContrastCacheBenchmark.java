@@ -0,0 +1,149 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Contrast Security.
+ * All rights reserved. 
+ * 
+ * This program and the accompanying materials are made available under 
+ * the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License.
+ * 
+ * The terms of the GNU GPL version 3 which accompanies this distribution
+ * and is available at https://www.gnu.org/licenses/gpl-3.0.en.html
+ * 
+ * Contributors:
+ *     Contrast Security - initial API and implementation
+ *******************************************************************************/
+package com.contrastsecurity.ide.eclipse.ui.cache;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.contrastsecurity.exceptions.UnauthorizedException;
+import com.contrastsecurity.models.StoryResponse;
+import com.contrastsecurity.models.TagsResponse;
+import com.google.gson.Gson;
+
+/**
+ * {@link ContrastCache} under contention, without its disk tier. Lives in the
+ * cache package to create a memory-only cache with a fixed budget.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = { "-Xms1g", "-Xmx1g" })
+public class ContrastCacheBenchmark {
+
+	private static final long MEGABYTE = 1024 * 1024;
+	private static final int KEYS = 4096;
+
+	/**
+	 * Memory budget in megabytes. The small one cannot hold all stories, so
+	 * the cache keeps evicting.
+	 */
+	@Param({ "1", "64" })
+	int budget;
+
+	private ContrastCache cache;
+	private Key[] keys;
+	private StoryResponse story;
+	private TagsResponse tags;
+	private CacheLoader<StoryResponse> storyLoader;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		cache = new ContrastCache(budget * MEGABYTE, null);
+		Random random = new Random(KEYS);
+		keys = new Key[KEYS];
+		for (int i = 0; i < KEYS; i++) {
+			keys[i] = new Key("org-" + (i % 4), Long.toHexString(random.nextLong()));
+		}
+		story = new Gson().fromJson("{\"success\":true,\"story\":{\"traceId\":\"t\",\"chapters\":["
+				+ "{\"type\":\"location\",\"introText\":\"" + repeat("The request parameter reaches the query. ", 50)
+				+ "\",\"body\":\"" + repeat("SELECT * FROM accounts WHERE id = ", 50) + "\"}]}}", StoryResponse.class);
+		tags = new Gson().fromJson("{\"success\":true,\"tags\":[\"reviewed\",\"sprint-42\",\"false-positive\"]}",
+				TagsResponse.class);
+		storyLoader = new CacheLoader<StoryResponse>() {
+
+			@Override
+			public StoryResponse load(Key key) throws IOException, UnauthorizedException {
+				return story;
+			}
+		};
+		for (Key key : keys) {
+			cache.getStoryResources().put(key, story);
+			cache.getTagsResources().put(key, tags);
+		}
+	}
+
+	@State(Scope.Thread)
+	public static class ThreadKeys {
+
+		private int next;
+
+		@Setup(Level.Trial)
+		public void setUp() {
+			next = (int) Thread.currentThread().getId();
+		}
+
+		Key next(Key[] keys) {
+			next = next * 1103515245 + 12345;
+			return keys[(next >>> 8) % keys.length];
+		}
+	}
+
+	@Benchmark
+	@Threads(4)
+	public StoryResponse get(ThreadKeys threadKeys) {
+		return cache.getStoryResources().get(threadKeys.next(keys));
+	}
+
+	/**
+	 * Misses on evicted keys go through the single-flight load.
+	 */
+	@Benchmark
+	@Threads(4)
+	public StoryResponse getOrLoad(ThreadKeys threadKeys) throws IOException, UnauthorizedException {
+		return cache.getStoryResources().get(threadKeys.next(keys), storyLoader);
+	}
+
+	@Benchmark
+	@Group("readWrite")
+	@GroupThreads(3)
+	public TagsResponse readWriteGet(ThreadKeys threadKeys) {
+		return cache.getTagsResources().get(threadKeys.next(keys));
+	}
+
+	@Benchmark
+	@Group("readWrite")
+	@GroupThreads(1)
+	public void readWritePut(ThreadKeys threadKeys) {
+		cache.getStoryResources().put(threadKeys.next(keys), story);
+	}
+
+	private static String repeat(String text, int times) {
+		StringBuilder builder = new StringBuilder(text.length() * times);
+		for (int i = 0; i < times; i++) {
+			builder.append(text);
+		}
+		return builder.toString();
+	}
+
+}
@@ -5,11 +5,15 @@ import org.junit.runners.Suite;
 import org.junit.runners.Suite.SuiteClasses;
 
 import com.contrastsecurity.ide.eclipse.core.unit.ContrastCoreActivatorTest;
+import com.contrastsecurity.ide.eclipse.core.unit.ContrastServiceTest;
+import com.contrastsecurity.ide.eclipse.core.unit.PooledHttpTransportTest;
 import com.contrastsecurity.ide.eclipse.core.unit.UtilTest;
 
 @RunWith(Suite.class)
 @SuiteClasses({
 	ContrastCoreActivatorTest.class,
+	ContrastServiceTest.class,
+	PooledHttpTransportTest.class,
 	UtilTest.class
 })
 public class UnitTestSuite {
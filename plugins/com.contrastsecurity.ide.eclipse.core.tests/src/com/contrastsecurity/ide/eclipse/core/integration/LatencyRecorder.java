@@ -0,0 +1,85 @@
+package com.contrastsecurity.ide.eclipse.core.integration;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects the latencies of named operations and reports their percentiles.
+ * Safe to use from several threads.
+ */
+public class LatencyRecorder {
+
+	private final Map<String, List<Long>> samples = new LinkedHashMap<>();
+	private final Map<String, Integer> failures = new LinkedHashMap<>();
+
+	/**
+	 * @param nanos
+	 *            Duration of the operation as measured with
+	 *            {@link System#nanoTime()}.
+	 */
+	public synchronized void record(String operation, long nanos) {
+		List<Long> operationSamples = samples.get(operation);
+		if (operationSamples == null) {
+			operationSamples = new ArrayList<>();
+			samples.put(operation, operationSamples);
+		}
+		operationSamples.add(nanos);
+	}
+
+	public synchronized void recordFailure(String operation) {
+		Integer count = failures.get(operation);
+		failures.put(operation, count == null ? 1 : count + 1);
+	}
+
+	public synchronized int getCount(String operation) {
+		List<Long> operationSamples = samples.get(operation);
+		return operationSamples == null ? 0 : operationSamples.size();
+	}
+
+	public synchronized int getFailureCount(String operation) {
+		Integer count = failures.get(operation);
+		return count == null ? 0 : count;
+	}
+
+	/**
+	 * @param percentile
+	 *            Percentile between 0 and 100.
+	 * @return The latency in milliseconds below which the given percentage of
+	 *         the samples lie, using the nearest rank.
+	 */
+	public synchronized double getPercentile(String operation, double percentile) {
+		List<Long> operationSamples = samples.get(operation);
+		if (operationSamples == null || operationSamples.isEmpty()) {
+			return 0;
+		}
+		List<Long> sorted = new ArrayList<>(operationSamples);
+		Collections.sort(sorted);
+		int rank = (int) Math.ceil(percentile / 100 * sorted.size());
+		return toMillis(sorted.get(Math.max(0, rank - 1)));
+	}
+
+	public synchronized String report(String title) {
+		StringBuilder report = new StringBuilder(title).append('\n');
+		report.append(String.format("  %-22s %7s %7s %9s %9s %9s%n", "operation", "count", "failed", "p50 ms", "p99 ms",
+				"max ms"));
+		for (String operation : samples.keySet()) {
+			report.append(String.format("  %-22s %7d %7d %9.1f %9.1f %9.1f%n", operation, getCount(operation),
+					getFailureCount(operation), getPercentile(operation, 50), getPercentile(operation, 99),
+					getPercentile(operation, 100)));
+		}
+		for (String operation : failures.keySet()) {
+			if (!samples.containsKey(operation)) {
+				report.append(String.format("  %-22s %7d %7d%n", operation, 0, getFailureCount(operation)));
+			}
+		}
+		return report.toString();
+	}
+
+	private static double toMillis(long nanos) {
+		return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+	}
+}
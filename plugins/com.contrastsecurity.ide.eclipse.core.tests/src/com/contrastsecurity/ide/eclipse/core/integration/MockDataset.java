@@ -0,0 +1,398 @@
+package com.contrastsecurity.ide.eclipse.core.integration;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+/**
+ * Synthetic organization served by {@link MockTeamServer}. Traces are spread
+ * evenly over the applications and servers and only their varying attributes
+ * are kept, the JSON payloads are rendered on request. The same seed always
+ * produces the same data.
+ */
+public class MockDataset {
+
+	public static final String ORGANIZATION_UUID = "mock-organization";
+
+	private static final String[] SEVERITIES = { "Note", "Low", "Medium", "High", "Critical" };
+	private static final String[] STATUSES = { "Reported", "Suspicious", "Confirmed", "Remediated", "Fixed" };
+	private static final String[] RULES = { "sql-injection", "cmd-injection", "reflected-xss", "path-traversal",
+			"crypto-bad-mac", "crypto-weak-randomness", "unsafe-readline", "trust-boundary-violation" };
+	private static final String[] TITLES = { "SQL Injection", "Command Injection", "Cross-Site Scripting",
+			"Path Traversal", "Insecure Hash Algorithms", "Insecure Randomness", "Unsafe Readline",
+			"Trust Boundary Violation" };
+	private static final long DAY = 24 * 60 * 60 * 1000L;
+
+	private final int applicationCount;
+	private final int serverCount;
+	private final byte[] severities;
+	private final byte[] statuses;
+	private final byte[] rules;
+	private final long[] lastTimeSeen;
+	private final long created;
+
+	public MockDataset(int traceCount, int applicationCount, int serverCount, long seed) {
+		this.applicationCount = Math.max(1, applicationCount);
+		this.serverCount = Math.max(1, serverCount);
+		this.severities = new byte[traceCount];
+		this.statuses = new byte[traceCount];
+		this.rules = new byte[traceCount];
+		this.lastTimeSeen = new long[traceCount];
+		this.created = System.currentTimeMillis();
+
+		Random random = new Random(seed);
+		for (int i = 0; i < traceCount; i++) {
+			severities[i] = (byte) random.nextInt(SEVERITIES.length);
+			statuses[i] = (byte) random.nextInt(STATUSES.length);
+			rules[i] = (byte) random.nextInt(RULES.length);
+			lastTimeSeen[i] = created - (long) (random.nextDouble() * 90 * DAY);
+		}
+	}
+
+	public int getTraceCount() {
+		return lastTimeSeen.length;
+	}
+
+	public int getApplicationCount() {
+		return applicationCount;
+	}
+
+	public int getServerCount() {
+		return serverCount;
+	}
+
+	public String getTraceUuid(int index) {
+		return String.format("mock-trace-%08d", index);
+	}
+
+	public String getApplicationId(int index) {
+		return String.format("mock-application-%05d", index);
+	}
+
+	public long getServerId(int index) {
+		return index + 1;
+	}
+
+	/**
+	 * @return The index of the trace with the given UUID, -1 if there is none.
+	 */
+	public int getTraceIndex(String uuid) {
+		String prefix = "mock-trace-";
+		if (uuid == null || !uuid.startsWith(prefix)) {
+			return -1;
+		}
+		try {
+			int index = Integer.parseInt(uuid.substring(prefix.length()));
+			return index < getTraceCount() ? index : -1;
+		} catch (NumberFormatException e) {
+			return -1;
+		}
+	}
+
+	/**
+	 * Marks the trace as seen now, so that the next delta refresh returns it.
+	 */
+	public void touch(int index) {
+		lastTimeSeen[index] = System.currentTimeMillis();
+	}
+
+	//====================  Queries  ====================
+
+	/**
+	 * Returns the indexes of the traces matching the filters supported by
+	 * Team Server's trace filter endpoints, in the requested order.
+	 *
+	 * @param applicationIndex
+	 *            Index of the application the traces belong to, -1 for every
+	 *            application.
+	 */
+	public List<Integer> findTraces(int applicationIndex, TraceQuery query) {
+		List<Integer> result = new ArrayList<>();
+		int first = applicationIndex < 0 ? 0 : applicationIndex;
+		int step = applicationIndex < 0 ? 1 : applicationCount;
+		for (int i = first; i < getTraceCount(); i += step) {
+			if (query.matches(this, i)) {
+				result.add(i);
+			}
+		}
+		Comparator<Integer> comparator = getComparator(query.sort);
+		if (comparator != null) {
+			Collections.sort(result, comparator);
+		}
+		return result;
+	}
+
+	private Comparator<Integer> getComparator(String sort) {
+		if (sort == null || sort.isEmpty()) {
+			return null;
+		}
+		final boolean descending = sort.startsWith("-");
+		String field = descending ? sort.substring(1) : sort;
+		final Comparator<Integer> comparator;
+		if ("severity".equals(field)) {
+			comparator = new Comparator<Integer>() {
+
+				@Override
+				public int compare(Integer left, Integer right) {
+					return Integer.compare(severities[left], severities[right]);
+				}
+			};
+		} else if ("title".equals(field)) {
+			comparator = new Comparator<Integer>() {
+
+				@Override
+				public int compare(Integer left, Integer right) {
+					return TITLES[rules[left]].compareTo(TITLES[rules[right]]);
+				}
+			};
+		} else if ("lastTimeSeen".equals(field)) {
+			comparator = new Comparator<Integer>() {
+
+				@Override
+				public int compare(Integer left, Integer right) {
+					return Long.compare(lastTimeSeen[left], lastTimeSeen[right]);
+				}
+			};
+		} else {
+			return null;
+		}
+		return descending ? Collections.reverseOrder(comparator) : comparator;
+	}
+
+	/**
+	 * Trace filters parsed from the query string of a request.
+	 */
+	public static class TraceQuery {
+		Set<String> severities;
+		Set<String> statuses;
+		Set<Long> serverIds;
+		Long startDate;
+		Long endDate;
+		String sort;
+		int offset;
+		int limit = 20;
+		boolean expandApplication;
+
+		boolean matches(MockDataset dataset, int index) {
+			if (severities != null && !severities.contains(SEVERITIES[dataset.severities[index]].toUpperCase())) {
+				return false;
+			}
+			if (statuses != null && !statuses.contains(STATUSES[dataset.statuses[index]].toUpperCase())) {
+				return false;
+			}
+			if (serverIds != null && !serverIds.contains(dataset.getServerId(index % dataset.serverCount))) {
+				return false;
+			}
+			long seen = dataset.lastTimeSeen[index];
+			if (startDate != null && seen < startDate) {
+				return false;
+			}
+			if (endDate != null && seen > endDate) {
+				return false;
+			}
+			return true;
+		}
+
+		static Set<String> toUpperCase(Collection<String> values) {
+			Set<String> result = new HashSet<>();
+			for (String value : values) {
+				result.add(value.toUpperCase());
+			}
+			return result;
+		}
+	}
+
+	//====================  Payloads  ====================
+
+	public JsonObject getTraces(List<Integer> indexes, TraceQuery query) {
+		JsonArray traces = new JsonArray();
+		int end = Math.min(indexes.size(), query.offset + query.limit);
+		for (int i = query.offset; i < end; i++) {
+			traces.add(getTrace(indexes.get(i), query.expandApplication));
+		}
+		JsonObject response = success();
+		response.add("traces", traces);
+		response.addProperty("count", indexes.size());
+		return response;
+	}
+
+	public JsonObject getTrace(int index, boolean expandApplication) {
+		int applicationIndex = index % applicationCount;
+		JsonObject trace = new JsonObject();
+		trace.addProperty("uuid", getTraceUuid(index));
+		trace.addProperty("title", TITLES[rules[index]] + " from \"param" + index % 97 + "\" Parameter on \"/endpoint/"
+				+ index % 1009 + "\" page");
+		trace.addProperty("rule_name", RULES[rules[index]]);
+		trace.addProperty("severity", SEVERITIES[severities[index]]);
+		trace.addProperty("status", STATUSES[statuses[index]]);
+		trace.addProperty("language", "Java");
+		trace.addProperty("platform", "Java");
+		trace.addProperty("category", "Injection");
+		trace.addProperty("likelihood", "Medium");
+		trace.addProperty("impact", "High");
+		trace.addProperty("confidence", "High");
+		trace.addProperty("hash", Integer.toHexString(index * 31 + rules[index]));
+		trace.addProperty("first_time_seen", lastTimeSeen[index] - 7 * DAY);
+		trace.addProperty("last_time_seen", lastTimeSeen[index]);
+		trace.addProperty("total_traces_received", 1 + index % 50);
+		trace.addProperty("visible", true);
+		if (expandApplication) {
+			trace.add("application", getApplication(applicationIndex));
+		}
+		JsonArray servers = new JsonArray();
+		servers.add(getServer(index % serverCount));
+		trace.add("servers", servers);
+		return trace;
+	}
+
+	public JsonObject getApplications() {
+		JsonArray applications = new JsonArray();
+		for (int i = 0; i < applicationCount; i++) {
+			applications.add(getApplication(i));
+		}
+		JsonObject response = success();
+		response.add("applications", applications);
+		response.addProperty("count", applicationCount);
+		return response;
+	}
+
+	private JsonObject getApplication(int index) {
+		JsonObject application = new JsonObject();
+		application.addProperty("app_id", getApplicationId(index));
+		application.addProperty("name", "Application " + index);
+		application.addProperty("short_name", "app" + index);
+		application.addProperty("language", "Java");
+		application.addProperty("path", "/app" + index);
+		application.addProperty("status", "online");
+		application.addProperty("importance", 2);
+		application.addProperty("created", created - 365 * DAY);
+		application.addProperty("last_seen", created);
+		return application;
+	}
+
+	public JsonObject getServers() {
+		JsonArray servers = new JsonArray();
+		for (int i = 0; i < serverCount; i++) {
+			servers.add(getServer(i));
+		}
+		JsonObject response = success();
+		response.add("servers", servers);
+		return response;
+	}
+
+	private JsonObject getServer(int index) {
+		JsonObject server = new JsonObject();
+		server.addProperty("server_id", getServerId(index));
+		server.addProperty("name", "server-" + index);
+		server.addProperty("hostname", "server-" + index + ".mock");
+		server.addProperty("path", "/opt/server-" + index);
+		server.addProperty("status", "online");
+		server.addProperty("type", "Tomcat");
+		server.addProperty("environment", index % 3 == 0 ? "PRODUCTION" : "DEVELOPMENT");
+		server.addProperty("agent_version", "3.7.0");
+		server.addProperty("num_apps", (applicationCount + serverCount - 1) / serverCount);
+		server.addProperty("last_activity", created);
+		return server;
+	}
+
+	public JsonObject getStory(int index) {
+		JsonArray chapters = new JsonArray();
+		String[] types = { "source", "propagation", "location", "configuration" };
+		for (String type : types) {
+			JsonObject chapter = new JsonObject();
+			chapter.addProperty("type", type);
+			chapter.addProperty("introText", "The {{#code}}" + type + "{{/code}} of the vulnerability.");
+			chapter.addProperty("body", "request.getParameter(\"param" + index % 97 + "\")");
+			chapters.add(chapter);
+		}
+		JsonObject risk = new JsonObject();
+		risk.addProperty("text", "An attacker could exploit " + TITLES[rules[index]] + ".");
+		risk.addProperty("formattedText", risk.get("text").getAsString());
+
+		JsonObject story = new JsonObject();
+		story.addProperty("traceId", getTraceUuid(index));
+		story.add("chapters", chapters);
+		story.add("risk", risk);
+
+		JsonObject response = success();
+		response.add("story", story);
+		return response;
+	}
+
+	public JsonObject getEventSummary(int index) {
+		JsonArray events = new JsonArray();
+		int count = 3 + index % 10;
+		for (int i = 0; i < count; i++) {
+			JsonObject event = new JsonObject();
+			event.addProperty("id", Integer.toString(index * 16 + i));
+			event.addProperty("type", i == 0 ? "Creation" : i == count - 1 ? "Trigger" : "P2O");
+			event.addProperty("description", "com.acme.Service" + i % 7 + ".handle(java.lang.String)");
+			event.addProperty("important", i == 0 || i == count - 1);
+			event.addProperty("dupes", 0);
+			event.add("collapsedEvents", new JsonArray());
+			events.add(event);
+		}
+		JsonObject response = success();
+		response.addProperty("risk", "High");
+		response.addProperty("showEvidence", false);
+		response.addProperty("showEvents", true);
+		response.add("events", events);
+		return response;
+	}
+
+	public JsonObject getHttpRequest(int index) {
+		JsonObject httpRequest = new JsonObject();
+		httpRequest.addProperty("protocol", "http");
+		httpRequest.addProperty("method", "GET");
+		httpRequest.addProperty("port", 8080);
+		httpRequest.addProperty("uri", "/endpoint/" + index % 1009);
+		httpRequest.addProperty("query_string", "param" + index % 97 + "=value");
+		httpRequest.addProperty("text", "GET /endpoint/" + index % 1009 + "?param" + index % 97
+				+ "=value HTTP/1.1\nHost: localhost:8080\n");
+
+		JsonObject response = success();
+		response.add("http_request", httpRequest);
+		return response;
+	}
+
+	public JsonObject getRecommendation(int index) {
+		JsonObject recommendation = new JsonObject();
+		recommendation.addProperty("text", "Validate every input used by " + TITLES[rules[index]] + ".");
+		recommendation.addProperty("formattedText", recommendation.get("text").getAsString());
+
+		JsonObject response = success();
+		response.add("recommendation", recommendation);
+		response.addProperty("cwe", "https://cwe.mitre.org/data/definitions/89.html");
+		response.addProperty("owasp", "https://www.owasp.org/index.php/Top_10_2013-A1-Injection");
+		return response;
+	}
+
+	public JsonObject getTags(int index) {
+		JsonArray tags = new JsonArray();
+		if (index < 0) {
+			tags.add("reviewed");
+			tags.add("false-positive");
+			tags.add("sprint-backlog");
+		} else if (index % 4 == 0) {
+			tags.add("reviewed");
+		}
+		JsonObject response = success();
+		response.add("tags", tags);
+		return response;
+	}
+
+	public static JsonObject success() {
+		JsonObject response = new JsonObject();
+		response.addProperty("success", true);
+		response.add("messages", new JsonArray());
+		return response;
+	}
+}
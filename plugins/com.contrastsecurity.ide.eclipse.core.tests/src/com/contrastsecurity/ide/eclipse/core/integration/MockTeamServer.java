@@ -0,0 +1,530 @@
+package com.contrastsecurity.ide.eclipse.core.integration;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.contrastsecurity.ide.eclipse.core.integration.MockDataset.TraceQuery;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+/**
+ * Minimal HTTP/1.1 stand-in for the Team Server REST API, serving the
+ * {@link MockDataset} on a local port. It answers the requests the plugin
+ * sends (trace listings, servers, applications and the trace details) and
+ * accepts, but ignores, every update. Latency, jitter and the rate of failed
+ * requests can be changed while it is running.
+ * <p>
+ * Built on a plain {@link ServerSocket} so that it runs in the OSGi test
+ * runtime without access to JDK internal packages.
+ */
+public class MockTeamServer {
+
+	public static final String CONTEXT_PATH = "/Contrast/api";
+
+	private static final int KEEP_ALIVE_TIMEOUT = 30000;
+
+	private final MockDataset dataset;
+	private final String apiKey;
+	private final AtomicLong requestCount = new AtomicLong();
+	private final AtomicLong errorCount = new AtomicLong();
+
+	private volatile long latency;
+	private volatile long jitter;
+	private volatile double errorRate;
+
+	private ServerSocket serverSocket;
+	private ExecutorService workers;
+
+	public MockTeamServer(MockDataset dataset, String apiKey) {
+		this.dataset = dataset;
+		this.apiKey = apiKey;
+	}
+
+	/**
+	 * Starts accepting connections on a free port of the loopback interface.
+	 */
+	public synchronized void start() throws IOException {
+		if (serverSocket != null) {
+			return;
+		}
+		serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+		workers = Executors.newCachedThreadPool(new ThreadFactory() {
+
+			private final AtomicInteger count = new AtomicInteger();
+
+			@Override
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "Mock Team Server " + count.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		final ServerSocket socket = serverSocket;
+		workers.execute(new Runnable() {
+
+			@Override
+			public void run() {
+				accept(socket);
+			}
+		});
+	}
+
+	public synchronized void stop() {
+		if (serverSocket == null) {
+			return;
+		}
+		try {
+			serverSocket.close();
+		} catch (IOException e) {
+			// Closing anyway
+		}
+		workers.shutdownNow();
+		try {
+			workers.awaitTermination(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		serverSocket = null;
+		workers = null;
+	}
+
+	/**
+	 * @return The Team Server URL to configure the SDK with.
+	 */
+	public String getUrl() {
+		return "http://" + serverSocket.getInetAddress().getHostAddress() + ":" + serverSocket.getLocalPort()
+				+ CONTEXT_PATH;
+	}
+
+	public MockDataset getDataset() {
+		return dataset;
+	}
+
+	/**
+	 * @param latency
+	 *            Mean time in milliseconds every response is delayed by.
+	 */
+	public void setLatency(long latency) {
+		this.latency = latency;
+	}
+
+	/**
+	 * @param jitter
+	 *            Maximum deviation in milliseconds from the latency, drawn
+	 *            uniformly for every response.
+	 */
+	public void setJitter(long jitter) {
+		this.jitter = jitter;
+	}
+
+	/**
+	 * @param errorRate
+	 *            Share of requests, between 0 and 1, that fail with HTTP 503.
+	 */
+	public void setErrorRate(double errorRate) {
+		this.errorRate = errorRate;
+	}
+
+	public long getRequestCount() {
+		return requestCount.get();
+	}
+
+	public long getErrorCount() {
+		return errorCount.get();
+	}
+
+	public void resetCounts() {
+		requestCount.set(0);
+		errorCount.set(0);
+	}
+
+	//====================  Connections  ====================
+
+	private void accept(ServerSocket socket) {
+		while (!socket.isClosed()) {
+			final Socket connection;
+			try {
+				connection = socket.accept();
+			} catch (IOException e) {
+				return;
+			}
+			try {
+				workers.execute(new Runnable() {
+
+					@Override
+					public void run() {
+						serve(connection);
+					}
+				});
+			} catch (RuntimeException e) {
+				close(connection);
+			}
+		}
+	}
+
+	private void serve(Socket connection) {
+		try {
+			connection.setSoTimeout(KEEP_ALIVE_TIMEOUT);
+			connection.setTcpNoDelay(true);
+			InputStream in = new BufferedInputStream(connection.getInputStream());
+			OutputStream out = connection.getOutputStream();
+			Request request;
+			while ((request = Request.read(in)) != null) {
+				Response response = handle(request);
+				response.write(out);
+				if (request.isClose()) {
+					break;
+				}
+			}
+		} catch (SocketTimeoutException | SocketException e) {
+			// Idle keep-alive connection or client went away
+		} catch (IOException e) {
+			e.printStackTrace();
+		} finally {
+			close(connection);
+		}
+	}
+
+	private static void close(Socket connection) {
+		try {
+			connection.close();
+		} catch (IOException e) {
+			// Nothing left to release
+		}
+	}
+
+	//====================  Routing  ====================
+
+	private Response handle(Request request) {
+		requestCount.incrementAndGet();
+		delay();
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		if (errorRate > 0 && random.nextDouble() < errorRate) {
+			errorCount.incrementAndGet();
+			return new Response(503, error("Service temporarily unavailable"));
+		}
+		if (apiKey != null && !apiKey.equals(request.headers.get("api-key"))) {
+			return new Response(401, error("Unauthorized"));
+		}
+		if (!request.path.startsWith(CONTEXT_PATH + "/ng/")) {
+			return new Response(404, error("Not found"));
+		}
+		String[] segments = request.path.substring(CONTEXT_PATH.length() + 4).split("/");
+		if ("profile".equals(segments[0])) {
+			return new Response(200, getOrganizations(segments.length > 2));
+		}
+		if (!MockDataset.ORGANIZATION_UUID.equals(segments[0])) {
+			return new Response(403, error("Organization not found"));
+		}
+		if (!"GET".equals(request.method)) {
+			return new Response(200, MockDataset.success());
+		}
+		String resource = segments.length > 1 ? segments[1] : "";
+		if ("orgtraces".equals(resource) && segments.length > 2 && "filter".equals(segments[2])) {
+			return segments.length > 3 ? getTrace(segments[3]) : getTraces(-1, request);
+		}
+		if ("applications".equals(resource)) {
+			return new Response(200, dataset.getApplications());
+		}
+		if ("servers".equals(resource)) {
+			return new Response(200, dataset.getServers());
+		}
+		if ("tags".equals(resource)) {
+			int index = segments.length > 4 ? dataset.getTraceIndex(segments[4]) : -1;
+			return new Response(200, dataset.getTags(index));
+		}
+		if ("traces".equals(resource) && segments.length > 3) {
+			return getTraceResource(segments, request);
+		}
+		return new Response(404, error("Not found"));
+	}
+
+	private Response getTraceResource(String[] segments, Request request) {
+		if ("filter".equals(segments[3])) {
+			int applicationIndex = getApplicationIndex(segments[2]);
+			if (applicationIndex < 0) {
+				return new Response(404, error("Application not found"));
+			}
+			return getTraces(applicationIndex, request);
+		}
+		int index = dataset.getTraceIndex(segments[2]);
+		if (index < 0) {
+			return new Response(404, error("Trace not found"));
+		}
+		String detail = segments[3];
+		if ("story".equals(detail)) {
+			return new Response(200, dataset.getStory(index));
+		}
+		if ("events".equals(detail)) {
+			return new Response(200, dataset.getEventSummary(index));
+		}
+		if ("httprequest".equals(detail)) {
+			return new Response(200, dataset.getHttpRequest(index));
+		}
+		if ("recommendation".equals(detail)) {
+			return new Response(200, dataset.getRecommendation(index));
+		}
+		return new Response(404, error("Not found"));
+	}
+
+	private int getApplicationIndex(String applicationId) {
+		for (int i = 0; i < dataset.getApplicationCount(); i++) {
+			if (dataset.getApplicationId(i).equals(applicationId)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private Response getTraces(int applicationIndex, Request request) {
+		TraceQuery query = new TraceQuery();
+		for (Map.Entry<String, String> parameter : request.parameters.entrySet()) {
+			String value = parameter.getValue();
+			if (value.isEmpty()) {
+				continue;
+			}
+			List<String> values = Arrays.asList(value.split(","));
+			switch (parameter.getKey()) {
+			case "severities":
+				query.severities = TraceQuery.toUpperCase(values);
+				break;
+			case "status":
+				query.statuses = TraceQuery.toUpperCase(values);
+				break;
+			case "servers":
+				query.serverIds = new HashSet<>();
+				for (String serverId : values) {
+					query.serverIds.add(Long.valueOf(serverId));
+				}
+				break;
+			case "startDate":
+				query.startDate = Long.valueOf(value);
+				break;
+			case "endDate":
+				query.endDate = Long.valueOf(value);
+				break;
+			case "sort":
+				query.sort = value;
+				break;
+			case "offset":
+				query.offset = Integer.parseInt(value);
+				break;
+			case "limit":
+				query.limit = Integer.parseInt(value);
+				break;
+			case "expand":
+				query.expandApplication = TraceQuery.toUpperCase(values).contains("APPLICATION");
+				break;
+			default:
+				break;
+			}
+		}
+		return new Response(200, dataset.getTraces(dataset.findTraces(applicationIndex, query), query));
+	}
+
+	private Response getTrace(String traceUuid) {
+		int index = dataset.getTraceIndex(traceUuid);
+		if (index < 0) {
+			return new Response(404, error("Trace not found"));
+		}
+		JsonObject response = MockDataset.success();
+		response.add("trace", dataset.getTrace(index, true));
+		return new Response(200, response);
+	}
+
+	private JsonObject getOrganizations(boolean defaultOrganization) {
+		JsonObject organization = new JsonObject();
+		organization.addProperty("organization_uuid", MockDataset.ORGANIZATION_UUID);
+		organization.addProperty("name", "Mock Organization");
+		organization.addProperty("date_format", "MM/dd/yyyy");
+		organization.addProperty("time_format", "hh:mm a");
+		organization.addProperty("timezone", "UTC");
+
+		JsonObject response = MockDataset.success();
+		if (defaultOrganization) {
+			response.add("organization", organization);
+		} else {
+			JsonArray organizations = new JsonArray();
+			organizations.add(organization);
+			response.add("organizations", organizations);
+		}
+		return response;
+	}
+
+	private static JsonObject error(String message) {
+		JsonArray messages = new JsonArray();
+		messages.add(message);
+		JsonObject response = new JsonObject();
+		response.addProperty("success", false);
+		response.add("messages", messages);
+		return response;
+	}
+
+	private void delay() {
+		long millis = latency;
+		if (jitter > 0) {
+			millis += ThreadLocalRandom.current().nextLong(-jitter, jitter + 1);
+		}
+		if (millis <= 0) {
+			return;
+		}
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	//====================  HTTP  ====================
+
+	private static class Request {
+		String method;
+		String path;
+		final Map<String, String> headers = new HashMap<>();
+		final Map<String, String> parameters = new HashMap<>();
+
+		/**
+		 * @return The next request of the connection, or null when the client
+		 *         closed it.
+		 */
+		static Request read(InputStream in) throws IOException {
+			String requestLine = readLine(in);
+			while (requestLine != null && requestLine.isEmpty()) {
+				requestLine = readLine(in);
+			}
+			if (requestLine == null) {
+				return null;
+			}
+			String[] parts = requestLine.split(" ");
+			if (parts.length < 2) {
+				throw new IOException("Malformed request line: " + requestLine);
+			}
+			Request request = new Request();
+			request.method = parts[0];
+			String target = parts[1];
+			int query = target.indexOf('?');
+			request.path = query < 0 ? target : target.substring(0, query);
+			if (query >= 0) {
+				request.parseParameters(target.substring(query + 1));
+			}
+			String header;
+			while ((header = readLine(in)) != null && !header.isEmpty()) {
+				int colon = header.indexOf(':');
+				if (colon > 0) {
+					request.headers.put(header.substring(0, colon).trim().toLowerCase(Locale.ENGLISH),
+							header.substring(colon + 1).trim());
+				}
+			}
+			String contentLength = request.headers.get("content-length");
+			if (contentLength != null) {
+				skip(in, Long.parseLong(contentLength));
+			}
+			return request;
+		}
+
+		boolean isClose() {
+			return "close".equalsIgnoreCase(headers.get("connection"));
+		}
+
+		private void parseParameters(String query) throws IOException {
+			for (String parameter : query.split("&")) {
+				int equals = parameter.indexOf('=');
+				if (equals > 0) {
+					parameters.put(URLDecoder.decode(parameter.substring(0, equals), "UTF-8"),
+							URLDecoder.decode(parameter.substring(equals + 1), "UTF-8"));
+				}
+			}
+		}
+
+		private static String readLine(InputStream in) throws IOException {
+			ByteArrayOutputStream line = new ByteArrayOutputStream();
+			int b;
+			while ((b = in.read()) != -1) {
+				if (b == '\n') {
+					break;
+				}
+				if (b != '\r') {
+					line.write(b);
+				}
+			}
+			if (b == -1 && line.size() == 0) {
+				return null;
+			}
+			return new String(line.toByteArray(), StandardCharsets.ISO_8859_1);
+		}
+
+		private static void skip(InputStream in, long length) throws IOException {
+			while (length > 0) {
+				long skipped = in.skip(length);
+				if (skipped <= 0) {
+					if (in.read() == -1) {
+						throw new IOException("Unexpected end of request body");
+					}
+					skipped = 1;
+				}
+				length -= skipped;
+			}
+		}
+	}
+
+	private static class Response {
+		final int code;
+		final JsonObject body;
+
+		Response(int code, JsonObject body) {
+			this.code = code;
+			this.body = body;
+		}
+
+		void write(OutputStream out) throws IOException {
+			byte[] bytes = body.toString().getBytes(StandardCharsets.UTF_8);
+			String head = "HTTP/1.1 " + code + " " + getReason() + "\r\n"
+					+ "Content-Type: application/json;charset=UTF-8\r\n"
+					+ "Content-Length: " + bytes.length + "\r\n"
+					+ "Connection: keep-alive\r\n\r\n";
+			out.write(head.getBytes(StandardCharsets.ISO_8859_1));
+			out.write(bytes);
+			out.flush();
+		}
+
+		private String getReason() {
+			switch (code) {
+			case 200:
+				return "OK";
+			case 401:
+				return "Unauthorized";
+			case 403:
+				return "Forbidden";
+			case 404:
+				return "Not Found";
+			case 503:
+				return "Service Unavailable";
+			default:
+				return "Error";
+			}
+		}
+	}
+}
@@ -0,0 +1,360 @@
+package com.contrastsecurity.ide.eclipse.core.integration;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TestName;
+
+import com.contrastsecurity.exceptions.UnauthorizedException;
+import com.contrastsecurity.http.ServerFilterForm;
+import com.contrastsecurity.http.TraceFilterForm;
+import com.contrastsecurity.ide.eclipse.core.Constants;
+import com.contrastsecurity.ide.eclipse.core.ContrastCoreActivator;
+import com.contrastsecurity.ide.eclipse.core.Util;
+import com.contrastsecurity.ide.eclipse.core.extended.ExtendedContrastSDK;
+import com.contrastsecurity.models.Applications;
+import com.contrastsecurity.models.EventSummaryResponse;
+import com.contrastsecurity.models.HttpRequestResponse;
+import com.contrastsecurity.models.RecommendationResponse;
+import com.contrastsecurity.models.Servers;
+import com.contrastsecurity.models.StoryResponse;
+import com.contrastsecurity.models.TagsResponse;
+import com.contrastsecurity.models.Trace;
+import com.contrastsecurity.models.Traces;
+
+/**
+ * Load test of the SDK integration against {@link MockTeamServer}. The
+ * requests are the ones the Vulnerabilities view sends when it is refreshed,
+ * scrolled and a trace is opened, and the latency percentiles of every kind of
+ * request are printed after each test.
+ * <p>
+ * The following system properties configure the run:
+ * <ul>
+ * <li>mock.traces, mock.applications, mock.servers - dataset size, 50000
+ * traces across 500 applications and 50 servers by default</li>
+ * <li>mock.latency, mock.jitter - response delay in milliseconds, 20 +/- 10 by
+ * default</li>
+ * <li>mock.errorRate - share of failed requests, 0 by default</li>
+ * <li>loadTest.iterations, loadTest.threads - number of refreshes and opened
+ * traces, and how many run at once</li>
+ * </ul>
+ */
+public class SdkLoadTest {
+
+	private static final String ORGANIZATION_NAME = "mock_org";
+	private static final String API_KEY = "mock-api-key";
+	private static final String ORGANIZATION_UUID = MockDataset.ORGANIZATION_UUID;
+
+	/**
+	 * Page size of the Vulnerabilities view.
+	 */
+	private static final int PAGE_LIMIT = 50;
+	/**
+	 * Pages requested after the first one, as if the table had been scrolled.
+	 */
+	private static final int SCROLLED_PAGES = 4;
+
+	private static MockTeamServer server;
+	private static int iterations;
+	private static int threads;
+	private static double errorRate;
+
+	@Rule
+	public TestName testName = new TestName();
+
+	private ExtendedContrastSDK sdk;
+	private LatencyRecorder recorder;
+
+	@BeforeClass
+	public static void startServer() throws IOException {
+		MockDataset dataset = new MockDataset(Integer.getInteger("mock.traces", 50000),
+				Integer.getInteger("mock.applications", 500), Integer.getInteger("mock.servers", 50), 42);
+		server = new MockTeamServer(dataset, API_KEY);
+		server.setLatency(Long.getLong("mock.latency", 20));
+		server.setJitter(Long.getLong("mock.jitter", 10));
+		errorRate = Double.parseDouble(System.getProperty("mock.errorRate", "0"));
+		iterations = Integer.getInteger("loadTest.iterations", 20);
+		threads = Integer.getInteger("loadTest.threads", 4);
+		server.start();
+	}
+
+	@AfterClass
+	public static void stopServer() {
+		server.stop();
+	}
+
+	@Before
+	public void init() {
+		ContrastCoreActivator.saveNewOrganization(ORGANIZATION_NAME, server.getUrl(), "mock_user", "mock-service-key",
+				API_KEY, ORGANIZATION_UUID);
+		sdk = ContrastCoreActivator.getContrastSDKByOrganization(ORGANIZATION_NAME);
+		recorder = new LatencyRecorder();
+		server.setErrorRate(errorRate);
+		server.resetCounts();
+	}
+
+	@After
+	public void report() {
+		System.out.println(recorder.report(getClass().getSimpleName() + "." + testName.getMethodName() + " ("
+				+ server.getRequestCount() + " requests, " + server.getErrorCount() + " failed)"));
+	}
+
+	/**
+	 * A full refresh, scrolling through the first pages and an incremental
+	 * refresh, as sent by the Vulnerabilities view. Servers and applications
+	 * are loaded at the same time as the first page, like the filter metadata.
+	 */
+	@Test
+	public void refreshTracesTest() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			for (int i = 0; i < iterations; i++) {
+				Future<Servers> servers = executor.submit(new Callable<Servers>() {
+
+					@Override
+					public Servers call() throws Exception {
+						long start = System.nanoTime();
+						Servers servers = sdk.getServers(ORGANIZATION_UUID, new ServerFilterForm());
+						recorder.record("servers", System.nanoTime() - start);
+						return servers;
+					}
+				});
+				Future<Applications> applications = executor.submit(new Callable<Applications>() {
+
+					@Override
+					public Applications call() throws Exception {
+						long start = System.nanoTime();
+						Applications applications = sdk.getApplications(ORGANIZATION_UUID);
+						recorder.record("applications", System.nanoTime() - start);
+						return applications;
+					}
+				});
+
+				Traces firstPage = getTraces("first page", getPageForm(0));
+				if (firstPage != null) {
+					assertEquals(PAGE_LIMIT, firstPage.getTraces().size());
+					assertEquals(server.getDataset().getTraceCount(), firstPage.getCount().intValue());
+					assertNotNull(firstPage.getTraces().get(0).getApplication());
+				}
+				for (int page = 1; page <= SCROLLED_PAGES; page++) {
+					getTraces("scrolled page", getPageForm(page * PAGE_LIMIT));
+				}
+
+				Set<String> touched = touchTraces(i, 5);
+				TraceFilterForm deltaForm = getPageForm(0);
+				deltaForm.setStartDate(new Date(System.currentTimeMillis() - 60 * 1000));
+				deltaForm.setLimit(Constants.DELTA_REFRESH_LIMIT);
+				Traces delta = getTraces("delta refresh", deltaForm);
+				if (delta != null && delta.getCount() <= Constants.DELTA_REFRESH_LIMIT) {
+					assertTrue(getUuids(delta).containsAll(touched));
+				}
+
+				assertServers(servers);
+				assertApplications(applications);
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Opens random traces and loads every detail resource concurrently, like
+	 * the details page does.
+	 */
+	@Test
+	public void traceDetailsTest() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			Random random = new Random(7);
+			List<Future<?>> requests = new ArrayList<>();
+			for (int i = 0; i < iterations; i++) {
+				final String traceUuid = server.getDataset().getTraceUuid(random.nextInt(server.getDataset().getTraceCount()));
+				requests.add(executor.submit(new DetailsRequest("story") {
+
+					@Override
+					void send() throws IOException, UnauthorizedException {
+						StoryResponse story = sdk.getStory(ORGANIZATION_UUID, traceUuid);
+						assertFalse(story.getStory().getChapters().isEmpty());
+					}
+				}));
+				requests.add(executor.submit(new DetailsRequest("event summary") {
+
+					@Override
+					void send() throws IOException, UnauthorizedException {
+						EventSummaryResponse eventSummary = sdk.getEventSummary(ORGANIZATION_UUID, traceUuid);
+						assertFalse(eventSummary.getEvents().isEmpty());
+					}
+				}));
+				requests.add(executor.submit(new DetailsRequest("http request") {
+
+					@Override
+					void send() throws IOException, UnauthorizedException {
+						HttpRequestResponse httpRequest = sdk.getHttpRequest(ORGANIZATION_UUID, traceUuid);
+						assertNotNull(httpRequest.getHttpRequest().getText());
+					}
+				}));
+				requests.add(executor.submit(new DetailsRequest("recommendation") {
+
+					@Override
+					void send() throws IOException, UnauthorizedException {
+						RecommendationResponse recommendation = sdk.getRecommendation(ORGANIZATION_UUID, traceUuid);
+						assertNotNull(recommendation.getRecommendation().getText());
+					}
+				}));
+				requests.add(executor.submit(new DetailsRequest("status") {
+
+					@Override
+					void send() throws IOException, UnauthorizedException {
+						Trace trace = sdk.getTrace(ORGANIZATION_UUID, traceUuid);
+						assertEquals(traceUuid, trace.getUuid());
+						assertNotNull(trace.getStatus());
+					}
+				}));
+				requests.add(executor.submit(new DetailsRequest("tags") {
+
+					@Override
+					void send() throws IOException, UnauthorizedException {
+						TagsResponse tags = sdk.getTagsByTrace(ORGANIZATION_UUID, traceUuid);
+						assertNotNull(tags.getTags());
+					}
+				}));
+			}
+			for (Future<?> request : requests) {
+				request.get();
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Every failed response surfaces as an exception of the SDK and no request
+	 * is lost or retried silently.
+	 */
+	@Test
+	public void errorRateTest() throws Exception {
+		long latency = Long.getLong("mock.latency", 20);
+		server.setLatency(0);
+		server.setErrorRate(Math.max(errorRate, 0.2));
+		try {
+			int requests = Math.max(iterations, 100);
+			for (int i = 0; i < requests; i++) {
+				getTraces("first page", getPageForm(0));
+			}
+			int failures = recorder.getFailureCount("first page");
+			assertTrue(failures > 0);
+			assertEquals(server.getErrorCount(), failures);
+			assertEquals(requests, recorder.getCount("first page") + failures);
+		} finally {
+			server.setLatency(latency);
+		}
+	}
+
+	private TraceFilterForm getPageForm(int offset) {
+		TraceFilterForm form = Util.getTraceFilterForm(offset, PAGE_LIMIT);
+		form.setSort(Constants.SORT_DESCENDING + Constants.SORT_BY_SEVERITY);
+		form.setExpand(EnumSet.of(TraceFilterForm.TraceExpandValue.APPLICATION));
+		return form;
+	}
+
+	/**
+	 * @return The traces, or null if the request failed with a server error.
+	 */
+	private Traces getTraces(String operation, TraceFilterForm form) throws UnauthorizedException {
+		long start = System.nanoTime();
+		try {
+			Traces traces = sdk.getTracesInOrg(ORGANIZATION_UUID, form);
+			recorder.record(operation, System.nanoTime() - start);
+			return traces;
+		} catch (IOException e) {
+			recorder.recordFailure(operation);
+			return null;
+		}
+	}
+
+	private Set<String> touchTraces(int iteration, int count) {
+		MockDataset dataset = server.getDataset();
+		Set<String> uuids = new HashSet<>();
+		for (int i = 0; i < count; i++) {
+			int index = (iteration * 7919 + i * 104729) % dataset.getTraceCount();
+			dataset.touch(index);
+			uuids.add(dataset.getTraceUuid(index));
+		}
+		return uuids;
+	}
+
+	private static Set<String> getUuids(Traces traces) {
+		Set<String> uuids = new HashSet<>();
+		for (Trace trace : traces.getTraces()) {
+			uuids.add(trace.getUuid());
+		}
+		return uuids;
+	}
+
+	private void assertServers(Future<Servers> servers) throws InterruptedException {
+		try {
+			assertEquals(server.getDataset().getServerCount(), servers.get().getServers().size());
+		} catch (ExecutionException e) {
+			assertTrue(e.getCause() instanceof IOException);
+			recorder.recordFailure("servers");
+		}
+	}
+
+	private void assertApplications(Future<Applications> applications) throws InterruptedException {
+		try {
+			assertEquals(server.getDataset().getApplicationCount(), applications.get().getApplications().size());
+		} catch (ExecutionException e) {
+			assertTrue(e.getCause() instanceof IOException);
+			recorder.recordFailure("applications");
+		}
+	}
+
+	/**
+	 * Sends a single detail request and records its latency. Server errors
+	 * are counted as failures, everything else fails the test.
+	 */
+	private abstract class DetailsRequest implements Callable<Void> {
+
+		private final String operation;
+
+		DetailsRequest(String operation) {
+			this.operation = operation;
+		}
+
+		abstract void send() throws IOException, UnauthorizedException;
+
+		@Override
+		public Void call() throws Exception {
+			long start = System.nanoTime();
+			try {
+				send();
+				recorder.record(operation, System.nanoTime() - start);
+			} catch (IOException e) {
+				recorder.recordFailure(operation);
+			}
+			return null;
+		}
+	}
+}
@@ -11,7 +11,8 @@ import com.contrastsecurity.ide.eclipse.core.internal.preferences.OrganizationCo
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
-import static org.junit.Assert.assertNull;; 
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;; 
 
 public class ContrastCoreActivatorTest {
 	
@@ -85,6 +86,20 @@ public class ContrastCoreActivatorTest {
 		assertEquals(0, ContrastCoreActivator.getOrganizationList().length);
 	}
 	
+	@Test
+	public void organizationConfigCacheTest() {
+		assertTrue(ContrastCoreActivator.saveOrganizationList(new String[0]));
+		assertTrue(ContrastCoreActivator.saveNewOrganization(EXTRA_ORGANIZATION, TEAM_SERVER_URL, USERNAME, 
+				SERVICE_KEY, API_KEY, ORGANIZATION_UUID));
+		OrganizationConfig config = ContrastCoreActivator.getOrganizationConfiguration(EXTRA_ORGANIZATION);
+		assertSame(config, ContrastCoreActivator.getOrganizationConfiguration(EXTRA_ORGANIZATION));
+		
+		ContrastCoreActivator.getPreferences().put(EXTRA_ORGANIZATION,
+				TEAM_SERVER_URL + ";" + USERNAME + ";" + SERVICE_KEY + ";" + API_KEY + ";changedUuid");
+		assertEquals("changedUuid", ContrastCoreActivator.getOrganizationConfiguration(EXTRA_ORGANIZATION).getOrganizationUUIDKey());
+		ContrastCoreActivator.removeOrganization(0);
+	}
+	
 	@Test
 	public void saveAndRetrieveSelectedPrefs() {
 		assertTrue(ContrastCoreActivator.saveSelectedPreferences(EXTRA_ORGANIZATION));
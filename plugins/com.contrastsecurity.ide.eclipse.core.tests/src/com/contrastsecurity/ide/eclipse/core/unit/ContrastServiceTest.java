@@ -0,0 +1,157 @@
+package com.contrastsecurity.ide.eclipse.core.unit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.contrastsecurity.ide.eclipse.core.internal.service.ContrastService;
+
+public class ContrastServiceTest {
+
+	private ContrastService service;
+
+	@Before
+	public void setUp() {
+		service = new ContrastService(2, 5000);
+	}
+
+	@After
+	public void tearDown() {
+		service.shutdown();
+	}
+
+	@Test
+	public void submitTest() throws Exception {
+		CompletableFuture<String> result = service.submit(new Callable<String>() {
+
+			@Override
+			public String call() throws Exception {
+				return "done";
+			}
+		});
+		assertEquals("done", result.get(5, TimeUnit.SECONDS));
+	}
+
+	@Test
+	public void timeoutInterruptsRequestTest() throws Exception {
+		final CountDownLatch interrupted = new CountDownLatch(1);
+		CompletableFuture<String> result = service.submit(new Callable<String>() {
+
+			@Override
+			public String call() throws Exception {
+				try {
+					Thread.sleep(10000);
+				} catch (InterruptedException e) {
+					interrupted.countDown();
+				}
+				return "late";
+			}
+		}, 100, TimeUnit.MILLISECONDS);
+		try {
+			result.get(5, TimeUnit.SECONDS);
+			fail("Request should have timed out");
+		} catch (ExecutionException e) {
+			assertTrue(e.getCause() instanceof TimeoutException);
+		}
+		assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+	}
+
+	@Test
+	public void queuedRequestTimeoutStartsWhenRunTest() throws Exception {
+		final CountDownLatch release = new CountDownLatch(1);
+		Callable<String> blocking = new Callable<String>() {
+
+			@Override
+			public String call() throws Exception {
+				release.await(5, TimeUnit.SECONDS);
+				return "blocking";
+			}
+		};
+		// Both threads are busy, the next request waits in the queue
+		service.submit(blocking, 0, TimeUnit.MILLISECONDS);
+		service.submit(blocking, 0, TimeUnit.MILLISECONDS);
+		CompletableFuture<String> queued = service.submit(new Callable<String>() {
+
+			@Override
+			public String call() throws Exception {
+				return "queued";
+			}
+		}, 200, TimeUnit.MILLISECONDS);
+		Thread.sleep(500);
+		release.countDown();
+		assertEquals("queued", queued.get(5, TimeUnit.SECONDS));
+	}
+
+	@Test
+	public void configureTest() throws Exception {
+		service.configure(3, 100);
+		assertEquals(100, service.getDefaultTimeout());
+		// Only runs to the end with three threads
+		final CountDownLatch running = new CountDownLatch(3);
+		List<CompletableFuture<String>> results = new ArrayList<>();
+		for (int i = 0; i < 3; i++) {
+			results.add(service.submit(new Callable<String>() {
+
+				@Override
+				public String call() throws Exception {
+					running.countDown();
+					running.await(5, TimeUnit.SECONDS);
+					return "parallel";
+				}
+			}, 0, TimeUnit.MILLISECONDS));
+		}
+		for (CompletableFuture<String> result : results) {
+			assertEquals("parallel", result.get(5, TimeUnit.SECONDS));
+		}
+		CompletableFuture<String> slow = service.submit(new Callable<String>() {
+
+			@Override
+			public String call() throws Exception {
+				Thread.sleep(5000);
+				return "late";
+			}
+		});
+		try {
+			slow.get(5, TimeUnit.SECONDS);
+			fail("Request should have timed out with the new default timeout");
+		} catch (ExecutionException e) {
+			assertTrue(e.getCause() instanceof TimeoutException);
+		}
+	}
+
+	@Test
+	public void cancelInterruptsRequestTest() throws Exception {
+		final CountDownLatch started = new CountDownLatch(1);
+		final CountDownLatch interrupted = new CountDownLatch(1);
+		CompletableFuture<String> result = service.submit(new Callable<String>() {
+
+			@Override
+			public String call() throws Exception {
+				started.countDown();
+				try {
+					Thread.sleep(10000);
+				} catch (InterruptedException e) {
+					interrupted.countDown();
+				}
+				return "canceled";
+			}
+		});
+		assertTrue(started.await(5, TimeUnit.SECONDS));
+		result.cancel(true);
+		assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+	}
+
+}
@@ -0,0 +1,259 @@
+package com.contrastsecurity.ide.eclipse.core.unit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.TimeZone;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.contrastsecurity.ide.rest.sdk.transport.ConnectionPoolExhaustedException;
+import com.contrastsecurity.ide.rest.sdk.transport.HttpResponse;
+import com.contrastsecurity.ide.rest.sdk.transport.PooledHttpTransport;
+import com.contrastsecurity.ide.rest.sdk.transport.TooManyRequestsException;
+
+public class PooledHttpTransportTest {
+
+	private StubServer server;
+
+	@Before
+	public void setUp() throws IOException {
+		server = new StubServer();
+	}
+
+	@After
+	public void tearDown() {
+		server.stop();
+	}
+
+	@Test
+	public void queuedCallersCompleteTest() throws Exception {
+		server.delay = 300;
+		// A single connection, each caller waits for the ones in front of it
+		final PooledHttpTransport transport = new PooledHttpTransport(1, 2000);
+		ExecutorService callers = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<Integer>> results = new ArrayList<>();
+			for (int i = 0; i < 4; i++) {
+				results.add(callers.submit(new Callable<Integer>() {
+
+					@Override
+					public Integer call() throws Exception {
+						HttpResponse response = transport.send(server.open(), null);
+						response.getBody().close();
+						return response.getResponseCode();
+					}
+				}));
+			}
+			for (Future<Integer> result : results) {
+				assertEquals(200, (int) result.get(10, TimeUnit.SECONDS));
+			}
+		} finally {
+			callers.shutdownNow();
+		}
+	}
+
+	@Test
+	public void exhaustedPoolFailsTest() throws Exception {
+		PooledHttpTransport transport = new PooledHttpTransport(1, 200);
+		// Never closed, so the only connection is never handed back
+		HttpResponse unclosed = transport.send(server.open(), null);
+		assertEquals(200, unclosed.getResponseCode());
+		try {
+			transport.send(server.open(), null);
+			fail("Request should not have been sent without a connection");
+		} catch (ConnectionPoolExhaustedException e) {
+			// Expected
+		}
+		assertEquals(1, server.requestCount.get());
+		unclosed.getBody().close();
+		transport.send(server.open(), null).getBody().close();
+		assertEquals(2, server.requestCount.get());
+	}
+
+	@Test
+	public void retryAfterSecondsTest() throws Exception {
+		PooledHttpTransport transport = new PooledHttpTransport(1, 2000);
+		server.responseCode = 503;
+		server.headers = "Retry-After: 1\r\n";
+		HttpResponse response = transport.send(server.open(), null);
+		response.getBody().close();
+		assertEquals(1000, response.getRetryAfter());
+		assertThrottled(transport, 1000);
+
+		// Sent again once the delay has passed
+		server.responseCode = 200;
+		server.headers = "";
+		Thread.sleep(1100);
+		transport.send(server.open(), null).getBody().close();
+		assertEquals(2, server.requestCount.get());
+	}
+
+	@Test
+	public void retryAfterDateTest() throws Exception {
+		PooledHttpTransport transport = new PooledHttpTransport(1, 2000);
+		SimpleDateFormat format = new SimpleDateFormat("EEE, dd MMM yyyy HH:mm:ss zzz", Locale.US);
+		format.setTimeZone(TimeZone.getTimeZone("GMT"));
+		server.responseCode = 429;
+		server.headers = "Retry-After: " + format.format(new Date(System.currentTimeMillis() + 30000)) + "\r\n";
+		HttpResponse response = transport.send(server.open(), null);
+		response.getBody().close();
+		// The date is rounded down to the second
+		assertTrue(response.getRetryAfter() > 28000 && response.getRetryAfter() <= 30000);
+		assertThrottled(transport, 30000);
+	}
+
+	@Test
+	public void tooManyRequestsWithoutRetryAfterTest() throws Exception {
+		PooledHttpTransport transport = new PooledHttpTransport(1, 2000);
+		server.responseCode = 429;
+		HttpResponse response = transport.send(server.open(), null);
+		response.getBody().close();
+		assertEquals(60000, response.getRetryAfter());
+		assertThrottled(transport, 60000);
+	}
+
+	@Test
+	public void unavailableWithoutRetryAfterTest() throws Exception {
+		PooledHttpTransport transport = new PooledHttpTransport(1, 2000);
+		server.responseCode = 503;
+		HttpResponse response = transport.send(server.open(), null);
+		response.getBody().close();
+		assertEquals(-1, response.getRetryAfter());
+		// Not throttled, the next request is sent
+		transport.send(server.open(), null).getBody().close();
+		assertEquals(2, server.requestCount.get());
+	}
+
+	/**
+	 * Checks that the next request fails without being sent, asking to wait
+	 * at most the given delay.
+	 */
+	private void assertThrottled(PooledHttpTransport transport, long maxRetryAfter) throws IOException {
+		int requests = server.requestCount.get();
+		try {
+			transport.send(server.open(), null);
+			fail("Request should not have been sent before the retry delay");
+		} catch (TooManyRequestsException e) {
+			assertTrue(e.getRetryAfter() > 0 && e.getRetryAfter() <= maxRetryAfter);
+		}
+		assertEquals(requests, server.requestCount.get());
+	}
+
+	/**
+	 * Answers every request with the configured status code and headers
+	 * after the configured delay.
+	 */
+	private static class StubServer {
+
+		volatile long delay;
+		volatile int responseCode = 200;
+		volatile String headers = "";
+		final AtomicInteger requestCount = new AtomicInteger();
+
+		private final ServerSocket serverSocket;
+		private final ExecutorService workers = Executors.newCachedThreadPool();
+
+		StubServer() throws IOException {
+			serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+			workers.execute(new Runnable() {
+
+				@Override
+				public void run() {
+					while (!serverSocket.isClosed()) {
+						try {
+							final Socket connection = serverSocket.accept();
+							workers.execute(new Runnable() {
+
+								@Override
+								public void run() {
+									serve(connection);
+								}
+							});
+						} catch (IOException e) {
+							return;
+						}
+					}
+				}
+			});
+		}
+
+		HttpURLConnection open() throws IOException {
+			URL url = new URL("http", serverSocket.getInetAddress().getHostAddress(), serverSocket.getLocalPort(),
+					"/Contrast/api/ng/profile");
+			HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+			connection.setConnectTimeout(5000);
+			connection.setReadTimeout(5000);
+			return connection;
+		}
+
+		void stop() {
+			try {
+				serverSocket.close();
+			} catch (IOException e) {
+				// Closing anyway
+			}
+			workers.shutdownNow();
+		}
+
+		private void serve(Socket connection) {
+			try {
+				InputStream in = connection.getInputStream();
+				BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.ISO_8859_1));
+				OutputStream out = connection.getOutputStream();
+				String requestLine;
+				while ((requestLine = reader.readLine()) != null) {
+					if (requestLine.isEmpty()) {
+						continue;
+					}
+					String header;
+					while ((header = reader.readLine()) != null && !header.isEmpty()) {
+						// Only GET requests without a body are sent
+					}
+					requestCount.incrementAndGet();
+					Thread.sleep(delay);
+					byte[] body = "{}".getBytes(StandardCharsets.UTF_8);
+					String head = "HTTP/1.1 " + responseCode + " Stub\r\nContent-Type: application/json\r\n"
+							+ "Content-Length: " + body.length + "\r\n" + headers + "\r\n";
+					out.write(head.getBytes(StandardCharsets.ISO_8859_1));
+					out.write(body);
+					out.flush();
+				}
+			} catch (IOException | InterruptedException e) {
+				// Client went away or server stopped
+			} finally {
+				try {
+					connection.close();
+				} catch (IOException e) {
+					// Nothing left to release
+				}
+			}
+		}
+	}
+
+}
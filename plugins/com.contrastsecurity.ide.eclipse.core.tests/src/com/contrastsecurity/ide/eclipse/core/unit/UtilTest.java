@@ -2,8 +2,14 @@ package com.contrastsecurity.ide.eclipse.core.unit;
 
 import static org.junit.Assert.assertEquals;
 
+import java.util.Date;
+import java.util.EnumSet;
+
 import org.junit.Test;
 
+import com.contrastsecurity.http.RuleSeverity;
+import com.contrastsecurity.http.TraceFilterForm;
+import com.contrastsecurity.ide.eclipse.core.Constants;
 import com.contrastsecurity.ide.eclipse.core.Util;
 
 public class UtilTest {
@@ -47,4 +53,22 @@ public class UtilTest {
 
     }
 
+	@Test
+	public void copyTraceFilterFormTest() {
+		TraceFilterForm form = Util.getTraceFilterForm(7L, 20, 10, Constants.SORT_BY_TITLE);
+		form.setStartDate(new Date(1000));
+		form.setSeverities(EnumSet.of(RuleSeverity.HIGH));
+
+		TraceFilterForm copy = Util.copyTraceFilterForm(form);
+		copy.setOffset(0);
+		copy.setStartDate(new Date(2000));
+
+		assertEquals(form.getServerIds(), copy.getServerIds());
+		assertEquals(form.getSeverities(), copy.getSeverities());
+		assertEquals(form.getSort(), copy.getSort());
+		assertEquals(form.getLimit(), copy.getLimit());
+		assertEquals(20, form.getOffset());
+		assertEquals(1000, form.getStartDate().getTime());
+	}
+
 }
@@ -56,6 +56,17 @@ public interface Constants {
 
 	static final String ORGANIZATION_LIST = "organizationList";
 
+	static final String MAX_CONNECTIONS = "maxConnections";
+	static final String CONNECTION_TIMEOUT = "connectionTimeout";
+	static final String READ_TIMEOUT = "readTimeout";
+	static final int MAX_CONNECTIONS_VALUE = 4;
+	static final int CONNECTION_TIMEOUT_VALUE = 10000;
+	static final int READ_TIMEOUT_VALUE = 5000;
+
+	// memory shared by all regions of the vulnerability details cache, in megabytes
+	static final String CACHE_MEMORY_BUDGET = "cacheMemoryBudget";
+	static final int CACHE_MEMORY_BUDGET_VALUE = 32;
+
 	// #0DA1A9
 	static final Color LINK_COLOR = new Color(Display.getDefault(), 13, 161, 169);
 	// #969494
@@ -65,6 +76,16 @@ public interface Constants {
 
 	static final Color LINK_COLOR_HOVER = Display.getCurrent().getSystemColor(SWT.COLOR_LINK_FOREGROUND);
 	static final int REFRESH_DELAY = 5 * 60 * 1000; // 5 minutes
+	// the refresh delay doubles with every refresh that finds no changes, up to this limit
+	static final int MAX_REFRESH_DELAY = 60 * 60 * 1000; // 1 hour
+	// refresh delay for a while after the user started a build or a launch
+	static final int REFRESH_BOOST_DELAY = 60 * 1000; // 1 minute
+	static final int REFRESH_BOOST_DURATION = 10 * 60 * 1000; // 10 minutes
+	// traces last detected this long before the previous sync are fetched again by a delta refresh
+	static final int DELTA_REFRESH_OVERLAP = 60 * 1000; // 1 minute
+	static final int DELTA_REFRESH_LIMIT = 100;
+	// rows after an opened trace whose details are prefetched, the row before it is prefetched too
+	static final int DETAILS_PREFETCH_ROWS = 2;
 	static final Font SEVERITY_FONT = JFaceResources.getHeaderFont();
 	// green - #aecd43 (r=174, g=205, b=67)
 	// yellow - #f7b600 (r=247, g=182, b=0)
@@ -138,8 +159,6 @@ public interface Constants {
 	static final String	EC = "EC";
 	static final String	OT= "OT";
 
-	static final String CURRENT_OFFSET = "currentOffset";
-
 	public static final String LINK_DELIM = "$$LINK_DELIM$$";
 
 	public static final String OPEN_TAG_PARAGRAPH = "{{#paragraph}}";
@@ -205,17 +224,5 @@ public interface Constants {
 	public static final String OPEN_TAG_TABLE_ROW = "{{#tableRow}}";
 	public static final String CLOSE_TAG_TABLE_ROW = "{{/tableRow}}";
 
-	public static final String[] MUSTACHE_CONSTANTS = { OPEN_TAG_CODE, CLOSE_TAG_CODE, OPEN_TAG_P, CLOSE_TAG_P,
-			OPEN_TAG_PARAGRAPH, CLOSE_TAG_PARAGRAPH, OPEN_TAG_LINK, CLOSE_TAG_LINK, OPEN_TAG_HEADER, CLOSE_TAG_HEADER,
-			LINK_TAG_1, LINK_TAG_2, MUSTACHE_NL, OPEN_TAG_UNORDERED_LIST, CLOSE_TAG_UNORDERED_LIST,
-			OPEN_TAG_LIST_ELEMENT, CLOSE_TAG_LIST_ELEMENT, OPEN_TAG_FOCUS, CLOSE_TAG_FOCUS, OPEN_TAG_BAD_CONFIG,
-			CLOSE_TAG_BAD_CONFIG, OPEN_TAG_BLOCK, CLOSE_TAG_BLOCK, OPEN_TAG_BLOCK_QUOTE, CLOSE_TAG_BLOCK_QUOTE,
-			OPEN_TAG_EMPHASIZE, CLOSE_TAG_EMPHASIZE, OPEN_TAG_EXAMPLE_TEXT, CLOSE_TAG_EXAMPLE_TEXT,
-			OPEN_TAG_GOOD_CONFIG, CLOSE_TAG_GOOD_CONFIG, OPEN_TAG_ORDERED_LIST, CLOSE_TAG_ORDERED_LIST,
-			OPEN_TAG_RISK_EVIDENCE, CLOSE_TAG_RISK_EVIDENCE, OPEN_TAG_TABLE, CLOSE_TAG_TABLE, OPEN_TAG_TABLE_BODY,
-			CLOSE_TAG_TABLE_BODY, OPEN_TAG_TABLE_CELL, CLOSE_TAG_TABLE_CELL, OPEN_TAG_TABLE_CELL_ALT,
-			CLOSE_TAG_TABLE_CELL_ALT, OPEN_TAG_TABLE_HEADER, CLOSE_TAG_TABLE_HEADER, OPEN_TAG_TABLE_HEADER_ROW,
-			CLOSE_TAG_TABLE_HEADER_ROW, OPEN_TAG_TABLE_ROW, CLOSE_TAG_TABLE_ROW };
-	
 	public static final String TRACE_FILTER_TYPE_APP_VERSION_TAGS = "appversiontags";
 }
@@ -15,6 +15,7 @@
 package com.contrastsecurity.ide.eclipse.core;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URL;
 import java.net.URLClassLoader;
 import java.util.ResourceBundle;
@@ -29,11 +30,17 @@ import org.eclipse.core.runtime.preferences.IEclipsePreferences;
 import org.eclipse.core.runtime.preferences.InstanceScope;
 import org.eclipse.ui.plugin.AbstractUIPlugin;
 import org.osgi.framework.BundleContext;
+import org.osgi.framework.ServiceRegistration;
 import org.osgi.service.prefs.BackingStoreException;
 
 import com.contrastsecurity.ide.eclipse.core.internal.preferences.OrganizationConfig;
+import com.contrastsecurity.ide.eclipse.core.internal.preferences.OrganizationRegistry;
 import com.contrastsecurity.http.IntegrationName;
 import com.contrastsecurity.ide.eclipse.core.Util;
+import com.contrastsecurity.ide.eclipse.core.extended.ExtendedContrastSDK;
+import com.contrastsecurity.ide.eclipse.core.internal.service.ContrastService;
+import com.contrastsecurity.ide.eclipse.core.service.IContrastService;
+import com.contrastsecurity.ide.rest.sdk.transport.PooledHttpTransport;
 import com.contrastsecurity.sdk.ContrastSDK;
 
 /**
@@ -49,6 +56,22 @@ public class ContrastCoreActivator extends AbstractUIPlugin {
 
 	private static IEclipsePreferences prefs;
 
+	/**
+	 * Shared by every SDK so that all of them reuse the same connections.
+	 */
+	private static PooledHttpTransport httpTransport;
+
+	private static OrganizationRegistry organizationRegistry;
+
+	/**
+	 * Version sent to Team Server with every request, read once from the
+	 * manifest.
+	 */
+	private static String bundleVersion;
+
+	private ContrastService contrastService;
+	private ServiceRegistration<IContrastService> contrastServiceRegistration;
+
 	/**
 	 * The constructor
 	 */
@@ -64,6 +87,12 @@ public class ContrastCoreActivator extends AbstractUIPlugin {
 	public void start(BundleContext context) throws Exception {
 		super.start(context);
 		plugin = this;
+		initPrefs();
+		contrastService = new ContrastService(prefs.getInt(Constants.MAX_CONNECTIONS, Constants.MAX_CONNECTIONS_VALUE),
+				getRequestTimeout());
+		// Its preference listener keeps the service in line with the connection settings
+		getOrganizationRegistry();
+		contrastServiceRegistration = context.registerService(IContrastService.class, contrastService, null);
 	}
 
 	/*
@@ -73,6 +102,20 @@ public class ContrastCoreActivator extends AbstractUIPlugin {
 	 * BundleContext)
 	 */
 	public void stop(BundleContext context) throws Exception {
+		if (contrastServiceRegistration != null) {
+			contrastServiceRegistration.unregister();
+			contrastServiceRegistration = null;
+		}
+		if (contrastService != null) {
+			contrastService.shutdown();
+			contrastService = null;
+		}
+		synchronized (ContrastCoreActivator.class) {
+			if (organizationRegistry != null) {
+				organizationRegistry.dispose();
+				organizationRegistry = null;
+			}
+		}
 		plugin = null;
 		super.stop(context);
 	}
@@ -163,7 +206,48 @@ public class ContrastCoreActivator extends AbstractUIPlugin {
 		return flushPrefs();
 	}
 
+	/**
+	 * @return The configuration saved for the organization, or null if there is
+	 *         none. The result is cached until the preferences of the
+	 *         organization change.
+	 */
 	public static OrganizationConfig getOrganizationConfiguration(final String organization) {
+		if (StringUtils.isBlank(organization)) {
+			return null;
+		}
+		return getOrganizationRegistry().getConfig(organization);
+	}
+
+	private static synchronized OrganizationRegistry getOrganizationRegistry() {
+		initPrefs();
+		if (organizationRegistry == null) {
+			organizationRegistry = new OrganizationRegistry(prefs) {
+
+				@Override
+				protected OrganizationConfig loadConfig(String organization) {
+					return parseOrganizationConfiguration(organization);
+				}
+
+				@Override
+				protected ExtendedContrastSDK createSdk(OrganizationConfig config) {
+					return createContrastSDK(config);
+				}
+
+				@Override
+				protected void connectionSettingsChanged() {
+					ContrastCoreActivator activator = plugin;
+					if (activator != null && activator.contrastService != null) {
+						activator.contrastService.configure(
+								prefs.getInt(Constants.MAX_CONNECTIONS, Constants.MAX_CONNECTIONS_VALUE),
+								getRequestTimeout());
+					}
+				}
+			};
+		}
+		return organizationRegistry;
+	}
+
+	private static OrganizationConfig parseOrganizationConfiguration(final String organization) {
 		initPrefs();
 
 		String config = prefs.get(organization, "");
@@ -194,12 +278,8 @@ public class ContrastCoreActivator extends AbstractUIPlugin {
 	}
 
 	public static String getSelectedOrganizationUuid() {
-		if (getOrganizationConfiguration(getSelectedOrganization()) != null) {
-			return getOrganizationConfiguration(getSelectedOrganization()).getOrganizationUUIDKey();
-		} else {
-			return null;
-		}
-
+		OrganizationConfig config = getOrganizationConfiguration(getSelectedOrganization());
+		return config != null ? config.getOrganizationUUIDKey() : null;
 	}
 
 	public static boolean editOrganization(final String organization, final String apiKey, final String organizationUuid) throws OrganizationNotFoundException {
@@ -235,7 +315,7 @@ public class ContrastCoreActivator extends AbstractUIPlugin {
 			}
 	}
 
-	public static ContrastSDK getContrastSDK() {
+	public static ExtendedContrastSDK getContrastSDK() {
 
 		initPrefs();
 
@@ -247,15 +327,19 @@ public class ContrastCoreActivator extends AbstractUIPlugin {
 		return getContrastSDKByOrganization(organizationName);
 	}
 
-	public static ContrastSDK getContrastSDKByOrganization(final String organizationName) {
+	/**
+	 * @return The SDK of the organization, shared until its configuration or
+	 *         the connection settings change.
+	 */
+	public static ExtendedContrastSDK getContrastSDKByOrganization(final String organizationName) {
 
 		if(StringUtils.isBlank(organizationName))
 			return null;
 
-		OrganizationConfig config = getOrganizationConfiguration(organizationName);
-		if(config == null)
-			return null;
+		return getOrganizationRegistry().getSdk(organizationName);
+	}
 
+	private static ExtendedContrastSDK createContrastSDK(OrganizationConfig config) {
 		String url = config.getContrastUrl();
 		if (url == null || url.isEmpty()) {
 			return null;
@@ -276,17 +360,16 @@ public class ContrastCoreActivator extends AbstractUIPlugin {
 		return getContrastSDK(username, apiKey, serviceKey, url);
 	}
 
-	public static ContrastSDK getContrastSDK(final String username, final String apiKey,
+	public static ExtendedContrastSDK getContrastSDK(final String username, final String apiKey,
 											 final String serviceKey, final String teamServerUrl) {
 
-		URL url = ContrastCoreActivator.class.getClassLoader().getResource("META-INF/MANIFEST.MF");
 		try {
-			Manifest manifest = new Manifest(url.openStream());
-			Attributes att = manifest.getMainAttributes();
-
-			ContrastSDK sdk = new ContrastSDK.Builder(username, serviceKey, apiKey).withApiUrl(teamServerUrl).withIntegrationName(IntegrationName.ECLIPSE_INTEGRATION).withVersion(att.getValue("Bundle-Version")).build();
+			ContrastSDK configuration = new ContrastSDK.Builder(username, serviceKey, apiKey).withApiUrl(teamServerUrl).withIntegrationName(IntegrationName.ECLIPSE_INTEGRATION).withVersion(getBundleVersion()).build();
+			ExtendedContrastSDK sdk = new ExtendedContrastSDK(configuration, getHttpTransport());
 
-			sdk.setReadTimeout(5000);
+			initPrefs();
+			sdk.setConnectionTimeout(prefs.getInt(Constants.CONNECTION_TIMEOUT, Constants.CONNECTION_TIMEOUT_VALUE));
+			sdk.setReadTimeout(prefs.getInt(Constants.READ_TIMEOUT, Constants.READ_TIMEOUT_VALUE));
 
 			return sdk;
 
@@ -297,4 +380,42 @@ public class ContrastCoreActivator extends AbstractUIPlugin {
 		return null;
 	}
 
+	private static synchronized String getBundleVersion() throws IOException {
+		if (bundleVersion == null) {
+			URL url = ContrastCoreActivator.class.getClassLoader().getResource("META-INF/MANIFEST.MF");
+			try (InputStream stream = url.openStream()) {
+				Attributes att = new Manifest(stream).getMainAttributes();
+				bundleVersion = att.getValue("Bundle-Version");
+			}
+		}
+		return bundleVersion;
+	}
+
+	/**
+	 * @return The transport shared by all SDK instances, created again when
+	 *         the maximum number of connections or the timeouts have been
+	 *         changed.
+	 */
+	private static synchronized PooledHttpTransport getHttpTransport() {
+		initPrefs();
+		int maxConnections = prefs.getInt(Constants.MAX_CONNECTIONS, Constants.MAX_CONNECTIONS_VALUE);
+		// A request may wait for a connection as long as the request using it may take
+		long permitTimeout = getRequestTimeout();
+		if (httpTransport == null || httpTransport.getMaxConnectionsPerHost() != maxConnections
+				|| httpTransport.getPermitTimeout() != permitTimeout) {
+			httpTransport = new PooledHttpTransport(maxConnections, permitTimeout);
+		}
+		return httpTransport;
+	}
+
+	/**
+	 * @return Milliseconds a single request may take, connecting and reading
+	 *         the response.
+	 */
+	private static long getRequestTimeout() {
+		initPrefs();
+		return prefs.getInt(Constants.CONNECTION_TIMEOUT, Constants.CONNECTION_TIMEOUT_VALUE)
+				+ prefs.getInt(Constants.READ_TIMEOUT, Constants.READ_TIMEOUT_VALUE);
+	}
+
 }
@@ -116,6 +116,31 @@ public class Util {
 		return form;
 	}
 
+	/**
+	 * Creates a copy of the given form, so that it can be adjusted for a single
+	 * request without changing the filters the user selected.
+	 */
+	public static TraceFilterForm copyTraceFilterForm(final TraceFilterForm form) {
+		final TraceFilterForm copy = new TraceFilterForm();
+		copy.setFilterText(form.getFilterText());
+		copy.setStartDate(form.getStartDate());
+		copy.setEndDate(form.getEndDate());
+		copy.setFilterTags(form.getFilterTags());
+		copy.setSeverities(form.getSeverities());
+		copy.setStatus(form.getStatus());
+		copy.setVulnTypes(form.getVulnTypes());
+		copy.setAppVersionTags(form.getAppVersionTags());
+		copy.setServerIds(form.getServerIds());
+		copy.setEnvironments(form.getEnvironments());
+		copy.setUrls(form.getUrls());
+		copy.setModules(form.getModules());
+		copy.setExpand(form.getExpand());
+		copy.setLimit(form.getLimit());
+		copy.setOffset(form.getOffset());
+		copy.setSort(form.getSort());
+		return copy;
+	}
+
 	public static String[] getListFromString(String list) {
 		String[] orgList;
 
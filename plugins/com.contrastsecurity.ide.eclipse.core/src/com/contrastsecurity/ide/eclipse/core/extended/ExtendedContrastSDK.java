@@ -0,0 +1,85 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Contrast Security.
+ * All rights reserved. 
+ * 
+ * This program and the accompanying materials are made available under 
+ * the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License.
+ * 
+ * The terms of the GNU GPL version 3 which accompanies this distribution
+ * and is available at https://www.gnu.org/licenses/gpl-3.0.en.html
+ * 
+ * Contributors:
+ *     Contrast Security - initial API and implementation
+ *******************************************************************************/
+package com.contrastsecurity.ide.eclipse.core.extended;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+
+import org.apache.commons.io.IOUtils;
+
+import com.contrastsecurity.exceptions.UnauthorizedException;
+import com.contrastsecurity.http.HttpMethod;
+import com.contrastsecurity.ide.eclipse.core.UrlConstants;
+import com.contrastsecurity.ide.rest.sdk.transport.HttpTransport;
+import com.contrastsecurity.ide.rest.sdk.transport.TransportContrastSDK;
+import com.contrastsecurity.models.GenericResponse;
+import com.contrastsecurity.models.StatusRequest;
+import com.contrastsecurity.models.Trace;
+import com.contrastsecurity.sdk.ContrastSDK;
+import com.google.gson.Gson;
+
+/**
+ * {@link TransportContrastSDK} with the Team Server requests the plugin needs
+ * but the SDK does not offer.
+ */
+public class ExtendedContrastSDK extends TransportContrastSDK {
+
+	private final Gson gson = new Gson();
+
+	public ExtendedContrastSDK(ContrastSDK configuration, HttpTransport transport) {
+		super(configuration, transport);
+	}
+
+	/**
+	 * Reads a single trace of the organization. Unlike a filtered trace
+	 * listing, this does not make Team Server search the whole organization.
+	 *
+	 * @param orgUuid
+	 *            The organization the trace belongs to.
+	 * @param traceUuid
+	 *            The trace to read.
+	 * @return The trace, or null if Team Server did not return one.
+	 */
+	public Trace getTrace(String orgUuid, String traceUuid) throws IOException, UnauthorizedException {
+		InputStream is = null;
+		Reader reader = null;
+		try {
+			is = makeRequest(HttpMethod.GET, String.format(UrlConstants.GET_TRACE, orgUuid, traceUuid));
+			reader = new InputStreamReader(is, "UTF-8");
+			TraceResponse response = gson.fromJson(reader, TraceResponse.class);
+			return response == null ? null : response.getTrace();
+		} finally {
+			IOUtils.closeQuietly(reader);
+			IOUtils.closeQuietly(is);
+		}
+	}
+
+	/**
+	 * Marks the traces of the request with its status. The SDK expects the
+	 * request as JSON, which {@link StatusRequest} does not produce by itself.
+	 *
+	 * @param orgUuid
+	 *            The organization the traces belong to.
+	 * @param request
+	 *            The status and the traces to mark.
+	 */
+	public GenericResponse setTraceStatus(String orgUuid, StatusRequest request)
+			throws IOException, UnauthorizedException {
+		return setTraceStatus(orgUuid, gson.toJson(request));
+	}
+
+}
@@ -0,0 +1,41 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Contrast Security.
+ * All rights reserved. 
+ * 
+ * This program and the accompanying materials are made available under 
+ * the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License.
+ * 
+ * The terms of the GNU GPL version 3 which accompanies this distribution
+ * and is available at https://www.gnu.org/licenses/gpl-3.0.en.html
+ * 
+ * Contributors:
+ *     Contrast Security - initial API and implementation
+ *******************************************************************************/
+package com.contrastsecurity.ide.eclipse.core.extended;
+
+import java.util.List;
+
+import com.contrastsecurity.models.Trace;
+
+/**
+ * Response of the single trace endpoint.
+ */
+public class TraceResponse {
+
+	private String success;
+	private List<String> messages;
+	private Trace trace;
+
+	public String getSuccess() {
+		return success;
+	}
+
+	public List<String> getMessages() {
+		return messages;
+	}
+
+	public Trace getTrace() {
+		return trace;
+	}
+}
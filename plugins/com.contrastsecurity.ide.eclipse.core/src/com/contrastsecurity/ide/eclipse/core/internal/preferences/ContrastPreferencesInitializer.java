@@ -32,6 +32,10 @@ public class ContrastPreferencesInitializer extends
 	public void initializeDefaultPreferences() {
 		IEclipsePreferences preferences = DefaultScope.INSTANCE.getNode(ContrastCoreActivator.PLUGIN_ID);
 		preferences.put(Constants.TEAM_SERVER_URL, Constants.TEAM_SERVER_URL_VALUE);
+		preferences.putInt(Constants.MAX_CONNECTIONS, Constants.MAX_CONNECTIONS_VALUE);
+		preferences.putInt(Constants.CONNECTION_TIMEOUT, Constants.CONNECTION_TIMEOUT_VALUE);
+		preferences.putInt(Constants.READ_TIMEOUT, Constants.READ_TIMEOUT_VALUE);
+		preferences.putInt(Constants.CACHE_MEMORY_BUDGET, Constants.CACHE_MEMORY_BUDGET_VALUE);
 	}
 
 }
@@ -1,12 +1,17 @@
 package com.contrastsecurity.ide.eclipse.core.internal.preferences;
 
+/**
+ * Connection settings of an organization as saved in the preferences.
+ * Instances are immutable and shared by every caller, see
+ * {@link OrganizationRegistry}.
+ */
 public class OrganizationConfig {
 
-	private String contrastUrl;
-	private String username;
-	private String serviceKey;
-	private String apiKey;
-	private String organizationUUID;
+	private final String contrastUrl;
+	private final String username;
+	private final String serviceKey;
+	private final String apiKey;
+	private final String organizationUUID;
 
 	public OrganizationConfig(final String contrastUrl, final String username, final String serviceKey,
 			final String apiKey, final String organizationUUID) {
@@ -22,39 +27,19 @@ public class OrganizationConfig {
 		return contrastUrl;
 	}
 
-	public void setContrastUrl(String contrastUrl) {
-		this.contrastUrl = contrastUrl;
-	}
-
 	public String getUsername() {
 		return username;
 	}
 
-	public void setUsername(String username) {
-		this.username = username;
-	}
-
 	public String getServiceKey() {
 		return serviceKey;
 	}
 
-	public void setServiceKey(String serviceKey) {
-		this.serviceKey = serviceKey;
-	}
-
 	public String getApiKey() {
 		return apiKey;
 	}
 
-	public void setApiKey(String apiKey) {
-		this.apiKey = apiKey;
-	}
-
 	public String getOrganizationUUIDKey() {
 		return organizationUUID;
 	}
-
-	public void setOrganizationUUIDKey(String organizationUUIDKey) {
-		this.organizationUUID = organizationUUIDKey;
-	}
 }
@@ -0,0 +1,124 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Contrast Security.
+ * All rights reserved. 
+ * 
+ * This program and the accompanying materials are made available under 
+ * the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License.
+ * 
+ * The terms of the GNU GPL version 3 which accompanies this distribution
+ * and is available at https://www.gnu.org/licenses/gpl-3.0.en.html
+ * 
+ * Contributors:
+ *     Contrast Security - initial API and implementation
+ *******************************************************************************/
+package com.contrastsecurity.ide.eclipse.core.internal.preferences;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.core.runtime.preferences.IEclipsePreferences;
+import org.eclipse.core.runtime.preferences.IEclipsePreferences.IPreferenceChangeListener;
+import org.eclipse.core.runtime.preferences.IEclipsePreferences.PreferenceChangeEvent;
+
+import com.contrastsecurity.ide.eclipse.core.Constants;
+import com.contrastsecurity.ide.eclipse.core.extended.ExtendedContrastSDK;
+
+/**
+ * Keeps the parsed configuration of every organization and one SDK per
+ * organization, so that neither is created again on every call. Entries are
+ * dropped by a preference change listener when the configuration of their
+ * organization changes; every SDK is dropped when the connection settings
+ * change.
+ */
+public abstract class OrganizationRegistry implements IPreferenceChangeListener {
+
+	private final IEclipsePreferences prefs;
+	private final ConcurrentMap<String, OrganizationConfig> configs = new ConcurrentHashMap<>();
+	private final ConcurrentMap<String, ExtendedContrastSDK> sdks = new ConcurrentHashMap<>();
+	/**
+	 * Incremented on every preference change, so that a value loaded while the
+	 * preferences changed is not kept.
+	 */
+	private final AtomicInteger generation = new AtomicInteger();
+
+	public OrganizationRegistry(IEclipsePreferences prefs) {
+		this.prefs = prefs;
+		prefs.addPreferenceChangeListener(this);
+	}
+
+	/**
+	 * @return The configuration saved for the organization, or null if there is
+	 *         none.
+	 */
+	protected abstract OrganizationConfig loadConfig(String organization);
+
+	/**
+	 * @return A new SDK connecting with the given configuration, or null if it
+	 *         is incomplete.
+	 */
+	protected abstract ExtendedContrastSDK createSdk(OrganizationConfig config);
+
+	public OrganizationConfig getConfig(String organization) {
+		OrganizationConfig config = configs.get(organization);
+		if (config != null) {
+			return config;
+		}
+		int loadGeneration = generation.get();
+		config = loadConfig(organization);
+		if (config != null && loadGeneration == generation.get()) {
+			configs.put(organization, config);
+		}
+		return config;
+	}
+
+	public ExtendedContrastSDK getSdk(String organization) {
+		ExtendedContrastSDK sdk = sdks.get(organization);
+		if (sdk != null) {
+			return sdk;
+		}
+		int loadGeneration = generation.get();
+		OrganizationConfig config = getConfig(organization);
+		if (config == null) {
+			return null;
+		}
+		sdk = createSdk(config);
+		if (sdk != null && loadGeneration == generation.get()) {
+			ExtendedContrastSDK existing = sdks.putIfAbsent(organization, sdk);
+			if (existing != null) {
+				sdk = existing;
+			}
+		}
+		return sdk;
+	}
+
+	@Override
+	public void preferenceChange(PreferenceChangeEvent event) {
+		generation.incrementAndGet();
+		String key = event.getKey();
+		if (Constants.CONNECTION_TIMEOUT.equals(key) || Constants.READ_TIMEOUT.equals(key)
+				|| Constants.MAX_CONNECTIONS.equals(key)) {
+			sdks.clear();
+			connectionSettingsChanged();
+		} else {
+			// Organizations are saved under their name
+			configs.remove(key);
+			sdks.remove(key);
+		}
+	}
+
+	/**
+	 * Called after the timeouts or the number of connections have been
+	 * changed, once the SDKs using the old settings have been dropped.
+	 */
+	protected void connectionSettingsChanged() {
+	}
+
+	public void dispose() {
+		prefs.removePreferenceChangeListener(this);
+		configs.clear();
+		sdks.clear();
+	}
+
+}
@@ -0,0 +1,194 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Contrast Security.
+ * All rights reserved. 
+ * 
+ * This program and the accompanying materials are made available under 
+ * the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License.
+ * 
+ * The terms of the GNU GPL version 3 which accompanies this distribution
+ * and is available at https://www.gnu.org/licenses/gpl-3.0.en.html
+ * 
+ * Contributors:
+ *     Contrast Security - initial API and implementation
+ *******************************************************************************/
+package com.contrastsecurity.ide.eclipse.core.internal.service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+
+import com.contrastsecurity.ide.eclipse.core.extended.ExtendedContrastSDK;
+import com.contrastsecurity.ide.eclipse.core.service.AsyncContrastSDK;
+import com.contrastsecurity.ide.eclipse.core.service.IContrastService;
+
+/**
+ * {@link IContrastService} backed by a fixed number of request threads, one
+ * per connection the HTTP transport keeps to Team Server, and a single timer
+ * thread for the timeouts.
+ */
+public class ContrastService implements IContrastService {
+
+	/**
+	 * Maximum number of requests waiting for a thread.
+	 */
+	private static final int QUEUE_CAPACITY = 256;
+
+	private final ThreadPoolExecutor executor;
+	private final ScheduledThreadPoolExecutor timer;
+	private volatile long defaultTimeout;
+
+	/**
+	 * @param threads
+	 *            Number of requests running at once.
+	 * @param defaultTimeout
+	 *            Default timeout of a request in milliseconds.
+	 */
+	public ContrastService(int threads, long defaultTimeout) {
+		this.defaultTimeout = defaultTimeout;
+		executor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+				new ArrayBlockingQueue<Runnable>(QUEUE_CAPACITY), new NamedThreadFactory("Contrast request"));
+		executor.allowCoreThreadTimeOut(true);
+		timer = new ScheduledThreadPoolExecutor(1, new NamedThreadFactory("Contrast request timeout"));
+		timer.setRemoveOnCancelPolicy(true);
+	}
+
+	/**
+	 * Applies changed connection settings. Running and queued requests keep
+	 * their timeout, extra threads stop once they are idle.
+	 *
+	 * @param threads
+	 *            Number of requests running at once.
+	 * @param defaultTimeout
+	 *            Default timeout of a request in milliseconds.
+	 */
+	public synchronized void configure(int threads, long defaultTimeout) {
+		this.defaultTimeout = defaultTimeout;
+		// The maximum may never be below the core size
+		if (threads > executor.getMaximumPoolSize()) {
+			executor.setMaximumPoolSize(threads);
+			executor.setCorePoolSize(threads);
+		} else {
+			executor.setCorePoolSize(threads);
+			executor.setMaximumPoolSize(threads);
+		}
+	}
+
+	@Override
+	public AsyncContrastSDK getAsyncSDK(ExtendedContrastSDK sdk) {
+		return new AsyncContrastSDK(this, sdk, defaultTimeout);
+	}
+
+	@Override
+	public <T> CompletableFuture<T> submit(Callable<T> call) {
+		return submit(call, defaultTimeout, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * The timeout starts when the request starts running, so that requests
+	 * waiting in the queue behind others do not time out before they run.
+	 */
+	@Override
+	public <T> CompletableFuture<T> submit(final Callable<T> call, final long timeout, final TimeUnit unit) {
+		final CompletableFuture<T> result = new CompletableFuture<>();
+		final AtomicReference<ScheduledFuture<?>> timeoutTask = new AtomicReference<>();
+		final FutureTask<Void> task = new FutureTask<>(new Runnable() {
+
+			@Override
+			public void run() {
+				if (result.isDone()) {
+					return;
+				}
+				if (timeout > 0) {
+					startTimeout(result, timeoutTask, timeout, unit);
+				}
+				try {
+					result.complete(call.call());
+				} catch (Throwable e) {
+					result.completeExceptionally(e);
+				}
+			}
+		}, null);
+		result.whenComplete(new BiConsumer<T, Throwable>() {
+
+			@Override
+			public void accept(T value, Throwable failure) {
+				ScheduledFuture<?> timeoutFuture = timeoutTask.get();
+				if (timeoutFuture != null) {
+					timeoutFuture.cancel(false);
+				}
+				// Canceled or timed out, the request is not needed anymore
+				if (failure != null) {
+					task.cancel(true);
+				}
+			}
+		});
+		try {
+			executor.execute(task);
+		} catch (RejectedExecutionException e) {
+			result.completeExceptionally(e);
+		}
+		return result;
+	}
+
+	private void startTimeout(final CompletableFuture<?> result, AtomicReference<ScheduledFuture<?>> timeoutTask,
+			long timeout, TimeUnit unit) {
+		try {
+			timeoutTask.set(timer.schedule(new Runnable() {
+
+				@Override
+				public void run() {
+					result.completeExceptionally(new TimeoutException());
+				}
+			}, timeout, unit));
+		} catch (RejectedExecutionException e) {
+			// Shut down, the request is interrupted anyway
+			return;
+		}
+		if (result.isDone()) {
+			timeoutTask.get().cancel(false);
+		}
+	}
+
+	@Override
+	public long getDefaultTimeout() {
+		return defaultTimeout;
+	}
+
+	/**
+	 * Stops all threads. Requests still running are interrupted.
+	 */
+	public void shutdown() {
+		executor.shutdownNow();
+		timer.shutdownNow();
+	}
+
+	private static class NamedThreadFactory implements ThreadFactory {
+
+		private final String name;
+		private final AtomicInteger count = new AtomicInteger();
+
+		NamedThreadFactory(String name) {
+			this.name = name;
+		}
+
+		@Override
+		public Thread newThread(Runnable runnable) {
+			Thread thread = new Thread(runnable, name + " " + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+
+}
@@ -0,0 +1,188 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Contrast Security.
+ * All rights reserved. 
+ * 
+ * This program and the accompanying materials are made available under 
+ * the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License.
+ * 
+ * The terms of the GNU GPL version 3 which accompanies this distribution
+ * and is available at https://www.gnu.org/licenses/gpl-3.0.en.html
+ * 
+ * Contributors:
+ *     Contrast Security - initial API and implementation
+ *******************************************************************************/
+package com.contrastsecurity.ide.eclipse.core.service;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import com.contrastsecurity.http.TraceFilterForm;
+import com.contrastsecurity.ide.eclipse.core.extended.ExtendedContrastSDK;
+import com.contrastsecurity.models.EventSummaryResponse;
+import com.contrastsecurity.models.GenericResponse;
+import com.contrastsecurity.models.HttpRequestResponse;
+import com.contrastsecurity.models.RecommendationResponse;
+import com.contrastsecurity.models.StatusRequest;
+import com.contrastsecurity.models.StoryResponse;
+import com.contrastsecurity.models.Tag;
+import com.contrastsecurity.models.Tags;
+import com.contrastsecurity.models.TagsResponse;
+import com.contrastsecurity.models.Trace;
+import com.contrastsecurity.models.Traces;
+
+/**
+ * Non-blocking versions of the {@link ExtendedContrastSDK} requests. Each
+ * request runs on the executor of the {@link IContrastService} that created
+ * this instance. Instances are immutable and cheap to create.
+ */
+public class AsyncContrastSDK {
+
+	private final IContrastService service;
+	private final ExtendedContrastSDK sdk;
+	private final long timeout;
+
+	public AsyncContrastSDK(IContrastService service, ExtendedContrastSDK sdk, long timeout) {
+		this.service = service;
+		this.sdk = sdk;
+		this.timeout = timeout;
+	}
+
+	/**
+	 * @return The same requests with another timeout, 0 or less for none.
+	 */
+	public AsyncContrastSDK withTimeout(long timeout, TimeUnit unit) {
+		return new AsyncContrastSDK(service, sdk, unit.toMillis(timeout));
+	}
+
+	public ExtendedContrastSDK getSdk() {
+		return sdk;
+	}
+
+	public CompletableFuture<Traces> getTraces(final String orgUuid, final String appId, final TraceFilterForm form) {
+		return submit(new Callable<Traces>() {
+
+			@Override
+			public Traces call() throws Exception {
+				return sdk.getTraces(orgUuid, appId, form);
+			}
+		});
+	}
+
+	public CompletableFuture<Traces> getTracesInOrg(final String orgUuid, final TraceFilterForm form) {
+		return submit(new Callable<Traces>() {
+
+			@Override
+			public Traces call() throws Exception {
+				return sdk.getTracesInOrg(orgUuid, form);
+			}
+		});
+	}
+
+	public CompletableFuture<Trace> getTrace(final String orgUuid, final String traceUuid) {
+		return submit(new Callable<Trace>() {
+
+			@Override
+			public Trace call() throws Exception {
+				return sdk.getTrace(orgUuid, traceUuid);
+			}
+		});
+	}
+
+	public CompletableFuture<StoryResponse> getStory(final String orgUuid, final String traceUuid) {
+		return submit(new Callable<StoryResponse>() {
+
+			@Override
+			public StoryResponse call() throws Exception {
+				return sdk.getStory(orgUuid, traceUuid);
+			}
+		});
+	}
+
+	public CompletableFuture<EventSummaryResponse> getEventSummary(final String orgUuid, final String traceUuid) {
+		return submit(new Callable<EventSummaryResponse>() {
+
+			@Override
+			public EventSummaryResponse call() throws Exception {
+				return sdk.getEventSummary(orgUuid, traceUuid);
+			}
+		});
+	}
+
+	public CompletableFuture<HttpRequestResponse> getHttpRequest(final String orgUuid, final String traceUuid) {
+		return submit(new Callable<HttpRequestResponse>() {
+
+			@Override
+			public HttpRequestResponse call() throws Exception {
+				return sdk.getHttpRequest(orgUuid, traceUuid);
+			}
+		});
+	}
+
+	public CompletableFuture<RecommendationResponse> getRecommendation(final String orgUuid, final String traceUuid) {
+		return submit(new Callable<RecommendationResponse>() {
+
+			@Override
+			public RecommendationResponse call() throws Exception {
+				return sdk.getRecommendation(orgUuid, traceUuid);
+			}
+		});
+	}
+
+	public CompletableFuture<TagsResponse> getTagsByTrace(final String orgUuid, final String traceUuid) {
+		return submit(new Callable<TagsResponse>() {
+
+			@Override
+			public TagsResponse call() throws Exception {
+				return sdk.getTagsByTrace(orgUuid, traceUuid);
+			}
+		});
+	}
+
+	public CompletableFuture<TagsResponse> getTraceTagsByOrganization(final String orgUuid) {
+		return submit(new Callable<TagsResponse>() {
+
+			@Override
+			public TagsResponse call() throws Exception {
+				return sdk.getTraceTagsByOrganization(orgUuid);
+			}
+		});
+	}
+
+	public CompletableFuture<TagsResponse> createTag(final String orgUuid, final Tags tags) {
+		return submit(new Callable<TagsResponse>() {
+
+			@Override
+			public TagsResponse call() throws Exception {
+				return sdk.createTag(orgUuid, tags);
+			}
+		});
+	}
+
+	public CompletableFuture<TagsResponse> deleteVulnerabilityTag(final String orgUuid, final String traceUuid,
+			final Tag tag) {
+		return submit(new Callable<TagsResponse>() {
+
+			@Override
+			public TagsResponse call() throws Exception {
+				return sdk.deleteVulnerabilityTag(orgUuid, traceUuid, tag);
+			}
+		});
+	}
+
+	public CompletableFuture<GenericResponse> setTraceStatus(final String orgUuid, final StatusRequest request) {
+		return submit(new Callable<GenericResponse>() {
+
+			@Override
+			public GenericResponse call() throws Exception {
+				return sdk.setTraceStatus(orgUuid, request);
+			}
+		});
+	}
+
+	private <T> CompletableFuture<T> submit(Callable<T> call) {
+		return service.submit(call, timeout, TimeUnit.MILLISECONDS);
+	}
+
+}
@@ -0,0 +1,63 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Contrast Security.
+ * All rights reserved. 
+ * 
+ * This program and the accompanying materials are made available under 
+ * the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License.
+ * 
+ * The terms of the GNU GPL version 3 which accompanies this distribution
+ * and is available at https://www.gnu.org/licenses/gpl-3.0.en.html
+ * 
+ * Contributors:
+ *     Contrast Security - initial API and implementation
+ *******************************************************************************/
+package com.contrastsecurity.ide.eclipse.core.service;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import com.contrastsecurity.ide.eclipse.core.extended.ExtendedContrastSDK;
+
+/**
+ * Runs Team Server requests on a shared, bounded pool of threads so that no
+ * caller has to block the UI thread or start threads of its own. Registered
+ * as an OSGi service by the core bundle.
+ * <p>
+ * Every request completes exceptionally with a
+ * {@link java.util.concurrent.TimeoutException} once its timeout has passed,
+ * and with a {@link java.util.concurrent.RejectedExecutionException} if too
+ * many requests are waiting already. Canceling the returned future, or its
+ * timeout, interrupts the request if it is running.
+ */
+public interface IContrastService {
+
+	/**
+	 * @param sdk
+	 *            The SDK of the organization the requests are sent to.
+	 * @return Non-blocking versions of the requests of the SDK, using the
+	 *         default timeout.
+	 */
+	AsyncContrastSDK getAsyncSDK(ExtendedContrastSDK sdk);
+
+	/**
+	 * Runs a blocking call, like a cache lookup that may send a request, with
+	 * the default timeout.
+	 */
+	<T> CompletableFuture<T> submit(Callable<T> call);
+
+	/**
+	 * Runs a blocking call with the given timeout.
+	 *
+	 * @param timeout
+	 *            Time until the call fails, 0 or less for none.
+	 */
+	<T> CompletableFuture<T> submit(Callable<T> call, long timeout, TimeUnit unit);
+
+	/**
+	 * @return The default timeout of a request in milliseconds.
+	 */
+	long getDefaultTimeout();
+
+}
@@ -4,11 +4,23 @@ import org.junit.runner.RunWith;
 import org.junit.runners.Suite;
 import org.junit.runners.Suite.SuiteClasses;
 
+import com.contrastsecurity.ide.eclipse.ui.cache.CacheRegionTest;
+import com.contrastsecurity.ide.eclipse.ui.cache.ContrastCacheEvictionTest;
+import com.contrastsecurity.ide.eclipse.ui.cache.DiskCacheTest;
 import com.contrastsecurity.ide.eclipse.ui.unit.SampleTest;
+import com.contrastsecurity.ide.eclipse.ui.unit.TagDiffTest;
+import com.contrastsecurity.ide.eclipse.ui.unit.TraceComparatorTest;
+import com.contrastsecurity.ide.eclipse.ui.unit.TraceSearchIndexTest;
 
 @RunWith(Suite.class)
 @SuiteClasses({
-	SampleTest.class//TODO Add your test and delete sample please
+	SampleTest.class,//TODO Add your test and delete sample please
+	TagDiffTest.class,
+	CacheRegionTest.class,
+	ContrastCacheEvictionTest.class,
+	DiskCacheTest.class,
+	TraceComparatorTest.class,
+	TraceSearchIndexTest.class
 })
 public class UnitTestSuite {
 }
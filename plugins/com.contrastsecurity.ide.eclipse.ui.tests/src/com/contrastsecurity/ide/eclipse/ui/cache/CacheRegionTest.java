@@ -0,0 +1,210 @@
+package com.contrastsecurity.ide.eclipse.ui.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.contrastsecurity.exceptions.UnauthorizedException;
+import com.contrastsecurity.models.RecommendationResponse;
+import com.contrastsecurity.models.StoryResponse;
+
+public class CacheRegionTest {
+
+	private static final long MEMORY_BUDGET = 1024 * 1024;
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private final Key key = new Key("org", "trace");
+	private ContrastCache contrastCache;
+	private ExecutorService callers;
+
+	@Before
+	public void setUp() {
+		contrastCache = new ContrastCache(MEMORY_BUDGET, null);
+		callers = Executors.newCachedThreadPool();
+	}
+
+	@After
+	public void tearDown() {
+		callers.shutdownNow();
+	}
+
+	@Test
+	public void singleFlightTest() throws Exception {
+		final CacheRegion<String> statuses = contrastCache.getStatusResources();
+		final BlockingLoader loader = new BlockingLoader("Reported");
+		List<Future<String>> results = new ArrayList<>();
+		results.add(get(statuses, loader));
+		assertTrue(loader.started.await(5, TimeUnit.SECONDS));
+		// Misses while the first load is running wait for it
+		for (int i = 0; i < 4; i++) {
+			results.add(get(statuses, loader));
+		}
+		Thread.sleep(100);
+		loader.release.countDown();
+		for (Future<String> result : results) {
+			assertEquals("Reported", result.get(5, TimeUnit.SECONDS));
+		}
+		assertEquals(1, loader.loads.get());
+		assertEquals("Reported", statuses.get(key));
+	}
+
+	@Test
+	public void failedLoadIsNotCachedTest() throws Exception {
+		CacheRegion<String> statuses = contrastCache.getStatusResources();
+		try {
+			statuses.get(key, new CacheLoader<String>() {
+
+				@Override
+				public String load(Key key) throws IOException {
+					throw new IOException("Connection reset");
+				}
+			});
+			fail("The failure of the loader should have been thrown");
+		} catch (IOException e) {
+			assertEquals("Connection reset", e.getMessage());
+		}
+		BlockingLoader loader = new BlockingLoader("Reported");
+		loader.release.countDown();
+		assertEquals("Reported", statuses.get(key, loader));
+		assertEquals(1, loader.loads.get());
+	}
+
+	@Test
+	public void replaceDuringLoadTest() throws Exception {
+		CacheRegion<String> statuses = contrastCache.getStatusResources();
+		BlockingLoader loader = new BlockingLoader("Reported");
+		Future<String> result = get(statuses, loader);
+		assertTrue(loader.started.await(5, TimeUnit.SECONDS));
+		statuses.replace(key, "Remediated");
+		loader.release.countDown();
+
+		// The caller gets what it loaded, but the cache keeps the newer value
+		assertEquals("Reported", result.get(5, TimeUnit.SECONDS));
+		assertEquals("Remediated", statuses.get(key));
+
+		// A later miss is not coalesced with the discarded load
+		statuses.remove(key);
+		BlockingLoader reload = new BlockingLoader("Remediated");
+		reload.release.countDown();
+		assertEquals("Remediated", statuses.get(key, reload));
+		assertEquals(1, reload.loads.get());
+	}
+
+	@Test
+	public void removeDuringLoadTest() throws Exception {
+		CacheRegion<String> statuses = contrastCache.getStatusResources();
+		BlockingLoader loader = new BlockingLoader("Reported");
+		Future<String> result = get(statuses, loader);
+		assertTrue(loader.started.await(5, TimeUnit.SECONDS));
+		statuses.remove(key);
+		loader.release.countDown();
+
+		assertEquals("Reported", result.get(5, TimeUnit.SECONDS));
+		assertTrue(statuses.isEmpty());
+	}
+
+	@Test
+	public void lastTimeSeenTest() {
+		CacheRegion<String> statuses = contrastCache.getStatusResources();
+		statuses.put(key, "Reported", 1L);
+		assertEquals("Reported", statuses.get(key, 1L));
+		assertEquals("Reported", statuses.get(key));
+
+		// The trace has been seen again since the entry was loaded
+		assertNull(statuses.get(key, 2L));
+		assertTrue(statuses.isEmpty());
+		assertNull(statuses.get(key));
+
+		// Only the time to live applies to entries loaded without it
+		statuses.put(key, "Reported");
+		assertEquals("Reported", statuses.get(key, 2L));
+	}
+
+	@Test
+	public void timeToLiveTest() {
+		DiskCache diskCache = new DiskCache(new File(folder.getRoot(), "cache"), 64L * 1024 * 1024);
+		ContrastCache persistentCache = new ContrastCache(MEMORY_BUDGET, diskCache);
+		long now = System.currentTimeMillis();
+		Key recent = new Key("org", "recent");
+		diskCache.write("story", recent, new CacheEntry(new StoryResponse(), now - TimeUnit.HOURS.toMillis(5), 1L));
+		diskCache.write("story", key, new CacheEntry(new StoryResponse(), now - TimeUnit.HOURS.toMillis(7), 1L));
+		diskCache.write("recommendation", key,
+				new CacheEntry(new RecommendationResponse(), now - TimeUnit.HOURS.toMillis(7), null));
+
+		// Within the time to live, unless the trace has been seen again
+		assertNotNull(persistentCache.getStoryResources().get(recent, 1L));
+		persistentCache.getStoryResources().clear();
+		assertNull(persistentCache.getStoryResources().get(recent, 2L));
+		assertNull(diskCache.read("story", recent, StoryResponse.class));
+
+		// Older than the time to live of stories, whatever the last time seen
+		assertNull(persistentCache.getStoryResources().get(key, 1L));
+		assertNull(diskCache.read("story", key, StoryResponse.class));
+
+		// Recommendations are kept longer
+		assertNotNull(persistentCache.getRecommendationResources().get(key));
+		assertFalse(persistentCache.getRecommendationResources().isEmpty());
+	}
+
+	private Future<String> get(final CacheRegion<String> region, final CacheLoader<String> loader) {
+		return callers.submit(new Callable<String>() {
+
+			@Override
+			public String call() throws Exception {
+				return region.get(key, loader);
+			}
+		});
+	}
+
+	/**
+	 * Returns its value once released and counts how often it has been
+	 * called.
+	 */
+	private static class BlockingLoader implements CacheLoader<String> {
+
+		final CountDownLatch started = new CountDownLatch(1);
+		final CountDownLatch release = new CountDownLatch(1);
+		final AtomicInteger loads = new AtomicInteger();
+		private final String value;
+
+		BlockingLoader(String value) {
+			this.value = value;
+		}
+
+		@Override
+		public String load(Key key) throws IOException, UnauthorizedException {
+			loads.incrementAndGet();
+			started.countDown();
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IOException(e);
+			}
+			return value;
+		}
+	}
+}
@@ -0,0 +1,92 @@
+package com.contrastsecurity.ide.eclipse.ui.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import com.contrastsecurity.models.StoryResponse;
+import com.contrastsecurity.models.TagsResponse;
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+public class ContrastCacheEvictionTest {
+
+	private static final long MEGABYTE = 1024 * 1024;
+
+	@Test
+	public void weightedEvictionTest() {
+		ContrastCache contrastCache = new ContrastCache(MEGABYTE, null);
+		CacheRegion<String> statuses = contrastCache.getStatusResources();
+		for (int i = 0; i < 100; i++) {
+			statuses.put(new Key("org", "trace" + i), "Reported");
+		}
+		assertEquals(100, statuses.size());
+
+		// A few large stories take the budget of many statuses
+		CacheRegion<StoryResponse> stories = contrastCache.getStoryResources();
+		for (int i = 0; i < 3; i++) {
+			stories.put(new Key("org", "story" + i), story(200000));
+		}
+		assertTrue(contrastCache.getWeightedSize() <= MEGABYTE);
+		assertEquals(2, stories.size());
+		assertNull(stories.get(new Key("org", "story0")));
+		assertNotNull(stories.get(new Key("org", "story2")));
+		// The least recently used entries of all regions are evicted first
+		assertTrue(statuses.isEmpty());
+	}
+
+	@Test
+	public void leastRecentlyUsedTest() {
+		ContrastCache contrastCache = new ContrastCache(MEGABYTE, null);
+		CacheRegion<StoryResponse> stories = contrastCache.getStoryResources();
+		CacheRegion<TagsResponse> tags = contrastCache.getTagsResources();
+		Key first = new Key("org", "first");
+		stories.put(first, story(250000));
+		stories.put(new Key("org", "second"), story(250000));
+		tags.put(first, new Gson().fromJson("{\"tags\":[\"triaged\"]}", TagsResponse.class));
+		stories.get(first);
+
+		stories.put(new Key("org", "third"), story(250000));
+		assertNotNull(stories.get(first));
+		assertNull(stories.get(new Key("org", "second")));
+		assertEquals(Arrays.asList("triaged"), tags.get(first).getTags());
+	}
+
+	@Test
+	public void memoryBudgetTest() {
+		ContrastCache contrastCache = new ContrastCache(4 * MEGABYTE, null);
+		CacheRegion<StoryResponse> stories = contrastCache.getStoryResources();
+		for (int i = 0; i < 6; i++) {
+			stories.put(new Key("org", "story" + i), story(200000));
+		}
+		assertEquals(6, stories.size());
+
+		contrastCache.setMemoryBudget(1);
+		assertTrue(contrastCache.getWeightedSize() <= MEGABYTE);
+		assertEquals(2, stories.size());
+		assertNotNull(stories.get(new Key("org", "story5")));
+	}
+
+	/**
+	 * @return A story weighing about two bytes per character of its body.
+	 */
+	private static StoryResponse story(int length) {
+		char[] body = new char[length];
+		Arrays.fill(body, 'x');
+		JsonObject chapter = new JsonObject();
+		chapter.addProperty("body", new String(body));
+		JsonArray chapters = new JsonArray();
+		chapters.add(chapter);
+		JsonObject story = new JsonObject();
+		story.add("chapters", chapters);
+		JsonObject response = new JsonObject();
+		response.add("story", story);
+		return new Gson().fromJson(response, StoryResponse.class);
+	}
+}
@@ -0,0 +1,181 @@
+package com.contrastsecurity.ide.eclipse.ui.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.contrastsecurity.models.EventResource;
+import com.contrastsecurity.models.EventSummaryResponse;
+import com.contrastsecurity.models.StoryResponse;
+import com.google.gson.Gson;
+
+public class DiskCacheTest {
+
+	private static final long MAX_SIZE = 64L * 1024 * 1024;
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private File root;
+
+	@Before
+	public void setUp() {
+		root = new File(folder.getRoot(), "cache");
+	}
+
+	@Test
+	public void roundTripTest() {
+		DiskCache diskCache = new DiskCache(root, MAX_SIZE);
+		Key key = new Key("org", "trace");
+		long storedAt = System.currentTimeMillis();
+		diskCache.write("status", key, new CacheEntry("Reported", storedAt, 42L));
+
+		// Read back by another instance, as after a restart
+		CacheEntry entry = new DiskCache(root, MAX_SIZE).read("status", key, String.class);
+		assertEquals("Reported", entry.getValue());
+		assertEquals(storedAt, entry.getStoredAt());
+		assertEquals(Long.valueOf(42L), entry.getLastTimeSeen());
+		assertNull(diskCache.read("story", key, String.class));
+
+		diskCache.delete("status", key);
+		assertNull(diskCache.read("status", key, String.class));
+	}
+
+	@Test
+	public void maxAgeTest() {
+		DiskCache diskCache = new DiskCache(root, MAX_SIZE);
+		long now = System.currentTimeMillis();
+		Key recent = new Key("org", "recent");
+		Key expired = new Key("org", "expired");
+		diskCache.write("status", recent, new CacheEntry("Reported", now - TimeUnit.HOURS.toMillis(23), null));
+		diskCache.write("status", expired, new CacheEntry("Reported", now - TimeUnit.HOURS.toMillis(25), null));
+
+		assertEquals("Reported", diskCache.read("status", recent, String.class).getValue());
+		assertNull(diskCache.read("status", expired, String.class));
+		// The expired entry is deleted on read
+		assertEquals(1, new File(root, "status").listFiles().length);
+	}
+
+	@Test
+	public void trimTest() throws IOException {
+		long maxSize = 64 * 1024;
+		DiskCache diskCache = new DiskCache(root, maxSize);
+		File region = new File(root, "status");
+		Random random = new Random(0);
+		List<File> written = new ArrayList<>();
+		long time = System.currentTimeMillis() - TimeUnit.HOURS.toMillis(1);
+		long writtenSize = 0;
+		// Writes until the entries no longer fit
+		for (int i = 0; writtenSize <= maxSize; i++) {
+			List<File> before = list(region);
+			diskCache.write("status", new Key("org", "trace" + i), new CacheEntry(randomValue(random), time, null));
+			List<File> after = list(region);
+			after.removeAll(before);
+			File file = after.get(0);
+			// Makes the write order visible despite the file system's time resolution
+			file.setLastModified(time + i * 1000);
+			written.add(file);
+			writtenSize += file.length();
+		}
+		assertFalse(written.get(0).exists());
+		assertTrue(written.get(written.size() - 1).exists());
+		assertTrue(size(region) <= maxSize * 8 / 10);
+		// Only the least recently used entries have been deleted
+		boolean kept = false;
+		for (File file : written) {
+			if (kept) {
+				assertTrue(file.exists());
+			}
+			kept |= file.exists();
+		}
+	}
+
+	@Test
+	public void formatVersionTest() throws IOException {
+		File region = new File(root, "story");
+		assertTrue(region.mkdirs());
+		Files.write(new File(root, "version").toPath(), "1".getBytes(StandardCharsets.UTF_8));
+		File stale = new File(region, "0123456789abcdef.json.gz");
+		Files.write(stale.toPath(), new byte[] { 1, 2, 3 });
+
+		DiskCache diskCache = new DiskCache(root, MAX_SIZE);
+		assertNull(diskCache.read("story", new Key("org", "trace"), StoryResponse.class));
+		assertFalse(stale.exists());
+		assertEquals("2", new String(Files.readAllBytes(new File(root, "version").toPath()), StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void storyHeaderFilterTest() {
+		String json = "{\"story\":{\"chapters\":[{\"type\":\"properties\",\"body\":"
+				+ "\"GET /WebGoat/attack HTTP/1.1\\nAuthorization: Basic d2ViZ29hdA==\\nX-Auth-Token: 1234\\nAccept: text/html\"}]}}";
+		DiskCache diskCache = new DiskCache(root, MAX_SIZE);
+		Key key = new Key("org", "trace");
+		diskCache.write("story", key,
+				new CacheEntry(new Gson().fromJson(json, StoryResponse.class), System.currentTimeMillis(), null));
+
+		StoryResponse story = (StoryResponse) diskCache.read("story", key, StoryResponse.class).getValue();
+		assertEquals("GET /WebGoat/attack HTTP/1.1\nAccept: text/html", story.getStory().getChapters().get(0).getBody());
+	}
+
+	@Test
+	public void collapsedEventsTest() {
+		String json = "{\"events\":[{\"id\":\"1\",\"collapsedEvents\":[{\"id\":\"2\"},{\"id\":\"3\"}]},{\"id\":\"4\"}]}";
+		DiskCache diskCache = new DiskCache(root, MAX_SIZE);
+		Key key = new Key("org", "trace");
+		diskCache.write("eventSummary", key, new CacheEntry(new Gson().fromJson(json, EventSummaryResponse.class),
+				System.currentTimeMillis(), null));
+
+		EventSummaryResponse eventSummary = (EventSummaryResponse) diskCache
+				.read("eventSummary", key, EventSummaryResponse.class).getValue();
+		EventResource event = eventSummary.getEvents().get(0);
+		assertEquals(2, event.getCollapsedEvents().size());
+		for (EventResource collapsedEvent : event.getCollapsedEvents()) {
+			assertSame(event, collapsedEvent.getParent());
+		}
+		assertNotNull(eventSummary.getEvents().get(1));
+		assertNull(eventSummary.getEvents().get(1).getParent());
+	}
+
+	/**
+	 * @return A string that barely compresses, so every entry takes a few
+	 *         kilobytes on disk.
+	 */
+	private static String randomValue(Random random) {
+		StringBuilder value = new StringBuilder();
+		for (int i = 0; i < 4096; i++) {
+			value.append((char) ('!' + random.nextInt(90)));
+		}
+		return value.toString();
+	}
+
+	private static List<File> list(File directory) {
+		File[] files = directory.listFiles();
+		return files != null ? new ArrayList<>(Arrays.asList(files)) : new ArrayList<File>();
+	}
+
+	private static long size(File directory) {
+		long size = 0;
+		for (File file : list(directory)) {
+			size += file.length();
+		}
+		return size;
+	}
+}
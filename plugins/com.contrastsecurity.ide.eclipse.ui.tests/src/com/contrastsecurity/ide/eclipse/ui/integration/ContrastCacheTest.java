@@ -8,12 +8,12 @@ import org.junit.BeforeClass;
 import org.junit.Test;
 
 import com.contrastsecurity.ide.eclipse.ui.ContrastUIActivator;
+import com.contrastsecurity.ide.eclipse.ui.cache.CacheRegion;
 import com.contrastsecurity.ide.eclipse.ui.cache.ContrastCache;
 import com.contrastsecurity.ide.eclipse.ui.cache.Key;
 import com.contrastsecurity.models.EventSummaryResponse;
 import com.contrastsecurity.models.HttpRequestResponse;
 import com.contrastsecurity.models.StoryResponse;
-import com.googlecode.concurrentlinkedhashmap.ConcurrentLinkedHashMap;
 
 
 public class ContrastCacheTest {
@@ -49,7 +49,7 @@ public class ContrastCacheTest {
 
 		EventSummaryResponse eventSummaryResource = new EventSummaryResponse();
 
-		ConcurrentLinkedHashMap<Key, EventSummaryResponse> eventSummaryResources = contrastCache
+		CacheRegion<EventSummaryResponse> eventSummaryResources = contrastCache
 			.getEventSummaryResources();
 
 		eventSummaryResources.put(key, eventSummaryResource);
@@ -65,7 +65,7 @@ public class ContrastCacheTest {
 
 		StoryResponse storyResource = new StoryResponse();
 
-		ConcurrentLinkedHashMap<Key, StoryResponse> storyResources = contrastCache.getStoryResources();
+		CacheRegion<StoryResponse> storyResources = contrastCache.getStoryResources();
 
 		storyResources.put(key, storyResource);
 
@@ -82,7 +82,7 @@ public class ContrastCacheTest {
 
 		HttpRequestResponse httpRequestResource = new HttpRequestResponse();
 
-		ConcurrentLinkedHashMap<Key, HttpRequestResponse> httpRequestResources = contrastCache
+		CacheRegion<HttpRequestResponse> httpRequestResources = contrastCache
 			.getHttpRequestResources();
 
 		httpRequestResources.put(key, httpRequestResource);
@@ -99,16 +99,16 @@ public class ContrastCacheTest {
 	public void clearTest() {
 
 		EventSummaryResponse eventSummaryResource = new EventSummaryResponse();
-		ConcurrentLinkedHashMap<Key, EventSummaryResponse> eventSummaryResources = contrastCache
+		CacheRegion<EventSummaryResponse> eventSummaryResources = contrastCache
 			.getEventSummaryResources();
 		eventSummaryResources.put(key, eventSummaryResource);
 
 		StoryResponse storyResource = new StoryResponse();
-		ConcurrentLinkedHashMap<Key, StoryResponse> storyResources = contrastCache.getStoryResources();
+		CacheRegion<StoryResponse> storyResources = contrastCache.getStoryResources();
 		storyResources.put(key, storyResource);
 
 		HttpRequestResponse httpRequestResource = new HttpRequestResponse();
-		ConcurrentLinkedHashMap<Key, HttpRequestResponse> httpRequestResources = contrastCache
+		CacheRegion<HttpRequestResponse> httpRequestResources = contrastCache
 			.getHttpRequestResources();
 		httpRequestResources.put(key, httpRequestResource);
 
@@ -0,0 +1,44 @@
+package com.contrastsecurity.ide.eclipse.ui.unit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Test;
+
+import com.contrastsecurity.ide.eclipse.ui.cache.TagDiff;
+import com.contrastsecurity.models.TagsResponse;
+
+public class TagDiffTest {
+
+	@Test
+	public void computeTest() {
+		TagDiff diff = TagDiff.compute(Arrays.asList("a", "b", "c"), Arrays.asList("c", "d", "a", "d"));
+		assertEquals(Arrays.asList("d"), diff.getAdded());
+		assertEquals(Arrays.asList("b"), diff.getRemoved());
+		assertTrue(TagDiff.compute(null, Collections.<String>emptyList()).isEmpty());
+		assertTrue(TagDiff.compute(Arrays.asList("a", "b"), Arrays.asList("b", "a")).isEmpty());
+	}
+
+	@Test
+	public void applyTest() {
+		TagDiff diff = TagDiff.compute(Arrays.asList("a", "b"), Arrays.asList("a", "c"));
+		TagsResponse traceTags = tags("a", "b");
+		TagsResponse orgTags = tags("a", "b", "x");
+
+		assertEquals(Arrays.asList("a", "c"), diff.applyTo(traceTags).getTags());
+		assertEquals(Arrays.asList("a", "b", "x", "c"), diff.mergeInto(orgTags).getTags());
+		assertEquals(Arrays.asList("a", "b"), traceTags.getTags());
+		assertEquals(Arrays.asList("c"), diff.applyTo(null).getTags());
+	}
+
+	private static TagsResponse tags(String... tags) {
+		TagsResponse response = new TagsResponse();
+		response.setSuccess("true");
+		response.setTags(Arrays.asList(tags));
+		return response;
+	}
+
+}
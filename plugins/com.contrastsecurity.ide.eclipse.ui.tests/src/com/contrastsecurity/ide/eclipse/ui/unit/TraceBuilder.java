@@ -0,0 +1,54 @@
+package com.contrastsecurity.ide.eclipse.ui.unit;
+
+import com.contrastsecurity.models.Trace;
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+
+/**
+ * Builds the traces used by the unit tests. {@link Trace} has no setters, so
+ * the trace is read from the JSON the Contrast API would return.
+ */
+public class TraceBuilder {
+
+	private final JsonObject json = new JsonObject();
+
+	public TraceBuilder(String uuid) {
+		json.addProperty("uuid", uuid);
+	}
+
+	public TraceBuilder title(String title) {
+		json.addProperty("title", title);
+		return this;
+	}
+
+	public TraceBuilder rule(String rule) {
+		json.addProperty("rule_name", rule);
+		return this;
+	}
+
+	public TraceBuilder severity(String severity) {
+		json.addProperty("severity", severity);
+		return this;
+	}
+
+	public TraceBuilder status(String status) {
+		json.addProperty("status", status);
+		return this;
+	}
+
+	public TraceBuilder lastTimeSeen(long lastTimeSeen) {
+		json.addProperty("last_time_seen", lastTimeSeen);
+		return this;
+	}
+
+	public TraceBuilder application(String name) {
+		JsonObject application = new JsonObject();
+		application.addProperty("name", name);
+		json.add("application", application);
+		return this;
+	}
+
+	public Trace build() {
+		return new Gson().fromJson(json, Trace.class);
+	}
+}
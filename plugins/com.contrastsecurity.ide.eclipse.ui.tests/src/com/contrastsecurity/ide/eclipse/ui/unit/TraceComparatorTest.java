@@ -0,0 +1,47 @@
+package com.contrastsecurity.ide.eclipse.ui.unit;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+import com.contrastsecurity.ide.eclipse.ui.internal.model.TraceComparator;
+import com.contrastsecurity.models.Trace;
+
+public class TraceComparatorTest {
+
+	private final Trace critical = new TraceBuilder("1").severity("Critical").title("SQL Injection").application("b")
+			.lastTimeSeen(1L).build();
+	private final Trace high = new TraceBuilder("2").severity("High").title("Cross-Site Scripting").application("a")
+			.lastTimeSeen(2L).build();
+	private final Trace noteOld = new TraceBuilder("3").severity("Note").title("cache controls").application("a")
+			.lastTimeSeen(3L).build();
+	private final Trace noteNew = new TraceBuilder("4").severity("Note").title("Cache Controls").application("a")
+			.lastTimeSeen(4L).build();
+
+	@Test
+	public void sortBySeverityTest() {
+		Trace[] traces = { noteOld, high, critical, noteNew };
+		TraceComparator.forSort("-severity").sort(traces);
+		assertArrayEquals(new Trace[] { critical, high, noteNew, noteOld }, traces);
+
+		TraceComparator.forSort("severity").sort(traces);
+		assertArrayEquals(new Trace[] { noteNew, noteOld, high, critical }, traces);
+	}
+
+	@Test
+	public void sortByTitleTest() {
+		Trace[] traces = { critical, noteOld, high, noteNew };
+		TraceComparator.forSort("title").sort(traces);
+		assertArrayEquals(new Trace[] { noteNew, noteOld, high, critical }, traces);
+
+		TraceComparator.forSort("-title").sort(traces);
+		assertArrayEquals(new Trace[] { critical, high, noteNew, noteOld }, traces);
+	}
+
+	@Test
+	public void unknownSortTest() {
+		assertNull(TraceComparator.forSort("lastTimeSeen"));
+		assertNull(TraceComparator.forSort(null));
+	}
+}
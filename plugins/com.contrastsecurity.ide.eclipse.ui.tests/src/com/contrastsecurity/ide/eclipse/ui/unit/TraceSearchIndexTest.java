@@ -0,0 +1,69 @@
+package com.contrastsecurity.ide.eclipse.ui.unit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Test;
+
+import com.contrastsecurity.ide.eclipse.ui.cache.TraceSearchIndex;
+import com.contrastsecurity.models.StoryResponse;
+import com.contrastsecurity.models.Trace;
+import com.google.gson.Gson;
+
+public class TraceSearchIndexTest {
+
+	private final Trace sqlInjection = new TraceBuilder("1").title("SQL Injection from \"id\" Parameter")
+			.rule("sql-injection").application("WebGoat").build();
+	private final Trace xss = new TraceBuilder("2").title("Cross-Site Scripting from \"name\" Parameter")
+			.rule("reflected-xss").application("Petclinic").build();
+
+	@Test
+	public void searchTest() {
+		TraceSearchIndex index = new TraceSearchIndex();
+		index.addTraces(Arrays.asList(sqlInjection, xss));
+
+		assertEquals(Arrays.asList(sqlInjection, xss), index.search("parameter"));
+		assertEquals(Arrays.asList(sqlInjection), index.search("Injection webg"));
+		assertEquals(Arrays.asList(xss), index.search("reflected-x"));
+		assertTrue(index.search("injection petclinic").isEmpty());
+		assertTrue(index.search("  ").isEmpty());
+	}
+
+	@Test
+	public void incrementalUpdateTest() {
+		TraceSearchIndex index = new TraceSearchIndex();
+		index.addTraces(Arrays.asList(sqlInjection, xss));
+		index.addTags("2", Arrays.asList("triaged", "sprint-12"));
+		assertEquals(Arrays.asList(xss), index.search("triaged"));
+
+		index.addTags("2", Arrays.asList("sprint-12"));
+		assertTrue(index.search("triaged").isEmpty());
+		assertEquals(Arrays.asList(xss), index.search("sprint 12"));
+
+		Trace renamed = new TraceBuilder("2").title("Cross-Site Scripting").rule("reflected-xss").application("Owners")
+				.build();
+		index.addTrace(renamed);
+		assertTrue(index.search("petclinic").isEmpty());
+		assertEquals(Arrays.asList(renamed), index.search("owners"));
+		assertEquals(Collections.singletonList(renamed), index.search("sprint"));
+
+		index.removeTrace("2");
+		assertTrue(index.search("sprint").isEmpty());
+		assertEquals(1, index.size());
+	}
+
+	@Test
+	public void storyTest() {
+		TraceSearchIndex index = new TraceSearchIndex();
+		index.addTrace(sqlInjection);
+		String json = "{\"story\":{\"chapters\":[{\"introText\":\"The query was built with {{#code}}executeQuery{{/code}}\"}],"
+				+ "\"risk\":{\"text\":\"Attackers could read the database\"}}}";
+		index.addStory("1", new Gson().fromJson(json, StoryResponse.class));
+
+		assertEquals(Arrays.asList(sqlInjection), index.search("executequery"));
+		assertEquals(Arrays.asList(sqlInjection), index.search("database"));
+	}
+}
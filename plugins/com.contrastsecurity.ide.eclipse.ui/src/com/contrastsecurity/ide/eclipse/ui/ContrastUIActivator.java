@@ -13,6 +13,7 @@
  *     Contrast Security - initial API and implementation
  *******************************************************************************/
 package com.contrastsecurity.ide.eclipse.ui;
+import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.Platform;
 
 import org.eclipse.core.runtime.IStatus;
@@ -28,6 +29,7 @@ import org.eclipse.ui.IWorkbenchWindow;
 import org.eclipse.ui.plugin.AbstractUIPlugin;
 import org.osgi.framework.Bundle;
 import org.osgi.framework.BundleContext;
+import org.osgi.util.tracker.ServiceTracker;
 
 import java.util.ResourceBundle;
 import java.net.MalformedURLException;
@@ -35,7 +37,13 @@ import java.net.URL;
 import java.io.File;
 
 import com.contrastsecurity.ide.eclipse.core.ContrastCoreActivator;
+import com.contrastsecurity.ide.eclipse.core.service.IContrastService;
 import com.contrastsecurity.ide.eclipse.ui.cache.ContrastCache;
+import com.contrastsecurity.ide.eclipse.ui.cache.FilterMetadataCache;
+import com.contrastsecurity.ide.eclipse.ui.internal.job.VulnerabilityMarkerJob;
+import com.contrastsecurity.ide.eclipse.ui.internal.model.StackFrameResolver;
+import com.contrastsecurity.ide.eclipse.ui.internal.model.WorkspaceIndex;
+import com.contrastsecurity.ide.eclipse.ui.util.MarkupUtils;
 import com.contrastsecurity.models.Trace;
 
 /**
@@ -51,6 +59,16 @@ public class ContrastUIActivator extends AbstractUIPlugin {
 	
 	private static ContrastCache contrastCache = new ContrastCache();
 
+	private static FilterMetadataCache filterMetadataCache = new FilterMetadataCache();
+
+	private static WorkspaceIndex workspaceIndex;
+
+	private static StackFrameResolver stackFrameResolver;
+
+	private static VulnerabilityMarkerJob vulnerabilityMarkerJob;
+
+	private ServiceTracker<IContrastService, IContrastService> contrastServiceTracker;
+
 	static ResourceBundle resource = ResourceBundle.getBundle("OSGI-INF/l10n.bundle");
 
 	/**
@@ -66,6 +84,9 @@ public class ContrastUIActivator extends AbstractUIPlugin {
 	public void start(BundleContext context) throws Exception {
 		super.start(context);
 		plugin = this;
+		// Loading the service interface starts the core bundle, which registers it
+		contrastServiceTracker = new ServiceTracker<>(context, IContrastService.class, null);
+		contrastServiceTracker.open();
 	}
 
 	/*
@@ -73,6 +94,21 @@ public class ContrastUIActivator extends AbstractUIPlugin {
 	 * @see org.eclipse.ui.plugin.AbstractUIPlugin#stop(org.osgi.framework.BundleContext)
 	 */
 	public void stop(BundleContext context) throws Exception {
+		if (contrastServiceTracker != null) {
+			contrastServiceTracker.close();
+			contrastServiceTracker = null;
+		}
+		synchronized (ContrastUIActivator.class) {
+			if (vulnerabilityMarkerJob != null) {
+				vulnerabilityMarkerJob.cancel();
+				vulnerabilityMarkerJob = null;
+			}
+			if (workspaceIndex != null) {
+				workspaceIndex.dispose();
+				workspaceIndex = null;
+				stackFrameResolver = null;
+			}
+		}
 		plugin = null;
 		super.stop(context);
 	}
@@ -151,13 +187,7 @@ public class ContrastUIActivator extends AbstractUIPlugin {
 	}
 	
 	public static String removeHtmlMarkup(String html) {
-		html = html.replace("<span class='normal-code'>", "");
-		html = html.replace("<span class='code-string'>", "");
-		html = html.replace("<span class='taint'>", "");
-		html = html.replace("<i>", "");
-		html = html.replace("</i>", "");
-		html = html.replaceAll("</span>", "");
-		return html;
+		return MarkupUtils.removeHtmlMarkup(html);
 	}
 
 	public static IWorkbenchWindow getActiveWorkbenchWindow() {
@@ -207,4 +237,49 @@ public class ContrastUIActivator extends AbstractUIPlugin {
 		return contrastCache;
 	}
 
+	public static FilterMetadataCache getFilterMetadataCache() {
+		return filterMetadataCache;
+	}
+
+	/**
+	 * @return The index of the workspace files and source types, created on
+	 *         the first call.
+	 */
+	public static synchronized WorkspaceIndex getWorkspaceIndex() {
+		if (workspaceIndex == null) {
+			workspaceIndex = new WorkspaceIndex(ResourcesPlugin.getWorkspace());
+		}
+		return workspaceIndex;
+	}
+
+	/**
+	 * @return The resolver of the stack frames of trace events, which keeps
+	 *         the locations of the last traces.
+	 */
+	public static synchronized StackFrameResolver getStackFrameResolver() {
+		if (stackFrameResolver == null) {
+			stackFrameResolver = new StackFrameResolver(getWorkspaceIndex());
+		}
+		return stackFrameResolver;
+	}
+
+	/**
+	 * @return The job marking the sources of the traces whose events have
+	 *         been fetched.
+	 */
+	public static synchronized VulnerabilityMarkerJob getVulnerabilityMarkerJob() {
+		if (vulnerabilityMarkerJob == null) {
+			vulnerabilityMarkerJob = new VulnerabilityMarkerJob(getStackFrameResolver());
+		}
+		return vulnerabilityMarkerJob;
+	}
+
+	/**
+	 * @return The service that sends Team Server requests without blocking,
+	 *         or null if the core bundle has been stopped.
+	 */
+	public static IContrastService getContrastService() {
+		return plugin == null ? null : plugin.contrastServiceTracker.getService();
+	}
+
 }
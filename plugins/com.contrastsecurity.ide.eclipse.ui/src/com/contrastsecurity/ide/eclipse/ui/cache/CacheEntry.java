@@ -0,0 +1,61 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Contrast Security.
+ * All rights reserved. 
+ * 
+ * This program and the accompanying materials are made available under 
+ * the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License.
+ * 
+ * The terms of the GNU GPL version 3 which accompanies this distribution
+ * and is available at https://www.gnu.org/licenses/gpl-3.0.en.html
+ * 
+ * Contributors:
+ *     Contrast Security - initial API and implementation
+ *******************************************************************************/
+package com.contrastsecurity.ide.eclipse.ui.cache;
+
+/**
+ * A cached value together with what is needed to decide whether it is still
+ * fresh: the time it was loaded and the last time seen of its trace at that
+ * moment.
+ */
+final class CacheEntry {
+
+	private final Object value;
+	private final long storedAt;
+	private final Long lastTimeSeen;
+
+	CacheEntry(Object value, long storedAt, Long lastTimeSeen) {
+		this.value = value;
+		this.storedAt = storedAt;
+		this.lastTimeSeen = lastTimeSeen;
+	}
+
+	Object getValue() {
+		return value;
+	}
+
+	long getStoredAt() {
+		return storedAt;
+	}
+
+	Long getLastTimeSeen() {
+		return lastTimeSeen;
+	}
+
+	/**
+	 * @param timeToLive
+	 *            Maximum age in milliseconds.
+	 * @param currentLastTimeSeen
+	 *            Last time seen of the trace as currently reported by Team
+	 *            Server or null if unknown.
+	 * @return Whether the entry is too old or the trace has been seen again
+	 *         since the entry was loaded.
+	 */
+	boolean isStale(long timeToLive, Long currentLastTimeSeen) {
+		if (System.currentTimeMillis() - storedAt > timeToLive) {
+			return true;
+		}
+		return currentLastTimeSeen != null && lastTimeSeen != null && !lastTimeSeen.equals(currentLastTimeSeen);
+	}
+}
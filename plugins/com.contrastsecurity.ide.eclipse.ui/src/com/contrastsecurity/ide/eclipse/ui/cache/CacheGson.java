@@ -0,0 +1,47 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Contrast Security.
+ * All rights reserved. 
+ * 
+ * This program and the accompanying materials are made available under 
+ * the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License.
+ * 
+ * The terms of the GNU GPL version 3 which accompanies this distribution
+ * and is available at https://www.gnu.org/licenses/gpl-3.0.en.html
+ * 
+ * Contributors:
+ *     Contrast Security - initial API and implementation
+ *******************************************************************************/
+package com.contrastsecurity.ide.eclipse.ui.cache;
+
+import com.contrastsecurity.models.EventModel;
+import com.contrastsecurity.models.EventResource;
+import com.google.gson.ExclusionStrategy;
+import com.google.gson.FieldAttributes;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+/**
+ * Gson configuration for serializing cached resources.
+ */
+final class CacheGson {
+
+	static final Gson GSON = new GsonBuilder().setExclusionStrategies(new ExclusionStrategy() {
+
+		@Override
+		public boolean shouldSkipField(FieldAttributes field) {
+			// parent links and the lazily built items array make event graphs cyclic
+			return (field.getDeclaringClass() == EventModel.class && "parent".equals(field.getName()))
+					|| (field.getDeclaringClass() == EventResource.class && "items".equals(field.getName()));
+		}
+
+		@Override
+		public boolean shouldSkipClass(Class<?> clazz) {
+			return false;
+		}
+	}).create();
+
+	private CacheGson() {
+	}
+
+}
@@ -0,0 +1,28 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Contrast Security.
+ * All rights reserved. 
+ * 
+ * This program and the accompanying materials are made available under 
+ * the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License.
+ * 
+ * The terms of the GNU GPL version 3 which accompanies this distribution
+ * and is available at https://www.gnu.org/licenses/gpl-3.0.en.html
+ * 
+ * Contributors:
+ *     Contrast Security - initial API and implementation
+ *******************************************************************************/
+package com.contrastsecurity.ide.eclipse.ui.cache;
+
+import java.io.IOException;
+
+import com.contrastsecurity.exceptions.UnauthorizedException;
+
+/**
+ * Fetches a resource that is missing in a {@link CacheRegion}.
+ */
+public interface CacheLoader<V> {
+
+	V load(Key key) throws IOException, UnauthorizedException;
+
+}
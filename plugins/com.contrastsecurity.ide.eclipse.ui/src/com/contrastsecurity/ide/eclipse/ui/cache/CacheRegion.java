@@ -0,0 +1,244 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Contrast Security.
+ * All rights reserved. 
+ * 
+ * This program and the accompanying materials are made available under 
+ * the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License.
+ * 
+ * The terms of the GNU GPL version 3 which accompanies this distribution
+ * and is available at https://www.gnu.org/licenses/gpl-3.0.en.html
+ * 
+ * Contributors:
+ *     Contrast Security - initial API and implementation
+ *******************************************************************************/
+package com.contrastsecurity.ide.eclipse.ui.cache;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+import com.contrastsecurity.exceptions.UnauthorizedException;
+import com.googlecode.concurrentlinkedhashmap.ConcurrentLinkedHashMap;
+
+/**
+ * One kind of cached resource. Entries are kept in the in-memory LRU map that
+ * all regions of a {@link ContrastCache} share and, for persistent regions,
+ * also written to the {@link DiskCache} which is consulted whenever the memory
+ * tier misses.
+ * <p>
+ * Entries expire after the time to live of the region. An entry that was
+ * loaded for a trace is also dropped as soon as the trace is looked up with a
+ * different last time seen, since Team Server has recorded new activity for it
+ * in the meantime.
+ */
+public class CacheRegion<V> {
+
+	private final String name;
+	private final Class<V> type;
+	private final long timeToLive;
+	private final SizeEstimator<V> sizeEstimator;
+	private final DiskCache diskCache;
+	private final ConcurrentLinkedHashMap<RegionKey, CacheEntry> memory;
+	private final ConcurrentMap<Key, FutureTask<V>> loading = new ConcurrentHashMap<>();
+
+	CacheRegion(String name, Class<V> type, long timeToLive, SizeEstimator<V> sizeEstimator,
+			ConcurrentLinkedHashMap<RegionKey, CacheEntry> memory, DiskCache diskCache) {
+		this.name = name;
+		this.type = type;
+		this.timeToLive = timeToLive;
+		this.sizeEstimator = sizeEstimator;
+		this.memory = memory;
+		this.diskCache = diskCache;
+	}
+
+	public V get(Key key) {
+		return get(key, (Long) null);
+	}
+
+	/**
+	 * Returns the cached value if it is still fresh.
+	 *
+	 * @param lastTimeSeen
+	 *            Last time seen of the trace as currently reported by Team
+	 *            Server or null to only apply the time to live.
+	 */
+	public V get(Key key, Long lastTimeSeen) {
+		V value = getFromMemory(key, lastTimeSeen);
+		if (value == null && diskCache != null) {
+			CacheEntry entry = diskCache.read(name, key, type);
+			if (entry != null) {
+				if (entry.isStale(timeToLive, lastTimeSeen)) {
+					diskCache.delete(name, key);
+				} else {
+					memory.putIfAbsent(new RegionKey(this, key), entry);
+					value = type.cast(entry.getValue());
+				}
+			}
+		}
+		return value;
+	}
+
+	private V getFromMemory(Key key, Long lastTimeSeen) {
+		RegionKey regionKey = new RegionKey(this, key);
+		CacheEntry entry = memory.get(regionKey);
+		if (entry == null) {
+			return null;
+		}
+		if (entry.isStale(timeToLive, lastTimeSeen)) {
+			memory.remove(regionKey, entry);
+			return null;
+		}
+		return type.cast(entry.getValue());
+	}
+
+	public V get(Key key, CacheLoader<V> loader) throws IOException, UnauthorizedException {
+		return get(key, null, loader);
+	}
+
+	/**
+	 * Returns the cached value or loads it on a miss. Concurrent misses for the
+	 * same key share a single load: the first caller runs the loader, the
+	 * others wait for its value or its failure.
+	 *
+	 * @param lastTimeSeen
+	 *            Last time seen of the trace as currently reported by Team
+	 *            Server or null to only apply the time to live. Stored with a
+	 *            loaded value to validate it later on.
+	 */
+	public V get(final Key key, final Long lastTimeSeen, final CacheLoader<V> loader)
+			throws IOException, UnauthorizedException {
+		V value = get(key, lastTimeSeen);
+		if (value != null) {
+			return value;
+		}
+		FutureTask<V> task = new FutureTask<>(new Callable<V>() {
+
+			@Override
+			public V call() throws Exception {
+				// Another load may have completed since the lookup above
+				V loaded = getFromMemory(key, lastTimeSeen);
+				return loaded != null ? loaded : loader.load(key);
+			}
+		});
+		FutureTask<V> inFlight = loading.putIfAbsent(key, task);
+		if (inFlight != null) {
+			return await(inFlight);
+		}
+		try {
+			task.run();
+			value = await(task);
+			// Not cached if the key has been removed while loading
+			if (value != null && loading.get(key) == task) {
+				put(key, value, lastTimeSeen);
+			}
+			return value;
+		} finally {
+			loading.remove(key, task);
+		}
+	}
+
+	private V await(FutureTask<V> inFlight) throws IOException, UnauthorizedException {
+		try {
+			return inFlight.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException();
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof IOException) {
+				throw (IOException) cause;
+			} else if (cause instanceof UnauthorizedException) {
+				throw (UnauthorizedException) cause;
+			} else if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			} else if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new IllegalStateException(cause);
+		}
+	}
+
+	public void put(Key key, V value) {
+		put(key, value, null);
+	}
+
+	/**
+	 * @param lastTimeSeen
+	 *            Last time seen of the trace the value has been loaded for or
+	 *            null if unknown.
+	 */
+	public void put(Key key, V value, Long lastTimeSeen) {
+		CacheEntry entry = new CacheEntry(value, System.currentTimeMillis(), lastTimeSeen);
+		memory.put(new RegionKey(this, key), entry);
+		if (diskCache != null) {
+			diskCache.write(name, key, entry);
+		}
+	}
+
+	/**
+	 * Caches a value that is known to be newer than anything Team Server
+	 * returned before, like the result of a change made by the user. A load of
+	 * the key that is still running is discarded instead of overwriting it.
+	 */
+	public void replace(Key key, V value) {
+		loading.remove(key);
+		put(key, value);
+	}
+
+	/**
+	 * @return Maximum age of an entry in milliseconds.
+	 */
+	public long getTimeToLive() {
+		return timeToLive;
+	}
+
+	public void remove(Key key) {
+		loading.remove(key);
+		memory.remove(new RegionKey(this, key));
+		if (diskCache != null) {
+			diskCache.delete(name, key);
+		}
+	}
+
+	/**
+	 * Clears the in-memory tier. Persisted entries are kept and reloaded on
+	 * demand.
+	 */
+	public void clear() {
+		for (RegionKey key : memory.keySet()) {
+			if (key.getRegion() == this) {
+				memory.remove(key);
+			}
+		}
+	}
+
+	/**
+	 * @return Number of entries of this region in memory. Counts them, so not
+	 *         meant for hot paths.
+	 */
+	public int size() {
+		int size = 0;
+		for (RegionKey key : memory.keySet()) {
+			if (key.getRegion() == this) {
+				size++;
+			}
+		}
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+
+	/**
+	 * @return Estimated heap footprint of one of this region's values.
+	 */
+	int weigh(CacheEntry entry) {
+		return Math.max(1, sizeEstimator.estimate(type.cast(entry.getValue())));
+	}
+}
@@ -14,54 +14,173 @@
  *******************************************************************************/
 package com.contrastsecurity.ide.eclipse.ui.cache;
 
+import java.util.concurrent.TimeUnit;
+
+import com.contrastsecurity.ide.eclipse.core.Constants;
+import com.contrastsecurity.ide.eclipse.core.ContrastCoreActivator;
 import com.contrastsecurity.models.EventSummaryResponse;
 import com.contrastsecurity.models.HttpRequestResponse;
 import com.contrastsecurity.models.RecommendationResponse;
 import com.contrastsecurity.models.StoryResponse;
 import com.contrastsecurity.models.TagsResponse;
 import com.googlecode.concurrentlinkedhashmap.ConcurrentLinkedHashMap;
+import com.googlecode.concurrentlinkedhashmap.EntryWeigher;
 
+/**
+ * Caches the trace resources shown in the vulnerability details. Stories,
+ * recommendations and event summaries are also persisted under the plugin
+ * state location, so they are available right after a restart. HTTP requests
+ * carry the headers of the request, such as credentials and session cookies,
+ * and are only kept in memory. Each region expires its entries after its own
+ * time to live.
+ * <p>
+ * All regions share one in-memory LRU map whose entries are weighed by their
+ * estimated heap footprint, so eviction follows the configured memory budget
+ * rather than the number of entries.
+ */
 public class ContrastCache {
-	private static final int MAX_CACHE_SIZE = 50;
 
-	private ConcurrentLinkedHashMap<Key, EventSummaryResponse> eventSummaryResources = new ConcurrentLinkedHashMap.Builder<Key, EventSummaryResponse>()
-			.initialCapacity(MAX_CACHE_SIZE / 2).maximumWeightedCapacity(MAX_CACHE_SIZE).build();
-	private ConcurrentLinkedHashMap<Key, StoryResponse> storyResources = new ConcurrentLinkedHashMap.Builder<Key, StoryResponse>()
-			.initialCapacity(MAX_CACHE_SIZE / 2).maximumWeightedCapacity(MAX_CACHE_SIZE).build();
-	private ConcurrentLinkedHashMap<Key, HttpRequestResponse> httpRequestResources = new ConcurrentLinkedHashMap.Builder<Key, HttpRequestResponse>()
-			.initialCapacity(MAX_CACHE_SIZE / 2).maximumWeightedCapacity(MAX_CACHE_SIZE).build();
+	private static final long MEGABYTE = 1024 * 1024;
+
+	/**
+	 * Recommendations only change with the rule, they are kept the longest.
+	 */
+	private static final long RECOMMENDATION_TIME_TO_LIVE = TimeUnit.HOURS.toMillis(12);
+
+	/**
+	 * Stories, event summaries and HTTP requests are also validated against
+	 * the last time seen of their trace, so they can be kept for a while.
+	 */
+	private static final long TRACE_DETAILS_TIME_TO_LIVE = TimeUnit.HOURS.toMillis(6);
+
+	/**
+	 * Tags are edited by other users without touching the trace, so they are
+	 * only kept for one refresh interval. Reloading them is cheap.
+	 */
+	private static final long TAGS_TIME_TO_LIVE = TimeUnit.MINUTES.toMillis(5);
+
+	/**
+	 * Statuses are changed by other users without touching the trace either.
+	 * Changes made in the plugin update the region directly.
+	 */
+	private static final long STATUS_TIME_TO_LIVE = TimeUnit.MINUTES.toMillis(5);
 
-	private ConcurrentLinkedHashMap<Key, RecommendationResponse> recommendationResources = new ConcurrentLinkedHashMap.Builder<Key, RecommendationResponse>()
-			.initialCapacity(MAX_CACHE_SIZE / 2).maximumWeightedCapacity(MAX_CACHE_SIZE).build();
+	private final ConcurrentLinkedHashMap<RegionKey, CacheEntry> memory;
 
-	private ConcurrentLinkedHashMap<Key, TagsResponse> tagsResources = new ConcurrentLinkedHashMap.Builder<Key, TagsResponse>()
-			.initialCapacity(MAX_CACHE_SIZE / 2).maximumWeightedCapacity(MAX_CACHE_SIZE).build();
+	private final CacheRegion<EventSummaryResponse> eventSummaryResources;
+	private final CacheRegion<StoryResponse> storyResources;
+	private final CacheRegion<HttpRequestResponse> httpRequestResources;
+	private final CacheRegion<RecommendationResponse> recommendationResources;
+	private final CacheRegion<TagsResponse> tagsResources;
+	private final CacheRegion<String> statusResources;
+
+	public ContrastCache() {
+		this(getConfiguredMemoryBudget(), new DiskCache());
+	}
+
+	/**
+	 * @param memoryBudget
+	 *            Memory shared by all regions in bytes.
+	 * @param diskCache
+	 *            Disk tier of the persistent regions or null to keep
+	 *            everything in memory only.
+	 */
+	ContrastCache(long memoryBudget, DiskCache diskCache) {
+		memory = new ConcurrentLinkedHashMap.Builder<RegionKey, CacheEntry>()
+				.maximumWeightedCapacity(memoryBudget)
+				.weigher(new EntryWeigher<RegionKey, CacheEntry>() {
+
+					@Override
+					public int weightOf(RegionKey key, CacheEntry value) {
+						return key.getRegion().weigh(value);
+					}
+				}).build();
+		eventSummaryResources = new CacheRegion<>("eventSummary", EventSummaryResponse.class,
+				TRACE_DETAILS_TIME_TO_LIVE, SizeEstimators.<EventSummaryResponse>json(), memory, diskCache);
+		storyResources = new CacheRegion<>("story", StoryResponse.class, TRACE_DETAILS_TIME_TO_LIVE,
+				SizeEstimators.<StoryResponse>json(), memory, diskCache);
+		httpRequestResources = new CacheRegion<>("httpRequest", HttpRequestResponse.class,
+				TRACE_DETAILS_TIME_TO_LIVE, SizeEstimators.<HttpRequestResponse>json(), memory, null);
+		recommendationResources = new CacheRegion<>("recommendation", RecommendationResponse.class,
+				RECOMMENDATION_TIME_TO_LIVE, SizeEstimators.<RecommendationResponse>json(), memory, diskCache);
+		tagsResources = new CacheRegion<>("tags", TagsResponse.class, TAGS_TIME_TO_LIVE, SizeEstimators.TAGS,
+				memory, null);
+		statusResources = new CacheRegion<>("status", String.class, STATUS_TIME_TO_LIVE, SizeEstimators.STRING,
+				memory, null);
+	}
 
-	public ConcurrentLinkedHashMap<Key, EventSummaryResponse> getEventSummaryResources() {
+	public CacheRegion<EventSummaryResponse> getEventSummaryResources() {
 		return eventSummaryResources;
 	}
 
-	public ConcurrentLinkedHashMap<Key, StoryResponse> getStoryResources() {
+	public CacheRegion<StoryResponse> getStoryResources() {
 		return storyResources;
 	}
 
-	public ConcurrentLinkedHashMap<Key, HttpRequestResponse> getHttpRequestResources() {
+	public CacheRegion<HttpRequestResponse> getHttpRequestResources() {
 		return httpRequestResources;
 	}
 
-	public ConcurrentLinkedHashMap<Key, RecommendationResponse> getRecommendationResources() {
+	public CacheRegion<RecommendationResponse> getRecommendationResources() {
 		return recommendationResources;
 	}
 
-	public ConcurrentLinkedHashMap<Key, TagsResponse> getTagsResources() {
+	public CacheRegion<TagsResponse> getTagsResources() {
 		return tagsResources;
 	}
 
+	/**
+	 * @return The status of each trace, as returned by Team Server.
+	 */
+	public CacheRegion<String> getStatusResources() {
+		return statusResources;
+	}
+
+	/**
+	 * Removes everything cached for one trace from both tiers.
+	 */
+	public void invalidate(Key key) {
+		eventSummaryResources.remove(key);
+		storyResources.remove(key);
+		httpRequestResources.remove(key);
+		recommendationResources.remove(key);
+		tagsResources.remove(key);
+		statusResources.remove(key);
+	}
+
+	/**
+	 * Clears the in-memory tier of every region.
+	 */
 	public void clear() {
 		eventSummaryResources.clear();
 		storyResources.clear();
 		httpRequestResources.clear();
 		recommendationResources.clear();
 		tagsResources.clear();
+		statusResources.clear();
+	}
+
+	/**
+	 * Changes the memory shared by all regions. Entries are evicted right away
+	 * if the cache is larger than the new budget.
+	 *
+	 * @param megabytes
+	 *            New budget in megabytes.
+	 */
+	public void setMemoryBudget(int megabytes) {
+		memory.setCapacity(Math.max(1, megabytes) * MEGABYTE);
+	}
+
+	/**
+	 * @return Estimated heap footprint of all regions in memory, in bytes.
+	 */
+	public long getWeightedSize() {
+		return memory.weightedSize();
+	}
+
+	private static long getConfiguredMemoryBudget() {
+		int megabytes = ContrastCoreActivator.getPreferences().getInt(Constants.CACHE_MEMORY_BUDGET,
+				Constants.CACHE_MEMORY_BUDGET_VALUE);
+		return Math.max(1, megabytes) * MEGABYTE;
 	}
 }
@@ -0,0 +1,358 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Contrast Security.
+ * All rights reserved. 
+ * 
+ * This program and the accompanying materials are made available under 
+ * the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License.
+ * 
+ * The terms of the GNU GPL version 3 which accompanies this distribution
+ * and is available at https://www.gnu.org/licenses/gpl-3.0.en.html
+ * 
+ * Contributors:
+ *     Contrast Security - initial API and implementation
+ *******************************************************************************/
+package com.contrastsecurity.ide.eclipse.ui.cache;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.commons.io.IOUtils;
+
+import com.contrastsecurity.ide.eclipse.core.Util;
+import com.contrastsecurity.ide.eclipse.ui.ContrastUIActivator;
+import com.contrastsecurity.ide.eclipse.ui.util.MarkupUtils;
+import com.contrastsecurity.models.EventResource;
+import com.contrastsecurity.models.EventSummaryResponse;
+import com.contrastsecurity.models.StoryResponse;
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+/**
+ * Second cache tier that keeps responses as gzip compressed JSON files under
+ * the plugin state location, so they survive Eclipse restarts. The total size
+ * of the files is bounded; the least recently used entries are deleted first.
+ * <p>
+ * The request headers the details tabs hide, such as authorization headers
+ * and tokens, are removed from the chapters of stories before they are
+ * written.
+ */
+class DiskCache {
+
+	private static final long MAX_SIZE = 64L * 1024 * 1024;
+	private static final long MAX_AGE = TimeUnit.DAYS.toMillis(1);
+	private static final String FILE_EXTENSION = ".json.gz";
+	private static final String STORED_AT = "storedAt";
+	private static final String LAST_TIME_SEEN = "lastTimeSeen";
+	private static final String VALUE = "value";
+	private static final String CHAPTERS = "chapters";
+	private static final String BODY = "body";
+	/**
+	 * Version of the stored entries. Entries of another version are deleted
+	 * when the cache is opened; version 1 stored unfiltered request headers.
+	 */
+	private static final String FORMAT_VERSION = "2";
+	private static final String VERSION_FILE = "version";
+
+	private final Gson gson = CacheGson.GSON;
+	private final long maxSize;
+
+	private File root;
+	private boolean initialized;
+	private long size;
+
+	DiskCache() {
+		this(null, MAX_SIZE);
+	}
+
+	/**
+	 * @param root
+	 *            Cache directory or null to use the plugin state location.
+	 * @param maxSize
+	 *            Total size of the files in bytes above which the least
+	 *            recently used entries are deleted.
+	 */
+	DiskCache(File root, long maxSize) {
+		this.root = root;
+		this.maxSize = maxSize;
+	}
+
+	/**
+	 * @return The stored entry or null if there is none or it is older than
+	 *         the maximum age of the disk tier. The region checks its own time
+	 *         to live.
+	 */
+	CacheEntry read(String region, Key key, Class<?> type) {
+		File file = getFile(region, key);
+		if (file == null || !file.isFile()) {
+			return null;
+		}
+		Reader reader = null;
+		try {
+			reader = new InputStreamReader(new GZIPInputStream(new FileInputStream(file)), StandardCharsets.UTF_8);
+			JsonObject entry = new JsonParser().parse(reader).getAsJsonObject();
+			long storedAt = entry.get(STORED_AT).getAsLong();
+			if (System.currentTimeMillis() - storedAt > MAX_AGE) {
+				IOUtils.closeQuietly(reader);
+				reader = null;
+				delete(file);
+				return null;
+			}
+			JsonElement lastTimeSeen = entry.get(LAST_TIME_SEEN);
+			Object value = gson.fromJson(entry.get(VALUE), type);
+			if (value instanceof EventSummaryResponse) {
+				linkCollapsedEvents((EventSummaryResponse) value);
+			}
+			file.setLastModified(System.currentTimeMillis());
+			return new CacheEntry(value, storedAt,
+					lastTimeSeen != null && !lastTimeSeen.isJsonNull() ? lastTimeSeen.getAsLong() : null);
+		} catch (IOException | RuntimeException e) {
+			ContrastUIActivator.logWarning("Discarding unreadable cache entry " + file + ": " + e.getMessage());
+			IOUtils.closeQuietly(reader);
+			reader = null;
+			delete(file);
+			return null;
+		} finally {
+			IOUtils.closeQuietly(reader);
+		}
+	}
+
+	void write(String region, Key key, CacheEntry cacheEntry) {
+		File file = getFile(region, key);
+		if (file == null) {
+			return;
+		}
+		File directory = file.getParentFile();
+		if (!directory.isDirectory() && !directory.mkdirs()) {
+			return;
+		}
+		JsonObject entry = new JsonObject();
+		entry.addProperty(STORED_AT, cacheEntry.getStoredAt());
+		entry.addProperty(LAST_TIME_SEEN, cacheEntry.getLastTimeSeen());
+		JsonElement value = gson.toJsonTree(cacheEntry.getValue());
+		if (cacheEntry.getValue() instanceof StoryResponse) {
+			filterStoryHeaders(value);
+		}
+		entry.add(VALUE, value);
+
+		File temp = null;
+		Writer writer = null;
+		try {
+			temp = File.createTempFile("entry", ".tmp", directory);
+			writer = new OutputStreamWriter(new GZIPOutputStream(new FileOutputStream(temp)), StandardCharsets.UTF_8);
+			gson.toJson(entry, writer);
+			writer.close();
+			writer = null;
+			long previousLength = file.length();
+			Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			added(file.length() - previousLength);
+		} catch (IOException | RuntimeException e) {
+			ContrastUIActivator.logWarning("Unable to write cache entry " + file + ": " + e.getMessage());
+			IOUtils.closeQuietly(writer);
+			if (temp != null) {
+				temp.delete();
+			}
+		}
+	}
+
+	void delete(String region, Key key) {
+		File file = getFile(region, key);
+		if (file != null && file.isFile()) {
+			delete(file);
+		}
+	}
+
+	private void delete(File file) {
+		long length = file.length();
+		if (file.delete()) {
+			added(-length);
+		}
+	}
+
+	private synchronized void added(long delta) {
+		size += delta;
+		if (size > maxSize) {
+			trim();
+		}
+	}
+
+	/**
+	 * Deletes the least recently used entries until the cache is back to 80% of
+	 * its maximum size.
+	 */
+	private void trim() {
+		List<File> files = listEntries();
+		Collections.sort(files, new Comparator<File>() {
+
+			@Override
+			public int compare(File f1, File f2) {
+				return Long.compare(f1.lastModified(), f2.lastModified());
+			}
+		});
+		long target = maxSize * 8 / 10;
+		for (File file : files) {
+			if (size <= target) {
+				break;
+			}
+			long length = file.length();
+			if (file.delete()) {
+				size -= length;
+			}
+		}
+	}
+
+	private List<File> listEntries() {
+		List<File> files = new ArrayList<>();
+		File[] regions = root.listFiles();
+		if (regions != null) {
+			for (File region : regions) {
+				File[] entries = region.listFiles();
+				if (entries != null) {
+					files.addAll(Arrays.asList(entries));
+				}
+			}
+		}
+		return files;
+	}
+
+	private File getFile(String region, Key key) {
+		File directory = getRoot();
+		if (directory == null) {
+			return null;
+		}
+		return new File(new File(directory, region), hash(key) + FILE_EXTENSION);
+	}
+
+	/**
+	 * @return The cache directory, by default in the plugin state location, or
+	 *         null when the plugin is not running with a writable instance
+	 *         location.
+	 */
+	private synchronized File getRoot() {
+		if (!initialized) {
+			initialized = true;
+			ContrastUIActivator plugin = root == null ? ContrastUIActivator.getDefault() : null;
+			if (plugin != null) {
+				try {
+					root = plugin.getStateLocation().append("cache").toFile();
+				} catch (IllegalStateException e) {
+					ContrastUIActivator.log(e);
+				}
+			}
+			if (root != null) {
+				checkVersion();
+				for (File file : listEntries()) {
+					size += file.length();
+				}
+			}
+		}
+		return root;
+	}
+
+	/**
+	 * Deletes the entries stored by another version of the cache.
+	 */
+	private void checkVersion() {
+		File versionFile = new File(root, VERSION_FILE);
+		try {
+			if (versionFile.isFile()
+					&& FORMAT_VERSION.equals(new String(Files.readAllBytes(versionFile.toPath()), StandardCharsets.UTF_8))) {
+				return;
+			}
+			for (File file : listEntries()) {
+				file.delete();
+			}
+			if (root.isDirectory() || root.mkdirs()) {
+				Files.write(versionFile.toPath(), FORMAT_VERSION.getBytes(StandardCharsets.UTF_8));
+			}
+		} catch (IOException e) {
+			ContrastUIActivator.logWarning("Unable to check the cache version: " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Removes the lines of the chapter bodies which the Overview tab hides
+	 * with {@link Util#filterHeaders(String, String)}.
+	 */
+	private static void filterStoryHeaders(JsonElement storyResponse) {
+		JsonElement story = storyResponse.isJsonObject() ? storyResponse.getAsJsonObject().get("story") : null;
+		JsonElement chapters = story != null && story.isJsonObject() ? story.getAsJsonObject().get(CHAPTERS) : null;
+		if (chapters == null || !chapters.isJsonArray()) {
+			return;
+		}
+		for (JsonElement chapter : chapters.getAsJsonArray()) {
+			JsonElement body = chapter.isJsonObject() ? chapter.getAsJsonObject().get(BODY) : null;
+			if (body != null && body.isJsonPrimitive()) {
+				chapter.getAsJsonObject().addProperty(BODY, filterHeaders(body.getAsString()));
+			}
+		}
+	}
+
+	private static String filterHeaders(String body) {
+		StringBuilder filtered = new StringBuilder(body.length());
+		for (String line : body.split("\n", -1)) {
+			// Decided on the text as shown, since headers may be escaped
+			String shown = MarkupUtils.parseOverviewMustache(line);
+			if (!Util.filterHeaders(shown, "\n").equals(shown)) {
+				continue;
+			}
+			if (filtered.length() > 0) {
+				filtered.append('\n');
+			}
+			filtered.append(line);
+		}
+		return filtered.toString();
+	}
+
+	private static String hash(Key key) {
+		String id = key.getOrgUuid() + '/' + key.getTraceId();
+		try {
+			byte[] digest = MessageDigest.getInstance("SHA-1").digest(id.getBytes(StandardCharsets.UTF_8));
+			StringBuilder builder = new StringBuilder(digest.length * 2);
+			for (byte b : digest) {
+				builder.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+			}
+			return builder.toString();
+		} catch (NoSuchAlgorithmException e) {
+			return Integer.toHexString(key.hashCode());
+		}
+	}
+
+	/**
+	 * Restores the collapsed event parent links the SDK sets up when the
+	 * response is fetched, since they are not persisted.
+	 */
+	private static void linkCollapsedEvents(EventSummaryResponse eventSummary) {
+		if (eventSummary.getEvents() == null) {
+			return;
+		}
+		for (EventResource event : eventSummary.getEvents()) {
+			if (event.getCollapsedEvents() != null) {
+				for (EventResource collapsedEvent : event.getCollapsedEvents()) {
+					collapsedEvent.setParent(event);
+				}
+			}
+		}
+	}
+}
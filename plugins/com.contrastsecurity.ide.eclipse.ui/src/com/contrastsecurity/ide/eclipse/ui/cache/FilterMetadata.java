@@ -0,0 +1,46 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Contrast Security.
+ * All rights reserved. 
+ * 
+ * This program and the accompanying materials are made available under 
+ * the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License.
+ * 
+ * The terms of the GNU GPL version 3 which accompanies this distribution
+ * and is available at https://www.gnu.org/licenses/gpl-3.0.en.html
+ * 
+ * Contributors:
+ *     Contrast Security - initial API and implementation
+ *******************************************************************************/
+package com.contrastsecurity.ide.eclipse.ui.cache;
+
+import com.contrastsecurity.models.Applications;
+import com.contrastsecurity.models.Servers;
+
+/**
+ * Servers and applications of an organization, offered as trace filters.
+ */
+public class FilterMetadata {
+
+	private final Servers servers;
+	private final Applications applications;
+	private final long loadedAt;
+
+	FilterMetadata(Servers servers, Applications applications, long loadedAt) {
+		this.servers = servers;
+		this.applications = applications;
+		this.loadedAt = loadedAt;
+	}
+
+	public Servers getServers() {
+		return servers;
+	}
+
+	public Applications getApplications() {
+		return applications;
+	}
+
+	long getLoadedAt() {
+		return loadedAt;
+	}
+}
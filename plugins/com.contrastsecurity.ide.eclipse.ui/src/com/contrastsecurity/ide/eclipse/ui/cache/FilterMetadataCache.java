@@ -0,0 +1,164 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Contrast Security.
+ * All rights reserved. 
+ * 
+ * This program and the accompanying materials are made available under 
+ * the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License.
+ * 
+ * The terms of the GNU GPL version 3 which accompanies this distribution
+ * and is available at https://www.gnu.org/licenses/gpl-3.0.en.html
+ * 
+ * Contributors:
+ *     Contrast Security - initial API and implementation
+ *******************************************************************************/
+package com.contrastsecurity.ide.eclipse.ui.cache;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.ResourceBundle;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.swt.widgets.Display;
+
+import com.contrastsecurity.exceptions.UnauthorizedException;
+import com.contrastsecurity.http.ServerFilterForm;
+import com.contrastsecurity.ide.eclipse.ui.ContrastUIActivator;
+import com.contrastsecurity.models.Applications;
+import com.contrastsecurity.models.Servers;
+import com.contrastsecurity.sdk.ContrastSDK;
+
+/**
+ * Keeps the servers and applications offered in the filter dialog, once per
+ * organization. They are loaded in a background job; concurrent requests for
+ * the same organization share a single load.
+ */
+public class FilterMetadataCache {
+
+	/**
+	 * Age after which {@link #refresh(String, ContrastSDK)} reloads the
+	 * metadata of an organization.
+	 */
+	private static final long MAX_AGE = TimeUnit.MINUTES.toMillis(5);
+
+	private static ResourceBundle resource = ResourceBundle.getBundle("OSGI-INF/l10n.bundle");
+
+	private final Map<String, FilterMetadata> metadata = new ConcurrentHashMap<>();
+	/**
+	 * Running loads by organization, guarded by this.
+	 */
+	private final Map<String, LoadJob> loading = new HashMap<>();
+
+	/**
+	 * @return The metadata loaded for the organization or null if it has not
+	 *         been loaded yet.
+	 */
+	public FilterMetadata get(String orgUuid) {
+		return metadata.get(orgUuid);
+	}
+
+	/**
+	 * Hands the metadata of the organization to the listener, right away if it
+	 * has been loaded before or else once it is. Must be called on the UI
+	 * thread.
+	 */
+	public void get(String orgUuid, ContrastSDK sdk, IFilterMetadataListener listener) {
+		FilterMetadata current = metadata.get(orgUuid);
+		if (current != null) {
+			listener.onFilterMetadataLoad(current);
+		} else {
+			load(orgUuid, sdk, listener);
+		}
+	}
+
+	/**
+	 * Reloads the metadata of the organization in the background if it has not
+	 * been loaded yet or is older than a few minutes. Returns immediately.
+	 */
+	public void refresh(String orgUuid, ContrastSDK sdk) {
+		FilterMetadata current = metadata.get(orgUuid);
+		if (current == null || System.currentTimeMillis() - current.getLoadedAt() > MAX_AGE) {
+			load(orgUuid, sdk, null);
+		}
+	}
+
+	public void clear() {
+		metadata.clear();
+	}
+
+	private synchronized void load(String orgUuid, ContrastSDK sdk, IFilterMetadataListener listener) {
+		LoadJob job = loading.get(orgUuid);
+		if (job == null) {
+			job = new LoadJob(orgUuid, sdk);
+			loading.put(orgUuid, job);
+			job.schedule();
+		}
+		if (listener != null) {
+			job.listeners.add(listener);
+		}
+	}
+
+	private synchronized List<IFilterMetadataListener> loaded(LoadJob job) {
+		loading.remove(job.orgUuid);
+		return job.listeners;
+	}
+
+	private class LoadJob extends Job {
+
+		private final String orgUuid;
+		private final ContrastSDK sdk;
+		/**
+		 * Guarded by the enclosing cache.
+		 */
+		private final List<IFilterMetadataListener> listeners = new ArrayList<>();
+
+		LoadJob(String orgUuid, ContrastSDK sdk) {
+			super(resource.getString("LOADING_FILTERS_JOB"));
+			this.orgUuid = orgUuid;
+			this.sdk = sdk;
+			setSystem(true);
+		}
+
+		@Override
+		protected IStatus run(IProgressMonitor monitor) {
+			FilterMetadata loadedMetadata = null;
+			try {
+				long loadedAt = System.currentTimeMillis();
+				ServerFilterForm serverFilterForm = new ServerFilterForm();
+				serverFilterForm.setExpand(EnumSet.of(ServerFilterForm.ServerExpandValue.APPLICATIONS));
+				Servers servers = sdk.getServers(orgUuid, serverFilterForm);
+				Applications applications = sdk.getApplications(orgUuid);
+				if (servers != null && applications != null) {
+					loadedMetadata = new FilterMetadata(servers, applications, loadedAt);
+					metadata.put(orgUuid, loadedMetadata);
+				}
+			} catch (IOException | UnauthorizedException | RuntimeException e) {
+				ContrastUIActivator.log(e);
+			}
+			final List<IFilterMetadataListener> waiting = loaded(this);
+			if (!waiting.isEmpty()) {
+				final FilterMetadata result = loadedMetadata;
+				Display.getDefault().asyncExec(new Runnable() {
+
+					@Override
+					public void run() {
+						for (IFilterMetadataListener listener : waiting) {
+							listener.onFilterMetadataLoad(result);
+						}
+					}
+				});
+			}
+			return Status.OK_STATUS;
+		}
+	}
+
+}
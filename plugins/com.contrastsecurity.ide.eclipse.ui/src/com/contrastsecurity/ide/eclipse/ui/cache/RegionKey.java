@@ -0,0 +1,53 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Contrast Security.
+ * All rights reserved. 
+ * 
+ * This program and the accompanying materials are made available under 
+ * the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License.
+ * 
+ * The terms of the GNU GPL version 3 which accompanies this distribution
+ * and is available at https://www.gnu.org/licenses/gpl-3.0.en.html
+ * 
+ * Contributors:
+ *     Contrast Security - initial API and implementation
+ *******************************************************************************/
+package com.contrastsecurity.ide.eclipse.ui.cache;
+
+/**
+ * Key of an entry in the memory shared by all {@link CacheRegion}s.
+ */
+final class RegionKey {
+
+	private final CacheRegion<?> region;
+	private final Key key;
+
+	RegionKey(CacheRegion<?> region, Key key) {
+		this.region = region;
+		this.key = key;
+	}
+
+	CacheRegion<?> getRegion() {
+		return region;
+	}
+
+	Key getKey() {
+		return key;
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * region.hashCode() + key.hashCode();
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (!(obj instanceof RegionKey))
+			return false;
+		RegionKey other = (RegionKey) obj;
+		return region == other.region && key.equals(other.key);
+	}
+
+}
@@ -0,0 +1,122 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Contrast Security.
+ * All rights reserved. 
+ * 
+ * This program and the accompanying materials are made available under 
+ * the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License.
+ * 
+ * The terms of the GNU GPL version 3 which accompanies this distribution
+ * and is available at https://www.gnu.org/licenses/gpl-3.0.en.html
+ * 
+ * Contributors:
+ *     Contrast Security - initial API and implementation
+ *******************************************************************************/
+package com.contrastsecurity.ide.eclipse.ui.cache;
+
+import java.io.Writer;
+import java.util.Collections;
+import java.util.List;
+
+import com.contrastsecurity.models.TagsResponse;
+
+/**
+ * Size estimators for the cached response types. The estimates are rough but
+ * proportional to the retained heap, which is what eviction needs.
+ */
+final class SizeEstimators {
+
+	/**
+	 * Cache node, key and response object.
+	 */
+	private static final int ENTRY_OVERHEAD = 96;
+
+	/**
+	 * Object header, fields and array header of a String.
+	 */
+	private static final int STRING_OVERHEAD = 40;
+
+	/**
+	 * Tag lists are tiny and requested often, their strings are summed up
+	 * directly.
+	 */
+	static final SizeEstimator<TagsResponse> TAGS = new SizeEstimator<TagsResponse>() {
+
+		@Override
+		public int estimate(TagsResponse value) {
+			return ENTRY_OVERHEAD + strings(value.getTags()) + strings(value.getMessages());
+		}
+	};
+
+	static final SizeEstimator<String> STRING = new SizeEstimator<String>() {
+
+		@Override
+		public int estimate(String value) {
+			return ENTRY_OVERHEAD + strings(Collections.singletonList(value));
+		}
+	};
+
+	private SizeEstimators() {
+	}
+
+	/**
+	 * Estimator for deep responses such as event summaries, stories,
+	 * recommendations and HTTP requests. Their JSON form is counted without
+	 * being built: nearly all of it is string content, which takes two bytes
+	 * per char on the heap, and the punctuation stands in for object headers.
+	 */
+	static <V> SizeEstimator<V> json() {
+		return new SizeEstimator<V>() {
+
+			@Override
+			public int estimate(V value) {
+				CountingWriter writer = new CountingWriter();
+				try {
+					CacheGson.GSON.toJson(value, writer);
+				} catch (RuntimeException e) {
+					// Weigh what has been counted so far
+				}
+				return (int) Math.min(Integer.MAX_VALUE, ENTRY_OVERHEAD + 2 * writer.count);
+			}
+		};
+	}
+
+	private static int strings(List<String> strings) {
+		int size = 0;
+		if (strings != null) {
+			for (String string : strings) {
+				size += STRING_OVERHEAD + (string != null ? 2 * string.length() : 0);
+			}
+		}
+		return size;
+	}
+
+	private static class CountingWriter extends Writer {
+
+		private long count;
+
+		@Override
+		public void write(int c) {
+			count++;
+		}
+
+		@Override
+		public void write(char[] buffer, int offset, int length) {
+			count += length;
+		}
+
+		@Override
+		public void write(String string, int offset, int length) {
+			count += length;
+		}
+
+		@Override
+		public void flush() {
+		}
+
+		@Override
+		public void close() {
+		}
+	}
+
+}
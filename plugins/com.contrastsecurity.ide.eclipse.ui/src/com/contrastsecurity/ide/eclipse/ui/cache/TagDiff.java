@@ -0,0 +1,117 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Contrast Security.
+ * All rights reserved. 
+ * 
+ * This program and the accompanying materials are made available under 
+ * the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License.
+ * 
+ * The terms of the GNU GPL version 3 which accompanies this distribution
+ * and is available at https://www.gnu.org/licenses/gpl-3.0.en.html
+ * 
+ * Contributors:
+ *     Contrast Security - initial API and implementation
+ *******************************************************************************/
+package com.contrastsecurity.ide.eclipse.ui.cache;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import com.contrastsecurity.models.TagsResponse;
+
+/**
+ * The tags to add to and remove from a trace, computed once from the tags the
+ * trace had and the tags it should have. The diff is applied to cached
+ * {@link TagsResponse} objects by copying them, since they may still be shown
+ * or be in use by another thread.
+ */
+public class TagDiff {
+
+	private final List<String> added;
+	private final List<String> removed;
+
+	private TagDiff(List<String> added, List<String> removed) {
+		this.added = Collections.unmodifiableList(added);
+		this.removed = Collections.unmodifiableList(removed);
+	}
+
+	/**
+	 * @param current
+	 *            Tags the trace has now, may be null.
+	 * @param updated
+	 *            Tags the trace should have, may be null.
+	 */
+	public static TagDiff compute(List<String> current, List<String> updated) {
+		Set<String> currentTags = toSet(current);
+		Set<String> updatedTags = toSet(updated);
+		List<String> added = new ArrayList<>();
+		for (String tag : updatedTags) {
+			if (!currentTags.contains(tag)) {
+				added.add(tag);
+			}
+		}
+		List<String> removed = new ArrayList<>();
+		for (String tag : currentTags) {
+			if (!updatedTags.contains(tag)) {
+				removed.add(tag);
+			}
+		}
+		return new TagDiff(added, removed);
+	}
+
+	public List<String> getAdded() {
+		return added;
+	}
+
+	public List<String> getRemoved() {
+		return removed;
+	}
+
+	public boolean isEmpty() {
+		return added.isEmpty() && removed.isEmpty();
+	}
+
+	/**
+	 * @return A copy of the tags of a trace with the removed tags left out and
+	 *         the added tags appended.
+	 */
+	public TagsResponse applyTo(TagsResponse traceTags) {
+		Set<String> tags = toSet(traceTags == null ? null : traceTags.getTags());
+		tags.removeAll(removed);
+		tags.addAll(added);
+		return copy(traceTags, tags);
+	}
+
+	/**
+	 * @return A copy of the tags of the organization that also contains the
+	 *         added tags. Removed tags are kept, as other traces may still use
+	 *         them.
+	 */
+	public TagsResponse mergeInto(TagsResponse orgTags) {
+		Set<String> tags = toSet(orgTags == null ? null : orgTags.getTags());
+		tags.addAll(added);
+		return copy(orgTags, tags);
+	}
+
+	private static TagsResponse copy(TagsResponse original, Set<String> tags) {
+		TagsResponse copy = new TagsResponse();
+		if (original != null) {
+			copy.setSuccess(original.getSuccess());
+			copy.setMessages(original.getMessages());
+		}
+		copy.setTags(new ArrayList<>(tags));
+		return copy;
+	}
+
+	private static Set<String> toSet(List<String> tags) {
+		Set<String> set = new LinkedHashSet<>();
+		if (tags != null) {
+			set.addAll(tags);
+		}
+		return set;
+	}
+
+}
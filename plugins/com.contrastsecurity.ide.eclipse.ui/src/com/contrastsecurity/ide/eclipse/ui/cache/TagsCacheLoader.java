@@ -0,0 +1,43 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Contrast Security.
+ * All rights reserved. 
+ * 
+ * This program and the accompanying materials are made available under 
+ * the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License.
+ * 
+ * The terms of the GNU GPL version 3 which accompanies this distribution
+ * and is available at https://www.gnu.org/licenses/gpl-3.0.en.html
+ * 
+ * Contributors:
+ *     Contrast Security - initial API and implementation
+ *******************************************************************************/
+package com.contrastsecurity.ide.eclipse.ui.cache;
+
+import java.io.IOException;
+
+import com.contrastsecurity.exceptions.UnauthorizedException;
+import com.contrastsecurity.models.TagsResponse;
+import com.contrastsecurity.sdk.ContrastSDK;
+
+/**
+ * Loads the tags of a trace, or all trace tags of the organization for keys
+ * without a trace.
+ */
+public class TagsCacheLoader implements CacheLoader<TagsResponse> {
+
+	private final ContrastSDK sdk;
+
+	public TagsCacheLoader(ContrastSDK sdk) {
+		this.sdk = sdk;
+	}
+
+	@Override
+	public TagsResponse load(Key key) throws IOException, UnauthorizedException {
+		if (key.getTraceId() != null) {
+			return sdk.getTagsByTrace(key.getOrgUuid(), key.getTraceId());
+		}
+		return sdk.getTraceTagsByOrganization(key.getOrgUuid());
+	}
+
+}
@@ -0,0 +1,259 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Contrast Security.
+ * All rights reserved. 
+ * 
+ * This program and the accompanying materials are made available under 
+ * the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License.
+ * 
+ * The terms of the GNU GPL version 3 which accompanies this distribution
+ * and is available at https://www.gnu.org/licenses/gpl-3.0.en.html
+ * 
+ * Contributors:
+ *     Contrast Security - initial API and implementation
+ *******************************************************************************/
+package com.contrastsecurity.ide.eclipse.ui.cache;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import com.contrastsecurity.models.Chapter;
+import com.contrastsecurity.models.RecommendationResponse;
+import com.contrastsecurity.models.StoryResponse;
+import com.contrastsecurity.models.Trace;
+
+/**
+ * In-memory inverted index over the traces fetched from Team Server. Titles,
+ * rule names and application names are indexed when a trace is added; tags,
+ * stories and recommendations once they have been fetched for it. Adding a
+ * trace or one of its texts again replaces what was indexed for it before,
+ * so the index can be updated with every refresh.
+ * <p>
+ * A query matches the traces that contain every word of the query, where the
+ * last word may be incomplete. Safe to use from several threads.
+ */
+public class TraceSearchIndex {
+
+	private static final String TRACE_FIELD = "trace";
+	private static final String TAGS_FIELD = "tags";
+	private static final String STORY_FIELD = "story";
+	private static final String RECOMMENDATION_FIELD = "recommendation";
+
+	/**
+	 * UUIDs of the traces containing a word, by word.
+	 */
+	private final TreeMap<String, Set<String>> postings = new TreeMap<>();
+	/**
+	 * Words indexed for a trace, by trace UUID and field.
+	 */
+	private final Map<String, Map<String, Set<String>>> traceWords = new HashMap<>();
+	private final Map<String, Trace> traces = new LinkedHashMap<>();
+
+	public synchronized void addTraces(List<Trace> traces) {
+		if (traces == null) {
+			return;
+		}
+		for (Trace trace : traces) {
+			addTrace(trace);
+		}
+	}
+
+	public synchronized void addTrace(Trace trace) {
+		if (trace == null || trace.getUuid() == null) {
+			return;
+		}
+		traces.put(trace.getUuid(), trace);
+		StringBuilder text = new StringBuilder();
+		append(text, trace.getTitle());
+		append(text, trace.getRule());
+		if (trace.getApplication() != null) {
+			append(text, trace.getApplication().getName());
+		}
+		setField(trace.getUuid(), TRACE_FIELD, text.toString());
+	}
+
+	public synchronized void addTags(String traceUuid, List<String> tags) {
+		StringBuilder text = new StringBuilder();
+		if (tags != null) {
+			for (String tag : tags) {
+				append(text, tag);
+			}
+		}
+		setField(traceUuid, TAGS_FIELD, text.toString());
+	}
+
+	public synchronized void addStory(String traceUuid, StoryResponse story) {
+		StringBuilder text = new StringBuilder();
+		if (story != null && story.getStory() != null) {
+			if (story.getStory().getChapters() != null) {
+				for (Chapter chapter : story.getStory().getChapters()) {
+					append(text, chapter.getIntroText());
+					append(text, chapter.getBody());
+				}
+			}
+			if (story.getStory().getRisk() != null) {
+				append(text, story.getStory().getRisk().getText());
+			}
+		}
+		setField(traceUuid, STORY_FIELD, text.toString());
+	}
+
+	public synchronized void addRecommendation(String traceUuid, RecommendationResponse recommendation) {
+		StringBuilder text = new StringBuilder();
+		if (recommendation != null) {
+			if (recommendation.getRecommendation() != null) {
+				append(text, recommendation.getRecommendation().getText());
+			}
+			if (recommendation.getCustomRecommendation() != null) {
+				append(text, recommendation.getCustomRecommendation().getText());
+			}
+			append(text, recommendation.getCwe());
+			append(text, recommendation.getOwasp());
+		}
+		setField(traceUuid, RECOMMENDATION_FIELD, text.toString());
+	}
+
+	public synchronized void removeTrace(String traceUuid) {
+		traces.remove(traceUuid);
+		Map<String, Set<String>> fields = traceWords.remove(traceUuid);
+		if (fields != null) {
+			for (Set<String> words : fields.values()) {
+				removePostings(traceUuid, words);
+			}
+		}
+	}
+
+	public synchronized void clear() {
+		postings.clear();
+		traceWords.clear();
+		traces.clear();
+	}
+
+	/**
+	 * @return Number of traces in the index.
+	 */
+	public synchronized int size() {
+		return traces.size();
+	}
+
+	/**
+	 * @return The added traces matching every word of the query, in the order
+	 *         they were first added. A query without words matches nothing.
+	 */
+	public synchronized List<Trace> search(String query) {
+		List<String> words = new ArrayList<>(tokenize(query));
+		if (words.isEmpty()) {
+			return Collections.emptyList();
+		}
+		Set<String> matches = null;
+		for (int i = 0; i < words.size(); i++) {
+			String word = words.get(i);
+			Set<String> wordMatches = new HashSet<>();
+			if (i == words.size() - 1) {
+				// The last word may still be typed
+				for (Set<String> uuids : postings.subMap(word, word + Character.MAX_VALUE).values()) {
+					wordMatches.addAll(uuids);
+				}
+			} else if (postings.containsKey(word)) {
+				wordMatches.addAll(postings.get(word));
+			}
+			if (matches == null) {
+				matches = wordMatches;
+			} else {
+				matches.retainAll(wordMatches);
+			}
+			if (matches.isEmpty()) {
+				return Collections.emptyList();
+			}
+		}
+		List<Trace> result = new ArrayList<>();
+		for (Map.Entry<String, Trace> entry : traces.entrySet()) {
+			if (matches.contains(entry.getKey())) {
+				result.add(entry.getValue());
+			}
+		}
+		return result;
+	}
+
+	private void setField(String traceUuid, String field, String text) {
+		if (traceUuid == null) {
+			return;
+		}
+		Map<String, Set<String>> fields = traceWords.get(traceUuid);
+		if (fields == null) {
+			fields = new HashMap<>();
+			traceWords.put(traceUuid, fields);
+		}
+		Set<String> oldWords = fields.remove(field);
+		Set<String> newWords = tokenize(text);
+		if (oldWords != null) {
+			Set<String> removed = new HashSet<>(oldWords);
+			removed.removeAll(newWords);
+			// Words still indexed by another field of the trace keep their posting
+			for (Set<String> otherWords : fields.values()) {
+				removed.removeAll(otherWords);
+			}
+			removePostings(traceUuid, removed);
+		}
+		for (String word : newWords) {
+			Set<String> uuids = postings.get(word);
+			if (uuids == null) {
+				uuids = new HashSet<>();
+				postings.put(word, uuids);
+			}
+			uuids.add(traceUuid);
+		}
+		fields.put(field, newWords);
+	}
+
+	private void removePostings(String traceUuid, Set<String> words) {
+		for (String word : words) {
+			Set<String> uuids = postings.get(word);
+			if (uuids != null) {
+				uuids.remove(traceUuid);
+				if (uuids.isEmpty()) {
+					postings.remove(word);
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return The lower case words of the text, split at every character that
+	 *         is neither a letter nor a digit.
+	 */
+	static Set<String> tokenize(String text) {
+		Set<String> words = new LinkedHashSet<>();
+		if (text == null) {
+			return words;
+		}
+		String lowerCase = text.toLowerCase(Locale.ENGLISH);
+		int start = -1;
+		for (int i = 0; i <= lowerCase.length(); i++) {
+			boolean wordChar = i < lowerCase.length() && Character.isLetterOrDigit(lowerCase.charAt(i));
+			if (wordChar && start < 0) {
+				start = i;
+			} else if (!wordChar && start >= 0) {
+				words.add(lowerCase.substring(start, i));
+				start = -1;
+			}
+		}
+		return words;
+	}
+
+	private static void append(StringBuilder text, String value) {
+		if (value != null) {
+			text.append(value).append(' ');
+		}
+	}
+
+}
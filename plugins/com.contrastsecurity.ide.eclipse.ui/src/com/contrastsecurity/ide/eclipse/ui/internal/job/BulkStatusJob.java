@@ -0,0 +1,68 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Contrast Security.
+ * All rights reserved. 
+ * 
+ * This program and the accompanying materials are made available under 
+ * the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License.
+ * 
+ * The terms of the GNU GPL version 3 which accompanies this distribution
+ * and is available at https://www.gnu.org/licenses/gpl-3.0.en.html
+ * 
+ * Contributors:
+ *     Contrast Security - initial API and implementation
+ *******************************************************************************/
+package com.contrastsecurity.ide.eclipse.ui.internal.job;
+
+import java.io.IOException;
+import java.util.List;
+
+import com.contrastsecurity.exceptions.UnauthorizedException;
+import com.contrastsecurity.ide.eclipse.core.extended.ExtendedContrastSDK;
+import com.contrastsecurity.ide.eclipse.ui.ContrastUIActivator;
+import com.contrastsecurity.ide.eclipse.ui.cache.CacheRegion;
+import com.contrastsecurity.ide.eclipse.ui.cache.Key;
+import com.contrastsecurity.models.GenericResponse;
+import com.contrastsecurity.models.StatusRequest;
+
+/**
+ * Marks many traces with the status of a single {@link StatusRequest}.
+ */
+public class BulkStatusJob extends BulkTraceJob {
+
+	private final ExtendedContrastSDK sdk;
+	private final StatusRequest request;
+
+	public BulkStatusJob(ExtendedContrastSDK sdk, String orgUuid, StatusRequest request) {
+		super(resource.getString("BULK_STATUS_JOB"), orgUuid, request.getTraces());
+		this.sdk = sdk;
+		this.request = request;
+	}
+
+	@Override
+	boolean send(List<String> chunk) throws IOException, UnauthorizedException {
+		StatusRequest chunkRequest = new StatusRequest();
+		chunkRequest.setTraces(chunk);
+		chunkRequest.setStatus(request.getStatus());
+		chunkRequest.setSubstatus(request.getSubstatus());
+		chunkRequest.setCommentPreference(request.isCommentPreference());
+		chunkRequest.setNote(request.getNote());
+		GenericResponse response = sdk.setTraceStatus(orgUuid, chunkRequest);
+		return response != null && Boolean.parseBoolean(response.getSuccess());
+	}
+
+	/**
+	 * Replaces the cached status of the traces and removes their markers if
+	 * the status closes them.
+	 */
+	@Override
+	void updateCache(List<String> updatedTraceIds) {
+		CacheRegion<String> statusResources = contrastCache.getStatusResources();
+		VulnerabilityMarkerJob markerJob = ContrastUIActivator.getVulnerabilityMarkerJob();
+		for (String traceId : updatedTraceIds) {
+			statusResources.replace(new Key(orgUuid, traceId), request.getStatus());
+			markerJob.setStatus(traceId, request.getStatus());
+		}
+	}
+
+}
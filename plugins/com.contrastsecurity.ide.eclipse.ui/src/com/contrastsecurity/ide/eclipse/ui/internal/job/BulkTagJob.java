@@ -0,0 +1,74 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Contrast Security.
+ * All rights reserved. 
+ * 
+ * This program and the accompanying materials are made available under 
+ * the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License.
+ * 
+ * The terms of the GNU GPL version 3 which accompanies this distribution
+ * and is available at https://www.gnu.org/licenses/gpl-3.0.en.html
+ * 
+ * Contributors:
+ *     Contrast Security - initial API and implementation
+ *******************************************************************************/
+package com.contrastsecurity.ide.eclipse.ui.internal.job;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.contrastsecurity.exceptions.UnauthorizedException;
+import com.contrastsecurity.ide.eclipse.ui.cache.CacheRegion;
+import com.contrastsecurity.ide.eclipse.ui.cache.Key;
+import com.contrastsecurity.ide.eclipse.ui.cache.TagDiff;
+import com.contrastsecurity.models.Tags;
+import com.contrastsecurity.models.TagsResponse;
+import com.contrastsecurity.sdk.ContrastSDK;
+
+/**
+ * Adds the same tags to many traces. Tags the traces have already are kept.
+ */
+public class BulkTagJob extends BulkTraceJob {
+
+	private final ContrastSDK sdk;
+	private final TagDiff diff;
+
+	public BulkTagJob(ContrastSDK sdk, String orgUuid, List<String> traceIds, List<String> tags) {
+		super(resource.getString("BULK_TAG_JOB"), orgUuid, traceIds);
+		this.sdk = sdk;
+		this.diff = TagDiff.compute(Collections.<String>emptyList(), tags);
+	}
+
+	@Override
+	boolean send(List<String> chunk) throws IOException, UnauthorizedException {
+		Tags tags = new Tags(new ArrayList<>(diff.getAdded()));
+		tags.setTracesId(chunk);
+		TagsResponse response = sdk.createTag(orgUuid, tags);
+		return response != null && Boolean.parseBoolean(response.getSuccess());
+	}
+
+	/**
+	 * Adds the tags to the cached tags of the traces and of the organization.
+	 * Traces whose tags are not cached are left alone, they are loaded with the
+	 * new tags when needed.
+	 */
+	@Override
+	void updateCache(List<String> updatedTraceIds) {
+		CacheRegion<TagsResponse> tagsResources = contrastCache.getTagsResources();
+		for (String traceId : updatedTraceIds) {
+			Key key = new Key(orgUuid, traceId);
+			TagsResponse traceTags = tagsResources.get(key);
+			if (traceTags != null) {
+				tagsResources.replace(key, diff.applyTo(traceTags));
+			}
+		}
+		Key keyForOrg = new Key(orgUuid, null);
+		TagsResponse orgTags = tagsResources.get(keyForOrg);
+		if (orgTags != null) {
+			tagsResources.replace(keyForOrg, diff.mergeInto(orgTags));
+		}
+	}
+
+}
@@ -0,0 +1,126 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Contrast Security.
+ * All rights reserved. 
+ * 
+ * This program and the accompanying materials are made available under 
+ * the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License.
+ * 
+ * The terms of the GNU GPL version 3 which accompanies this distribution
+ * and is available at https://www.gnu.org/licenses/gpl-3.0.en.html
+ * 
+ * Contributors:
+ *     Contrast Security - initial API and implementation
+ *******************************************************************************/
+package com.contrastsecurity.ide.eclipse.ui.internal.job;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.ResourceBundle;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.SubMonitor;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.swt.widgets.Display;
+
+import com.contrastsecurity.exceptions.UnauthorizedException;
+import com.contrastsecurity.ide.eclipse.ui.ContrastUIActivator;
+import com.contrastsecurity.ide.eclipse.ui.cache.ContrastCache;
+
+/**
+ * Applies one change to many traces. The trace IDs are sent in chunks of
+ * {@value #CHUNK_SIZE}, one request per chunk, and the cache is updated for
+ * all traces at once when the job ends. Canceling stops before the next chunk,
+ * the traces of the chunks sent so far keep the change.
+ */
+public abstract class BulkTraceJob extends Job {
+
+	/**
+	 * Maximum number of trace IDs sent in a single request.
+	 */
+	static final int CHUNK_SIZE = 100;
+
+	static ResourceBundle resource = ResourceBundle.getBundle("OSGI-INF/l10n.bundle");
+
+	protected final String orgUuid;
+	protected final ContrastCache contrastCache = ContrastUIActivator.getContrastCache();
+	private final List<String> traceIds;
+	private final List<String> updatedTraceIds = new ArrayList<>();
+
+	BulkTraceJob(String name, String orgUuid, List<String> traceIds) {
+		super(name);
+		this.orgUuid = orgUuid;
+		this.traceIds = new ArrayList<>(traceIds);
+		setUser(true);
+	}
+
+	/**
+	 * Sends the change for one chunk of traces.
+	 *
+	 * @return Whether Team Server has applied it.
+	 */
+	abstract boolean send(List<String> chunk) throws IOException, UnauthorizedException;
+
+	/**
+	 * Updates the cached resources of the traces the change has been applied
+	 * to.
+	 */
+	abstract void updateCache(List<String> updatedTraceIds);
+
+	@Override
+	protected IStatus run(IProgressMonitor monitor) {
+		SubMonitor progress = SubMonitor.convert(monitor, getName(), traceIds.size());
+		int failed = 0;
+		boolean canceled = false;
+		for (int from = 0; from < traceIds.size(); from += CHUNK_SIZE) {
+			if (progress.isCanceled()) {
+				canceled = true;
+				break;
+			}
+			List<String> chunk = traceIds.subList(from, Math.min(from + CHUNK_SIZE, traceIds.size()));
+			boolean sent = false;
+			try {
+				sent = send(new ArrayList<>(chunk));
+			} catch (IOException | UnauthorizedException e) {
+				ContrastUIActivator.log(e);
+			}
+			if (sent) {
+				updatedTraceIds.addAll(chunk);
+			} else {
+				failed += chunk.size();
+			}
+			progress.worked(chunk.size());
+		}
+		if (!updatedTraceIds.isEmpty()) {
+			updateCache(updatedTraceIds);
+		}
+		if (failed > 0) {
+			showFailure(failed);
+		}
+		return canceled ? Status.CANCEL_STATUS : Status.OK_STATUS;
+	}
+
+	/**
+	 * @return The traces the change has been applied to, complete once the job
+	 *         is done.
+	 */
+	public List<String> getUpdatedTraceIds() {
+		return updatedTraceIds;
+	}
+
+	private void showFailure(int failed) {
+		final IStatus status = new Status(IStatus.ERROR, ContrastUIActivator.PLUGIN_ID,
+				String.format(resource.getString("BULK_REQUEST_FAILED"), failed, traceIds.size()));
+		Display.getDefault().asyncExec(new Runnable() {
+
+			@Override
+			public void run() {
+				ContrastUIActivator.statusDialog(getName(), status);
+			}
+		});
+	}
+
+}
@@ -22,26 +22,141 @@ import org.eclipse.core.runtime.jobs.Job;
 import com.contrastsecurity.ide.eclipse.core.Constants;
 import com.contrastsecurity.ide.eclipse.ui.internal.views.VulnerabilitiesView;
 
+/**
+ * Refreshes the traces of the Vulnerabilities view periodically. The delay
+ * doubles with every refresh that finds no changes, up to
+ * {@link Constants#MAX_REFRESH_DELAY}, and is shortened for a while after a
+ * build or launch. The job does not run while the view is not visible and
+ * waits as long as Team Server asks it to when requests are throttled.
+ */
 public class RefreshJob extends Job {
 
 	private VulnerabilitiesView vulnerabilitiesView;
+	private volatile boolean fullRefreshRequested = true;
+	private volatile boolean visible = true;
+	private volatile int unchangedRefreshes;
+	private volatile long boostedUntil;
+	private volatile long notBefore;
+	/**
+	 * Time the next refresh is due, kept while the view is hidden.
+	 */
+	private volatile long nextRefreshTime;
 
 	public RefreshJob(String name, VulnerabilitiesView vulnerabilitiesView) {
 		super(name);
 		this.vulnerabilitiesView = vulnerabilitiesView;
 	}
 
+	/**
+	 * Makes the next run reload the whole trace list instead of only the traces
+	 * that changed since the last one.
+	 */
+	public void requestFullRefresh() {
+		fullRefreshRequested = true;
+		unchangedRefreshes = 0;
+	}
+
+	/**
+	 * Stops the periodic refresh while the view is hidden and resumes it when
+	 * it is shown again. A refresh that became due in the meantime runs right
+	 * away.
+	 */
+	public void setVisible(boolean visible) {
+		if (this.visible == visible) {
+			return;
+		}
+		this.visible = visible;
+		if (visible && getState() == Job.NONE) {
+			schedule(Math.max(0, nextRefreshTime - System.currentTimeMillis()));
+		}
+	}
+
+	/**
+	 * Refreshes more often for {@link Constants#REFRESH_BOOST_DURATION}, used
+	 * after the user started a build or a launch that may report new traces.
+	 */
+	public void boost() {
+		unchangedRefreshes = 0;
+		boostedUntil = System.currentTimeMillis() + Constants.REFRESH_BOOST_DURATION;
+		long boostedTime = System.currentTimeMillis() + Constants.REFRESH_BOOST_DELAY;
+		if (boostedTime >= nextRefreshTime) {
+			return;
+		}
+		nextRefreshTime = boostedTime;
+		if (visible && getState() == Job.SLEEPING && cancel()) {
+			schedule(Math.max(Constants.REFRESH_BOOST_DELAY, notBefore - System.currentTimeMillis()));
+		}
+	}
+
+	/**
+	 * Delays the next refresh after Team Server answered with a Retry-After
+	 * delay.
+	 *
+	 * @param retryAfter
+	 *            Milliseconds to wait before the next request.
+	 */
+	public void throttle(long retryAfter) {
+		notBefore = Math.max(notBefore, System.currentTimeMillis() + retryAfter);
+	}
+
 	@Override
 	protected IStatus run(IProgressMonitor monitor) {
 		if (monitor.isCanceled()) {
 			return Status.CANCEL_STATUS;
 		}
-		vulnerabilitiesView.refreshTraces(true);
+		if (!visible) {
+			// Rescheduled by setVisible
+			return Status.OK_STATUS;
+		}
+		long throttled = notBefore - System.currentTimeMillis();
+		if (throttled > 0) {
+			reschedule(throttled);
+			return Status.OK_STATUS;
+		}
+		boolean fullRefresh = fullRefreshRequested;
+		fullRefreshRequested = false;
+		boolean changed;
+		if (fullRefresh || !vulnerabilitiesView.canRefreshIncrementally()) {
+			vulnerabilitiesView.refreshTraces(true);
+			changed = true;
+		} else {
+			changed = vulnerabilitiesView.refreshTracesIncrementally();
+		}
 		if (monitor.isCanceled()) {
 			return Status.CANCEL_STATUS;
 		}
-		schedule(Constants.REFRESH_DELAY);
+		if (changed) {
+			unchangedRefreshes = 0;
+		} else {
+			unchangedRefreshes++;
+		}
+		if (fullRefreshRequested) {
+			// Requested while running, e.g. by a filter change, so it runs now
+			reschedule(Math.max(0, notBefore - System.currentTimeMillis()));
+		} else {
+			reschedule(getNextDelay());
+		}
 		return Status.OK_STATUS;
 	}
 
+	private void reschedule(long delay) {
+		nextRefreshTime = System.currentTimeMillis() + delay;
+		if (visible) {
+			schedule(delay);
+		}
+	}
+
+	private long getNextDelay() {
+		long now = System.currentTimeMillis();
+		long delay;
+		if (now < boostedUntil) {
+			delay = Constants.REFRESH_BOOST_DELAY;
+		} else {
+			// Capped before shifting so the delay can't overflow
+			int doublings = Math.min(unchangedRefreshes, 16);
+			delay = Math.min((long) Constants.REFRESH_DELAY << doublings, Constants.MAX_REFRESH_DELAY);
+		}
+		return Math.max(delay, notBefore - now);
+	}
+
 }
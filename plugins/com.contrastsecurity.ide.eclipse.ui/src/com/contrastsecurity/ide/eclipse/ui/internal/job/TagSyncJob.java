@@ -0,0 +1,145 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Contrast Security.
+ * All rights reserved. 
+ * 
+ * This program and the accompanying materials are made available under 
+ * the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License.
+ * 
+ * The terms of the GNU GPL version 3 which accompanies this distribution
+ * and is available at https://www.gnu.org/licenses/gpl-3.0.en.html
+ * 
+ * Contributors:
+ *     Contrast Security - initial API and implementation
+ *******************************************************************************/
+package com.contrastsecurity.ide.eclipse.ui.internal.job;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.ResourceBundle;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.swt.widgets.Display;
+
+import com.contrastsecurity.exceptions.UnauthorizedException;
+import com.contrastsecurity.ide.eclipse.core.extended.ExtendedContrastSDK;
+import com.contrastsecurity.ide.eclipse.core.service.AsyncContrastSDK;
+import com.contrastsecurity.ide.eclipse.core.service.IContrastService;
+import com.contrastsecurity.ide.eclipse.ui.ContrastUIActivator;
+import com.contrastsecurity.ide.eclipse.ui.cache.ContrastCache;
+import com.contrastsecurity.ide.eclipse.ui.cache.Key;
+import com.contrastsecurity.ide.eclipse.ui.cache.TagDiff;
+import com.contrastsecurity.ide.eclipse.ui.cache.TagsCacheLoader;
+import com.contrastsecurity.ide.eclipse.ui.internal.model.VulnerabilityDetailsPage;
+import com.contrastsecurity.ide.eclipse.ui.util.UIElementUtils;
+import com.contrastsecurity.models.Tag;
+import com.contrastsecurity.models.Tags;
+import com.contrastsecurity.models.TagsResponse;
+
+/**
+ * Sends a {@link TagDiff} of a trace to Team Server. All added tags go in a
+ * single request and every removed tag in a request of its own, all of them
+ * sent at once through the {@link IContrastService}.
+ * <p>
+ * The diff is expected to be applied to the cached tags already. If any
+ * request fails, the tags of the trace and the organization are loaded again
+ * so that the details page shows what Team Server actually has.
+ */
+public class TagSyncJob extends Job {
+
+	private static ResourceBundle resource = ResourceBundle.getBundle("OSGI-INF/l10n.bundle");
+
+	private final ExtendedContrastSDK sdk;
+	private final String orgUuid;
+	private final String traceUuid;
+	private final TagDiff diff;
+	private final VulnerabilityDetailsPage detailsPage;
+	private final ContrastCache contrastCache = ContrastUIActivator.getContrastCache();
+
+	public TagSyncJob(ExtendedContrastSDK sdk, String orgUuid, String traceUuid, TagDiff diff,
+			VulnerabilityDetailsPage detailsPage) {
+		super(resource.getString("SAVING_TAGS_JOB"));
+		this.sdk = sdk;
+		this.orgUuid = orgUuid;
+		this.traceUuid = traceUuid;
+		this.diff = diff;
+		this.detailsPage = detailsPage;
+	}
+
+	@Override
+	protected IStatus run(IProgressMonitor monitor) {
+		IContrastService contrastService = ContrastUIActivator.getContrastService();
+		if (contrastService == null) {
+			return Status.CANCEL_STATUS;
+		}
+		AsyncContrastSDK asyncSdk = contrastService.getAsyncSDK(sdk);
+		List<CompletableFuture<TagsResponse>> requests = new ArrayList<>();
+		if (!diff.getAdded().isEmpty()) {
+			Tags tags = new Tags(new ArrayList<>(diff.getAdded()));
+			tags.setTracesId(Collections.singletonList(traceUuid));
+			requests.add(asyncSdk.createTag(orgUuid, tags));
+		}
+		for (String tag : diff.getRemoved()) {
+			requests.add(asyncSdk.deleteVulnerabilityTag(orgUuid, traceUuid, new Tag(tag)));
+		}
+		boolean failed = false;
+		for (CompletableFuture<TagsResponse> request : requests) {
+			try {
+				TagsResponse response = request.get();
+				failed |= response == null || !Boolean.parseBoolean(response.getSuccess());
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				failed = true;
+			} catch (ExecutionException e) {
+				ContrastUIActivator.log(e.getCause());
+				failed = true;
+			}
+		}
+		if (failed) {
+			reload();
+		}
+		return Status.OK_STATUS;
+	}
+
+	/**
+	 * Drops the optimistically updated tags and loads them from Team Server.
+	 */
+	private void reload() {
+		Key key = new Key(orgUuid, traceUuid);
+		Key keyForOrg = new Key(orgUuid, null);
+		contrastCache.getTagsResources().remove(key);
+		contrastCache.getTagsResources().remove(keyForOrg);
+		TagsResponse traceTags = null;
+		TagsResponse orgTags = null;
+		try {
+			TagsCacheLoader loader = new TagsCacheLoader(sdk);
+			traceTags = contrastCache.getTagsResources().get(key, loader);
+			orgTags = contrastCache.getTagsResources().get(keyForOrg, loader);
+		} catch (IOException | UnauthorizedException e) {
+			ContrastUIActivator.log(e);
+		}
+		final TagsResponse reloadedTraceTags = traceTags;
+		final TagsResponse reloadedOrgTags = orgTags;
+		Display.getDefault().asyncExec(new Runnable() {
+
+			@Override
+			public void run() {
+				if (detailsPage.isDisposed() || detailsPage.getTrace() == null
+						|| !traceUuid.equals(detailsPage.getTrace().getUuid())) {
+					return;
+				}
+				detailsPage.setTraceTagsResource(reloadedTraceTags);
+				detailsPage.setOrgTagsResource(reloadedOrgTags);
+				UIElementUtils.ShowErrorMessage(detailsPage.getShell(), resource.getString("REQUEST_FAILED"));
+			}
+		});
+	}
+
+}
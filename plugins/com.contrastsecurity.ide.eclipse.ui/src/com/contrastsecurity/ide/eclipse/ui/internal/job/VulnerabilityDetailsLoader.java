@@ -0,0 +1,612 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Contrast Security.
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made available under
+ * the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License.
+ *
+ * The terms of the GNU GPL version 3 which accompanies this distribution
+ * and is available at https://www.gnu.org/licenses/gpl-3.0.en.html
+ *
+ * Contributors:
+ *     Contrast Security - initial API and implementation
+ *******************************************************************************/
+package com.contrastsecurity.ide.eclipse.ui.internal.job;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.ResourceBundle;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+import org.apache.commons.lang.StringUtils;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.swt.widgets.Display;
+
+import com.contrastsecurity.exceptions.UnauthorizedException;
+import com.contrastsecurity.ide.eclipse.core.extended.ExtendedContrastSDK;
+import com.contrastsecurity.ide.eclipse.core.service.IContrastService;
+import com.contrastsecurity.ide.eclipse.ui.ContrastUIActivator;
+import com.contrastsecurity.ide.eclipse.ui.cache.CacheLoader;
+import com.contrastsecurity.ide.eclipse.ui.cache.ContrastCache;
+import com.contrastsecurity.ide.eclipse.ui.cache.Key;
+import com.contrastsecurity.ide.eclipse.ui.cache.TagsCacheLoader;
+import com.contrastsecurity.ide.eclipse.ui.cache.TraceSearchIndex;
+import com.contrastsecurity.ide.eclipse.ui.internal.model.VulnerabilityDetailsPage;
+import com.contrastsecurity.ide.eclipse.ui.internal.views.VulnerabilitiesView;
+import com.contrastsecurity.models.EventSummaryResponse;
+import com.contrastsecurity.models.HttpRequestResponse;
+import com.contrastsecurity.models.RecommendationResponse;
+import com.contrastsecurity.models.StoryResponse;
+import com.contrastsecurity.models.TagsResponse;
+import com.contrastsecurity.models.Trace;
+
+/**
+ * Loads the resources shown by {@link VulnerabilityDetailsPage} concurrently
+ * and off the UI thread. Each resource is handed to the page as soon as it
+ * arrives; loading a new trace or calling {@link #cancel()} discards whatever
+ * is still in flight.
+ * <p>
+ * The details of the traces likely to be opened next can be prefetched into
+ * the cache with {@link #prefetch(List)}, one request at a time and only while
+ * no request of the shown trace is running.
+ */
+public class VulnerabilityDetailsLoader {
+
+	private final VulnerabilitiesView vulnerabilitiesView;
+	private final VulnerabilityDetailsPage detailsPage;
+	private final ContrastCache contrastCache = ContrastUIActivator.getContrastCache();
+	private final AtomicInteger generation = new AtomicInteger();
+	private final List<CompletableFuture<?>> pending = new ArrayList<>();
+	private boolean disposed;
+	private Job prefetchJob;
+	/**
+	 * Index of the first marked trace whose status is looked up by the next
+	 * {@link #checkMarkedTraces(List)}, so that all of them are looked up in
+	 * turn.
+	 */
+	private int markedStatusOffset;
+
+	/**
+	 * Time a prefetch waits for the requests of the shown trace before
+	 * checking again whether it has been canceled.
+	 */
+	private static final long PREFETCH_CANCEL_CHECK_INTERVAL = 500;
+	/**
+	 * Maximum number of marked traces whose status is looked up after a full
+	 * refresh.
+	 */
+	private static final int MARKED_STATUS_CHECKS = 10;
+	private static ResourceBundle resource = ResourceBundle.getBundle("OSGI-INF/l10n.bundle");
+
+	public VulnerabilityDetailsLoader(VulnerabilitiesView vulnerabilitiesView, VulnerabilityDetailsPage detailsPage) {
+		this.vulnerabilitiesView = vulnerabilitiesView;
+		this.detailsPage = detailsPage;
+	}
+
+	/**
+	 * Starts loading every detail resource of the given trace. Requests that
+	 * are still running for a previously loaded trace are cancelled.
+	 *
+	 * @param trace
+	 *            The trace whose details should be shown.
+	 */
+	public void load(final Trace trace) {
+		cancel();
+		final int requestGeneration = generation.get();
+		final Key key = new Key(ContrastUIActivator.getOrgUuid(), trace.getUuid());
+		final Key keyForOrg = new Key(ContrastUIActivator.getOrgUuid(), null);
+		final Long lastTimeSeen = trace.getLastTimeSeen();
+
+		submit(new DetailsRequest<StoryResponse>(requestGeneration) {
+
+			@Override
+			StoryResponse fetch() throws IOException, UnauthorizedException {
+				StoryResponse story = getStory(key, lastTimeSeen);
+				vulnerabilitiesView.getSearchIndex().addStory(key.getTraceId(), story);
+				return story;
+			}
+
+			@Override
+			void apply(StoryResponse story) {
+				detailsPage.setStory(story);
+			}
+		});
+		submit(new DetailsRequest<RecommendationResponse>(requestGeneration) {
+
+			@Override
+			RecommendationResponse fetch() throws IOException, UnauthorizedException {
+				RecommendationResponse recommendation = getRecommendationResource(key);
+				vulnerabilitiesView.getSearchIndex().addRecommendation(key.getTraceId(), recommendation);
+				return recommendation;
+			}
+
+			@Override
+			void apply(RecommendationResponse recommendationResource) {
+				detailsPage.setRecommendationResource(recommendationResource);
+			}
+		});
+		submit(new DetailsRequest<String>(requestGeneration) {
+
+			@Override
+			String fetch() throws IOException, UnauthorizedException {
+				return getVulnerabilityStatus(key);
+			}
+
+			@Override
+			void apply(String status) {
+				detailsPage.setVulnerabilityStatus(StringUtils.isBlank(status) ? trace.getStatus() : status);
+			}
+		});
+		submit(new DetailsRequest<TagsResponse>(requestGeneration) {
+
+			@Override
+			TagsResponse fetch() throws IOException, UnauthorizedException {
+				TagsResponse traceTags = getTags(key);
+				if (traceTags != null) {
+					vulnerabilitiesView.getSearchIndex().addTags(key.getTraceId(), traceTags.getTags());
+				}
+				return traceTags;
+			}
+
+			@Override
+			void apply(TagsResponse traceTagsResource) {
+				detailsPage.setTraceTagsResource(traceTagsResource);
+			}
+		});
+		submit(new DetailsRequest<TagsResponse>(requestGeneration) {
+
+			@Override
+			TagsResponse fetch() throws IOException, UnauthorizedException {
+				return getTags(keyForOrg);
+			}
+
+			@Override
+			void apply(TagsResponse orgTagsResource) {
+				detailsPage.setOrgTagsResource(orgTagsResource);
+			}
+		});
+		submit(new DetailsRequest<HttpRequestResponse>(requestGeneration) {
+
+			@Override
+			HttpRequestResponse fetch() throws IOException, UnauthorizedException {
+				return getHttpRequest(key, lastTimeSeen);
+			}
+
+			@Override
+			void apply(HttpRequestResponse httpRequest) {
+				detailsPage.setHttpRequest(httpRequest);
+			}
+		});
+		submit(new DetailsRequest<EventSummaryResponse>(requestGeneration) {
+
+			@Override
+			EventSummaryResponse fetch() throws IOException, UnauthorizedException {
+				return getEventSummary(key, trace);
+			}
+
+			@Override
+			void apply(EventSummaryResponse eventSummary) {
+				detailsPage.setEventSummaryResource(eventSummary);
+			}
+		});
+	}
+
+	/**
+	 * Loads the HTTP request of the shown trace again, through the cache,
+	 * without canceling the other requests of the trace.
+	 */
+	public void reloadHttpRequest(final Trace trace) {
+		final Key key = new Key(ContrastUIActivator.getOrgUuid(), trace.getUuid());
+		submit(new DetailsRequest<HttpRequestResponse>(generation.get()) {
+
+			@Override
+			HttpRequestResponse fetch() throws IOException, UnauthorizedException {
+				return getHttpRequest(key, trace.getLastTimeSeen());
+			}
+
+			@Override
+			void apply(HttpRequestResponse httpRequest) {
+				detailsPage.showReloadedHttpRequest(httpRequest);
+			}
+		});
+	}
+
+	/**
+	 * Loads the event summary of the shown trace again, through the cache,
+	 * without canceling the other requests of the trace.
+	 */
+	public void reloadEventSummary(final Trace trace) {
+		final Key key = new Key(ContrastUIActivator.getOrgUuid(), trace.getUuid());
+		submit(new DetailsRequest<EventSummaryResponse>(generation.get()) {
+
+			@Override
+			EventSummaryResponse fetch() throws IOException, UnauthorizedException {
+				return getEventSummary(key, trace);
+			}
+
+			@Override
+			void apply(EventSummaryResponse eventSummary) {
+				detailsPage.showReloadedEventSummary(eventSummary);
+			}
+		});
+	}
+
+	/**
+	 * Cancels every request that is still queued or running. Results of
+	 * requests that already reached Team Server are dropped when they arrive.
+	 */
+	public void cancel() {
+		generation.incrementAndGet();
+		synchronized (pending) {
+			if (prefetchJob != null) {
+				prefetchJob.cancel();
+				prefetchJob = null;
+			}
+			for (CompletableFuture<?> future : pending) {
+				future.cancel(true);
+			}
+			pending.clear();
+		}
+	}
+
+	/**
+	 * Fetches the story, recommendation and event summary of the given traces
+	 * into the cache in a low priority job. The prefetch stops when another
+	 * trace is loaded, when {@link #cancel()} is called or when a request
+	 * fails, e.g. because Team Server throttles requests.
+	 *
+	 * @param traces
+	 *            Traces most likely to be opened next, the most likely first.
+	 */
+	public void prefetch(final List<Trace> traces) {
+		if (traces.isEmpty()) {
+			return;
+		}
+		final int requestGeneration = generation.get();
+		final String orgUuid = ContrastUIActivator.getOrgUuid();
+		Job job = new Job(resource.getString("PREFETCH_DETAILS_JOB")) {
+
+			@Override
+			protected IStatus run(IProgressMonitor monitor) {
+				return prefetch(orgUuid, traces, requestGeneration, monitor);
+			}
+		};
+		job.setSystem(true);
+		job.setPriority(Job.DECORATE);
+		synchronized (pending) {
+			if (disposed || requestGeneration != generation.get()) {
+				return;
+			}
+			prefetchJob = job;
+		}
+		job.schedule();
+	}
+
+	private IStatus prefetch(String orgUuid, List<Trace> traces, int requestGeneration, IProgressMonitor monitor) {
+		TraceSearchIndex searchIndex = vulnerabilitiesView.getSearchIndex();
+		try {
+			for (Trace trace : traces) {
+				Key key = new Key(orgUuid, trace.getUuid());
+				if (!awaitIdle(requestGeneration, monitor)) {
+					return Status.CANCEL_STATUS;
+				}
+				searchIndex.addStory(key.getTraceId(), getStory(key, trace.getLastTimeSeen()));
+				if (!awaitIdle(requestGeneration, monitor)) {
+					return Status.CANCEL_STATUS;
+				}
+				searchIndex.addRecommendation(key.getTraceId(), getRecommendationResource(key));
+				if (!awaitIdle(requestGeneration, monitor)) {
+					return Status.CANCEL_STATUS;
+				}
+				getEventSummary(key, trace);
+			}
+		} catch (IOException | UnauthorizedException e) {
+			// Prefetching is best effort, the details are requested again when opened
+		}
+		return Status.OK_STATUS;
+	}
+
+	/**
+	 * Waits until every request of the shown trace is done.
+	 *
+	 * @return Whether the prefetch may continue.
+	 */
+	private boolean awaitIdle(int requestGeneration, IProgressMonitor monitor) {
+		while (!monitor.isCanceled() && requestGeneration == generation.get()) {
+			CompletableFuture<Void> running = getRunningRequests();
+			if (running == null) {
+				return true;
+			}
+			try {
+				running.get(PREFETCH_CANCEL_CHECK_INTERVAL, TimeUnit.MILLISECONDS);
+			} catch (TimeoutException | ExecutionException | CancellationException e) {
+				// Checked again, requests submitted in the meantime are waited for too
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return false;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @return A future completed once every request of the shown trace
+	 *         submitted so far is done, or null if none is running.
+	 */
+	private CompletableFuture<Void> getRunningRequests() {
+		List<CompletableFuture<?>> running = new ArrayList<>();
+		synchronized (pending) {
+			for (CompletableFuture<?> future : pending) {
+				if (!future.isDone()) {
+					running.add(future);
+				}
+			}
+		}
+		if (running.isEmpty()) {
+			return null;
+		}
+		return CompletableFuture.allOf(running.toArray(new CompletableFuture<?>[running.size()]));
+	}
+
+	/**
+	 * Fetches the event summaries of the given changed traces that have been
+	 * marked in the workspace, so that their markers are updated, and removes
+	 * the markers of the closed ones. The other traces are left alone.
+	 */
+	public void updateMarkers(List<Trace> changedTraces) {
+		IContrastService contrastService = ContrastUIActivator.getContrastService();
+		if (contrastService == null) {
+			return;
+		}
+		VulnerabilityMarkerJob markerJob = ContrastUIActivator.getVulnerabilityMarkerJob();
+		final String orgUuid = ContrastUIActivator.getOrgUuid();
+		for (final Trace trace : changedTraces) {
+			if (!markerJob.isMarked(trace.getUuid())) {
+				continue;
+			}
+			if (VulnerabilityMarkerJob.isClosed(trace.getStatus())) {
+				markerJob.remove(Collections.singletonList(trace.getUuid()));
+				continue;
+			}
+			contrastService.submit(Executors.callable(new Runnable() {
+
+				@Override
+				public void run() {
+					try {
+						getEventSummary(new Key(orgUuid, trace.getUuid()), trace);
+					} catch (IOException | UnauthorizedException e) {
+						// The markers are updated again when the trace is opened
+					}
+				}
+			}));
+		}
+	}
+
+	/**
+	 * Removes the markers of the marked traces that have been closed, after a
+	 * full refresh. The status of the listed traces is known. The status of
+	 * at most {@value #MARKED_STATUS_CHECKS} other marked traces is looked up
+	 * by UUID through the status cache, the others on later refreshes. Traces
+	 * hidden by the filter keep their markers.
+	 */
+	public void checkMarkedTraces(List<Trace> listedTraces) {
+		final VulnerabilityMarkerJob markerJob = ContrastUIActivator.getVulnerabilityMarkerJob();
+		Set<String> marked = markerJob.getMarkedTraces();
+		if (marked.isEmpty()) {
+			return;
+		}
+		List<String> closed = new ArrayList<>();
+		for (Trace trace : listedTraces) {
+			if (marked.remove(trace.getUuid()) && VulnerabilityMarkerJob.isClosed(trace.getStatus())) {
+				closed.add(trace.getUuid());
+			}
+		}
+		markerJob.remove(closed);
+		IContrastService contrastService = ContrastUIActivator.getContrastService();
+		if (contrastService == null || marked.isEmpty()) {
+			return;
+		}
+		List<String> unlisted = new ArrayList<>(marked);
+		Collections.sort(unlisted);
+		int checks = Math.min(MARKED_STATUS_CHECKS, unlisted.size());
+		int offset = markedStatusOffset % unlisted.size();
+		markedStatusOffset = offset + checks;
+		final String orgUuid = ContrastUIActivator.getOrgUuid();
+		for (int i = 0; i < checks; i++) {
+			final String traceUuid = unlisted.get((offset + i) % unlisted.size());
+			contrastService.submit(Executors.callable(new Runnable() {
+
+				@Override
+				public void run() {
+					try {
+						if (VulnerabilityMarkerJob.isClosed(getVulnerabilityStatus(new Key(orgUuid, traceUuid)))) {
+							markerJob.remove(Collections.singletonList(traceUuid));
+						}
+					} catch (IOException | UnauthorizedException e) {
+						// Looked up again by a later refresh
+					}
+				}
+			}));
+		}
+	}
+
+	public void dispose() {
+		synchronized (pending) {
+			disposed = true;
+		}
+		cancel();
+	}
+
+	/**
+	 * Runs the request on the threads of the {@link IContrastService}, which
+	 * are shared with every other request to Team Server.
+	 */
+	private void submit(final DetailsRequest<?> request) {
+		IContrastService contrastService = ContrastUIActivator.getContrastService();
+		if (contrastService == null) {
+			request.post(null);
+			return;
+		}
+		synchronized (pending) {
+			if (disposed) {
+				return;
+			}
+			CompletableFuture<Object> future = contrastService.submit(Executors.callable(request));
+			pending.add(future);
+			future.whenComplete(new BiConsumer<Object, Throwable>() {
+
+				@Override
+				public void accept(Object result, Throwable failure) {
+					// Timed out, rejected or canceled before the request ran
+					if (failure != null) {
+						request.post(null);
+					}
+				}
+			});
+		}
+	}
+
+	private ExtendedContrastSDK getSdk() {
+		return vulnerabilitiesView.getSdk();
+	}
+
+	/**
+	 * A single detail request. {@link #fetch()} runs on a request thread and
+	 * {@link #apply(Object)} on the UI thread, unless the request has been
+	 * superseded in the meantime.
+	 */
+	private abstract class DetailsRequest<T> implements Runnable {
+
+		private final int requestGeneration;
+		/**
+		 * Set once a result has been posted, so that a request which
+		 * failed late does not override it.
+		 */
+		private final AtomicBoolean posted = new AtomicBoolean();
+
+		DetailsRequest(int requestGeneration) {
+			this.requestGeneration = requestGeneration;
+		}
+
+		abstract T fetch() throws IOException, UnauthorizedException;
+
+		abstract void apply(T result);
+
+		private boolean isStale() {
+			return requestGeneration != generation.get();
+		}
+
+		@Override
+		public void run() {
+			if (isStale()) {
+				return;
+			}
+			T result = null;
+			try {
+				result = fetch();
+			} catch (IOException | UnauthorizedException | RuntimeException e) {
+				if (!isStale()) {
+					ContrastUIActivator.log(e);
+				}
+			}
+			post(result);
+		}
+
+		/**
+		 * Hands the result to the page, or null if the request failed, so that
+		 * the tab does not wait for it anymore.
+		 */
+		void post(final T loaded) {
+			if (isStale() || !posted.compareAndSet(false, true)) {
+				return;
+			}
+			Display.getDefault().asyncExec(new Runnable() {
+
+				@Override
+				public void run() {
+					if (!isStale() && !detailsPage.isDisposed()) {
+						apply(loaded);
+					}
+				}
+			});
+		}
+	}
+
+	//====================  Requests  ====================
+	private RecommendationResponse getRecommendationResource(Key key) throws IOException, UnauthorizedException {
+		return contrastCache.getRecommendationResources().get(key, new CacheLoader<RecommendationResponse>() {
+
+			@Override
+			public RecommendationResponse load(Key key) throws IOException, UnauthorizedException {
+				return getSdk().getRecommendation(key.getOrgUuid(), key.getTraceId());
+			}
+		});
+	}
+
+	private TagsResponse getTags(Key key) throws IOException, UnauthorizedException {
+		return contrastCache.getTagsResources().get(key, new TagsCacheLoader(getSdk()));
+	}
+
+	private StoryResponse getStory(Key key, Long lastTimeSeen) throws IOException, UnauthorizedException {
+		return contrastCache.getStoryResources().get(key, lastTimeSeen, new CacheLoader<StoryResponse>() {
+
+			@Override
+			public StoryResponse load(Key key) throws IOException, UnauthorizedException {
+				return getSdk().getStory(key.getOrgUuid(), key.getTraceId());
+			}
+		});
+	}
+
+	/**
+	 * Gets the event summary of the trace and marks the sources of the trace
+	 * in the workspace.
+	 */
+	private EventSummaryResponse getEventSummary(Key key, Trace trace) throws IOException, UnauthorizedException {
+		EventSummaryResponse eventSummary = contrastCache.getEventSummaryResources().get(key,
+				trace.getLastTimeSeen(), new CacheLoader<EventSummaryResponse>() {
+
+					@Override
+					public EventSummaryResponse load(Key key) throws IOException, UnauthorizedException {
+						return getSdk().getEventSummary(key.getOrgUuid(), key.getTraceId());
+					}
+				});
+		ContrastUIActivator.getVulnerabilityMarkerJob().update(key.getOrgUuid(), trace, eventSummary);
+		return eventSummary;
+	}
+
+	private HttpRequestResponse getHttpRequest(Key key, Long lastTimeSeen) throws IOException, UnauthorizedException {
+		return contrastCache.getHttpRequestResources().get(key, lastTimeSeen, new CacheLoader<HttpRequestResponse>() {
+
+			@Override
+			public HttpRequestResponse load(Key key) throws IOException, UnauthorizedException {
+				return getSdk().getHttpRequest(key.getOrgUuid(), key.getTraceId());
+			}
+		});
+	}
+
+	private String getVulnerabilityStatus(Key key) throws IOException, UnauthorizedException {
+		return contrastCache.getStatusResources().get(key, new CacheLoader<String>() {
+
+			@Override
+			public String load(Key key) throws IOException, UnauthorizedException {
+				Trace trace = getSdk().getTrace(key.getOrgUuid(), key.getTraceId());
+				return trace == null ? null : trace.getStatus();
+			}
+		});
+	}
+}
@@ -0,0 +1,430 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Contrast Security.
+ * All rights reserved. 
+ * 
+ * This program and the accompanying materials are made available under 
+ * the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License.
+ * 
+ * The terms of the GNU GPL version 3 which accompanies this distribution
+ * and is available at https://www.gnu.org/licenses/gpl-3.0.en.html
+ * 
+ * Contributors:
+ *     Contrast Security - initial API and implementation
+ *******************************************************************************/
+package com.contrastsecurity.ide.eclipse.ui.internal.job;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.ResourceBundle;
+import java.util.Set;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IWorkspace;
+import org.eclipse.core.resources.IWorkspaceRunnable;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.jdt.core.IType;
+
+import com.contrastsecurity.ide.eclipse.core.Constants;
+import com.contrastsecurity.ide.eclipse.ui.ContrastUIActivator;
+import com.contrastsecurity.ide.eclipse.ui.internal.model.StackFrameResolver;
+import com.contrastsecurity.ide.eclipse.ui.internal.model.StackFrameResolver.FrameLocation;
+import com.contrastsecurity.models.Event;
+import com.contrastsecurity.models.EventResource;
+import com.contrastsecurity.models.EventSummaryResponse;
+import com.contrastsecurity.models.Stacktrace;
+import com.contrastsecurity.models.Trace;
+
+/**
+ * Marks the sources of the traces in the workspace. A trace is marked at the
+ * first frame of each of its events that has a source, once its event summary
+ * has been fetched. Traces are only marked again when they are updated with a
+ * different last detection time or status, and the markers of closed traces
+ * are removed. All the updates queued while the job waits are applied in a
+ * single workspace operation, so that the markers of many traces cause a
+ * single resource change event.
+ */
+public class VulnerabilityMarkerJob extends Job {
+
+	public static final String MARKER_TYPE = ContrastUIActivator.PLUGIN_ID + ".vulnerability";
+	/**
+	 * Marker attribute holding the UUID of the trace.
+	 */
+	public static final String TRACE_UUID = "traceUuid";
+	private static final String[] ATTRIBUTE_NAMES = { IMarker.MESSAGE, IMarker.SEVERITY, IMarker.LINE_NUMBER,
+			IMarker.SOURCE_ID, TRACE_UUID };
+	/**
+	 * Time updates are collected before they are applied.
+	 */
+	private static final long BATCH_DELAY = 500;
+	/**
+	 * Statuses of the traces that are not marked.
+	 */
+	private static final Set<String> CLOSED_STATUSES = new HashSet<>(Arrays.asList(
+			Constants.VULNERABILITY_STATUS_REMEDIATED, Constants.VULNERABILITY_STATUS_FIXED,
+			Constants.VULNERABILITY_STATUS_AUTO_REMEDIATED, Constants.VULNERABILITY_STATUS_NOT_A_PROBLEM,
+			Constants.VULNERABILITY_STATUS_NOT_A_PROBLEM_API_REQUEST_STRING));
+
+	private static ResourceBundle resource = ResourceBundle.getBundle("OSGI-INF/l10n.bundle");
+
+	private final StackFrameResolver resolver;
+	private final Object lock = new Object();
+	private final Map<String, TraceUpdate> pending = new LinkedHashMap<>();
+	/**
+	 * Marked traces by UUID.
+	 */
+	private final Map<String, MarkedTrace> marked = new HashMap<>();
+	/**
+	 * Traces whose markers are to be removed.
+	 */
+	private final Set<String> removals = new HashSet<>();
+	private String orgUuid;
+	private boolean clearRequested;
+	/**
+	 * Incremented when the markers are cleared, so that a run in progress
+	 * does not record the traces it marked.
+	 */
+	private int generation;
+	/**
+	 * Markers of each trace, only accessed by the job.
+	 */
+	private final Map<String, IMarker[]> markers = new HashMap<>();
+
+	public VulnerabilityMarkerJob(StackFrameResolver resolver) {
+		super(resource.getString("UPDATE_MARKERS_JOB"));
+		this.resolver = resolver;
+		setSystem(true);
+		setPriority(Job.DECORATE);
+	}
+
+	/**
+	 * Queues the markers of the trace to be replaced, unless it has been
+	 * marked with the same last detection time and status, or to be removed
+	 * if the trace is closed. The markers of another organization are
+	 * removed.
+	 */
+	public void update(String orgUuid, Trace trace, EventSummaryResponse eventSummary) {
+		if (orgUuid == null || trace == null || eventSummary == null) {
+			return;
+		}
+		synchronized (lock) {
+			if (!orgUuid.equals(this.orgUuid)) {
+				if (this.orgUuid != null) {
+					clear();
+				}
+				this.orgUuid = orgUuid;
+			}
+			if (isClosed(trace.getStatus())) {
+				remove(trace.getUuid());
+			} else {
+				MarkedTrace markedTrace = marked.get(trace.getUuid());
+				if (!pending.containsKey(trace.getUuid()) && markedTrace != null && markedTrace.matches(trace)) {
+					return;
+				}
+				removals.remove(trace.getUuid());
+				pending.put(trace.getUuid(), new TraceUpdate(trace, eventSummary));
+			}
+		}
+		schedule(BATCH_DELAY);
+	}
+
+	/**
+	 * Removes the markers of the trace once it is closed, after its status
+	 * has been changed.
+	 */
+	public void setStatus(String traceUuid, String status) {
+		synchronized (lock) {
+			if (!isClosed(status)) {
+				MarkedTrace markedTrace = marked.get(traceUuid);
+				if (markedTrace != null) {
+					marked.put(traceUuid, new MarkedTrace(markedTrace.lastTimeSeen, status));
+				}
+				return;
+			}
+			remove(traceUuid);
+		}
+		schedule(BATCH_DELAY);
+	}
+
+	/**
+	 * Removes the markers of the traces, e.g. when they are no longer listed.
+	 */
+	public void remove(Collection<String> traceUuids) {
+		if (traceUuids.isEmpty()) {
+			return;
+		}
+		synchronized (lock) {
+			for (String traceUuid : traceUuids) {
+				remove(traceUuid);
+			}
+		}
+		schedule(BATCH_DELAY);
+	}
+
+	private void remove(String traceUuid) {
+		pending.remove(traceUuid);
+		marked.remove(traceUuid);
+		removals.add(traceUuid);
+	}
+
+	/**
+	 * @return The UUIDs of the traces that have been marked or are about to
+	 *         be.
+	 */
+	public Set<String> getMarkedTraces() {
+		synchronized (lock) {
+			Set<String> traceUuids = new HashSet<>(marked.keySet());
+			traceUuids.addAll(pending.keySet());
+			return traceUuids;
+		}
+	}
+
+	/**
+	 * @return Whether traces with the status are left unmarked.
+	 */
+	public static boolean isClosed(String status) {
+		return status != null && CLOSED_STATUSES.contains(status);
+	}
+
+	/**
+	 * @return Whether the trace has been marked or is about to be.
+	 */
+	public boolean isMarked(String traceUuid) {
+		synchronized (lock) {
+			return marked.containsKey(traceUuid) || pending.containsKey(traceUuid);
+		}
+	}
+
+	/**
+	 * Removes all the markers.
+	 */
+	public void clear() {
+		synchronized (lock) {
+			pending.clear();
+			marked.clear();
+			removals.clear();
+			clearRequested = true;
+			generation++;
+		}
+		schedule();
+	}
+
+	@Override
+	protected IStatus run(IProgressMonitor monitor) {
+		final List<TraceUpdate> updates;
+		final List<String> removed;
+		final boolean clear;
+		int runGeneration;
+		synchronized (lock) {
+			updates = new ArrayList<>(pending.values());
+			pending.clear();
+			removed = new ArrayList<>(removals);
+			removals.clear();
+			clear = clearRequested;
+			clearRequested = false;
+			runGeneration = generation;
+		}
+		// Frames are resolved before the workspace operation, since the type
+		// search may wait for the indexer
+		final Map<TraceUpdate, List<MarkerLocation>> locations = new LinkedHashMap<>();
+		for (TraceUpdate update : updates) {
+			if (monitor.isCanceled()) {
+				return Status.CANCEL_STATUS;
+			}
+			try {
+				List<MarkerLocation> traceLocations = getMarkerLocations(update, monitor);
+				if (traceLocations == null) {
+					return Status.CANCEL_STATUS;
+				}
+				locations.put(update, traceLocations);
+			} catch (CoreException e) {
+				ContrastUIActivator.log(e);
+			}
+		}
+		if (!clear && locations.isEmpty() && removed.isEmpty()) {
+			return Status.OK_STATUS;
+		}
+		final IWorkspace workspace = ResourcesPlugin.getWorkspace();
+		try {
+			workspace.run(new IWorkspaceRunnable() {
+
+				@Override
+				public void run(IProgressMonitor monitor) throws CoreException {
+					if (clear) {
+						workspace.getRoot().deleteMarkers(MARKER_TYPE, false, IResource.DEPTH_INFINITE);
+						markers.clear();
+					}
+					for (String traceUuid : removed) {
+						IMarker[] oldMarkers = markers.remove(traceUuid);
+						if (oldMarkers != null) {
+							workspace.deleteMarkers(oldMarkers);
+						}
+					}
+					for (Map.Entry<TraceUpdate, List<MarkerLocation>> entry : locations.entrySet()) {
+						Trace trace = entry.getKey().trace;
+						IMarker[] oldMarkers = markers.remove(trace.getUuid());
+						if (oldMarkers != null) {
+							workspace.deleteMarkers(oldMarkers);
+						}
+						List<IMarker> newMarkers = new ArrayList<>();
+						for (MarkerLocation location : entry.getValue()) {
+							if (!location.resource.exists()) {
+								continue;
+							}
+							IMarker marker = location.resource.createMarker(MARKER_TYPE);
+							marker.setAttributes(ATTRIBUTE_NAMES,
+									new Object[] { trace.getTitle(), getMarkerSeverity(trace.getSeverity()),
+											location.lineNumber, "Contrast", trace.getUuid() });
+							newMarkers.add(marker);
+						}
+						if (!newMarkers.isEmpty()) {
+							markers.put(trace.getUuid(), newMarkers.toArray(new IMarker[newMarkers.size()]));
+						}
+					}
+				}
+			}, null, IWorkspace.AVOID_UPDATE, monitor);
+		} catch (CoreException e) {
+			ContrastUIActivator.log(e);
+			return Status.OK_STATUS;
+		}
+		synchronized (lock) {
+			if (runGeneration == generation) {
+				for (TraceUpdate update : locations.keySet()) {
+					String traceUuid = update.trace.getUuid();
+					if (!pending.containsKey(traceUuid) && !removals.contains(traceUuid)) {
+						marked.put(traceUuid, new MarkedTrace(update.trace.getLastTimeSeen(), update.trace.getStatus()));
+					}
+				}
+			}
+		}
+		return Status.OK_STATUS;
+	}
+
+	/**
+	 * @return The first frame with a source of every event, once per file and
+	 *         line, or null if the monitor has been canceled.
+	 */
+	private List<MarkerLocation> getMarkerLocations(TraceUpdate update, IProgressMonitor monitor)
+			throws CoreException {
+		List<EventResource> events = update.eventSummary.getEvents();
+		if (events == null || events.isEmpty()) {
+			return new ArrayList<>();
+		}
+		Map<String, FrameLocation> frameLocations = resolver.getLocations(update.trace.getUuid(),
+				events.toArray(new EventResource[events.size()]), monitor);
+		if (frameLocations == null) {
+			return null;
+		}
+		List<MarkerLocation> locations = new ArrayList<>();
+		addMarkerLocations(events, frameLocations, new HashSet<String>(), locations);
+		return locations;
+	}
+
+	private static void addMarkerLocations(List<EventResource> events, Map<String, FrameLocation> frameLocations,
+			Set<String> added, List<MarkerLocation> locations) {
+		for (EventResource eventResource : events) {
+			Event event = eventResource.getEvent();
+			if (event != null && event.getStacktraces() != null) {
+				for (Stacktrace stacktrace : event.getStacktraces()) {
+					FrameLocation frameLocation = frameLocations.get(stacktrace.getDescription());
+					if (frameLocation != null && frameLocation.isResolved()) {
+						for (IFile file : getFiles(frameLocation)) {
+							if (added.add(file.getFullPath() + ":" + frameLocation.getLineNumber())) {
+								locations.add(new MarkerLocation(file, frameLocation.getLineNumber()));
+							}
+						}
+						break;
+					}
+				}
+			}
+			if (eventResource.getCollapsedEvents() != null) {
+				addMarkerLocations(eventResource.getCollapsedEvents(), frameLocations, added, locations);
+			}
+		}
+	}
+
+	/**
+	 * @return The source files of the frame, binary types left out.
+	 */
+	@SuppressWarnings("unchecked")
+	private static List<IFile> getFiles(FrameLocation frameLocation) {
+		if (!frameLocation.isJava()) {
+			return (List<IFile>) frameLocation.getResult();
+		}
+		List<IFile> files = new ArrayList<>();
+		for (IType type : (Set<IType>) frameLocation.getResult()) {
+			IResource resource = type.getResource();
+			if (!type.isBinary() && resource instanceof IFile) {
+				files.add((IFile) resource);
+			}
+		}
+		return files;
+	}
+
+	private static int getMarkerSeverity(String severity) {
+		if (severity == null) {
+			return IMarker.SEVERITY_INFO;
+		}
+		switch (severity) {
+		case "Critical":
+		case "High":
+			return IMarker.SEVERITY_ERROR;
+		case "Medium":
+			return IMarker.SEVERITY_WARNING;
+		default:
+			return IMarker.SEVERITY_INFO;
+		}
+	}
+
+	private static final class TraceUpdate {
+
+		private final Trace trace;
+		private final EventSummaryResponse eventSummary;
+
+		private TraceUpdate(Trace trace, EventSummaryResponse eventSummary) {
+			this.trace = trace;
+			this.eventSummary = eventSummary;
+		}
+	}
+
+	private static final class MarkedTrace {
+
+		private final Long lastTimeSeen;
+		private final String status;
+
+		private MarkedTrace(Long lastTimeSeen, String status) {
+			this.lastTimeSeen = lastTimeSeen;
+			this.status = status;
+		}
+
+		private boolean matches(Trace trace) {
+			return Objects.equals(lastTimeSeen, trace.getLastTimeSeen()) && Objects.equals(status, trace.getStatus());
+		}
+	}
+
+	private static final class MarkerLocation {
+
+		private final IFile resource;
+		private final int lineNumber;
+
+		private MarkerLocation(IFile resource, int lineNumber) {
+			this.resource = resource;
+			this.lineNumber = lineNumber;
+		}
+	}
+
+}
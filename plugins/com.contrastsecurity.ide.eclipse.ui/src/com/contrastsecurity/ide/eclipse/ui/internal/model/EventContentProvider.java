@@ -14,14 +14,29 @@
  *******************************************************************************/
 package com.contrastsecurity.ide.eclipse.ui.internal.model;
 
-import org.eclipse.jface.viewers.ITreeContentProvider;
+import java.util.List;
+
+import org.eclipse.jface.viewers.ILazyTreeContentProvider;
+import org.eclipse.jface.viewers.TreeViewer;
 import org.eclipse.jface.viewers.Viewer;
 
 import com.contrastsecurity.models.EventItem;
 import com.contrastsecurity.models.EventResource;
 
-public class EventContentProvider implements ITreeContentProvider {
+/**
+ * Content provider for a virtual event tree. The input is the array of events
+ * of a trace; the collapsed events and lines of an event are only looked up
+ * once the event is expanded, and tree items are only created for the rows
+ * that scroll into view.
+ */
+public class EventContentProvider implements ILazyTreeContentProvider {
+
+	private TreeViewer viewer;
+	private EventResource[] events = new EventResource[0];
+
 	public void inputChanged(Viewer v, Object oldInput, Object newInput) {
+		viewer = (TreeViewer) v;
+		events = newInput instanceof EventResource[] ? (EventResource[]) newInput : new EventResource[0];
 	}
 
 	@Override
@@ -29,21 +44,53 @@ public class EventContentProvider implements ITreeContentProvider {
 	}
 
 	@Override
-	public Object[] getElements(Object inputElement) {
-		return (EventResource[]) inputElement;
+	public void updateElement(Object parent, int index) {
+		Object child = getChild(parent, index);
+		if (child != null) {
+			viewer.replace(parent, index, child);
+			// Events always have lines, which are only created when expanded
+			viewer.setHasChildren(child, child instanceof EventResource);
+		}
 	}
 
 	@Override
-	public Object[] getChildren(Object parentElement) {
-		if (parentElement instanceof EventResource) {
-			EventResource eventResource = (EventResource) parentElement;
+	public void updateChildCount(Object element, int currentChildCount) {
+		int count = getChildCount(element);
+		if (count != currentChildCount) {
+			viewer.setChildCount(element, count);
+		}
+	}
 
-			if(eventResource.getCollapsedEvents() != null && !eventResource.getCollapsedEvents().isEmpty())
-				return eventResource.getCollapsedEvents().toArray();
+	private Object getChild(Object parent, int index) {
+		if (parent == events) {
+			return index < events.length ? events[index] : null;
+		}
+		if (parent instanceof EventResource) {
+			EventResource eventResource = (EventResource) parent;
+			List<EventResource> collapsedEvents = eventResource.getCollapsedEvents();
+			if (collapsedEvents != null && !collapsedEvents.isEmpty()) {
+				return index < collapsedEvents.size() ? collapsedEvents.get(index) : null;
+			}
+			EventItem[] items = eventResource.getItems();
+			return items != null && index < items.length ? items[index] : null;
+		}
+		return null;
+	}
 
-			return eventResource.getItems();
+	private int getChildCount(Object element) {
+		if (element == events) {
+			return events.length;
+		}
+		if (element instanceof EventResource) {
+			EventResource eventResource = (EventResource) element;
+			List<EventResource> collapsedEvents = eventResource.getCollapsedEvents();
+			if (collapsedEvents != null && !collapsedEvents.isEmpty()) {
+				return collapsedEvents.size();
+			}
+			EventItem[] items = eventResource.getItems();
+			return items != null ? items.length : 0;
 		}
-		return new Object[0];
+		return 0;
 	}
 
 	@Override
@@ -57,12 +104,4 @@ public class EventContentProvider implements ITreeContentProvider {
 		return null;
 	}
 
-	@Override
-	public boolean hasChildren(Object element) {
-		if (element instanceof EventResource) {
-			return true;
-		}
-		return false;
-	}
-
 }
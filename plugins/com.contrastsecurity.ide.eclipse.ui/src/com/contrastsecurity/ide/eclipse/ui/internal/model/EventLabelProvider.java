@@ -14,17 +14,21 @@
  *******************************************************************************/
 package com.contrastsecurity.ide.eclipse.ui.internal.model;
 
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Locale;
+import java.util.Map;
 import java.util.ResourceBundle;
+import java.util.Set;
 
+import org.eclipse.jface.preference.JFacePreferences;
+import org.eclipse.jface.resource.JFaceResources;
 import org.eclipse.jface.viewers.OwnerDrawLabelProvider;
 import org.eclipse.jface.viewers.TreeViewer;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.graphics.Color;
 import org.eclipse.swt.graphics.Font;
 import org.eclipse.swt.graphics.FontData;
-import org.eclipse.swt.graphics.Point;
-import org.eclipse.swt.graphics.Rectangle;
-import org.eclipse.swt.widgets.Display;
 import org.eclipse.swt.widgets.Event;
 import org.unbescape.html.HtmlEscape;
 
@@ -32,6 +36,13 @@ import com.contrastsecurity.ide.eclipse.core.Constants;
 import com.contrastsecurity.models.EventItem;
 import com.contrastsecurity.models.EventResource;
 
+/**
+ * Paints the events of a trace and their lines. What is painted for an event
+ * is computed by {@link #setEvents(EventResource[])}, for a line the first
+ * time it scrolls into view, since the lines of an event are only created
+ * once it is expanded. The bold font is created once per viewer, so that
+ * painting while scrolling does neither allocate nor process strings.
+ */
 public class EventLabelProvider extends OwnerDrawLabelProvider {
 
 
@@ -39,11 +50,59 @@ public class EventLabelProvider extends OwnerDrawLabelProvider {
 
 	private static final String INTERESTING_SECURITY_EVENT_OCCURED_ON_DATA = resource.getString("SECURITY_EVENT");
 	private TreeViewer viewer;
+	private final Map<Object, RenderModel> models = new IdentityHashMap<>();
+	/**
+	 * Stack frames which have a source in the workspace.
+	 */
+	private Set<String> resolvedFrames = Collections.emptySet();
+	private Color linkColor;
+	private Font boldFont;
+	/**
+	 * Height of a line of text in the font of the tree, measured on the first
+	 * paint.
+	 */
+	private int lineHeight = -1;
 
 	public EventLabelProvider(TreeViewer viewer) {
 		this.viewer = viewer;
 	}
 
+	/**
+	 * Computes what is painted for the given events and drops what was
+	 * computed for the previous ones. Must be called before the events are
+	 * set as the input of the viewer.
+	 */
+	public void setEvents(EventResource[] events) {
+		models.clear();
+		if (events != null) {
+			for (EventResource event : events) {
+				models.put(event, RenderModel.forEvent(event, getColor(event.getType())));
+			}
+		}
+	}
+
+	/**
+	 * Sets the stack frames painted as links, because their source can be
+	 * opened. The caller redraws the tree.
+	 */
+	public void setResolvedFrames(Set<String> resolvedFrames) {
+		this.resolvedFrames = resolvedFrames;
+	}
+
+	private RenderModel getModel(Object element) {
+		RenderModel model = models.get(element);
+		if (model == null) {
+			if (element instanceof EventItem) {
+				model = RenderModel.forItem((EventItem) element);
+			} else {
+				EventResource event = (EventResource) element;
+				model = RenderModel.forEvent(event, getColor(event.getType()));
+			}
+			models.put(element, model);
+		}
+		return model;
+	}
+
 	@Override
 	protected void measure(Event event, Object element) {
 //		event.width = viewer.getTree().getColumn(event.index).getWidth();
@@ -60,89 +119,65 @@ public class EventLabelProvider extends OwnerDrawLabelProvider {
 	@Override
 	protected void paint(Event event, Object element) {
 		if (element instanceof EventItem) {
-			EventItem eventItem = (EventItem) element;
+			RenderModel model = getModel(element);
 			Color background = event.gc.getBackground();
 			Color foreground = event.gc.getForeground();
 			Font font = event.gc.getFont();
-			FontData[] fontData = font.getFontData();
-			for (int i = 0; i < fontData.length; i++) {
-				fontData[i].setStyle(SWT.BOLD);
-				fontData[i].setHeight(fontData[i].getHeight() + 1);
+			if (model.frame != null && resolvedFrames.contains(model.frame)) {
+				event.gc.setForeground(getLinkColor());
+			} else if (model.color != null) {
+				event.gc.setForeground(model.color);
 			}
-			Font boldFont = null;
-			try {
-				boldFont = new Font(Display.getCurrent(), fontData);
-				int x = event.x + 15;
-				switch (eventItem.getType()) {
-				case EventResource.RED:
-					x = x + 15;
-					event.gc.setForeground(Constants.CREATION_COLOR);
-					break;
-				case EventResource.CONTENT:
-					x = x + 15;
-					event.gc.setForeground(Constants.CONTENT_COLOR);
-					break;
-				case EventResource.CODE:
-					x = x + 15;
-					event.gc.setForeground(Constants.CODE_COLOR);
-					break;
-				case EventResource.BOLD:
-					event.gc.setFont(boldFont);
-					break;
-				default:
-					break;
-				}
-				event.gc.setBackground(Constants.ITEM_BACKGROUND_COLOR);
-				//Rectangle clipping = event.gc.getClipping();
-				//event.gc.setClipping(clipping.x, clipping.y, viewer.getTree().getColumn(0).getWidth(), clipping.height + 5);
-				Rectangle bounds = event.getBounds();
-				bounds.width = viewer.getTree().getColumn(0).getWidth();
-				bounds.height += 5;
-				event.gc.fillRectangle(bounds);
-				//event.gc.setClipping(clipping.x, clipping.y, clipping.width, clipping.height);
-				String value = eventItem.getValue();
-				if (value != null) {
-					//value = StringEscapeUtils.unescapeHtml(value);
-					value = HtmlEscape.unescapeHtml(value);
-				}
-				event.gc.drawString(eventItem.getValue(), x, event.y);
-			} finally {
-				if (boldFont != null) {
-					boldFont.dispose();
-				}
+			if (model.bold) {
+				event.gc.setFont(getBoldFont(font));
 			}
+			event.gc.setBackground(Constants.ITEM_BACKGROUND_COLOR);
+			event.gc.fillRectangle(event.x, event.y, viewer.getTree().getColumn(0).getWidth(), event.height + 5);
+			event.gc.drawString(model.text, event.x + model.indent, event.y);
 			event.gc.setBackground(background);
 			event.gc.setForeground(foreground);
 			event.gc.setFont(font);
-		} else {
-			if (element instanceof EventResource) {
-				EventResource eventResource = (EventResource) element;
-				Color background = event.gc.getBackground();
-				Color foreground = event.gc.getForeground();
-				//Rectangle clipping = event.gc.getClipping(); //TODO Remove if not used
-				// event.gc.setLineWidth(1);
-				Point size = event.gc.stringExtent(INTERESTING_SECURITY_EVENT_OCCURED_ON_DATA);
-				Color color = getColor(eventResource.getType());
-				if (color != null) {
-					event.gc.setBackground(color);
-				} else {
-					event.gc.setBackground(Display.getCurrent().getSystemColor(SWT.COLOR_WIDGET_BACKGROUND));
-				}
-				event.gc.fillOval(event.x + 8, event.y + size.y / 2 - 2, 10, 10);
-				event.gc.setBackground(background);
-//				if (color != null) {
-//					event.gc.setForeground(color);
-//				} else {
-//					event.gc.setBackground(Display.getCurrent().getSystemColor(SWT.COLOR_WIDGET_FOREGROUND));
-//				}
-				String type = eventResource.getDescription().toUpperCase();
-				event.gc.drawString(type, event.x + 30, event.y + 2);
-				size = event.gc.stringExtent(INTERESTING_SECURITY_EVENT_OCCURED_ON_DATA);
-				event.gc.setBackground(background);
-				event.gc.setForeground(foreground);
+		} else if (element instanceof EventResource) {
+			RenderModel model = getModel(element);
+			Color background = event.gc.getBackground();
+			if (lineHeight < 0) {
+				lineHeight = event.gc.stringExtent(INTERESTING_SECURITY_EVENT_OCCURED_ON_DATA).y;
+			}
+			if (model.color != null) {
+				event.gc.setBackground(model.color);
+			} else {
+				event.gc.setBackground(event.display.getSystemColor(SWT.COLOR_WIDGET_BACKGROUND));
 			}
+			event.gc.fillOval(event.x + 8, event.y + lineHeight / 2 - 2, 10, 10);
+			event.gc.setBackground(background);
+			event.gc.drawString(model.text, event.x + 30, event.y + 2);
+		}
+	}
 
+	/**
+	 * @return A bold font one point larger than the given font, created on the
+	 *         first call.
+	 */
+	private Font getBoldFont(Font font) {
+		if (boldFont == null) {
+			FontData[] fontData = font.getFontData();
+			for (int i = 0; i < fontData.length; i++) {
+				fontData[i].setStyle(SWT.BOLD);
+				fontData[i].setHeight(fontData[i].getHeight() + 1);
+			}
+			boldFont = new Font(font.getDevice(), fontData);
+		}
+		return boldFont;
+	}
+
+	private Color getLinkColor() {
+		if (linkColor == null) {
+			linkColor = JFaceResources.getColorRegistry().get(JFacePreferences.HYPERLINK_COLOR);
+			if (linkColor == null) {
+				linkColor = viewer.getTree().getDisplay().getSystemColor(SWT.COLOR_LINK_FOREGROUND);
+			}
 		}
+		return linkColor;
 	}
 
 	private Color getColor(String type) {
@@ -169,6 +204,12 @@ public class EventLabelProvider extends OwnerDrawLabelProvider {
 
 	@Override
 	public void dispose() {
+		models.clear();
+		resolvedFrames = Collections.emptySet();
+		if (boldFont != null) {
+			boldFont.dispose();
+			boldFont = null;
+		}
 		super.dispose();
 	}
 
@@ -177,4 +218,61 @@ public class EventLabelProvider extends OwnerDrawLabelProvider {
 		event.detail &= ~SWT.FOREGROUND;
 	}
 
+	/**
+	 * What is painted for an event or one of its lines.
+	 */
+	private static final class RenderModel {
+
+		private final String text;
+		private final int indent;
+		/**
+		 * Text color of a line or dot color of an event, null for the default.
+		 */
+		private final Color color;
+		private final boolean bold;
+		/**
+		 * Value of a stack frame line, to look it up in the resolved frames.
+		 */
+		private final String frame;
+
+		private RenderModel(String text, int indent, Color color, boolean bold) {
+			this(text, indent, color, bold, null);
+		}
+
+		private RenderModel(String text, int indent, Color color, boolean bold, String frame) {
+			this.text = text != null ? text : "";
+			this.indent = indent;
+			this.color = color;
+			this.bold = bold;
+			this.frame = frame;
+		}
+
+		static RenderModel forEvent(EventResource event, Color color) {
+			String description = event.getDescription();
+			return new RenderModel(description != null ? description.toUpperCase(Locale.ENGLISH) : null, 30, color,
+					false);
+		}
+
+		static RenderModel forItem(EventItem item) {
+			String value = item.getValue();
+			String frame = item.isStacktrace() ? value : null;
+			if (value != null) {
+				value = HtmlEscape.unescapeHtml(value);
+			}
+			String type = item.getType() != null ? item.getType() : "";
+			switch (type) {
+			case EventResource.RED:
+				return new RenderModel(value, 30, Constants.CREATION_COLOR, false, frame);
+			case EventResource.CONTENT:
+				return new RenderModel(value, 30, Constants.CONTENT_COLOR, false);
+			case EventResource.CODE:
+				return new RenderModel(value, 30, Constants.CODE_COLOR, false);
+			case EventResource.BOLD:
+				return new RenderModel(value, 15, null, true);
+			default:
+				return new RenderModel(value, 15, null, false, frame);
+			}
+		}
+	}
+
 }
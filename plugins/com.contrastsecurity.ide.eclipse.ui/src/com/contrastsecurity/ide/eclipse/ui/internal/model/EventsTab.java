@@ -14,27 +14,23 @@
  *******************************************************************************/
 package com.contrastsecurity.ide.eclipse.ui.internal.model;
 
-import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.ResourceBundle;
 
-import org.apache.commons.lang.StringUtils;
 import org.eclipse.core.resources.IFile;
-import org.eclipse.core.resources.IFolder;
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IResource;
-import org.eclipse.core.resources.IWorkspaceRoot;
-import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.IJobChangeEvent;
 import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.core.runtime.jobs.JobChangeAdapter;
 import org.eclipse.jdt.core.IType;
-import org.eclipse.jdt.core.JavaCore;
-import org.eclipse.jdt.core.search.IJavaSearchConstants;
-import org.eclipse.jdt.core.search.SearchEngine;
 import org.eclipse.jdt.internal.ui.javaeditor.EditorUtility;
 import org.eclipse.jface.dialogs.ErrorDialog;
 import org.eclipse.jface.dialogs.MessageDialog;
@@ -52,6 +48,7 @@ import org.eclipse.swt.events.MouseEvent;
 import org.eclipse.swt.events.MouseListener;
 import org.eclipse.swt.layout.GridData;
 import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Display;
 import org.eclipse.ui.IEditorInput;
 import org.eclipse.ui.IEditorPart;
 import org.eclipse.ui.IFileEditorInput;
@@ -64,26 +61,33 @@ import org.eclipse.ui.texteditor.ITextEditor;
 import com.contrastsecurity.models.EventItem;
 import com.contrastsecurity.models.EventResource;
 import com.contrastsecurity.ide.eclipse.ui.ContrastUIActivator;
+import com.contrastsecurity.ide.eclipse.ui.internal.model.StackFrameResolver.FrameLocation;
+import com.contrastsecurity.ide.eclipse.ui.util.StackFrameUtils;
 import com.contrastsecurity.models.EventSummaryResponse;
 
 public class EventsTab extends AbstractTab {
 
 	private EventSummaryResponse eventSummary;
 	private TreeViewer viewer;
+	private EventLabelProvider labelProvider;
+	private String traceUuid;
+	private Job resolveJob;
 	ResourceBundle resource = ResourceBundle.getBundle("OSGI-INF/l10n.bundle");
 
 	public EventsTab(Composite parent, int style) {
 		super(parent, style);
 		TreeColumnLayout layout = new TreeColumnLayout();
 		getControl().setLayout(layout);
-		viewer = new TreeViewer(getControl(), SWT.FULL_SELECTION | SWT.V_SCROLL | SWT.H_SCROLL);
+		viewer = new TreeViewer(getControl(), SWT.VIRTUAL | SWT.FULL_SELECTION | SWT.V_SCROLL | SWT.H_SCROLL);
+		viewer.setUseHashlookup(true);
 		GridData gd = new GridData(SWT.FILL, SWT.FILL, true, true);
 		viewer.getTree().setLayoutData(gd);
 
 		TreeViewerColumn typeColumn = new TreeViewerColumn(viewer, SWT.NONE);
 		layout.setColumnData(typeColumn.getColumn(), new ColumnWeightData(400));
 
-		viewer.setLabelProvider(new EventLabelProvider(viewer));
+		labelProvider = new EventLabelProvider(viewer);
+		viewer.setLabelProvider(labelProvider);
 		viewer.setContentProvider(new EventContentProvider());
 		viewer.getTree().addMouseListener(new MouseListener() {
 
@@ -103,37 +107,7 @@ public class EventsTab extends AbstractTab {
 					if (selected instanceof EventItem) {
 						EventItem eventItem = (EventItem) selected;
 						if (eventItem.isStacktrace()) {
-							final String str = eventItem.getValue();
-							final String typeName;
-							final int lineNumber;
-							try {
-								typeName = getTypeName(str);
-								lineNumber = getLineNumber(str);
-							} catch (CoreException e1) {
-								ErrorDialog.openError(ContrastUIActivator.getActiveWorkbenchShell(), resource.getString("ERROR"),
-										resource.getString("STACKTRACE_ERROR"), e1.getStatus());
-								return;
-							}
-							Job search = new Job(resource.getString("SEARCHING_FOR_CODE")) {
-								@Override
-								protected IStatus run(IProgressMonitor monitor) {
-									Set<IType> result = null;
-									try {
-										if (str.contains(".java")) {
-											result = findTypeInWorkspace(typeName);
-											searchCompleted(result, typeName, lineNumber, null);
-										} else {
-											List<IFile> resultFile = findFileInWorkspace(typeName);
-											searchCompleted(resultFile, typeName, lineNumber, null);
-										}
-									} catch (CoreException e) {
-										searchCompleted(null, typeName, lineNumber, e.getStatus());
-									}
-									return Status.OK_STATUS;
-								}
-
-							};
-							search.schedule();
+							openFrame(eventItem.getValue());
 						}
 					}
 				}
@@ -141,6 +115,47 @@ public class EventsTab extends AbstractTab {
 		});
 	}
 
+	/**
+	 * Opens the source of the frame, right away if it has been resolved with
+	 * the other frames of the trace.
+	 */
+	private void openFrame(final String frame) {
+		StackFrameResolver resolver = ContrastUIActivator.getStackFrameResolver();
+		Set<String> resolvedFrames = traceUuid != null ? resolver.getResolvedFrames(traceUuid) : null;
+		if (resolvedFrames != null && resolvedFrames.contains(frame)) {
+			Map<String, FrameLocation> locations = resolver.getLocations(traceUuid);
+			FrameLocation location = locations != null ? locations.get(frame) : null;
+			if (location != null) {
+				processSearchResult(location.getResult(), location.getTypeName(), location.getLineNumber());
+				return;
+			}
+		}
+		final String typeName;
+		final int lineNumber;
+		try {
+			typeName = StackFrameUtils.getTypeName(frame);
+			lineNumber = StackFrameUtils.getLineNumber(frame);
+		} catch (CoreException e1) {
+			ErrorDialog.openError(ContrastUIActivator.getActiveWorkbenchShell(), resource.getString("ERROR"),
+					resource.getString("STACKTRACE_ERROR"), e1.getStatus());
+			return;
+		}
+		Job search = new Job(resource.getString("SEARCHING_FOR_CODE")) {
+			@Override
+			protected IStatus run(IProgressMonitor monitor) {
+				try {
+					FrameLocation location = ContrastUIActivator.getStackFrameResolver().resolve(frame);
+					searchCompleted(location.getResult(), typeName, lineNumber, null);
+				} catch (CoreException e) {
+					searchCompleted(null, typeName, lineNumber, e.getStatus());
+				}
+				return Status.OK_STATUS;
+			}
+
+		};
+		search.schedule();
+	}
+
 	private IType getTypeFromActiveProject(Set<IType> inputSet) {
 
 		IProject iProject = getIProjectFromActiveEditor();
@@ -266,140 +281,86 @@ public class EventsTab extends AbstractTab {
 			return (result != null && ((List<?>) result).size() > 0);
 	}
 
-	private String getTypeName(String stacktrace) throws CoreException {
-		int start = stacktrace.lastIndexOf('(');
-		int end = stacktrace.indexOf(':');
-		if (start >= 0 && end > start) {
-			String typeName = stacktrace.substring(start + 1, end);
-			typeName = JavaCore.removeJavaLikeExtension(typeName);
-			String qualifier = stacktrace.substring(0, start);
-			start = qualifier.lastIndexOf('.');
-			if (start >= 0) {
-				start = new String((String) qualifier.subSequence(0, start)).lastIndexOf('.');
-				if (start == -1) {
-					start = 0;
-				}
-			}
-			if (start >= 0) {
-				qualifier = qualifier.substring(0, start);
-			}
-			if (qualifier.length() > 0) {
-				typeName = qualifier + "." + typeName;
-			}
-			return typeName;
-		}
-		IStatus status = new Status(IStatus.ERROR, ContrastUIActivator.PLUGIN_ID, 0,
-				resource.getString("UNABLE_TO_PARSE"), null);
-		throw new CoreException(status);
-	}
-
-	private int getLineNumber(String stacktrace) throws CoreException {
-		int index = stacktrace.lastIndexOf(':');
-		if (index >= 0) {
-			String numText = stacktrace.substring(index + 1);
-			index = numText.indexOf(')');
-			if (index >= 0) {
-				numText = numText.substring(0, index);
-			}
-			try {
-				return Integer.parseInt(numText);
-			} catch (NumberFormatException e) {
-				IStatus status = new Status(IStatus.ERROR, ContrastUIActivator.PLUGIN_ID, 0,
-					resource.getString("UNABLE_TO_PARSE"), e);
-				throw new CoreException(status);
-			}
-		}
-		IStatus status = new Status(IStatus.ERROR, ContrastUIActivator.PLUGIN_ID, 0,
-			resource.getString("UNABLE_TO_PARSE"), null);
-		throw new CoreException(status);
-	}
-
-	private static Set<IType> findTypeInWorkspace(String typeName) throws CoreException {
-		int dot = typeName.lastIndexOf('.');
-		char[][] qualifications;
-		String simpleName;
-		if (dot != -1) {
-			qualifications = new char[][] { typeName.substring(0, dot).toCharArray() };
-			simpleName = typeName.substring(dot + 1);
+	/**
+	 * @param traceUuid
+	 *            Trace of the events, to look up the locations of its frames.
+	 */
+	public void setEventSummary(EventSummaryResponse eventSummary, String traceUuid) {
+		this.eventSummary = eventSummary;
+		this.traceUuid = traceUuid;
+		EventResource[] events;
+		if (eventSummary != null) {
+			events = eventSummary.getEvents().toArray(new EventResource[0]);
 		} else {
-			qualifications = null;
-			simpleName = typeName;
+			events = new EventResource[0];
 		}
-		char[][] typeNames = new char[][] { simpleName.toCharArray() };
-
-		ContrastTypeNameMatchRequestor contrastTypeNameMatchRequestor = new ContrastTypeNameMatchRequestor();
-
-		new SearchEngine().searchAllTypeNames(qualifications, typeNames, SearchEngine.createWorkspaceScope(),
-				contrastTypeNameMatchRequestor, IJavaSearchConstants.WAIT_UNTIL_READY_TO_SEARCH, null);
-
-		return contrastTypeNameMatchRequestor.getTypeNameMatches();
+		labelProvider.setEvents(events);
+		labelProvider.setResolvedFrames(Collections.<String> emptySet());
+		viewer.setInput(events);
+		getControl().getParent().layout(true, true);
+		getControl().redraw();
+		resolveFrames(events);
 	}
 
 	/**
-	 * Searches for file with a given name.
-	 *
-	 * @param filename
-	 *            The file name with extension included.
-	 * @return IFile object or null if the file is not found.
-	 * @throws CoreException
-	 *             If the request fails.
+	 * Resolves all the frames of the events in the background, unless they
+	 * have been resolved already, and shows the frames which can be opened.
 	 */
-	private static List<IFile> findFileInWorkspace(String filename) throws CoreException {
-		IWorkspaceRoot root = ResourcesPlugin.getWorkspace().getRoot();
-
-		String[] name = StringUtils.split(filename, "(");
-		List<IFile> matches = new ArrayList<>();
+	private void resolveFrames(EventResource[] events) {
+		if (resolveJob != null) {
+			resolveJob.cancel();
+			resolveJob = null;
+		}
+		if (traceUuid == null || events.length == 0) {
+			return;
+		}
+		final StackFrameResolver resolver = ContrastUIActivator.getStackFrameResolver();
+		Set<String> resolvedFrames = resolver.getResolvedFrames(traceUuid);
+		if (resolvedFrames != null) {
+			showResolvedFrames(resolvedFrames);
+			return;
+		}
+		final String resolvedTraceUuid = traceUuid;
+		final Job job = resolver.resolve(resolvedTraceUuid, events);
+		job.addJobChangeListener(new JobChangeAdapter() {
 
-		for (IProject project : root.getProjects())
-			findFile(name[name.length - 1], project, matches);
+			@Override
+			public void done(IJobChangeEvent event) {
+				if (!event.getResult().isOK()) {
+					return;
+				}
+				Display.getDefault().asyncExec(new Runnable() {
 
-		return matches;
+					@Override
+					public void run() {
+						if (isDisposed() || resolveJob != job) {
+							return;
+						}
+						resolveJob = null;
+						Set<String> resolvedFrames = resolver.getResolvedFrames(resolvedTraceUuid);
+						if (resolvedFrames != null) {
+							showResolvedFrames(resolvedFrames);
+						}
+					}
+				});
+			}
+		});
+		resolveJob = job;
+		job.schedule();
 	}
 
-	/**
-	 * Recursively searches for a file with a given name.
-	 *
-	 * @param filename
-	 *            The file name with extension.
-	 * @param resource
-	 *            The resource to evaluate with the file name. Allowed types:
-	 *            IProject, IFolder and IFile.
-	 * @return An IFile object or null if the file is not found.
-	 * @throws CoreException
-	 *             If the request fails.
-	 */
-	private static List<IFile> findFile(final String filename, IResource resource, List<IFile> matches)
-			throws CoreException {
-		if (resource instanceof IFile) {
-			IFile file = (IFile) resource;
-			if (StringUtils.equals(filename, file.getName()))
-				matches.add(file);
-
-			return matches;
-		} else if (resource instanceof IFolder && !((IFolder) resource).getName().equals("target")) {
-			IFolder folder = (IFolder) resource;
-
-			for (IResource res : folder.members())
-				findFile(filename, res, matches);
-		} else if (resource instanceof IProject && ((IProject) resource).isOpen()) {
-			IProject project = (IProject) resource;
-
-			for (IResource res : project.members())
-				findFile(filename, res, matches);
-		}
-
-		return matches;
+	private void showResolvedFrames(Set<String> resolvedFrames) {
+		labelProvider.setResolvedFrames(resolvedFrames);
+		viewer.getTree().redraw();
 	}
 
-	public void setEventSummary(EventSummaryResponse eventSummary) {
-		this.eventSummary = eventSummary;
-		if (eventSummary != null) {
-			viewer.setInput(eventSummary.getEvents().toArray(new EventResource[0]));
-		} else {
-			viewer.setInput(new EventResource[0]);
+	@Override
+	public void dispose() {
+		if (resolveJob != null) {
+			resolveJob.cancel();
+			resolveJob = null;
 		}
-		getControl().getParent().layout(true, true);
-		getControl().redraw();
+		super.dispose();
 	}
 
 	public EventSummaryResponse getEventSummary() {
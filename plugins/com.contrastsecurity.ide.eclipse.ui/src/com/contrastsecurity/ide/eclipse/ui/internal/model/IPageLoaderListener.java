@@ -1,7 +0,0 @@
-package com.contrastsecurity.ide.eclipse.ui.internal.model;
-
-public interface IPageLoaderListener {
-	
-	void onPageLoad(int page);
-
-}
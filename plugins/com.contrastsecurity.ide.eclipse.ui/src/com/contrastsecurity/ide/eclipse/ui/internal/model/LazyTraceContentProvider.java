@@ -0,0 +1,303 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Contrast Security.
+ * All rights reserved. 
+ * 
+ * This program and the accompanying materials are made available under 
+ * the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License.
+ * 
+ * The terms of the GNU GPL version 3 which accompanies this distribution
+ * and is available at https://www.gnu.org/licenses/gpl-3.0.en.html
+ * 
+ * Contributors:
+ *     Contrast Security - initial API and implementation
+ *******************************************************************************/
+package com.contrastsecurity.ide.eclipse.ui.internal.model;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.jface.viewers.ILazyContentProvider;
+import org.eclipse.jface.viewers.TableViewer;
+import org.eclipse.jface.viewers.Viewer;
+import org.eclipse.swt.widgets.Display;
+
+import com.contrastsecurity.exceptions.UnauthorizedException;
+import com.contrastsecurity.ide.eclipse.ui.ContrastUIActivator;
+import com.contrastsecurity.models.Trace;
+import com.contrastsecurity.models.Traces;
+
+/**
+ * Content provider for a virtual trace table. The viewer input is the first
+ * page of traces together with the total count; further pages are requested
+ * in background jobs as their rows scroll into view. Only the most recently
+ * used pages are kept, rows of older pages are cleared and requested again if
+ * they become visible.
+ * <p>
+ * The input can also be an array holding every row, such as the results of a
+ * local search, in which case nothing is requested.
+ */
+public class LazyTraceContentProvider implements ILazyContentProvider {
+
+	/**
+	 * Number of pages kept in memory.
+	 */
+	private static final int MAX_LOADED_PAGES = 10;
+
+	private final ITracePageLoader pageLoader;
+	private final int pageSize;
+	private final String jobName;
+
+	private TableViewer viewer;
+	private int total;
+	private int generation;
+	/**
+	 * Every row, if the input is an array.
+	 */
+	private Trace[] allTraces;
+	private final Set<Integer> loadingPages = new HashSet<>();
+	private final Map<Integer, Trace[]> loadedPages = new LinkedHashMap<Integer, Trace[]>(16, 0.75f, true) {
+
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Integer, Trace[]> eldest) {
+			if (size() > MAX_LOADED_PAGES) {
+				clearRows(eldest.getKey(), eldest.getValue().length);
+				return true;
+			}
+			return false;
+		}
+	};
+
+	public LazyTraceContentProvider(ITracePageLoader pageLoader, int pageSize, String jobName) {
+		this.pageLoader = pageLoader;
+		this.pageSize = pageSize;
+		this.jobName = jobName;
+	}
+
+	@Override
+	public void inputChanged(Viewer viewer, Object oldInput, Object newInput) {
+		this.viewer = (TableViewer) viewer;
+		generation++;
+		loadedPages.clear();
+		loadingPages.clear();
+		allTraces = null;
+		total = 0;
+		if (newInput instanceof Trace[]) {
+			allTraces = (Trace[]) newInput;
+			total = allTraces.length;
+		} else if (newInput instanceof Traces && ((Traces) newInput).getTraces() != null) {
+			Traces firstPage = (Traces) newInput;
+			Trace[] traces = firstPage.getTraces().toArray(new Trace[0]);
+			total = firstPage.getCount() != null ? Math.max(firstPage.getCount(), traces.length) : traces.length;
+			loadedPages.put(0, traces);
+		}
+	}
+
+	@Override
+	public void updateElement(int index) {
+		if (allTraces != null) {
+			if (index < allTraces.length) {
+				viewer.replace(allTraces[index], index);
+			}
+			return;
+		}
+		int page = index / pageSize;
+		int position = index % pageSize;
+		Trace[] traces = loadedPages.get(page);
+		if (traces == null) {
+			loadPage(page);
+		} else if (position < traces.length) {
+			viewer.replace(traces[position], index);
+		}
+		// Prefetch the next page once the second half of this one is shown
+		if (position >= pageSize / 2) {
+			loadPage(page + 1);
+		}
+	}
+
+	/**
+	 * @return Number of traces matching the current filter, loaded or not.
+	 */
+	public int getTotal() {
+		return total;
+	}
+
+	/**
+	 * Replaces a loaded trace by an updated copy of it.
+	 *
+	 * @return Whether the trace was found in one of the loaded pages.
+	 */
+	public boolean update(Trace trace) {
+		if (allTraces != null) {
+			int index = Arrays.asList(allTraces).indexOf(trace);
+			if (index >= 0) {
+				allTraces[index] = trace;
+				viewer.replace(trace, index);
+			}
+			return index >= 0;
+		}
+		for (Map.Entry<Integer, Trace[]> entry : loadedPages.entrySet()) {
+			Trace[] traces = entry.getValue();
+			for (int i = 0; i < traces.length; i++) {
+				if (traces[i].equals(trace)) {
+					traces[i] = trace;
+					viewer.replace(trace, entry.getKey() * pageSize + i);
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Reorders the rows without requesting the traces again. This is only
+	 * possible while every trace matching the filter is loaded.
+	 *
+	 * @return Whether the rows were sorted, otherwise the traces have to be
+	 *         requested again in the new order.
+	 */
+	public boolean sort(TraceComparator comparator) {
+		if (viewer != null && allTraces != null) {
+			comparator.sort(allTraces);
+			for (int i = 0; i < allTraces.length; i++) {
+				viewer.replace(allTraces[i], i);
+			}
+			return true;
+		}
+		if (viewer == null || total == 0 || total > pageSize * MAX_LOADED_PAGES) {
+			return false;
+		}
+		Trace[] traces = new Trace[total];
+		int count = 0;
+		for (int page = 0; count < total; page++) {
+			Trace[] pageTraces = loadedPages.get(page);
+			if (pageTraces == null || pageTraces.length == 0) {
+				return false;
+			}
+			int length = Math.min(pageTraces.length, total - count);
+			System.arraycopy(pageTraces, 0, traces, count, length);
+			count += length;
+		}
+		comparator.sort(traces);
+
+		generation++;
+		loadingPages.clear();
+		loadedPages.clear();
+		for (int start = 0; start < total; start += pageSize) {
+			loadedPages.put(start / pageSize, Arrays.copyOfRange(traces, start, Math.min(start + pageSize, total)));
+		}
+		for (int i = 0; i < total; i++) {
+			viewer.replace(traces[i], i);
+		}
+		return true;
+	}
+
+	/**
+	 * @return The trace of the row, or null if it is not loaded. Nothing is
+	 *         requested for rows that are not loaded.
+	 */
+	public Trace getLoadedTrace(int index) {
+		if (index < 0 || index >= total) {
+			return null;
+		}
+		if (allTraces != null) {
+			return allTraces[index];
+		}
+		Trace[] traces = loadedPages.get(index / pageSize);
+		int position = index % pageSize;
+		return traces != null && position < traces.length ? traces[position] : null;
+	}
+
+	/**
+	 * @return Row of the trace, or -1 if it is not loaded.
+	 */
+	public int indexOf(Trace trace) {
+		if (allTraces != null) {
+			return Arrays.asList(allTraces).indexOf(trace);
+		}
+		for (Map.Entry<Integer, Trace[]> entry : loadedPages.entrySet()) {
+			Trace[] traces = entry.getValue();
+			for (int i = 0; i < traces.length; i++) {
+				if (traces[i].equals(trace)) {
+					return entry.getKey() * pageSize + i;
+				}
+			}
+		}
+		return -1;
+	}
+
+	@Override
+	public void dispose() {
+		generation++;
+		allTraces = null;
+		loadedPages.clear();
+		loadingPages.clear();
+	}
+
+	private void loadPage(final int page) {
+		if (page * pageSize >= total || loadedPages.containsKey(page) || !loadingPages.add(page)) {
+			return;
+		}
+		final int requestGeneration = generation;
+		Job job = new Job(jobName) {
+
+			@Override
+			protected IStatus run(IProgressMonitor monitor) {
+				Traces traces = null;
+				try {
+					traces = pageLoader.loadPage(page * pageSize, pageSize);
+				} catch (IOException | UnauthorizedException e) {
+					ContrastUIActivator.log(e);
+				}
+				final Traces loaded = traces;
+				Display.getDefault().asyncExec(new Runnable() {
+
+					@Override
+					public void run() {
+						pageLoaded(requestGeneration, page, loaded);
+					}
+				});
+				return Status.OK_STATUS;
+			}
+		};
+		job.setSystem(true);
+		job.setPriority(Job.SHORT);
+		job.schedule();
+	}
+
+	private void pageLoaded(int requestGeneration, int page, Traces loaded) {
+		if (requestGeneration != generation || viewer == null || viewer.getTable().isDisposed()) {
+			return;
+		}
+		loadingPages.remove(page);
+		if (loaded == null || loaded.getTraces() == null) {
+			// Rows stay empty, the page is requested again once they are repainted
+			return;
+		}
+		Trace[] traces = loaded.getTraces().toArray(new Trace[0]);
+		loadedPages.put(page, traces);
+		int start = page * pageSize;
+		for (int i = 0; i < traces.length && start + i < total; i++) {
+			viewer.replace(traces[i], start + i);
+		}
+	}
+
+	private void clearRows(int page, int count) {
+		int start = page * pageSize;
+		int end = Math.min(start + count, total) - 1;
+		if (viewer != null && !viewer.getTable().isDisposed() && end >= start) {
+			viewer.getTable().clear(start, end);
+		}
+	}
+
+}
@@ -16,14 +16,44 @@ package com.contrastsecurity.ide.eclipse.ui.internal.model;
 
 import java.net.MalformedURLException;
 
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.events.ModifyEvent;
+import org.eclipse.swt.events.ModifyListener;
+import org.eclipse.swt.layout.GridData;
+import org.eclipse.swt.layout.GridLayout;
 import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Text;
 
 import com.contrastsecurity.ide.eclipse.ui.internal.views.VulnerabilitiesView;
 
 public class MainPage extends VulnerabilityPage {
-	
+
+	private Text searchText;
+	private ISearchListener searchListener;
+
 	public MainPage(Composite parent, int style, VulnerabilitiesView vulnerabilitiesView) throws MalformedURLException {
 		super(parent, style, vulnerabilitiesView);
+		Composite filterComposite = getFilterComposite();
+		((GridLayout) filterComposite.getLayout()).numColumns++;
+		searchText = new Text(filterComposite, SWT.SEARCH | SWT.ICON_SEARCH | SWT.ICON_CANCEL);
+		searchText.setMessage(resource.getString("SEARCH_MESSAGE"));
+		GridData gd = new GridData(SWT.FILL, SWT.CENTER, false, false);
+		gd.widthHint = 200;
+		gd.horizontalIndent = 20;
+		searchText.setLayoutData(gd);
+		searchText.addModifyListener(new ModifyListener() {
+
+			@Override
+			public void modifyText(ModifyEvent e) {
+				if (searchListener != null) {
+					searchListener.onSearch(searchText.getText());
+				}
+			}
+		});
 	}
-	
+
+	public void setSearchListener(ISearchListener searchListener) {
+		this.searchListener = searchListener;
+	}
+
 }
@@ -14,7 +14,6 @@
  *******************************************************************************/
 package com.contrastsecurity.ide.eclipse.ui.internal.model;
 
-import java.net.URLDecoder;
 import java.util.Iterator;
 import java.util.List;
 import java.util.ResourceBundle;
@@ -28,11 +27,10 @@ import org.eclipse.swt.widgets.Composite;
 import org.eclipse.swt.widgets.Control;
 import org.eclipse.swt.widgets.Display;
 import org.eclipse.swt.widgets.Label;
-import org.unbescape.html.HtmlEscape;
 
 import com.contrastsecurity.ide.eclipse.core.Constants;
 import com.contrastsecurity.ide.eclipse.core.Util;
-import com.contrastsecurity.ide.eclipse.ui.ContrastUIActivator;
+import com.contrastsecurity.ide.eclipse.ui.util.MarkupUtils;
 import com.contrastsecurity.models.StoryResponse;
 import com.contrastsecurity.models.Risk;
 import com.contrastsecurity.models.Chapter;
@@ -149,25 +147,7 @@ public class OverviewTab extends AbstractTab {
 	}
 
 	private String parseMustache(String text) {
-		text = text.replace(Constants.MUSTACHE_NL, Constants.BLANK);
-		//text = StringEscapeUtils.unescapeHtml(text);
-		text = HtmlEscape.unescapeHtml(text);
-		try {
-			text = URLDecoder.decode(text, "UTF-8");
-		} catch (Exception e) {
-			// ignore
-			if (ContrastUIActivator.getDefault().isDebugging()) {
-				ContrastUIActivator.log(e);
-			}
-		}
-		text = text.replace("&lt;", "<");
-		text = text.replace("&gt;", ">");
-		// FIXME
-		text = text.replace("{{#code}}", "");
-		text = text.replace("{{/code}}", "");
-		text = text.replace("{{#p}}", "");
-		text = text.replace("{{/p}}", "");
-		return text;
+		return MarkupUtils.parseOverviewMustache(text);
 	}
 
 	public StoryResponse getStory() {
@@ -16,7 +16,6 @@ package com.contrastsecurity.ide.eclipse.ui.internal.model;
 
 import java.net.MalformedURLException;
 import java.net.URL;
-import java.net.URLDecoder;
 import java.util.ResourceBundle;
 
 import org.apache.commons.lang.StringEscapeUtils;
@@ -43,6 +42,7 @@ import org.eclipse.ui.PartInitException;
 import org.eclipse.ui.PlatformUI;
 
 import com.contrastsecurity.ide.eclipse.core.Constants;
+import com.contrastsecurity.ide.eclipse.ui.util.MarkupUtils;
 import com.contrastsecurity.models.CustomRecommendation;
 import com.contrastsecurity.models.CustomRuleReferences;
 import com.contrastsecurity.models.RuleReferences;
@@ -365,20 +365,6 @@ public class RecommendationTab extends AbstractTab {
 	 }
 
 	private String parseMustache(String text) {
-		if (text != null) {
-			try {
-				text = URLDecoder.decode(text, "UTF-8");
-			} catch (Exception ignored) {
-			}
-			text = StringEscapeUtils.unescapeHtml(text);
-			for (String mustache : Constants.MUSTACHE_CONSTANTS) {
-				text = text.replace(mustache, Constants.BLANK);
-			}
-
-			return text;
-		} else {
-			return null;
-		}
-
+		return MarkupUtils.parseRecommendationMustache(text);
 	}
 }
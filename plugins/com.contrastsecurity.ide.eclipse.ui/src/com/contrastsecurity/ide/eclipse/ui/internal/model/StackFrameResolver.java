@@ -0,0 +1,397 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Contrast Security.
+ * All rights reserved. 
+ * 
+ * This program and the accompanying materials are made available under 
+ * the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License.
+ * 
+ * The terms of the GNU GPL version 3 which accompanies this distribution
+ * and is available at https://www.gnu.org/licenses/gpl-3.0.en.html
+ * 
+ * Contributors:
+ *     Contrast Security - initial API and implementation
+ *******************************************************************************/
+package com.contrastsecurity.ide.eclipse.ui.internal.model;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.ResourceBundle;
+import java.util.Set;
+
+import org.apache.commons.lang.StringUtils;
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.search.IJavaSearchConstants;
+import org.eclipse.jdt.core.search.SearchEngine;
+
+import com.contrastsecurity.ide.eclipse.ui.ContrastUIActivator;
+import com.contrastsecurity.ide.eclipse.ui.util.StackFrameUtils;
+import com.contrastsecurity.models.Event;
+import com.contrastsecurity.models.EventItem;
+import com.contrastsecurity.models.EventResource;
+import com.contrastsecurity.models.Stacktrace;
+
+/**
+ * Resolves the stack frames of trace events to their sources in the
+ * workspace. All the frames of a trace are resolved together by one job, with
+ * a single type name search for the types missing from the
+ * {@link WorkspaceIndex}, and the locations are kept for the last traces until
+ * the workspace changes.
+ */
+public class StackFrameResolver {
+
+	/**
+	 * Number of traces whose frame locations are kept.
+	 */
+	private static final int MAX_TRACES = 20;
+
+	private static ResourceBundle resource = ResourceBundle.getBundle("OSGI-INF/l10n.bundle");
+
+	private final WorkspaceIndex index;
+	private final Map<String, TraceLocations> traces = new LinkedHashMap<String, TraceLocations>(16, 0.75f, true) {
+
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, TraceLocations> eldest) {
+			return size() > MAX_TRACES;
+		}
+	};
+
+	public StackFrameResolver(WorkspaceIndex index) {
+		this.index = index;
+	}
+
+	/**
+	 * @return The locations of the frames of the trace by frame, or null if
+	 *         they have not been resolved since the workspace last changed.
+	 */
+	public Map<String, FrameLocation> getLocations(String traceUuid) {
+		TraceLocations locations = getTraceLocations(traceUuid);
+		return locations != null ? locations.frames : null;
+	}
+
+	/**
+	 * @return The frames of the trace whose sources exist, checked when they
+	 *         were resolved, or null if they have not been resolved since the
+	 *         workspace last changed. Cheap enough for the UI thread.
+	 */
+	public Set<String> getResolvedFrames(String traceUuid) {
+		TraceLocations locations = getTraceLocations(traceUuid);
+		return locations != null ? locations.resolvedFrames : null;
+	}
+
+	private TraceLocations getTraceLocations(String traceUuid) {
+		long changeCount = index.getChangeCount();
+		synchronized (traces) {
+			TraceLocations locations = traces.get(traceUuid);
+			if (locations != null && locations.changeCount != changeCount) {
+				traces.remove(traceUuid);
+				return null;
+			}
+			return locations;
+		}
+	}
+
+	/**
+	 * Creates a job resolving the frames of the given events of the trace, to
+	 * be scheduled by the caller. Once it is done, the locations are returned
+	 * by {@link #getLocations(String)}.
+	 */
+	public Job resolve(final String traceUuid, final EventResource[] events) {
+		Job job = new Job(resource.getString("RESOLVING_STACK_FRAMES")) {
+
+			@Override
+			protected IStatus run(IProgressMonitor monitor) {
+				try {
+					if (getLocations(traceUuid, events, monitor) == null) {
+						return Status.CANCEL_STATUS;
+					}
+				} catch (CoreException e) {
+					ContrastUIActivator.log(e);
+				}
+				return Status.OK_STATUS;
+			}
+		};
+		job.setSystem(true);
+		job.setPriority(Job.DECORATE);
+		return job;
+	}
+
+	/**
+	 * Resolves the frames of the given events of the trace in the calling
+	 * thread, unless they have been resolved since the workspace last changed.
+	 * 
+	 * @return The locations of the frames by frame, or null if the monitor has
+	 *         been canceled.
+	 */
+	public Map<String, FrameLocation> getLocations(String traceUuid, EventResource[] events, IProgressMonitor monitor)
+			throws CoreException {
+		Map<String, FrameLocation> locations = getLocations(traceUuid);
+		if (locations != null) {
+			return locations;
+		}
+		long changeCount = index.getChangeCount();
+		Set<String> frames = new LinkedHashSet<>();
+		collectFrames(Arrays.asList(events), frames);
+		locations = resolveFrames(frames, monitor);
+		if (locations == null) {
+			return null;
+		}
+		TraceLocations traceLocations = new TraceLocations(changeCount, locations);
+		synchronized (traces) {
+			traces.put(traceUuid, traceLocations);
+		}
+		return traceLocations.frames;
+	}
+
+	/**
+	 * Resolves a single frame, for frames opened before the frames of their
+	 * trace have been resolved.
+	 * 
+	 * @throws CoreException
+	 *             If the frame cannot be parsed or the search fails.
+	 */
+	public FrameLocation resolve(String frame) throws CoreException {
+		FrameLocation location = parse(frame);
+		if (location.isJava()) {
+			Set<IType> types = index.findTypes(location.typeName);
+			if (types.isEmpty()) {
+				types = searchTypes(Collections.singleton(location.typeName)).get(location.typeName);
+			}
+			location.types = types;
+		} else {
+			location.files = findFiles(location.typeName);
+		}
+		return location;
+	}
+
+	/**
+	 * Adds the frames of the events and of their collapsed events, as they are
+	 * shown by {@link EventItem#getValue()}.
+	 */
+	private static void collectFrames(List<EventResource> events, Set<String> frames) {
+		for (EventResource eventResource : events) {
+			Event event = eventResource.getEvent();
+			if (event != null && event.getStacktraces() != null) {
+				for (Stacktrace stacktrace : event.getStacktraces()) {
+					if (stacktrace.getDescription() != null) {
+						frames.add(stacktrace.getDescription());
+					}
+				}
+			}
+			if (eventResource.getCollapsedEvents() != null) {
+				collectFrames(eventResource.getCollapsedEvents(), frames);
+			}
+		}
+	}
+
+	/**
+	 * @return The locations by frame, or null if the monitor has been
+	 *         canceled. Frames that cannot be parsed are left out.
+	 */
+	private Map<String, FrameLocation> resolveFrames(Collection<String> frames, IProgressMonitor monitor)
+			throws CoreException {
+		Map<String, FrameLocation> locations = new HashMap<>();
+		Set<String> missingTypes = new LinkedHashSet<>();
+		for (String frame : frames) {
+			if (monitor.isCanceled()) {
+				return null;
+			}
+			FrameLocation location;
+			try {
+				location = parse(frame);
+			} catch (CoreException e) {
+				continue;
+			}
+			if (location.isJava()) {
+				location.types = index.findTypes(location.typeName);
+				if (location.types.isEmpty()) {
+					missingTypes.add(location.typeName);
+				}
+			} else {
+				location.files = findFiles(location.typeName);
+			}
+			locations.put(frame, location);
+		}
+		if (!missingTypes.isEmpty()) {
+			Map<String, Set<IType>> found = searchTypes(missingTypes);
+			for (FrameLocation location : locations.values()) {
+				if (location.isJava() && location.types.isEmpty()) {
+					location.types = found.get(location.typeName);
+				}
+			}
+		}
+		return monitor.isCanceled() ? null : locations;
+	}
+
+	private static FrameLocation parse(String frame) throws CoreException {
+		String typeName = StackFrameUtils.getTypeName(frame);
+		int lineNumber = StackFrameUtils.getLineNumber(frame);
+		return new FrameLocation(typeName, lineNumber, frame.contains(".java"));
+	}
+
+	private List<IFile> findFiles(String typeName) throws CoreException {
+		String[] name = StringUtils.split(typeName, "(");
+		return index.findFiles(name[name.length - 1]);
+	}
+
+	/**
+	 * Searches all the given types with one type name search.
+	 * 
+	 * @param typeNames
+	 *            Fully qualified or simple names of the types.
+	 * @return The types found by the given names. Every given name is mapped.
+	 */
+	private static Map<String, Set<IType>> searchTypes(Collection<String> typeNames) throws CoreException {
+		Set<String> qualifiers = new LinkedHashSet<>();
+		Set<String> simpleNames = new LinkedHashSet<>();
+		boolean unqualified = false;
+		for (String typeName : typeNames) {
+			int dot = typeName.lastIndexOf('.');
+			if (dot != -1) {
+				qualifiers.add(typeName.substring(0, dot));
+			} else {
+				unqualified = true;
+			}
+			simpleNames.add(typeName.substring(dot + 1));
+		}
+		// The search matches every qualifier with every simple name, the
+		// matches are sorted out below
+		char[][] qualifications = unqualified ? null : toCharArrays(qualifiers);
+
+		ContrastTypeNameMatchRequestor contrastTypeNameMatchRequestor = new ContrastTypeNameMatchRequestor();
+
+		new SearchEngine().searchAllTypeNames(qualifications, toCharArrays(simpleNames),
+				SearchEngine.createWorkspaceScope(), contrastTypeNameMatchRequestor,
+				IJavaSearchConstants.WAIT_UNTIL_READY_TO_SEARCH, null);
+
+		Map<String, Set<IType>> result = new HashMap<>();
+		for (String typeName : typeNames) {
+			result.put(typeName, new LinkedHashSet<IType>());
+		}
+		for (IType type : contrastTypeNameMatchRequestor.getTypeNameMatches()) {
+			Set<IType> types = result.get(type.getFullyQualifiedName('.'));
+			if (types != null) {
+				types.add(type);
+			}
+			types = result.get(type.getElementName());
+			if (types != null) {
+				types.add(type);
+			}
+		}
+		return result;
+	}
+
+	private static char[][] toCharArrays(Collection<String> strings) {
+		char[][] chars = new char[strings.size()][];
+		int i = 0;
+		for (String string : strings) {
+			chars[i++] = string.toCharArray();
+		}
+		return chars;
+	}
+
+	/**
+	 * Source of a stack frame: the types of the frame for a Java frame, the
+	 * files named like the frame's file otherwise.
+	 */
+	public static final class FrameLocation {
+
+		private final String typeName;
+		private final int lineNumber;
+		private final boolean java;
+		private Set<IType> types;
+		private List<IFile> files;
+
+		private FrameLocation(String typeName, int lineNumber, boolean java) {
+			this.typeName = typeName;
+			this.lineNumber = lineNumber;
+			this.java = java;
+		}
+
+		public String getTypeName() {
+			return typeName;
+		}
+
+		public int getLineNumber() {
+			return lineNumber;
+		}
+
+		public boolean isJava() {
+			return java;
+		}
+
+		/**
+		 * @return The types of a Java frame, or the files of another frame.
+		 */
+		public Object getResult() {
+			return java ? types : files;
+		}
+
+		/**
+		 * @return If the frame has a source, which still exists. Opens the
+		 *         compilation units of the types, so it is not meant for the
+		 *         UI thread.
+		 */
+		public boolean isResolved() {
+			if (java) {
+				if (types == null || types.isEmpty()) {
+					return false;
+				}
+				for (IType type : types) {
+					if (!type.exists()) {
+						return false;
+					}
+				}
+				return true;
+			}
+			if (files == null || files.isEmpty()) {
+				return false;
+			}
+			for (IFile file : files) {
+				if (!file.exists()) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+
+	private static final class TraceLocations {
+
+		private final long changeCount;
+		private final Map<String, FrameLocation> frames;
+		private final Set<String> resolvedFrames;
+
+		/**
+		 * Checks which frames are resolved, which opens their compilation
+		 * units, so it must not be created in the UI thread.
+		 */
+		private TraceLocations(long changeCount, Map<String, FrameLocation> frames) {
+			this.changeCount = changeCount;
+			this.frames = Collections.unmodifiableMap(frames);
+			Set<String> resolved = new HashSet<>();
+			for (Map.Entry<String, FrameLocation> entry : frames.entrySet()) {
+				if (entry.getValue().isResolved()) {
+					resolved.add(entry.getKey());
+				}
+			}
+			this.resolvedFrames = Collections.unmodifiableSet(resolved);
+		}
+	}
+
+}
@@ -0,0 +1,148 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Contrast Security.
+ * All rights reserved. 
+ * 
+ * This program and the accompanying materials are made available under 
+ * the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License.
+ * 
+ * The terms of the GNU GPL version 3 which accompanies this distribution
+ * and is available at https://www.gnu.org/licenses/gpl-3.0.en.html
+ * 
+ * Contributors:
+ *     Contrast Security - initial API and implementation
+ *******************************************************************************/
+package com.contrastsecurity.ide.eclipse.ui.internal.model;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Locale;
+
+import org.eclipse.jface.viewers.Viewer;
+import org.eclipse.jface.viewers.ViewerComparator;
+
+import com.contrastsecurity.http.RuleSeverity;
+import com.contrastsecurity.ide.eclipse.core.Constants;
+import com.contrastsecurity.models.Trace;
+
+/**
+ * Orders traces the way a trace filter sort orders them on Team Server, by
+ * severity or by title, ascending or descending. Ties are broken by the other
+ * column, the application name and the last time the trace was seen, most
+ * recent first.
+ * <p>
+ * {@link #sort(Trace[])} computes the sort keys of every trace once, so that
+ * the loaded traces of the Vulnerabilities view can be reordered without
+ * asking Team Server for them again.
+ */
+public class TraceComparator extends ViewerComparator {
+
+	private final boolean bySeverity;
+	private final boolean descending;
+
+	public TraceComparator(boolean bySeverity, boolean descending) {
+		this.bySeverity = bySeverity;
+		this.descending = descending;
+	}
+
+	/**
+	 * @param sort
+	 *            Sort of a trace filter form, e.g. "-severity".
+	 * @return The comparator for the sort, or null if it sorts by something
+	 *         else than severity or title.
+	 */
+	public static TraceComparator forSort(String sort) {
+		if (sort == null) {
+			return null;
+		}
+		boolean descending = sort.startsWith(Constants.SORT_DESCENDING);
+		String field = descending ? sort.substring(Constants.SORT_DESCENDING.length()) : sort;
+		if (Constants.SORT_BY_SEVERITY.equals(field)) {
+			return new TraceComparator(true, descending);
+		}
+		if (Constants.SORT_BY_TITLE.equals(field)) {
+			return new TraceComparator(false, descending);
+		}
+		return null;
+	}
+
+	/**
+	 * Sorts the traces in place.
+	 */
+	public void sort(Trace[] traces) {
+		SortKey[] keys = new SortKey[traces.length];
+		for (int i = 0; i < traces.length; i++) {
+			keys[i] = new SortKey(traces[i]);
+		}
+		Arrays.sort(keys, new Comparator<SortKey>() {
+
+			@Override
+			public int compare(SortKey key1, SortKey key2) {
+				return TraceComparator.this.compare(key1, key2);
+			}
+		});
+		for (int i = 0; i < keys.length; i++) {
+			traces[i] = keys[i].trace;
+		}
+	}
+
+	@Override
+	public int compare(Viewer viewer, Object e1, Object e2) {
+		if (e1 instanceof Trace && e2 instanceof Trace) {
+			return compare(new SortKey((Trace) e1), new SortKey((Trace) e2));
+		}
+		return super.compare(viewer, e1, e2);
+	}
+
+	private int compare(SortKey key1, SortKey key2) {
+		int severity = Integer.compare(key1.severity, key2.severity);
+		int title = key1.title.compareTo(key2.title);
+		int result = bySeverity ? severity : title;
+		if (result == 0) {
+			result = bySeverity ? title : severity;
+		}
+		if (result == 0) {
+			result = key1.application.compareTo(key2.application);
+		}
+		if (descending) {
+			result = -result;
+		}
+		if (result == 0) {
+			result = Long.compare(key2.lastSeen, key1.lastSeen);
+		}
+		return result;
+	}
+
+	private static final class SortKey {
+
+		private final Trace trace;
+		private final int severity;
+		private final String title;
+		private final String application;
+		private final long lastSeen;
+
+		SortKey(Trace trace) {
+			this.trace = trace;
+			this.severity = getSeverityOrdinal(trace.getSeverity());
+			this.title = normalize(trace.getTitle());
+			this.application = trace.getApplication() != null ? normalize(trace.getApplication().getName()) : "";
+			this.lastSeen = trace.getLastTimeSeen() != null ? trace.getLastTimeSeen() : 0;
+		}
+
+		private static int getSeverityOrdinal(String severity) {
+			if (severity != null) {
+				for (RuleSeverity ruleSeverity : RuleSeverity.values()) {
+					if (ruleSeverity.name().equalsIgnoreCase(severity)) {
+						return ruleSeverity.ordinal();
+					}
+				}
+			}
+			return -1;
+		}
+
+		private static String normalize(String value) {
+			return value != null ? value.trim().toLowerCase(Locale.ENGLISH) : "";
+		}
+	}
+
+}
@@ -14,17 +14,16 @@
  *******************************************************************************/
 package com.contrastsecurity.ide.eclipse.ui.internal.model;
 
-import java.io.IOException;
 import java.net.MalformedURLException;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.ResourceBundle;
+import java.util.concurrent.CompletionException;
+import java.util.function.BiConsumer;
 
 import org.eclipse.jface.dialogs.Dialog;
 import org.eclipse.jface.resource.ColorRegistry;
 import org.eclipse.jface.resource.JFaceResources;
 import org.eclipse.swt.SWT;
-import org.eclipse.swt.custom.BusyIndicator;
 import org.eclipse.swt.custom.CTabFolder;
 import org.eclipse.swt.custom.CTabItem;
 import org.eclipse.swt.events.MouseEvent;
@@ -38,6 +37,7 @@ import org.eclipse.swt.layout.GridLayout;
 import org.eclipse.swt.widgets.Button;
 import org.eclipse.swt.widgets.Composite;
 import org.eclipse.swt.widgets.Control;
+import org.eclipse.swt.widgets.Display;
 import org.eclipse.swt.widgets.Label;
 import org.eclipse.ui.IWorkbenchPreferenceConstants;
 import org.eclipse.ui.PartInitException;
@@ -45,12 +45,15 @@ import org.eclipse.ui.PlatformUI;
 
 import com.contrastsecurity.exceptions.UnauthorizedException;
 import com.contrastsecurity.ide.eclipse.core.Constants;
+import com.contrastsecurity.ide.eclipse.core.service.IContrastService;
 import com.contrastsecurity.models.EventResource;
 import com.contrastsecurity.models.StatusRequest;
 import com.contrastsecurity.ide.eclipse.ui.ContrastUIActivator;
 import com.contrastsecurity.ide.eclipse.ui.internal.views.MarkStatusDialog;
 import com.contrastsecurity.ide.eclipse.ui.cache.ContrastCache;
 import com.contrastsecurity.ide.eclipse.ui.cache.Key;
+import com.contrastsecurity.ide.eclipse.ui.cache.TagDiff;
+import com.contrastsecurity.ide.eclipse.ui.internal.job.TagSyncJob;
 import com.contrastsecurity.ide.eclipse.ui.internal.views.TagDialog;
 import com.contrastsecurity.ide.eclipse.ui.internal.views.VulnerabilitiesView;
 import com.contrastsecurity.ide.eclipse.ui.util.SystemUtils;
@@ -58,14 +61,12 @@ import com.contrastsecurity.ide.eclipse.ui.util.UIElementUtils;
 import com.contrastsecurity.models.HttpRequestResponse;
 import com.contrastsecurity.models.RecommendationResponse;
 import com.contrastsecurity.models.StoryResponse;
-import com.contrastsecurity.models.Tags;
-import com.contrastsecurity.models.Tag;
 import com.contrastsecurity.models.TagsResponse;
 import com.contrastsecurity.models.Trace;
 import com.contrastsecurity.models.EventSummaryResponse;
 import com.contrastsecurity.models.GenericResponse;
 import com.contrastsecurity.models.HttpRequest;
-import com.contrastsecurity.sdk.ContrastSDK;
+import com.contrastsecurity.ide.eclipse.core.extended.ExtendedContrastSDK;
 
 public class VulnerabilityDetailsPage extends AbstractPage {
 
@@ -88,6 +89,8 @@ public class VulnerabilityDetailsPage extends AbstractPage {
 	private TagsResponse traceTagsResource;
 	private TagsResponse orgTagsResource;
 
+	private VulnerabilityDetailsTab selectedTab = VulnerabilityDetailsTab.OVERVIEW;
+
 	private ContrastCache contrastCache = ContrastUIActivator.getContrastCache();
 
 
@@ -135,56 +138,7 @@ public class VulnerabilityDetailsPage extends AbstractPage {
 
 				List<String> newTraceTags = tagDialog.getNewTraceTags();
 				if (newTraceTags != null) {
-					Key key = new Key(ContrastUIActivator.getOrgUuid(), trace.getUuid());
-					Key keyForOrg = new Key(ContrastUIActivator.getOrgUuid(), null);
-
-					boolean tagsChanged = false;
-					// remove tags if necessary
-					Tags tags = (Tags) traceTagsResource.getTags();
-					for (Tag tag : tags.getTags()) {
-						if (!newTraceTags.contains(tag)) {
-							try {
-								getSdk().deleteVulnerabilityTag(ContrastUIActivator.getOrgUuid(), trace.getUuid(), tag);
-								if (!tagsChanged) {
-									tagsChanged = true;
-								}
-							} catch (IOException | UnauthorizedException e1) {
-								e1.printStackTrace();
-							}
-						}
-					}
-					// add tags if necessary
-					List<String> tagsToAdd = new ArrayList<>();
-					for (String tag : newTraceTags) {
-						if (!traceTagsResource.getTags().contains(tag)) {
-							tagsToAdd.add((tag));
-						}
-					}
-					if (!tagsToAdd.isEmpty()) {
-						List<String> tracesId = new ArrayList<>();
-						tracesId.add(trace.getUuid());
-						Tags tagsToTrace = new Tags(tagsToAdd);
-						tagsToTrace.setTracesId(tracesId);
-						try {
-							getSdk().createTag(ContrastUIActivator.getOrgUuid(), tagsToTrace);
-							if (!tagsChanged) {
-								tagsChanged = true;
-							}
-						} catch (IOException | UnauthorizedException e1) {
-							e1.printStackTrace();
-						}
-					}
-					if (tagsChanged) {
-						contrastCache.getTagsResources().remove(key);
-						contrastCache.getTagsResources().remove(keyForOrg);
-						try {
-							traceTagsResource = getTags(key);
-							orgTagsResource = getTags(keyForOrg);
-						} catch (IOException | UnauthorizedException e1) {
-							e1.printStackTrace();
-						}
-
-					}
+					saveTags(newTraceTags);
 				}
 			}
 
@@ -239,34 +193,11 @@ public class VulnerabilityDetailsPage extends AbstractPage {
 			public void widgetSelected(SelectionEvent e) {
 				if (e.item == httpRequestTabItem) {
 					if (trace != null && httpRequestTab.getHttpRequest() == null) {
-						HttpRequestResponse httpRequest = null;
-						try {
-							httpRequest = getSdk().getHttpRequest(ContrastUIActivator.getOrgUuid(), trace.getUuid());
-							httpRequestTab.setHttpRequest(httpRequest);
-						} catch (UnauthorizedException e1) {
-							ContrastUIActivator.log(e1);
-						} catch (IOException e1) {
-							ContrastUIActivator.logInfo(resource.getString("NO_HTTP_REQUEST"));
-							httpRequest = new HttpRequestResponse();
-							HttpRequest req = new HttpRequest();
-							req.setText(resource.getString("NO_HTTP_REQUEST_LABEL"));
-							httpRequest.setHttpRequest(req);
-							setHttpRequest(httpRequest);
-						}
+						getVulnerabilitiesView().getDetailsLoader().reloadHttpRequest(trace);
 					}
 				} else if (e.item == eventsTabItem) {
 					if (trace != null && eventsTab.getEventSummary() == null) {
-						EventSummaryResponse eventSummary = null;
-						try {
-							eventSummary = getSdk().getEventSummary(ContrastUIActivator.getOrgUuid(), trace.getUuid());
-							eventsTab.setEventSummary(eventSummary);
-						} catch (UnauthorizedException e1) {
-							ContrastUIActivator.log(e1);
-						} catch (IOException e1) {
-							ContrastUIActivator.logInfo(resource.getString("NO_EVENT_SUMMARY"));
-							// FIXME
-							// eventSummary = new EventSummaryResource();
-						}
+						getVulnerabilitiesView().getDetailsLoader().reloadEventSummary(trace);
 					}
 				}
 			}
@@ -277,10 +208,45 @@ public class VulnerabilityDetailsPage extends AbstractPage {
 		});
 	}
 
-	protected ContrastSDK getSdk() {
+	protected ExtendedContrastSDK getSdk() {
 		return getVulnerabilitiesView().getSdk();
 	}
 
+	/**
+	 * Shows the HTTP request of the trace loaded again when its tab is
+	 * selected.
+	 *
+	 * @param httpRequest
+	 *            The request, or null if it could not be loaded.
+	 */
+	public void showReloadedHttpRequest(HttpRequestResponse httpRequest) {
+		if (httpRequest != null) {
+			httpRequestTab.setHttpRequest(httpRequest);
+		} else {
+			ContrastUIActivator.logInfo(resource.getString("NO_HTTP_REQUEST"));
+			HttpRequestResponse noHttpRequest = new HttpRequestResponse();
+			HttpRequest req = new HttpRequest();
+			req.setText(resource.getString("NO_HTTP_REQUEST_LABEL"));
+			noHttpRequest.setHttpRequest(req);
+			setHttpRequest(noHttpRequest);
+		}
+	}
+
+	/**
+	 * Shows the event summary of the trace loaded again when its tab is
+	 * selected.
+	 *
+	 * @param eventSummary
+	 *            The event summary, or null if it could not be loaded.
+	 */
+	public void showReloadedEventSummary(EventSummaryResponse eventSummary) {
+		if (eventSummary != null && trace != null) {
+			eventsTab.setEventSummary(eventSummary, trace.getUuid());
+		} else {
+			ContrastUIActivator.logInfo(resource.getString("NO_EVENT_SUMMARY"));
+		}
+	}
+
 	private void showMarkStatusDialog(Composite composite) {
 		final MarkStatusDialog dialog = new MarkStatusDialog(getShell(), trace.getUuid());
 		dialog.setBlockOnOpen(true);
@@ -288,31 +254,28 @@ public class VulnerabilityDetailsPage extends AbstractPage {
 		if(dialog.open() != Dialog.OK)
 			return;
 
-		final StatusRequest request = dialog.getTraceStatusRequest();
-		final String status = dialog.getSelectedStatus();
-		BusyIndicator.showWhile(getDisplay(), new Runnable() {
-
-			@Override
-			public void run() {
-				if(markStatus(request))
-					markAsButton.setText(status);
-			}
-		});
+		markStatus(dialog.getTraceStatusRequest(), dialog.getSelectedStatus());
 	}
 
-	public void createAdditionalTabs() {
+	private void createEventsTab() {
 		disposeTab(eventsTabItem);
-		disposeTab(httpRequestTabItem);
 		eventsTabItem = null;
-		httpRequestTabItem = null;
-		List<EventResource> events = eventSummaryResource.getEvents();
+		List<EventResource> events = eventSummaryResource == null ? null : eventSummaryResource.getEvents();
 		if (events != null && events.size() > 0) {
-			eventsTabItem = new CTabItem(folder, SWT.NONE);
+			eventsTabItem = new CTabItem(folder, SWT.NONE, VulnerabilityDetailsTab.EVENTS.ordinal());
 			eventsTabItem.setText(resource.getString("DETAILS_LABEL"));
 			eventsTab = new EventsTab(folder, SWT.NONE);
 			eventsTabItem.setControl(eventsTab);
-			eventsTab.setEventSummary(eventSummaryResource);
+			eventsTab.setEventSummary(eventSummaryResource, trace != null ? trace.getUuid() : null);
+			if (selectedTab == VulnerabilityDetailsTab.EVENTS) {
+				folder.setSelection(eventsTabItem);
+			}
 		}
+	}
+
+	private void createHttpRequestTab() {
+		disposeTab(httpRequestTabItem);
+		httpRequestTabItem = null;
 		if (httpRequest != null && httpRequest.getHttpRequest() != null
 				&& httpRequest.getHttpRequest().getText() != null) {
 			httpRequestTabItem = new CTabItem(folder, SWT.NONE);
@@ -320,8 +283,10 @@ public class VulnerabilityDetailsPage extends AbstractPage {
 			httpRequestTab = new HttpRequestTab(folder, SWT.NONE);
 			httpRequestTabItem.setControl(httpRequestTab);
 			httpRequestTab.setHttpRequest(httpRequest);
+			if (selectedTab == VulnerabilityDetailsTab.HTTP_REQUEST) {
+				folder.setSelection(httpRequestTabItem);
+			}
 		}
-		setDefaultSelection();
 	}
 
 	private void disposeTab(CTabItem tab) {
@@ -366,6 +331,10 @@ public class VulnerabilityDetailsPage extends AbstractPage {
 		return trace;
 	}
 
+	/**
+	 * Shows the given trace and clears everything loaded for the previous one.
+	 * The tabs are filled in as their resources are set.
+	 */
 	public void setTrace(Trace trace) throws MalformedURLException {
 		this.trace = trace;
 		if (trace != null) {
@@ -377,6 +346,16 @@ public class VulnerabilityDetailsPage extends AbstractPage {
 		}
 		httpRequest = null;
 		eventSummaryResource = null;
+		traceTagsResource = null;
+		orgTagsResource = null;
+		disposeTab(eventsTabItem);
+		disposeTab(httpRequestTabItem);
+		eventsTabItem = null;
+		httpRequestTabItem = null;
+		overviewTab.setStory(null);
+		recommendationTab.setRecommendationResource(null);
+		markAsButton.setText(resource.getString("MARK_AS_LABEL"));
+		tagButton.setEnabled(false);
 		getParent().layout(true, true);
 		getParent().redraw();
 	}
@@ -395,6 +374,7 @@ public class VulnerabilityDetailsPage extends AbstractPage {
 
 	public void setHttpRequest(HttpRequestResponse httpRequest) {
 		this.httpRequest = httpRequest;
+		createHttpRequestTab();
 	}
 
 	public void setVulnerabilityStatus(String status) {
@@ -426,12 +406,21 @@ public class VulnerabilityDetailsPage extends AbstractPage {
 
 	/**
 	 * Sets the default tab that user should see when entering this view. If the tab specified
-	 * was not added to the view, then first one will be showed instead.
+	 * was not added to the view yet, then first one will be showed until it is.
 	 * @param tab The tab that this user should see when entering this view.
 	 */
 	public void setDefaultSelection(VulnerabilityDetailsTab tab) {
-		if (folder.getItemCount() > 1)
-			folder.setSelection(tab.ordinal());
+		selectedTab = tab;
+		CTabItem item = null;
+		if (tab == VulnerabilityDetailsTab.EVENTS) {
+			item = eventsTabItem;
+		} else if (tab == VulnerabilityDetailsTab.HTTP_REQUEST) {
+			item = httpRequestTabItem;
+		} else if (folder.getItemCount() > tab.ordinal()) {
+			item = folder.getItem(tab.ordinal());
+		}
+		if (item != null && !item.isDisposed())
+			folder.setSelection(item);
 		else
 			folder.setSelection(0);
 	}
@@ -442,45 +431,98 @@ public class VulnerabilityDetailsPage extends AbstractPage {
 
 	public void setEventSummaryResource(EventSummaryResponse eventSummaryResource) {
 		this.eventSummaryResource = eventSummaryResource;
+		createEventsTab();
 	}
 
 	public void setTraceTagsResource(TagsResponse traceTagsResource) {
 		this.traceTagsResource = traceTagsResource;
+		tagButton.setEnabled(this.traceTagsResource != null && orgTagsResource != null);
 	}
 
 	public void setOrgTagsResource(TagsResponse orgTagsResource) {
 		this.orgTagsResource = orgTagsResource;
+		tagButton.setEnabled(traceTagsResource != null && this.orgTagsResource != null);
 	}
 
 	//====================  Requests  ====================
-	private TagsResponse getTags(Key key) throws IOException, UnauthorizedException {
-		TagsResponse tagsResource = contrastCache.getTagsResources().get(key);
-
-		if (tagsResource == null) {
-			if (key.getTraceId() != null) {
-				tagsResource = getSdk().getTagsByTrace(key.getOrgUuid(), key.getTraceId());
-			} else {
-				tagsResource = getSdk().getTraceTagsByOrganization(key.getOrgUuid());
-			}
-			contrastCache.getTagsResources().put(key, tagsResource);
+	/**
+	 * Shows the new tags of the trace right away and caches them, then sends
+	 * only the tags that changed to Team Server in the background.
+	 */
+	private void saveTags(List<String> newTraceTags) {
+		TagDiff diff = TagDiff.compute(traceTagsResource.getTags(), newTraceTags);
+		if (diff.isEmpty()) {
+			return;
 		}
-		return tagsResource;
+		String orgUuid = ContrastUIActivator.getOrgUuid();
+		Key key = new Key(orgUuid, trace.getUuid());
+		Key keyForOrg = new Key(orgUuid, null);
+		setTraceTagsResource(diff.applyTo(traceTagsResource));
+		setOrgTagsResource(diff.mergeInto(orgTagsResource));
+		contrastCache.getTagsResources().replace(key, traceTagsResource);
+		contrastCache.getTagsResources().replace(keyForOrg, orgTagsResource);
+		getVulnerabilitiesView().getSearchIndex().addTags(trace.getUuid(), traceTagsResource.getTags());
+		new TagSyncJob(getSdk(), orgUuid, trace.getUuid(), diff, this).schedule();
 	}
 
-	private boolean markStatus(StatusRequest request) {
-		try {
-			GenericResponse response = getSdk().setTraceStatus(ContrastUIActivator.getOrgUuid(), request.toString());
-			return Boolean.parseBoolean(response.getSuccess());
-		}
-		catch (UnauthorizedException e1) {
-			ContrastUIActivator.log(e1);
-			UIElementUtils.ShowErrorMessage(getShell(), resource.getString("NOT_AUTHORIZED"));
-		}
-		catch (IOException e1) {
-			ContrastUIActivator.log(e1);
-			UIElementUtils.ShowErrorMessage(getShell(), resource.getString("REQUEST_FAILED"));
+	/**
+	 * Sends the status through the {@link IContrastService}. The button shows
+	 * the status once Team Server has applied it.
+	 */
+	private void markStatus(final StatusRequest request, final String status) {
+		IContrastService contrastService = ContrastUIActivator.getContrastService();
+		if (contrastService == null) {
+			return;
 		}
+		final String orgUuid = ContrastUIActivator.getOrgUuid();
+		final String traceUuid = trace.getUuid();
+		markAsButton.setEnabled(false);
+		contrastService.getAsyncSDK(getSdk()).setTraceStatus(orgUuid, request)
+				.whenComplete(new BiConsumer<GenericResponse, Throwable>() {
+
+					@Override
+					public void accept(GenericResponse response, Throwable failure) {
+						final boolean success = failure == null && response != null
+								&& Boolean.parseBoolean(response.getSuccess());
+						if (success) {
+							updateCachedStatus(orgUuid, traceUuid, request.getStatus());
+						}
+						if (failure instanceof CompletionException && failure.getCause() != null) {
+							failure = failure.getCause();
+						}
+						if (failure != null) {
+							ContrastUIActivator.log(failure);
+						}
+						final String error = failure == null ? null
+								: resource.getString(failure instanceof UnauthorizedException ? "NOT_AUTHORIZED"
+										: "REQUEST_FAILED");
+						Display.getDefault().asyncExec(new Runnable() {
+
+							@Override
+							public void run() {
+								if (isDisposed()) {
+									return;
+								}
+								markAsButton.setEnabled(true);
+								if (error != null) {
+									UIElementUtils.ShowErrorMessage(getShell(), error);
+								} else if (success && trace != null && traceUuid.equals(trace.getUuid())) {
+									markAsButton.setText(status);
+								}
+							}
+						});
+					}
+				});
+	}
 
-		return false;
+	/**
+	 * Replaces the cached status of the shown trace, so that opening it again
+	 * shows the new status without asking Team Server. A status that is still
+	 * being loaded is discarded. The markers of the trace are removed if the
+	 * status closes it.
+	 */
+	private void updateCachedStatus(String orgUuid, String traceUuid, String status) {
+		contrastCache.getStatusResources().replace(new Key(orgUuid, traceUuid), status);
+		ContrastUIActivator.getVulnerabilityMarkerJob().setStatus(traceUuid, status);
 	}
 }
@@ -19,14 +19,11 @@ import java.util.EnumSet;
 
 import org.eclipse.core.runtime.preferences.IEclipsePreferences;
 import org.eclipse.swt.SWT;
-import org.eclipse.swt.events.SelectionEvent;
-import org.eclipse.swt.events.SelectionListener;
 import org.eclipse.swt.layout.GridData;
 import org.eclipse.swt.layout.GridLayout;
 import org.eclipse.swt.layout.RowData;
 import org.eclipse.swt.layout.RowLayout;
 import org.eclipse.swt.widgets.Button;
-import org.eclipse.swt.widgets.Combo;
 import org.eclipse.swt.widgets.Composite;
 import org.eclipse.swt.widgets.Event;
 import org.eclipse.swt.widgets.Label;
@@ -34,29 +31,21 @@ import org.eclipse.swt.widgets.Listener;
 import java.util.ResourceBundle;
 
 import com.contrastsecurity.http.RuleSeverity;
-import com.contrastsecurity.http.ServerFilterForm;
 import com.contrastsecurity.http.TraceFilterForm;
 import com.contrastsecurity.ide.eclipse.core.Constants;
 import com.contrastsecurity.ide.eclipse.core.ContrastCoreActivator;
 import com.contrastsecurity.ide.eclipse.ui.ContrastUIActivator;
+import com.contrastsecurity.ide.eclipse.ui.cache.FilterMetadata;
+import com.contrastsecurity.ide.eclipse.ui.cache.IFilterMetadataListener;
 import com.contrastsecurity.ide.eclipse.ui.internal.views.VulnerabilitiesView;
 import com.contrastsecurity.ide.eclipse.ui.util.SystemUtils;
 import com.contrastsecurity.ide.eclipse.ui.util.UIElementUtils;
-import com.contrastsecurity.models.Applications;
-import com.contrastsecurity.models.Server;
-import com.contrastsecurity.models.Servers;
 import com.contrastsecurity.sdk.ContrastSDK;
 
 public class VulnerabilityPage extends AbstractPage {
 	private Label label;
+	private Composite filterComposite;
 
-	private Label pageLabel;
-	private Combo pageCombo;
-
-	private IPageLoaderListener pageLoaderListener;
-
-	Servers retrievedServers = null;
-	Applications retrievedApplications = null;
 	IEclipsePreferences prefs = ContrastCoreActivator.getPreferences();
 	TraceFilterForm currentTraceFilterForm;
 	Button openFilterDialogButton;
@@ -81,17 +70,12 @@ public class VulnerabilityPage extends AbstractPage {
 		UIElementUtils.createLogoLabel(this, ContrastUIActivator.getImage("/icons/contrastLogo.png"));
 
 		Composite comboComposite = new Composite(this, SWT.NONE);
-		comboComposite.setLayout(new GridLayout(5, false));
+		comboComposite.setLayout(new GridLayout(3, false));
+		filterComposite = comboComposite;
 
 		label = new Label(comboComposite, SWT.NONE);
 		gd = new GridData(SWT.FILL, SWT.CENTER, false, false);
 		label.setLayoutData(gd);
-		String orgUuid = getOrgUuid();
-
-		getServers(orgUuid, true);
-		getApplications(orgUuid, true, null);
-
-		createPaginationUI(comboComposite);
 
 		openFilterDialogButton = new Button(comboComposite, SWT.PUSH);
 		openFilterDialogButton.setImage(ContrastUIActivator.getImage("/icons/filter.png"));
@@ -99,7 +83,7 @@ public class VulnerabilityPage extends AbstractPage {
 		openFilterDialogButton.addListener(SWT.Selection, new Listener() {
 			@Override
 			public void handleEvent(Event event) {
-				openFilterDialogButtonListener.onFilterLoad(retrievedServers, retrievedApplications);
+				openFilterDialog();
 			}
 		});
 
@@ -188,80 +172,31 @@ public class VulnerabilityPage extends AbstractPage {
 		return getVulnerabilitiesView().getSdk();
 	}
 
-	private void createPaginationUI(Composite composite) {
-		GridData gd;
-
-		pageLabel = new Label(composite, SWT.NONE);
-		gd = new GridData(SWT.FILL, SWT.CENTER, false, false);
-		pageLabel.setLayoutData(gd);
-		pageLabel.setText(resource.getString("PAGE_LABEL"));
-
-		pageCombo = new Combo(composite, SWT.READ_ONLY);
-		pageCombo.addSelectionListener(new SelectionListener() {
-
-			@Override
-			public void widgetSelected(SelectionEvent e) {
-				pageLoaderListener.onPageLoad(Integer.parseInt(pageCombo.getText()));
-			}
-
-			@Override
-			public void widgetDefaultSelected(SelectionEvent e) {
-				/* Does nothing */ }
-		});
-	}
-
-	public void getServers(final String orgUuid, final boolean setSavedDefaults) {
-		if (orgUuid != null) {
-			try {
-				ServerFilterForm serverFilterForm = new ServerFilterForm();
-				serverFilterForm.setExpand(EnumSet.of(ServerFilterForm.ServerExpandValue.APPLICATIONS));
-				retrievedServers = getSdk().getServers(orgUuid, serverFilterForm);
-
-			} catch (Exception e) {
-				ContrastUIActivator.log(e);
-			}
+	/**
+	 * Opens the filter dialog once the servers and applications of the
+	 * organization are available. They are usually loaded in the background
+	 * already; otherwise the button is disabled until they arrive.
+	 */
+	private void openFilterDialog() {
+		String orgUuid = getOrgUuid();
+		if (orgUuid == null) {
+			return;
 		}
-	}
-
-	public void getApplications(final String orgUuid, final boolean setSavedDefaults, Server server) {
+		openFilterDialogButton.setEnabled(false);
+		ContrastUIActivator.getFilterMetadataCache().get(orgUuid, getSdk(), new IFilterMetadataListener() {
 
-		if (orgUuid != null) {
-			if (server == null) {
-				try {
-					retrievedApplications = getSdk().getApplications(orgUuid);
-				} catch (Exception e) {
-					ContrastUIActivator.log(e);
+			@Override
+			public void onFilterMetadataLoad(FilterMetadata filterMetadata) {
+				if (isDisposed()) {
+					return;
+				}
+				openFilterDialogButton.setEnabled(true);
+				if (filterMetadata != null) {
+					openFilterDialogButtonListener.onFilterLoad(filterMetadata.getServers(),
+							filterMetadata.getApplications());
 				}
 			}
-		}
-	}
-
-	public void initializePageCombo(final int pageLimit, final int totalElements) {
-		if (totalElements > pageLimit) {
-			int pages;
-
-			if (totalElements % pageLimit > 0)
-				pages = totalElements / pageLimit + 1;
-			else
-				pages = totalElements / pageLimit;
-
-			String[] pagesArray = new String[pages];
-
-			for (int i = 0; i < pages; i++)
-				pagesArray[i] = String.valueOf(i + 1);
-
-			pageCombo.setItems(pagesArray);
-			pageCombo.setEnabled(true);
-		} else {
-			pageCombo.setItems(new String[] { "1" });
-			pageCombo.setEnabled(false);
-		}
-
-		pageCombo.select(0);
-	}
-
-	public void setPageLoaderListener(final IPageLoaderListener pageLoaderListener) {
-		this.pageLoaderListener = pageLoaderListener;
+		});
 	}
 
 	public void setSeverityFilterListener(SeverityFilterListener severityFilterListener) {
@@ -272,6 +207,14 @@ public class VulnerabilityPage extends AbstractPage {
 		return label;
 	}
 
+	/**
+	 * @return The composite holding the label, the filter button and the
+	 *         severity buttons, laid out in a single row.
+	 */
+	protected Composite getFilterComposite() {
+		return filterComposite;
+	}
+
 	public void setOpenFilterDialogButtonListener(IFilterListener openFilterDialogButtonListener) {
 		this.openFilterDialogButtonListener = openFilterDialogButtonListener;
 	}
@@ -0,0 +1,398 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Contrast Security.
+ * All rights reserved. 
+ * 
+ * This program and the accompanying materials are made available under 
+ * the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License.
+ * 
+ * The terms of the GNU GPL version 3 which accompanies this distribution
+ * and is available at https://www.gnu.org/licenses/gpl-3.0.en.html
+ * 
+ * Contributors:
+ *     Contrast Security - initial API and implementation
+ *******************************************************************************/
+package com.contrastsecurity.ide.eclipse.ui.internal.model;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceChangeListener;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.resources.IResourceDeltaVisitor;
+import org.eclipse.core.resources.IResourceProxy;
+import org.eclipse.core.resources.IResourceProxyVisitor;
+import org.eclipse.core.resources.IWorkspace;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.JavaCore;
+
+import com.contrastsecurity.ide.eclipse.ui.ContrastUIActivator;
+
+/**
+ * Index of the workspace files by file name and of the primary types of the
+ * Java source files by simple name, used to open the source of a stack frame
+ * without walking the workspace. The index is built on the first lookup and
+ * kept current by a resource change listener. Folders named "target" are left
+ * out, like build output.
+ * <p>
+ * The workspace and opened projects are walked by the looking up thread
+ * without holding the lock the listener takes, so that workspace operations
+ * never wait for a walk. Changes seen during a walk are recorded and checked
+ * again once it is done.
+ */
+public class WorkspaceIndex implements IResourceChangeListener {
+
+	private static final String OUTPUT_FOLDER = "target";
+
+	private final IWorkspace workspace;
+	/**
+	 * Serializes the walks of the looking up threads.
+	 */
+	private final Object walkLock = new Object();
+	private Map<String, Set<IFile>> files = new HashMap<>();
+	private Map<String, Set<IType>> types = new HashMap<>();
+	private volatile boolean built;
+	private volatile boolean walking;
+	/**
+	 * Files changed during a walk and projects to walk again, guarded by the
+	 * index.
+	 */
+	private final Set<IResource> stale = new LinkedHashSet<>();
+	/**
+	 * Number of changes of the workspace seen since the index was built.
+	 */
+	private long changeCount;
+
+	public WorkspaceIndex(IWorkspace workspace) {
+		this.workspace = workspace;
+		workspace.addResourceChangeListener(this, IResourceChangeEvent.POST_CHANGE);
+	}
+
+	public void dispose() {
+		workspace.removeResourceChangeListener(this);
+		synchronized (this) {
+			files = new HashMap<>();
+			types = new HashMap<>();
+			stale.clear();
+			built = false;
+		}
+	}
+
+	/**
+	 * @return A number that changes whenever a file is added to or removed
+	 *         from the index after it has been built, so that what has been
+	 *         looked up can be invalidated.
+	 */
+	public synchronized long getChangeCount() {
+		return changeCount;
+	}
+
+	/**
+	 * @param fileName
+	 *            Name of the file with its extension.
+	 * @return Every file of the workspace with the name.
+	 */
+	public List<IFile> findFiles(String fileName) throws CoreException {
+		ensureCurrent();
+		synchronized (this) {
+			Set<IFile> matches = files.get(fileName);
+			return matches != null ? new ArrayList<>(matches) : new ArrayList<IFile>();
+		}
+	}
+
+	/**
+	 * @param typeName
+	 *            Fully qualified name of the type, or its simple name to find
+	 *            the types with the name in every package.
+	 * @return The existing source types with the name. Only types declared in
+	 *         a file of their name are found.
+	 */
+	public Set<IType> findTypes(String typeName) throws CoreException {
+		int dot = typeName.lastIndexOf('.');
+		String simpleName = typeName.substring(dot + 1);
+		List<IType> candidates;
+		ensureCurrent();
+		synchronized (this) {
+			Set<IType> matches = types.get(simpleName);
+			candidates = matches != null ? new ArrayList<>(matches) : new ArrayList<IType>();
+		}
+		// Checked outside the lock, since it opens the compilation units
+		Set<IType> result = new LinkedHashSet<>();
+		for (IType type : candidates) {
+			if ((dot < 0 || typeName.equals(type.getFullyQualifiedName())) && type.exists()) {
+				result.add(type);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Builds the index, or walks the projects opened since the last lookup.
+	 */
+	private void ensureCurrent() throws CoreException {
+		synchronized (walkLock) {
+			boolean build = !built;
+			List<IProject> projects = new ArrayList<>();
+			synchronized (this) {
+				if (!build) {
+					for (IResource resource : stale) {
+						if (resource instanceof IProject) {
+							projects.add((IProject) resource);
+						}
+					}
+					if (projects.isEmpty()) {
+						return;
+					}
+				}
+				stale.clear();
+				walking = true;
+			}
+			Map<String, Set<IFile>> walkedFiles = new HashMap<>();
+			Map<String, Set<IType>> walkedTypes = new HashMap<>();
+			try {
+				Indexer indexer = new Indexer(walkedFiles, walkedTypes);
+				if (build) {
+					workspace.getRoot().accept(indexer, IResource.NONE);
+				} else {
+					for (IProject project : projects) {
+						if (project.isOpen()) {
+							project.accept(indexer, IResource.NONE);
+						}
+					}
+				}
+			} catch (CoreException e) {
+				synchronized (this) {
+					stale.addAll(projects);
+					walking = false;
+				}
+				throw e;
+			}
+			synchronized (this) {
+				if (build) {
+					files = walkedFiles;
+					types = walkedTypes;
+				} else {
+					for (IProject project : projects) {
+						removeProject(project);
+					}
+					merge(walkedFiles, files);
+					merge(walkedTypes, types);
+					changeCount++;
+				}
+				// Files changed during the walk, projects are walked by the next lookup
+				for (Iterator<IResource> it = stale.iterator(); it.hasNext();) {
+					IResource resource = it.next();
+					if (resource instanceof IFile) {
+						remove((IFile) resource);
+						if (resource.exists()) {
+							add((IFile) resource, files, types);
+						}
+						changeCount++;
+						it.remove();
+					}
+				}
+				walking = false;
+				built = true;
+			}
+		}
+	}
+
+	private static <T> void merge(Map<String, Set<T>> from, Map<String, Set<T>> to) {
+		for (Map.Entry<String, Set<T>> entry : from.entrySet()) {
+			Set<T> named = to.get(entry.getKey());
+			if (named == null) {
+				to.put(entry.getKey(), entry.getValue());
+			} else {
+				named.addAll(entry.getValue());
+			}
+		}
+	}
+
+	@Override
+	public void resourceChanged(IResourceChangeEvent event) {
+		IResourceDelta delta = event.getDelta();
+		if (delta == null || !built && !walking) {
+			return;
+		}
+		synchronized (this) {
+			if (!built && !walking) {
+				return;
+			}
+			try {
+				delta.accept(new IResourceDeltaVisitor() {
+
+					@Override
+					public boolean visit(IResourceDelta delta) throws CoreException {
+						return update(delta);
+					}
+				});
+			} catch (CoreException e) {
+				ContrastUIActivator.log(e);
+				// Built again on the next lookup
+				files = new HashMap<>();
+				types = new HashMap<>();
+				stale.clear();
+				built = false;
+				changeCount++;
+			}
+		}
+	}
+
+	/**
+	 * Applies a change to the index, or records it while the workspace or a
+	 * project is walked. Projects are never walked here.
+	 */
+	private boolean update(IResourceDelta delta) {
+		IResource resource = delta.getResource();
+		switch (resource.getType()) {
+		case IResource.PROJECT:
+			IProject project = (IProject) resource;
+			if (walking) {
+				if (delta.getKind() == IResourceDelta.REMOVED || (delta.getFlags() & IResourceDelta.OPEN) != 0) {
+					stale.add(project);
+					return false;
+				}
+				return true;
+			}
+			if (delta.getKind() == IResourceDelta.REMOVED
+					|| (delta.getFlags() & IResourceDelta.OPEN) != 0 && !project.isOpen()) {
+				removeProject(project);
+				changeCount++;
+				return false;
+			}
+			if ((delta.getFlags() & IResourceDelta.OPEN) != 0) {
+				// Walked by the next lookup
+				stale.add(project);
+				return false;
+			}
+			return true;
+		case IResource.FOLDER:
+			return !OUTPUT_FOLDER.equals(resource.getName());
+		case IResource.FILE:
+			if (delta.getKind() != IResourceDelta.ADDED && delta.getKind() != IResourceDelta.REMOVED) {
+				return false;
+			}
+			if (walking) {
+				stale.add(resource);
+			} else if (delta.getKind() == IResourceDelta.ADDED) {
+				add((IFile) resource, files, types);
+				changeCount++;
+			} else {
+				remove((IFile) resource);
+				changeCount++;
+			}
+			return false;
+		default:
+			return true;
+		}
+	}
+
+	private static void add(IFile file, Map<String, Set<IFile>> files, Map<String, Set<IType>> types) {
+		String name = file.getName();
+		Set<IFile> named = files.get(name);
+		if (named == null) {
+			named = new LinkedHashSet<>();
+			files.put(name, named);
+		}
+		named.add(file);
+		IType type = getPrimaryType(file);
+		if (type != null) {
+			Set<IType> typesNamed = types.get(type.getElementName());
+			if (typesNamed == null) {
+				typesNamed = new LinkedHashSet<>();
+				types.put(type.getElementName(), typesNamed);
+			}
+			typesNamed.add(type);
+		}
+	}
+
+	private void remove(IFile file) {
+		Set<IFile> named = files.get(file.getName());
+		if (named != null && named.remove(file) && named.isEmpty()) {
+			files.remove(file.getName());
+		}
+		IType type = getPrimaryType(file);
+		if (type != null) {
+			Set<IType> typesNamed = types.get(type.getElementName());
+			if (typesNamed != null && typesNamed.remove(type) && typesNamed.isEmpty()) {
+				types.remove(type.getElementName());
+			}
+		}
+	}
+
+	private void removeProject(IProject project) {
+		for (Iterator<Set<IFile>> it = files.values().iterator(); it.hasNext();) {
+			Set<IFile> named = it.next();
+			for (Iterator<IFile> fileIt = named.iterator(); fileIt.hasNext();) {
+				if (project.equals(fileIt.next().getProject())) {
+					fileIt.remove();
+				}
+			}
+			if (named.isEmpty()) {
+				it.remove();
+			}
+		}
+		for (Iterator<Set<IType>> it = types.values().iterator(); it.hasNext();) {
+			Set<IType> named = it.next();
+			for (Iterator<IType> typeIt = named.iterator(); typeIt.hasNext();) {
+				if (project.equals(typeIt.next().getJavaProject().getProject())) {
+					typeIt.remove();
+				}
+			}
+			if (named.isEmpty()) {
+				it.remove();
+			}
+		}
+	}
+
+	/**
+	 * @return Handle of the type named like the file, if the file is a
+	 *         compilation unit of a Java project. Nothing is parsed.
+	 */
+	private static IType getPrimaryType(IFile file) {
+		if (!JavaCore.isJavaLikeFileName(file.getName())) {
+			return null;
+		}
+		IJavaElement element = JavaCore.create(file);
+		if (element instanceof ICompilationUnit) {
+			return ((ICompilationUnit) element).getType(JavaCore.removeJavaLikeExtension(file.getName()));
+		}
+		return null;
+	}
+
+	/**
+	 * Adds the files it visits to the given maps, which are not shared yet.
+	 */
+	private static final class Indexer implements IResourceProxyVisitor {
+
+		private final Map<String, Set<IFile>> files;
+		private final Map<String, Set<IType>> types;
+
+		private Indexer(Map<String, Set<IFile>> files, Map<String, Set<IType>> types) {
+			this.files = files;
+			this.types = types;
+		}
+
+		@Override
+		public boolean visit(IResourceProxy proxy) throws CoreException {
+			if (proxy.getType() == IResource.FILE) {
+				add((IFile) proxy.requestResource(), files, types);
+				return false;
+			}
+			return proxy.getType() != IResource.FOLDER || !OUTPUT_FOLDER.equals(proxy.getName());
+		}
+	}
+
+}
@@ -47,6 +47,7 @@ import org.eclipse.swt.widgets.Display;
 import org.eclipse.swt.widgets.Group;
 import org.eclipse.swt.widgets.Label;
 import org.eclipse.swt.widgets.Shell;
+import org.eclipse.swt.widgets.Spinner;
 import org.eclipse.swt.widgets.TableColumn;
 import org.eclipse.swt.widgets.Text;
 import org.eclipse.ui.IWorkbench;
@@ -56,6 +57,7 @@ import org.eclipse.ui.PlatformUI;
 
 import com.contrastsecurity.exceptions.UnauthorizedException;
 import com.contrastsecurity.http.IntegrationName;
+import com.contrastsecurity.ide.eclipse.core.Constants;
 import com.contrastsecurity.ide.eclipse.core.ContrastCoreActivator;
 import com.contrastsecurity.ide.eclipse.core.Util;
 import com.contrastsecurity.ide.eclipse.ui.ContrastUIActivator;
@@ -68,6 +70,8 @@ public class ContrastPreferencesPage extends PreferencePage implements IWorkbenc
 
 	public static final String ID = "com.contrastsecurity.ide.eclipse.ui.internal.preferences.ContrastPreferencesPage";
 	private final static String URL_SUFFIX = "/Contrast";
+	private final static int MIN_CACHE_MEMORY_BUDGET = 4;
+	private final static int MAX_CACHE_MEMORY_BUDGET = 1024;
 	private Text teamServerText;
 	private Text usernameText;
 	private Text serviceKeyText;
@@ -77,6 +81,7 @@ public class ContrastPreferencesPage extends PreferencePage implements IWorkbenc
 	private Button addOrganizationBtn;
 	private Button deleteOrganizationBtn;
 	private TableViewer tableViewer;
+	private Spinner cacheMemoryBudgetSpinner;
 	static ResourceBundle resource = ResourceBundle.getBundle("OSGI-INF/l10n.bundle");
 	public ContrastPreferencesPage() {
 		setPreferenceStore(ContrastCoreActivator.getDefault().getPreferenceStore());
@@ -97,6 +102,11 @@ public class ContrastPreferencesPage extends PreferencePage implements IWorkbenc
 	 */
 	@Override
 	public boolean performOk() {
+		int cacheMemoryBudget = cacheMemoryBudgetSpinner.getSelection();
+		ContrastCoreActivator.getPreferences().putInt(Constants.CACHE_MEMORY_BUDGET, cacheMemoryBudget);
+		ContrastUIActivator.getContrastCache().setMemoryBudget(cacheMemoryBudget);
+		ContrastCoreActivator.flushPrefs();
+
 		final IStructuredSelection selection = tableViewer.getStructuredSelection();
 
 		if (selection != null) {
@@ -232,11 +242,28 @@ public class ContrastPreferencesPage extends PreferencePage implements IWorkbenc
 
 		});
 
+		createCacheGroup(composite);
+
 		enableOrganizationViews();
 
 		return composite;
 	}
 
+	private void createCacheGroup(Composite composite) {
+		Group cacheGroup = new Group(composite, SWT.NONE);
+		cacheGroup.setLayout(new GridLayout(2, false));
+		cacheGroup.setText(resource.getString("CACHE_LABEL"));
+		cacheGroup.setLayoutData(new GridData(SWT.FILL, SWT.FILL, false, false, 3, 1));
+
+		UIElementUtils.createLabel(cacheGroup, resource.getString("CACHE_MEMORY_BUDGET_LABEL"));
+		cacheMemoryBudgetSpinner = new Spinner(cacheGroup, SWT.BORDER);
+		cacheMemoryBudgetSpinner.setValues(
+				ContrastCoreActivator.getPreferences().getInt(Constants.CACHE_MEMORY_BUDGET,
+						Constants.CACHE_MEMORY_BUDGET_VALUE),
+				MIN_CACHE_MEMORY_BUDGET, MAX_CACHE_MEMORY_BUDGET, 0, 8, 64);
+		cacheMemoryBudgetSpinner.setToolTipText(resource.getString("CACHE_MEMORY_BUDGET_INFO"));
+	}
+
 	private void verifyTeamServerUrl() {
 		String tsUrl = teamServerText.getText();
 
@@ -15,6 +15,7 @@
 package com.contrastsecurity.ide.eclipse.ui.internal.views;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.ResourceBundle;
 
@@ -79,7 +80,7 @@ public class MarkStatusDialog extends Dialog {
 
 	
 	
-	private String traceId;
+	private List<String> traceIds;
 	private String status;
 	private String visualStatus;
 	private StatusRequest request;
@@ -89,8 +90,16 @@ public class MarkStatusDialog extends Dialog {
 	private Text noteText;
 	
 	public MarkStatusDialog(Shell shell, String traceId) {
+		this(shell, Collections.singletonList(traceId));
+	}
+
+	/**
+	 * @param traceIds
+	 *            The traces that all get the selected status.
+	 */
+	public MarkStatusDialog(Shell shell, List<String> traceIds) {
 		super(shell);
-		this.traceId = traceId;
+		this.traceIds = traceIds;
 		status = visualStatus = StatusConstants.CONFIRMED;
 	}
 	
@@ -163,8 +172,7 @@ public class MarkStatusDialog extends Dialog {
 	}
 	
 	private void markStatus() {
-		List<String> traces = new ArrayList<>();
-		traces.add(traceId);
+		List<String> traces = new ArrayList<>(traceIds);
 		
 		request = new StatusRequest();
 		request.setTraces(traces);
@@ -24,17 +24,28 @@ import java.util.EnumSet;
 import java.util.List;
 import java.util.ResourceBundle;
 
-import org.apache.commons.lang.StringUtils;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceChangeListener;
+import org.eclipse.core.resources.IncrementalProjectBuilder;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.IJobChangeEvent;
 import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.core.runtime.jobs.JobChangeAdapter;
 import org.eclipse.core.runtime.preferences.IEclipsePreferences;
+import org.eclipse.debug.core.DebugPlugin;
+import org.eclipse.debug.core.ILaunch;
+import org.eclipse.debug.core.ILaunchListener;
 import org.eclipse.jface.action.Action;
 import org.eclipse.jface.action.IMenuListener;
 import org.eclipse.jface.action.IMenuManager;
 import org.eclipse.jface.action.IToolBarManager;
 import org.eclipse.jface.action.MenuManager;
 import org.eclipse.jface.action.Separator;
+import org.eclipse.jface.dialogs.Dialog;
 import org.eclipse.jface.preference.PreferenceDialog;
-import org.eclipse.jface.viewers.ArrayContentProvider;
 import org.eclipse.jface.viewers.DoubleClickEvent;
 import org.eclipse.jface.viewers.IDoubleClickListener;
 import org.eclipse.jface.viewers.ISelection;
@@ -43,11 +54,13 @@ import org.eclipse.jface.viewers.TableLayout;
 import org.eclipse.jface.viewers.TableViewer;
 import org.eclipse.jface.viewers.ViewerCell;
 import org.eclipse.swt.SWT;
-import org.eclipse.swt.custom.BusyIndicator;
 import org.eclipse.swt.events.MouseEvent;
 import org.eclipse.swt.events.MouseListener;
 import org.eclipse.swt.events.SelectionEvent;
 import org.eclipse.swt.events.SelectionListener;
+import org.eclipse.swt.events.ShellAdapter;
+import org.eclipse.swt.events.ShellEvent;
+import org.eclipse.swt.events.ShellListener;
 import org.eclipse.swt.graphics.Point;
 import org.eclipse.swt.layout.GridData;
 import org.eclipse.swt.layout.GridLayout;
@@ -55,10 +68,13 @@ import org.eclipse.swt.widgets.Composite;
 import org.eclipse.swt.widgets.Display;
 import org.eclipse.swt.widgets.Label;
 import org.eclipse.swt.widgets.Menu;
+import org.eclipse.swt.widgets.Shell;
 import org.eclipse.swt.widgets.TableColumn;
 import org.eclipse.ui.IActionBars;
+import org.eclipse.ui.IPartListener2;
 import org.eclipse.ui.ISharedImages;
 import org.eclipse.ui.IWorkbenchActionConstants;
+import org.eclipse.ui.IWorkbenchPartReference;
 import org.eclipse.ui.PartInitException;
 import org.eclipse.ui.PlatformUI;
 import org.eclipse.ui.dialogs.PreferencesUtil;
@@ -71,33 +87,39 @@ import com.contrastsecurity.http.TraceFilterForm;
 import com.contrastsecurity.ide.eclipse.core.Constants;
 import com.contrastsecurity.ide.eclipse.core.ContrastCoreActivator;
 import com.contrastsecurity.ide.eclipse.core.Util;
+import com.contrastsecurity.ide.eclipse.core.extended.ExtendedContrastSDK;
 import com.contrastsecurity.ide.eclipse.core.internal.preferences.OrganizationConfig;
 import com.contrastsecurity.ide.eclipse.ui.ContrastUIActivator;
 import com.contrastsecurity.ide.eclipse.ui.cache.ContrastCache;
 import com.contrastsecurity.ide.eclipse.ui.cache.Key;
+import com.contrastsecurity.ide.eclipse.ui.cache.TagsCacheLoader;
+import com.contrastsecurity.ide.eclipse.ui.cache.TraceSearchIndex;
+import com.contrastsecurity.ide.eclipse.ui.internal.job.BulkStatusJob;
+import com.contrastsecurity.ide.eclipse.ui.internal.job.BulkTagJob;
 import com.contrastsecurity.ide.eclipse.ui.internal.job.RefreshJob;
+import com.contrastsecurity.ide.eclipse.ui.internal.job.VulnerabilityDetailsLoader;
 import com.contrastsecurity.ide.eclipse.ui.internal.model.AbstractPage;
 import com.contrastsecurity.ide.eclipse.ui.internal.model.ConfigurationPage;
 import com.contrastsecurity.ide.eclipse.ui.internal.model.IFilterListener;
-import com.contrastsecurity.ide.eclipse.ui.internal.model.IPageLoaderListener;
+import com.contrastsecurity.ide.eclipse.ui.internal.model.ISearchListener;
+import com.contrastsecurity.ide.eclipse.ui.internal.model.ITracePageLoader;
+import com.contrastsecurity.ide.eclipse.ui.internal.model.LazyTraceContentProvider;
 import com.contrastsecurity.ide.eclipse.ui.internal.model.LoadingPage;
 import com.contrastsecurity.ide.eclipse.ui.internal.model.MainPage;
 import com.contrastsecurity.ide.eclipse.ui.internal.model.SeverityFilterListener;
+import com.contrastsecurity.ide.eclipse.ui.internal.model.TraceComparator;
 import com.contrastsecurity.ide.eclipse.ui.internal.model.VulnerabilityDetailsPage;
 import com.contrastsecurity.ide.eclipse.ui.internal.model.VulnerabilityDetailsTab;
 import com.contrastsecurity.ide.eclipse.ui.internal.model.VulnerabilityLabelProvider;
 import com.contrastsecurity.ide.eclipse.ui.internal.model.VulnerabilityPage;
 import com.contrastsecurity.ide.eclipse.ui.internal.preferences.ContrastPreferencesPage;
+import com.contrastsecurity.ide.eclipse.ui.util.UIElementUtils;
+import com.contrastsecurity.ide.rest.sdk.transport.TooManyRequestsException;
 import com.contrastsecurity.models.Applications;
-import com.contrastsecurity.models.EventSummaryResponse;
-import com.contrastsecurity.models.HttpRequestResponse;
-import com.contrastsecurity.models.RecommendationResponse;
 import com.contrastsecurity.models.Servers;
-import com.contrastsecurity.models.StoryResponse;
 import com.contrastsecurity.models.TagsResponse;
 import com.contrastsecurity.models.Trace;
 import com.contrastsecurity.models.Traces;
-import com.contrastsecurity.sdk.ContrastSDK;
 
 /**
  * Vulnerabilities View
@@ -131,11 +153,14 @@ public class VulnerabilitiesView extends ViewPart {
 	private final static int SHOW_VULNERABILITY_IN_BROWSER_ACTION = 2;
 
 	private TableViewer table;
+	private LazyTraceContentProvider contentProvider;
 	private Action refreshAction;
 	private Action openPreferencesPage;
 	private Action doubleClickAction;
+	private Action markAsAction;
+	private Action tagAction;
 	private Label statusLabel;
-	private ContrastSDK sdk = ContrastCoreActivator.getContrastSDK();
+	private ExtendedContrastSDK sdk = ContrastCoreActivator.getContrastSDK();
 	private ContrastCache contrastCache = ContrastUIActivator.getContrastCache();
 	private VulnerabilityPage mainPage;
 	private VulnerabilityPage noVulnerabilitiesPage;
@@ -146,10 +171,34 @@ public class VulnerabilitiesView extends ViewPart {
 	private AbstractPage loadingPage;
 	private AbstractPage configurationPage;
 	private RefreshJob refreshJob;
+	private final TraceSearchIndex searchIndex = new TraceSearchIndex();
+	/**
+	 * Query of the search box, null if it is empty.
+	 */
+	private String searchQuery;
+	/**
+	 * First page of the traces loaded from Team Server, shown again when the
+	 * search box is cleared.
+	 */
+	private Traces serverInput;
+	private String serverInputSort;
+	private IPartListener2 partListener;
+	private Shell shell;
+	private ShellListener shellListener;
+	private IResourceChangeListener buildListener;
+	private ILaunchListener launchListener;
+	private boolean partVisible = true;
+	private boolean shellIconified;
+	private VulnerabilityDetailsLoader detailsLoader;
 
-	private int currentOffset = 0;
-	private static final int PAGE_LIMIT = 20;
-	private int total = 0;
+	/**
+	 * Number of traces requested at once while the table is scrolled.
+	 */
+	private static final int PAGE_LIMIT = 50;
+	/**
+	 * Time of the last successful trace request, 0 until the first one.
+	 */
+	private volatile long lastSyncTime = 0;
 
 	IEclipsePreferences prefs = ContrastCoreActivator.getPreferences();
 
@@ -159,14 +208,11 @@ public class VulnerabilitiesView extends ViewPart {
 
 	private String traceSort = Constants.SORT_DESCENDING + Constants.SORT_BY_SEVERITY;
 
-	private IPageLoaderListener pageLoaderListener = new IPageLoaderListener() {
+	private ITracePageLoader tracePageLoader = new ITracePageLoader() {
 
 		@Override
-		public void onPageLoad(int page) {
-			currentOffset = PAGE_LIMIT * (page - 1);
-			prefs.putInt(Constants.CURRENT_OFFSET, currentOffset);
-			currentTraceFilterForm.setOffset(currentOffset);
-			refreshTraces(false);
+		public Traces loadPage(int offset, int limit) throws IOException, UnauthorizedException {
+			return getTraces(getPageForm(offset, limit), getOrgUuid());
 		}
 	};
 
@@ -188,7 +234,6 @@ public class VulnerabilitiesView extends ViewPart {
 					currentTraceFilterForm = dialogTraceFilterForm;
 					currentTraceFilterForm.setOffset(0);
 					currentTraceFilterForm.setExpand(EnumSet.of(TraceFilterForm.TraceExpandValue.APPLICATION));
-					prefs.putInt(Constants.CURRENT_OFFSET, 0);
 					startRefreshJob();
 				}
 			}
@@ -196,6 +241,14 @@ public class VulnerabilitiesView extends ViewPart {
 		}
 	};
 
+	private ISearchListener searchListener = new ISearchListener() {
+
+		@Override
+		public void onSearch(String query) {
+			searchTraces(query);
+		}
+	};
+
 	private SeverityFilterListener severityFilterListener = new SeverityFilterListener() {
 		@Override
 		public void onSeverityFilterLoad(EnumSet<RuleSeverity> severities) {
@@ -206,7 +259,6 @@ public class VulnerabilitiesView extends ViewPart {
 			}
 			currentTraceFilterForm.setOffset(0);
 			currentTraceFilterForm.setExpand(EnumSet.of(TraceFilterForm.TraceExpandValue.APPLICATION));
-			prefs.putInt(Constants.CURRENT_OFFSET, 0);
 
 			startRefreshJob();
 		}
@@ -219,10 +271,23 @@ public class VulnerabilitiesView extends ViewPart {
 	}
 
 
-	public ContrastSDK getSdk() {
+	public ExtendedContrastSDK getSdk() {
 		return sdk;
 	}
 
+	/**
+	 * @return Loader that fetches the details of the selected trace and
+	 *         prefetches those of the traces around it, and posts them to the
+	 *         details page.
+	 */
+	public VulnerabilityDetailsLoader getDetailsLoader() {
+		return detailsLoader;
+	}
+
+	public TraceSearchIndex getSearchIndex() {
+		return searchIndex;
+	}
+
 	public void refreshSdk() {
 		sdk = ContrastCoreActivator.getContrastSDK();
 	}
@@ -248,6 +313,108 @@ public class VulnerabilitiesView extends ViewPart {
 		contributeToActionBars();
 		refreshJob = new RefreshJob(resource.getString("REFRESH_LABEL"), this);
 		refreshJob.schedule();
+		hookRefreshListeners();
+	}
+
+	/**
+	 * Pauses the refresh job while the view is hidden or the workbench window
+	 * is minimized, and makes it refresh more often after the user started a
+	 * build or a launch.
+	 */
+	private void hookRefreshListeners() {
+		partListener = new IPartListener2() {
+
+			@Override
+			public void partVisible(IWorkbenchPartReference partRef) {
+				if (partRef.getPart(false) == VulnerabilitiesView.this) {
+					partVisible = true;
+					updateRefreshVisibility();
+				}
+			}
+
+			@Override
+			public void partHidden(IWorkbenchPartReference partRef) {
+				if (partRef.getPart(false) == VulnerabilitiesView.this) {
+					partVisible = false;
+					updateRefreshVisibility();
+				}
+			}
+
+			@Override
+			public void partActivated(IWorkbenchPartReference partRef) {
+			}
+
+			@Override
+			public void partBroughtToTop(IWorkbenchPartReference partRef) {
+			}
+
+			@Override
+			public void partClosed(IWorkbenchPartReference partRef) {
+			}
+
+			@Override
+			public void partDeactivated(IWorkbenchPartReference partRef) {
+			}
+
+			@Override
+			public void partOpened(IWorkbenchPartReference partRef) {
+			}
+
+			@Override
+			public void partInputChanged(IWorkbenchPartReference partRef) {
+			}
+		};
+		getSite().getPage().addPartListener(partListener);
+
+		shell = getSite().getShell();
+		shellListener = new ShellAdapter() {
+
+			@Override
+			public void shellIconified(ShellEvent e) {
+				shellIconified = true;
+				updateRefreshVisibility();
+			}
+
+			@Override
+			public void shellDeiconified(ShellEvent e) {
+				shellIconified = false;
+				updateRefreshVisibility();
+			}
+		};
+		shell.addShellListener(shellListener);
+
+		buildListener = new IResourceChangeListener() {
+
+			@Override
+			public void resourceChanged(IResourceChangeEvent event) {
+				// Automatic builds follow every save and don't deploy anything
+				if (event.getBuildKind() != IncrementalProjectBuilder.AUTO_BUILD) {
+					refreshJob.boost();
+				}
+			}
+		};
+		ResourcesPlugin.getWorkspace().addResourceChangeListener(buildListener, IResourceChangeEvent.POST_BUILD);
+
+		launchListener = new ILaunchListener() {
+
+			@Override
+			public void launchAdded(ILaunch launch) {
+				refreshJob.boost();
+			}
+
+			@Override
+			public void launchChanged(ILaunch launch) {
+			}
+
+			@Override
+			public void launchRemoved(ILaunch launch) {
+			}
+		};
+		DebugPlugin.getDefault().getLaunchManager().addLaunchListener(launchListener);
+	}
+
+	private void updateRefreshVisibility() {
+		refreshJob.setVisible(partVisible && !shellIconified);
 	}
 
 	private void createList(Composite parent) throws MalformedURLException {
@@ -262,6 +429,7 @@ public class VulnerabilitiesView extends ViewPart {
 		noVulnerabilitiesPage = createNoVulnerabilitiesPage(book);
 
 		detailsPage = new VulnerabilityDetailsPage(book, SWT.NONE, this);
+		detailsLoader = new VulnerabilityDetailsLoader(this, detailsPage);
 		loadingPage = new LoadingPage(book, SWT.NONE, this);
 		configurationPage = new ConfigurationPage(book, SWT.NONE, this);
 
@@ -276,6 +444,7 @@ public class VulnerabilitiesView extends ViewPart {
 	}
 
 	public void showVulnerabilityPage() {
+		detailsLoader.cancel();
 		book.showPage(currentPage);
 		activePage = currentPage;
 		refreshAction.setEnabled(true);
@@ -304,13 +473,13 @@ public class VulnerabilitiesView extends ViewPart {
 	}
 
 	private VulnerabilityPage createMainPage(PageBook book) throws MalformedURLException {
-		VulnerabilityPage mainPage = new MainPage(book, SWT.NONE, this);
+		MainPage mainPage = new MainPage(book, SWT.NONE, this);
+		mainPage.setSearchListener(searchListener);
 		createViewer(mainPage);
 		return mainPage;
 	}
 
 	private void addListeners(VulnerabilityPage page) {
-		page.setPageLoaderListener(pageLoaderListener);
 		page.setOpenFilterDialogButtonListener(openFilterDialogButtonListener);
 		page.setSeverityFilterListener(severityFilterListener);
 		// page.getOpenFilterDialogButton().addListener(SWT.Selection,
@@ -322,8 +491,37 @@ public class VulnerabilitiesView extends ViewPart {
 		// openFilterDialogButtonListener);
 	}
 
+	/**
+	 * Applies {@link #traceSort}. The loaded rows are reordered in place when
+	 * all traces matching the filter are loaded, otherwise the traces are
+	 * requested again sorted by Team Server.
+	 */
+	private void sortTraces() {
+		prefs.put(Constants.TRACE_SORT, traceSort);
+		currentTraceFilterForm.setSort(traceSort);
+		TraceComparator comparator = TraceComparator.forSort(traceSort);
+		List<Trace> selectedTraces = getSelectedTraces();
+		if (comparator == null || !contentProvider.sort(comparator)) {
+			refreshTraces(false);
+			return;
+		}
+		List<Integer> indices = new ArrayList<>();
+		for (Trace trace : selectedTraces) {
+			int index = contentProvider.indexOf(trace);
+			if (index >= 0) {
+				indices.add(index);
+			}
+		}
+		int[] selection = new int[indices.size()];
+		for (int i = 0; i < selection.length; i++) {
+			selection[i] = indices.get(i);
+		}
+		table.getTable().setSelection(selection);
+	}
+
 	private void createViewer(Composite composite) {
-		table = new TableViewer(composite, SWT.FULL_SELECTION | SWT.H_SCROLL | SWT.V_SCROLL);
+		table = new TableViewer(composite, SWT.VIRTUAL | SWT.MULTI | SWT.FULL_SELECTION | SWT.H_SCROLL | SWT.V_SCROLL);
+		table.setUseHashlookup(true);
 		GridData gd = new GridData(SWT.FILL, SWT.FILL, true, true);
 		table.getTable().setLayoutData(gd);
 		table.setLabelProvider(new VulnerabilityLabelProvider());
@@ -340,9 +538,7 @@ public class VulnerabilitiesView extends ViewPart {
 				} else {
 					traceSort = Constants.SORT_DESCENDING + Constants.SORT_BY_SEVERITY;
 				}
-				prefs.put(Constants.TRACE_SORT, traceSort);
-				currentTraceFilterForm.setSort(traceSort);
-				refreshTraces(false);
+				sortTraces();
 			}
 
 			@Override
@@ -364,9 +560,7 @@ public class VulnerabilitiesView extends ViewPart {
 				} else {
 					traceSort = Constants.SORT_DESCENDING + Constants.SORT_BY_TITLE;
 				}
-				prefs.put(Constants.TRACE_SORT, traceSort);
-				currentTraceFilterForm.setSort(traceSort);
-				refreshTraces(false);
+				sortTraces();
 			}
 
 			@Override
@@ -403,7 +597,8 @@ public class VulnerabilitiesView extends ViewPart {
 
 		table.getTable().setLinesVisible(true);
 		table.getTable().setHeaderVisible(true);
-		table.setContentProvider(ArrayContentProvider.getInstance());
+		contentProvider = new LazyTraceContentProvider(tracePageLoader, PAGE_LIMIT, resource.getString("LOADING"));
+		table.setContentProvider(contentProvider);
 		TableLayout layout = new TableLayout();
 		table.getTable().setLayout(layout);
 	}
@@ -425,7 +620,8 @@ public class VulnerabilitiesView extends ViewPart {
 
 		ISelection sel = table.getSelection();
 
-		if (sel instanceof IStructuredSelection && ((IStructuredSelection) sel).getFirstElement() instanceof Trace) {
+		if (sel instanceof IStructuredSelection && ((IStructuredSelection) sel).size() == 1
+				&& ((IStructuredSelection) sel).getFirstElement() instanceof Trace) {
 			final Trace trace = (Trace) ((IStructuredSelection) sel).getFirstElement();
 
 			int action = getActionFromClick(isDoubleClick, new Point(xCoord, yCoord));
@@ -469,113 +665,43 @@ public class VulnerabilitiesView extends ViewPart {
 		return NO_ACTION;
 	}
 
-	private void showVulnerabiltyDetails(Trace trace, VulnerabilityDetailsTab tab) {
-		BusyIndicator.showWhile(Display.getCurrent(), new Runnable() {
-			public void run() {
-				StoryResponse story = null;
-				EventSummaryResponse eventSummary = null;
-				HttpRequestResponse httpRequest = null;
-				String status = null;
-				RecommendationResponse recommendationResource = null;
-				TagsResponse traceTagsResource = null;
-				TagsResponse orgTagsResource = null;
-
-				try {
-					Key key = new Key(ContrastUIActivator.getOrgUuid(), trace.getUuid());
-					Key keyForOrg = new Key(ContrastUIActivator.getOrgUuid(), null);
-
-					story = getStory(key);
-					eventSummary = getEventSummary(key);
-					httpRequest = getHttpRequest(key);
-					status = getVulnerabilityStatus(key);
-					recommendationResource = getRecommendationResource(key);
-
-					traceTagsResource = getTags(key);
-					orgTagsResource = getTags(keyForOrg);
-				} catch (IOException | UnauthorizedException e1) {
-					ContrastUIActivator.log(e1);
-				}
-				detailsPage.setStory(story);
-				detailsPage.setRecommendationResource(recommendationResource);
-				detailsPage.setEventSummaryResource(eventSummary);
-				detailsPage.setHttpRequest(httpRequest);
-				detailsPage.setVulnerabilityStatus(StringUtils.isBlank(status) ? trace.getStatus() : status);
-				detailsPage.setOrgTagsResource(orgTagsResource);
-				detailsPage.setTraceTagsResource(traceTagsResource);
-
-				detailsPage.createAdditionalTabs();
-				removeListeners(currentPage);
-				book.showPage(detailsPage);
-				detailsPage.setDefaultSelection(tab);
-				activePage = detailsPage;
-				refreshAction.setEnabled(false);
-				try {
-					detailsPage.setTrace(trace);
-				} catch (MalformedURLException e) {
-					// TODO Auto-generated catch block
-					e.printStackTrace();
-				}
-			}
-
-		});
-	}
-
-	private RecommendationResponse getRecommendationResource(Key key) throws IOException, UnauthorizedException {
-
-		RecommendationResponse recommendationResource = contrastCache.getRecommendationResources().get(key);
-		if (recommendationResource == null) {
-			recommendationResource = sdk.getRecommendation(key.getOrgUuid(), key.getTraceId());
-			contrastCache.getRecommendationResources().put(key, recommendationResource);
-		}
-		return recommendationResource;
-	}
-
-	private TagsResponse getTags(Key key) throws IOException, UnauthorizedException {
-		TagsResponse tagsResource = contrastCache.getTagsResources().get(key);
-
-		if (tagsResource == null) {
-			if (key.getTraceId() != null) {
-				tagsResource = sdk.getTagsByTrace(key.getOrgUuid(), key.getTraceId());
-			} else {
-				tagsResource = sdk.getTraceTagsByOrganization(key.getOrgUuid());
-			}
-			contrastCache.getTagsResources().put(key, tagsResource);
+	/**
+	 * @return The loaded traces of the rows after the given trace, then the
+	 *         one before it, which are the ones most likely to be opened next.
+	 */
+	private List<Trace> getNeighbourTraces(Trace trace) {
+		List<Trace> neighbours = new ArrayList<>();
+		int index = contentProvider.indexOf(trace);
+		if (index < 0) {
+			return neighbours;
 		}
-		return tagsResource;
-	}
-
-	private StoryResponse getStory(Key key) throws IOException, UnauthorizedException {
-		StoryResponse story = contrastCache.getStoryResources().get(key);
-		if (story == null) {
-			story = sdk.getStory(key.getOrgUuid(), key.getTraceId());
-			contrastCache.getStoryResources().put(key, story);
+		for (int i = 1; i <= Constants.DETAILS_PREFETCH_ROWS; i++) {
+			addLoadedTrace(neighbours, index + i);
 		}
-		return story;
+		addLoadedTrace(neighbours, index - 1);
+		return neighbours;
 	}
 
-	private EventSummaryResponse getEventSummary(Key key) throws IOException, UnauthorizedException {
-		EventSummaryResponse eventSummary = contrastCache.getEventSummaryResources().get(key);
-		if (eventSummary == null) {
-			eventSummary = sdk.getEventSummary(key.getOrgUuid(), key.getTraceId());
-			contrastCache.getEventSummaryResources().put(key, eventSummary);
+	private void addLoadedTrace(List<Trace> traces, int index) {
+		Trace trace = contentProvider.getLoadedTrace(index);
+		if (trace != null) {
+			traces.add(trace);
 		}
-		return eventSummary;
 	}
 
-	private HttpRequestResponse getHttpRequest(Key key) throws IOException, UnauthorizedException {
-		HttpRequestResponse httpRequest = contrastCache.getHttpRequestResources().get(key);
-		if (httpRequest == null) {
-			httpRequest = sdk.getHttpRequest(key.getOrgUuid(), key.getTraceId());
-			contrastCache.getHttpRequestResources().put(key, httpRequest);
+	private void showVulnerabiltyDetails(Trace trace, VulnerabilityDetailsTab tab) {
+		removeListeners(currentPage);
+		try {
+			detailsPage.setTrace(trace);
+		} catch (MalformedURLException e) {
+			ContrastUIActivator.log(e);
 		}
-		return httpRequest;
-	}
-
-	private String getVulnerabilityStatus(Key key) throws IOException, UnauthorizedException {
-		TraceFilterForm form = new TraceFilterForm();
-		form.setFilterText(key.getTraceId());
-		List<Trace> traces = sdk.getTracesInOrg(key.getOrgUuid(), form).getTraces();
-		return traces.get(0).getStatus();
+		detailsPage.setDefaultSelection(tab);
+		book.showPage(detailsPage);
+		activePage = detailsPage;
+		refreshAction.setEnabled(false);
+		detailsLoader.load(trace);
+		detailsLoader.prefetch(getNeighbourTraces(trace));
 	}
 
 	public void refreshTraces(final boolean isFullRefresh) {
@@ -616,29 +742,31 @@ public class VulnerabilitiesView extends ViewPart {
 		if (orgUuid != null && !orgUuid.isEmpty()) {
 			try {
 
-				if (isFullRefresh)
-					currentOffset = 0;
-				final Traces traces = getTraces(currentTraceFilterForm, orgUuid);
-				if (traces != null)
-					total = traces.getCount();
+				if (isFullRefresh) {
+					// Filters are loaded in the background and may arrive after the traces
+					ContrastUIActivator.getFilterMetadataCache().refresh(orgUuid, sdk);
+				}
+				long syncStart = System.currentTimeMillis();
+				// The index only holds traces matching the current filter
+				searchIndex.clear();
+				final Traces traces = getTraces(getPageForm(0, PAGE_LIMIT), orgUuid);
+				lastSyncTime = syncStart;
 
 				Display.getDefault().syncExec(new Runnable() {
 
 					@Override
 					public void run() {
 						if (table != null && !table.getTable().isDisposed()) {
-							// Refresh filters
-							if (isFullRefresh) {
-								currentPage.getServers(orgUuid, true);
-								currentPage.getApplications(orgUuid, true, null);
-							}
 							// Refresh traces and selections
-							refreshUI(traces, isFullRefresh);
+							refreshUI(traces);
 						} else {
 							refreshJob.cancel();
 						}
 					}
 				});
+				if (traces != null && traces.getTraces() != null) {
+					detailsLoader.checkMarkedTraces(traces.getTraces());
+				}
 			} catch (final Exception e) {
 				ContrastUIActivator.log(e);
 				Display.getDefault().syncExec(new Runnable() {
@@ -685,53 +813,210 @@ public class VulnerabilitiesView extends ViewPart {
 	}
 
 	/**
-	 * Makes refresh of traces list, services and applications lists.
+	 * @return Whether a trace list has been loaded that
+	 *         {@link #refreshTracesIncrementally()} can update.
+	 */
+	public boolean canRefreshIncrementally() {
+		return lastSyncTime > 0 && activePage != loadingPage && activePage != configurationPage;
+	}
+
+	/**
+	 * Fetches only the traces detected since the last sync and merges them into
+	 * the table. Rows of loaded traces are updated in place and the cached
+	 * details of every changed trace are invalidated. The table is paged again
+	 * only when a trace that is not loaded has changed, and everything is
+	 * reloaded when more traces changed than a single delta request returns.
 	 *
-	 * @param traces
-	 *            New traces list.
-	 * @param selectedServer
-	 *            Combo selection for server list.
-	 * @param selectedApp
-	 *            Combo selection for application list.
-	 * @param isFullRefresh
-	 *            Indicates if this is just a page change or a UI refresh triggered
-	 *            by filters or Refresh button which might change which views are
-	 *            initialized again.
+	 * @return Whether any trace changed.
 	 */
-	private void refreshUI(Traces traces, final boolean isFullRefresh) {
-		if (traces != null && traces.getTraces() != null) {
-			Trace[] traceArray = traces.getTraces().toArray(new Trace[0]);
-			table.setInput(traceArray);
-		}
-		if (traces != null && traces.getTraces() != null && traces.getTraces().size() > 0) {
-			if (activePage != mainPage) {
-				book.showPage(mainPage);
-				activePage = mainPage;
-				currentPage = mainPage;
+	public boolean refreshTracesIncrementally() {
+		final String orgUuid;
+		try {
+			orgUuid = ContrastCoreActivator.getSelectedOrganizationUuid();
+		} catch (Exception e) {
+			ContrastUIActivator.log(e);
+			return false;
+		}
+		if (orgUuid == null || orgUuid.isEmpty()) {
+			return false;
+		}
+
+		long syncStart = System.currentTimeMillis();
+		TraceFilterForm deltaForm = Util.copyTraceFilterForm(currentTraceFilterForm);
+		Date since = new Date(lastSyncTime - Constants.DELTA_REFRESH_OVERLAP);
+		if (deltaForm.getStartDate() == null || deltaForm.getStartDate().before(since)) {
+			deltaForm.setStartDate(since);
+		}
+		if (deltaForm.getEndDate() != null && deltaForm.getEndDate().before(deltaForm.getStartDate())) {
+			// The selected "last detected" range is over, nothing in it can change
+			lastSyncTime = syncStart;
+			return false;
+		}
+		deltaForm.setOffset(0);
+		deltaForm.setLimit(Constants.DELTA_REFRESH_LIMIT);
+
+		final Traces changedTraces;
+		try {
+			changedTraces = getTraces(deltaForm, orgUuid);
+		} catch (IOException | UnauthorizedException e) {
+			ContrastUIActivator.log(e);
+			return false;
+		}
+		if (changedTraces == null || changedTraces.getTraces() == null) {
+			return false;
+		}
+		if (changedTraces.getCount() > changedTraces.getTraces().size()) {
+			refreshTraces(true);
+			return true;
+		}
+		lastSyncTime = syncStart;
+		if (changedTraces.getTraces().isEmpty()) {
+			return false;
+		}
+
+		for (Trace trace : changedTraces.getTraces()) {
+			contrastCache.invalidate(new Key(orgUuid, trace.getUuid()));
+		}
+		detailsLoader.updateMarkers(changedTraces.getTraces());
+		final boolean[] hasNewTraces = new boolean[1];
+		Display.getDefault().syncExec(new Runnable() {
+
+			@Override
+			public void run() {
+				if (table != null && !table.getTable().isDisposed()) {
+					hasNewTraces[0] = mergeTraces(changedTraces.getTraces());
+				} else {
+					refreshJob.cancel();
+				}
 			}
+		});
+		if (hasNewTraces[0]) {
+			reloadTraces(orgUuid);
+		}
+		return true;
+	}
 
-			addListeners(mainPage);
-			refreshAction.setEnabled(true);
-			currentPage.getLabel().setText(traces.getTraces().size() + " " + resource.getString("VULNERABILITIES_LABEL"));
-		} else {
-			if (activePage != noVulnerabilitiesPage) {
-				book.showPage(noVulnerabilitiesPage);
-				activePage = noVulnerabilitiesPage;
-				currentPage = noVulnerabilitiesPage;
+	/**
+	 * Replaces the loaded rows of the given traces.
+	 *
+	 * @return Whether any of the traces is not loaded.
+	 */
+	private boolean mergeTraces(List<Trace> changedTraces) {
+		boolean hasNewTraces = false;
+		for (Trace trace : changedTraces) {
+			if (!contentProvider.update(trace)) {
+				hasNewTraces = true;
+			}
+		}
+		return hasNewTraces;
+	}
+
+	/**
+	 * Pages the table again from the first page without showing the loading
+	 * page. Rows keep their scroll position and are
+	 * requested again as they are shown.
+	 */
+	private void reloadTraces(String orgUuid) {
+		final Traces traces;
+		try {
+			traces = getTraces(getPageForm(0, PAGE_LIMIT), orgUuid);
+		} catch (IOException | UnauthorizedException e) {
+			ContrastUIActivator.log(e);
+			return;
+		}
+
+		Display.getDefault().syncExec(new Runnable() {
+
+			@Override
+			public void run() {
+				if (table != null && !table.getTable().isDisposed()) {
+					refreshUI(traces);
+				} else {
+					refreshJob.cancel();
+				}
 			}
+		});
+	}
 
-			refreshAction.setEnabled(true);
-			addListeners(noVulnerabilitiesPage);
+	/**
+	 * Makes refresh of traces list, services and applications lists. The
+	 * details page stays visible if it is currently shown.
+	 *
+	 * @param traces
+	 *            First page of the new traces list, the table requests the
+	 *            other pages when they are scrolled into view.
+	 */
+	private void refreshUI(Traces traces) {
+		if (traces != null && traces.getTraces() != null) {
+			serverInput = traces;
+			serverInputSort = traceSort;
+			if (searchQuery == null) {
+				setTableInput(traces);
+			} else {
+				showSearchResults();
+			}
+		}
+		// An empty search result keeps the search box visible
+		boolean hasTraces = contentProvider.getTotal() > 0 || searchQuery != null;
+		VulnerabilityPage resultsPage = hasTraces ? mainPage : noVulnerabilitiesPage;
+		if (activePage != resultsPage && activePage != detailsPage) {
+			book.showPage(resultsPage);
+			activePage = resultsPage;
 		}
+		currentPage = resultsPage;
 
-		// Refresh page combo
-		if (isFullRefresh)
-			currentPage.initializePageCombo(PAGE_LIMIT, total);
+		addListeners(resultsPage);
+		refreshAction.setEnabled(activePage != detailsPage);
+		if (hasTraces) {
+			currentPage.getLabel().setText(contentProvider.getTotal() + " " + resource.getString("VULNERABILITIES_LABEL"));
+		}
 
 		table.getControl().getParent().layout(true, true);
 		table.getControl().getParent().redraw();
 	}
 
+	/**
+	 * @param input
+	 *            First page of the traces matching the filter, or an array
+	 *            with every row to show.
+	 */
+	private void setTableInput(Object input) {
+		table.setInput(input);
+		table.setItemCount(contentProvider.getTotal());
+		table.getTable().clearAll();
+	}
+
+	/**
+	 * Filters the traces with the local search index, or shows the traces of
+	 * Team Server again if the query is empty. Only traces that have been
+	 * fetched are searched.
+	 */
+	private void searchTraces(String query) {
+		searchQuery = query == null || query.trim().isEmpty() ? null : query;
+		if (searchQuery != null) {
+			showSearchResults();
+		} else if (serverInput != null && !traceSort.equals(serverInputSort)) {
+			// The traces were sorted locally while searching
+			startRefreshJob();
+			return;
+		} else {
+			setTableInput(serverInput);
+		}
+		if (currentPage == mainPage) {
+			currentPage.getLabel().setText(contentProvider.getTotal() + " " + resource.getString("VULNERABILITIES_LABEL"));
+			currentPage.getLabel().getParent().layout();
+		}
+	}
+
+	private void showSearchResults() {
+		Trace[] results = searchIndex.search(searchQuery).toArray(new Trace[0]);
+		TraceComparator comparator = TraceComparator.forSort(traceSort);
+		if (comparator != null) {
+			comparator.sort(results);
+		}
+		setTableInput(results);
+	}
+
 	private void noOrgUuid(Exception e) {
 		statusLabel.setText(resource.getString("SERVER_ERROR") + e.getMessage());
 		table.refresh();
@@ -742,12 +1027,21 @@ public class VulnerabilitiesView extends ViewPart {
 
 	private void startRefreshTraces() {
 		showLoadingPage();
-		table.setInput(new Trace[0]);
+		setTableInput(null);
 		currentPage.getLabel().setText(resource.getString("ZERO_VULNERABILITIES_LABEL"));
 		refreshAction.setEnabled(false);
 		removeListeners(mainPage);
 		removeListeners(noVulnerabilitiesPage);
-		contrastCache.clear();
+	}
+
+	/**
+	 * @return A copy of the current filter that requests a single page.
+	 */
+	private TraceFilterForm getPageForm(int offset, int limit) {
+		TraceFilterForm form = Util.copyTraceFilterForm(currentTraceFilterForm);
+		form.setOffset(offset);
+		form.setLimit(limit);
+		return form;
 	}
 
 	private Traces getTraces(TraceFilterForm traceFilterform, String orgUuid)
@@ -755,6 +1049,20 @@ public class VulnerabilitiesView extends ViewPart {
 		if (orgUuid == null) {
 			return null;
 		}
+		try {
+			Traces traces = requestTraces(traceFilterform, orgUuid);
+			if (traces != null) {
+				searchIndex.addTraces(traces.getTraces());
+			}
+			return traces;
+		} catch (TooManyRequestsException e) {
+			refreshJob.throttle(e.getRetryAfter());
+			throw e;
+		}
+	}
+
+	private Traces requestTraces(TraceFilterForm traceFilterform, String orgUuid)
+			throws IOException, UnauthorizedException {
 		Traces traces = null;
 
 		Long serverId = Constants.ALL_SERVERS;
@@ -780,9 +1088,24 @@ public class VulnerabilitiesView extends ViewPart {
 
 	@Override
 	public void dispose() {
+		if (partListener != null) {
+			getSite().getPage().removePartListener(partListener);
+		}
+		if (shellListener != null && !shell.isDisposed()) {
+			shell.removeShellListener(shellListener);
+		}
+		if (buildListener != null) {
+			ResourcesPlugin.getWorkspace().removeResourceChangeListener(buildListener);
+		}
+		if (launchListener != null) {
+			DebugPlugin.getDefault().getLaunchManager().removeLaunchListener(launchListener);
+		}
 		if (refreshJob != null) {
 			refreshJob.cancel();
 		}
+		if (detailsLoader != null) {
+			detailsLoader.dispose();
+		}
 		super.dispose();
 	}
 
@@ -816,6 +1139,11 @@ public class VulnerabilitiesView extends ViewPart {
 	}
 
 	private void fillContextMenu(IMenuManager manager) {
+		if (!getSelectedTraceUuids().isEmpty()) {
+			manager.add(markAsAction);
+			manager.add(tagAction);
+			manager.add(new Separator());
+		}
 		manager.add(openPreferencesPage);
 		manager.add(refreshAction);
 		// Other plug-ins can contribute there actions here
@@ -836,15 +1164,13 @@ public class VulnerabilitiesView extends ViewPart {
 				dialog.open();
 				// check if selected organization has been changed in the dialog
 				if (!selectedOrganization.equals(ContrastCoreActivator.getSelectedOrganization())) {
-					currentOffset = 0;
 					if (currentTraceFilterForm != null) {
 						currentTraceFilterForm.setServerIds(null);
 						currentTraceFilterForm.setAppVersionTags(null);
-						currentTraceFilterForm.setOffset(currentOffset);
+						currentTraceFilterForm.setOffset(0);
 					}
 					prefs.put(Constants.APPLICATION_ID, Constants.ALL_APPLICATIONS);
 					prefs.put(Constants.TRACE_FILTER_TYPE_APP_VERSION_TAGS, "");
-					prefs.putInt(Constants.CURRENT_OFFSET, currentOffset);
 
 					sdk = ContrastCoreActivator.getContrastSDK();
 					startRefreshJob();
@@ -864,6 +1190,18 @@ public class VulnerabilitiesView extends ViewPart {
 		refreshAction.setToolTipText(resource.getString("REFRESH_TOOLTIP"));
 		refreshAction.setImageDescriptor(
 				ContrastUIActivator.imageDescriptorFromPlugin(ContrastUIActivator.PLUGIN_ID, "/icons/refresh_tab.gif"));
+		markAsAction = new Action() {
+			public void run() {
+				markSelectedTraces();
+			}
+		};
+		markAsAction.setText(resource.getString("MARK_AS_ACTION"));
+		tagAction = new Action() {
+			public void run() {
+				tagSelectedTraces();
+			}
+		};
+		tagAction.setText(resource.getString("TAG_ACTION"));
 		doubleClickAction = new Action() {
 			public void run() {
 				ISelection selection = table.getSelection();
@@ -873,6 +1211,115 @@ public class VulnerabilitiesView extends ViewPart {
 		};
 	}
 
+	/**
+	 * @return The selected traces. Rows that are still loading are left out.
+	 */
+	private List<Trace> getSelectedTraces() {
+		List<Trace> traces = new ArrayList<>();
+		ISelection selection = table.getSelection();
+		if (selection instanceof IStructuredSelection) {
+			for (Object element : ((IStructuredSelection) selection).toList()) {
+				if (element instanceof Trace) {
+					traces.add((Trace) element);
+				}
+			}
+		}
+		return traces;
+	}
+
+	/**
+	 * @return UUIDs of the selected traces. Rows that are still loading are
+	 *         left out.
+	 */
+	private List<String> getSelectedTraceUuids() {
+		List<String> traceUuids = new ArrayList<>();
+		for (Trace trace : getSelectedTraces()) {
+			traceUuids.add(trace.getUuid());
+		}
+		return traceUuids;
+	}
+
+	/**
+	 * Marks all selected traces with the status chosen in the dialog. The
+	 * traces are reloaded afterwards if the list is filtered by status, since
+	 * some of them may not match the filter anymore.
+	 */
+	private void markSelectedTraces() {
+		final String orgUuid = getOrgUuid();
+		List<String> traceUuids = getSelectedTraceUuids();
+		if (orgUuid == null || traceUuids.isEmpty()) {
+			return;
+		}
+		MarkStatusDialog dialog = new MarkStatusDialog(getSite().getShell(), traceUuids);
+		if (dialog.open() != Dialog.OK) {
+			return;
+		}
+		final BulkStatusJob job = new BulkStatusJob(sdk, orgUuid, dialog.getTraceStatusRequest());
+		job.addJobChangeListener(new JobChangeAdapter() {
+
+			@Override
+			public void done(IJobChangeEvent event) {
+				List<String> statuses = currentTraceFilterForm.getStatus();
+				if (!job.getUpdatedTraceIds().isEmpty() && statuses != null && !statuses.isEmpty()) {
+					reloadTraces(orgUuid);
+				}
+			}
+		});
+		job.schedule();
+	}
+
+	/**
+	 * Loads the tags of the organization in a job, then adds the tags chosen
+	 * in the dialog to all selected traces.
+	 */
+	private void tagSelectedTraces() {
+		final String orgUuid = getOrgUuid();
+		final List<String> traceUuids = getSelectedTraceUuids();
+		if (orgUuid == null || traceUuids.isEmpty()) {
+			return;
+		}
+		Job job = new Job(resource.getString("LOADING_TAGS_JOB")) {
+
+			@Override
+			protected IStatus run(IProgressMonitor monitor) {
+				TagsResponse orgTags = null;
+				try {
+					orgTags = contrastCache.getTagsResources().get(new Key(orgUuid, null), new TagsCacheLoader(sdk));
+				} catch (IOException | UnauthorizedException | RuntimeException e) {
+					ContrastUIActivator.log(e);
+				}
+				final TagsResponse orgTagsResource = orgTags;
+				Display.getDefault().asyncExec(new Runnable() {
+
+					@Override
+					public void run() {
+						if (table != null && !table.getTable().isDisposed()) {
+							openTagDialog(orgUuid, traceUuids, orgTagsResource);
+						}
+					}
+				});
+				return Status.OK_STATUS;
+			}
+		};
+		job.schedule();
+	}
+
+	private void openTagDialog(String orgUuid, List<String> traceUuids, TagsResponse orgTagsResource) {
+		if (orgTagsResource == null) {
+			UIElementUtils.ShowErrorMessage(getSite().getShell(), resource.getString("REQUEST_FAILED"));
+			return;
+		}
+		TagsResponse noTags = new TagsResponse();
+		noTags.setTags(new ArrayList<String>());
+		TagDialog dialog = new TagDialog(getSite().getShell(), noTags, orgTagsResource);
+		dialog.create();
+		dialog.open();
+		List<String> tags = dialog.getNewTraceTags();
+		if (tags != null && !tags.isEmpty()) {
+			new BulkTagJob(sdk, orgUuid, traceUuids, tags).schedule();
+		}
+	}
+
 	protected void dblClickAction(Object object) {
 	}
 
@@ -892,6 +1339,7 @@ public class VulnerabilitiesView extends ViewPart {
 	}
 
 	private void startRefreshJob() {
+		refreshJob.requestFullRefresh();
 		if (refreshJob.getState() == Job.NONE) {
 			refreshJob.schedule();
 		} else if (refreshJob.getState() == Job.SLEEPING) {
@@ -940,13 +1388,13 @@ public class VulnerabilitiesView extends ViewPart {
 
 		TraceFilterForm form = null;
 		if (serverId == Constants.ALL_SERVERS && Constants.ALL_APPLICATIONS.equals(appId)) {
-			form = Util.getTraceFilterForm(currentOffset, PAGE_LIMIT);
+			form = Util.getTraceFilterForm(0, PAGE_LIMIT);
 		} else if (serverId == Constants.ALL_SERVERS && !Constants.ALL_APPLICATIONS.equals(appId)) {
-			form = Util.getTraceFilterForm(currentOffset, PAGE_LIMIT);
+			form = Util.getTraceFilterForm(0, PAGE_LIMIT);
 		} else if (serverId != Constants.ALL_SERVERS && Constants.ALL_APPLICATIONS.equals(appId)) {
-			form = Util.getTraceFilterForm(serverId, currentOffset, PAGE_LIMIT);
+			form = Util.getTraceFilterForm(serverId, 0, PAGE_LIMIT);
 		} else if (serverId != Constants.ALL_SERVERS && !Constants.ALL_APPLICATIONS.equals(appId)) {
-			form = Util.getTraceFilterForm(serverId, currentOffset, PAGE_LIMIT);
+			form = Util.getTraceFilterForm(serverId, 0, PAGE_LIMIT);
 		}
 		form.setSeverities(severities);
 		form.setStatus(statuses);
@@ -980,9 +1428,7 @@ public class VulnerabilitiesView extends ViewPart {
 			}
 		}
 
-		form.setOffset(prefs.getInt(Constants.CURRENT_OFFSET, 0));
 		form.setSort(prefs.get(Constants.TRACE_SORT, Constants.SORT_DESCENDING + Constants.SORT_BY_SEVERITY));
-		currentOffset = prefs.getInt(Constants.CURRENT_OFFSET, 0);
 		form.setExpand(EnumSet.of(TraceFilterForm.TraceExpandValue.APPLICATION));
 
 		String appVersionTag = prefs.get(Constants.TRACE_FILTER_TYPE_APP_VERSION_TAGS, "");
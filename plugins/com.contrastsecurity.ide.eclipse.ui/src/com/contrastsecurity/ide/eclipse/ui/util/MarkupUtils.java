@@ -0,0 +1,111 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Contrast Security.
+ * All rights reserved. 
+ * 
+ * This program and the accompanying materials are made available under 
+ * the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License.
+ * 
+ * The terms of the GNU GPL version 3 which accompanies this distribution
+ * and is available at https://www.gnu.org/licenses/gpl-3.0.en.html
+ * 
+ * Contributors:
+ *     Contrast Security - initial API and implementation
+ *******************************************************************************/
+package com.contrastsecurity.ide.eclipse.ui.util;
+
+import java.net.URLDecoder;
+
+import org.apache.commons.lang.StringEscapeUtils;
+import org.unbescape.html.HtmlEscape;
+
+import com.contrastsecurity.ide.eclipse.core.Constants;
+import com.contrastsecurity.ide.eclipse.ui.ContrastUIActivator;
+
+/**
+ * Turns the markup Team Server sends in stories, recommendations and event
+ * snippets into plain text. Kept free of SWT so the conversions can be
+ * benchmarked outside of Eclipse.
+ */
+public class MarkupUtils {
+
+	/**
+	 * Kept here rather than in {@link Constants}, whose colors and fonts can
+	 * only be initialized on a display.
+	 */
+	private static final String[] MUSTACHE_CONSTANTS = { Constants.OPEN_TAG_CODE, Constants.CLOSE_TAG_CODE,
+			Constants.OPEN_TAG_P, Constants.CLOSE_TAG_P, Constants.OPEN_TAG_PARAGRAPH, Constants.CLOSE_TAG_PARAGRAPH,
+			Constants.OPEN_TAG_LINK, Constants.CLOSE_TAG_LINK, Constants.OPEN_TAG_HEADER, Constants.CLOSE_TAG_HEADER,
+			Constants.LINK_TAG_1, Constants.LINK_TAG_2, Constants.MUSTACHE_NL, Constants.OPEN_TAG_UNORDERED_LIST,
+			Constants.CLOSE_TAG_UNORDERED_LIST, Constants.OPEN_TAG_LIST_ELEMENT, Constants.CLOSE_TAG_LIST_ELEMENT,
+			Constants.OPEN_TAG_FOCUS, Constants.CLOSE_TAG_FOCUS, Constants.OPEN_TAG_BAD_CONFIG,
+			Constants.CLOSE_TAG_BAD_CONFIG, Constants.OPEN_TAG_BLOCK, Constants.CLOSE_TAG_BLOCK,
+			Constants.OPEN_TAG_BLOCK_QUOTE, Constants.CLOSE_TAG_BLOCK_QUOTE, Constants.OPEN_TAG_EMPHASIZE,
+			Constants.CLOSE_TAG_EMPHASIZE, Constants.OPEN_TAG_EXAMPLE_TEXT, Constants.CLOSE_TAG_EXAMPLE_TEXT,
+			Constants.OPEN_TAG_GOOD_CONFIG, Constants.CLOSE_TAG_GOOD_CONFIG, Constants.OPEN_TAG_ORDERED_LIST,
+			Constants.CLOSE_TAG_ORDERED_LIST, Constants.OPEN_TAG_RISK_EVIDENCE, Constants.CLOSE_TAG_RISK_EVIDENCE,
+			Constants.OPEN_TAG_TABLE, Constants.CLOSE_TAG_TABLE, Constants.OPEN_TAG_TABLE_BODY,
+			Constants.CLOSE_TAG_TABLE_BODY, Constants.OPEN_TAG_TABLE_CELL, Constants.CLOSE_TAG_TABLE_CELL,
+			Constants.OPEN_TAG_TABLE_CELL_ALT, Constants.CLOSE_TAG_TABLE_CELL_ALT, Constants.OPEN_TAG_TABLE_HEADER,
+			Constants.CLOSE_TAG_TABLE_HEADER, Constants.OPEN_TAG_TABLE_HEADER_ROW, Constants.CLOSE_TAG_TABLE_HEADER_ROW,
+			Constants.OPEN_TAG_TABLE_ROW, Constants.CLOSE_TAG_TABLE_ROW };
+
+	public static String removeHtmlMarkup(String html) {
+		html = html.replace("<span class='normal-code'>", "");
+		html = html.replace("<span class='code-string'>", "");
+		html = html.replace("<span class='taint'>", "");
+		html = html.replace("<i>", "");
+		html = html.replace("</i>", "");
+		html = html.replaceAll("</span>", "");
+		return html;
+	}
+
+	/**
+	 * Strips the mustache tags of the story chapters and risk shown in the
+	 * overview tab.
+	 */
+	public static String parseOverviewMustache(String text) {
+		text = text.replace(Constants.MUSTACHE_NL, Constants.BLANK);
+		//text = StringEscapeUtils.unescapeHtml(text);
+		text = HtmlEscape.unescapeHtml(text);
+		try {
+			text = URLDecoder.decode(text, "UTF-8");
+		} catch (Exception e) {
+			// ignore
+			ContrastUIActivator plugin = ContrastUIActivator.getDefault();
+			if (plugin != null && plugin.isDebugging()) {
+				ContrastUIActivator.log(e);
+			}
+		}
+		text = text.replace("&lt;", "<");
+		text = text.replace("&gt;", ">");
+		// FIXME
+		text = text.replace("{{#code}}", "");
+		text = text.replace("{{/code}}", "");
+		text = text.replace("{{#p}}", "");
+		text = text.replace("{{/p}}", "");
+		return text;
+	}
+
+	/**
+	 * Strips every known mustache tag from recommendation text.
+	 */
+	public static String parseRecommendationMustache(String text) {
+		if (text != null) {
+			try {
+				text = URLDecoder.decode(text, "UTF-8");
+			} catch (Exception ignored) {
+			}
+			text = StringEscapeUtils.unescapeHtml(text);
+			for (String mustache : MUSTACHE_CONSTANTS) {
+				text = text.replace(mustache, Constants.BLANK);
+			}
+
+			return text;
+		} else {
+			return null;
+		}
+
+	}
+
+}
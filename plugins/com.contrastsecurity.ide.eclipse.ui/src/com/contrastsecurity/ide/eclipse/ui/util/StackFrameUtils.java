@@ -0,0 +1,85 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Contrast Security.
+ * All rights reserved. 
+ * 
+ * This program and the accompanying materials are made available under 
+ * the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License.
+ * 
+ * The terms of the GNU GPL version 3 which accompanies this distribution
+ * and is available at https://www.gnu.org/licenses/gpl-3.0.en.html
+ * 
+ * Contributors:
+ *     Contrast Security - initial API and implementation
+ *******************************************************************************/
+package com.contrastsecurity.ide.eclipse.ui.util;
+
+import java.util.ResourceBundle;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.jdt.core.JavaCore;
+
+import com.contrastsecurity.ide.eclipse.ui.ContrastUIActivator;
+
+/**
+ * Parses the stack frames of trace events, such as
+ * <code>com.acme.web.LoginServlet.doPost(LoginServlet.java:42)</code>.
+ */
+public class StackFrameUtils {
+
+	private static ResourceBundle resource = ResourceBundle.getBundle("OSGI-INF/l10n.bundle");
+
+	/**
+	 * @return Fully qualified name of the type the frame belongs to.
+	 */
+	public static String getTypeName(String stacktrace) throws CoreException {
+		int start = stacktrace.lastIndexOf('(');
+		int end = stacktrace.indexOf(':');
+		if (start >= 0 && end > start) {
+			String typeName = stacktrace.substring(start + 1, end);
+			typeName = JavaCore.removeJavaLikeExtension(typeName);
+			String qualifier = stacktrace.substring(0, start);
+			start = qualifier.lastIndexOf('.');
+			if (start >= 0) {
+				start = new String((String) qualifier.subSequence(0, start)).lastIndexOf('.');
+				if (start == -1) {
+					start = 0;
+				}
+			}
+			if (start >= 0) {
+				qualifier = qualifier.substring(0, start);
+			}
+			if (qualifier.length() > 0) {
+				typeName = qualifier + "." + typeName;
+			}
+			return typeName;
+		}
+		IStatus status = new Status(IStatus.ERROR, ContrastUIActivator.PLUGIN_ID, 0,
+				resource.getString("UNABLE_TO_PARSE"), null);
+		throw new CoreException(status);
+	}
+
+	public static int getLineNumber(String stacktrace) throws CoreException {
+		int index = stacktrace.lastIndexOf(':');
+		if (index >= 0) {
+			String numText = stacktrace.substring(index + 1);
+			index = numText.indexOf(')');
+			if (index >= 0) {
+				numText = numText.substring(0, index);
+			}
+			try {
+				return Integer.parseInt(numText);
+			} catch (NumberFormatException e) {
+				IStatus status = new Status(IStatus.ERROR, ContrastUIActivator.PLUGIN_ID, 0,
+					resource.getString("UNABLE_TO_PARSE"), e);
+				throw new CoreException(status);
+			}
+		}
+		IStatus status = new Status(IStatus.ERROR, ContrastUIActivator.PLUGIN_ID, 0,
+			resource.getString("UNABLE_TO_PARSE"), null);
+		throw new CoreException(status);
+	}
+
+}
@@ -0,0 +1,37 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Contrast Security.
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made available under
+ * the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License.
+ *
+ * The terms of the GNU GPL version 3 which accompanies this distribution
+ * and is available at https://www.gnu.org/licenses/gpl-3.0.en.html
+ *
+ * Contributors:
+ *     Contrast Security - initial API and implementation
+ *******************************************************************************/
+package com.contrastsecurity.ide.rest.sdk.transport;
+
+import java.io.IOException;
+
+/**
+ * No connection to the host became free in time, e.g. because response bodies
+ * have not been closed. The request has not been sent.
+ */
+public class ConnectionPoolExhaustedException extends IOException {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * @param host
+	 *            Protocol, host and port of the server.
+	 * @param permitTimeout
+	 *            Milliseconds the request waited for a connection.
+	 */
+	public ConnectionPoolExhaustedException(String host, long permitTimeout) {
+		super("No connection to " + host + " became free within " + permitTimeout + " ms");
+	}
+
+}
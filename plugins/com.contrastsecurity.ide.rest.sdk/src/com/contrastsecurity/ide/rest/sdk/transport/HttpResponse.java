@@ -0,0 +1,66 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Contrast Security.
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made available under
+ * the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License.
+ *
+ * The terms of the GNU GPL version 3 which accompanies this distribution
+ * and is available at https://www.gnu.org/licenses/gpl-3.0.en.html
+ *
+ * Contributors:
+ *     Contrast Security - initial API and implementation
+ *******************************************************************************/
+package com.contrastsecurity.ide.rest.sdk.transport;
+
+import java.io.InputStream;
+
+/**
+ * Status code and body of a response sent through an {@link HttpTransport}.
+ */
+public class HttpResponse {
+
+	private final int responseCode;
+	private final InputStream body;
+	private final long retryAfter;
+
+	public HttpResponse(int responseCode, InputStream body) {
+		this(responseCode, body, -1);
+	}
+
+	/**
+	 * @param retryAfter
+	 *            Milliseconds the server asked to wait before the next
+	 *            request, or -1 if it did not.
+	 */
+	public HttpResponse(int responseCode, InputStream body, long retryAfter) {
+		this.responseCode = responseCode;
+		this.body = body;
+		this.retryAfter = retryAfter;
+	}
+
+	public int getResponseCode() {
+		return responseCode;
+	}
+
+	/**
+	 * @return The decoded response body, or the error body for error codes.
+	 */
+	public InputStream getBody() {
+		return body;
+	}
+
+	public boolean isError() {
+		return responseCode >= 400;
+	}
+
+	/**
+	 * @return Milliseconds the server asked to wait before the next request,
+	 *         or -1 if it did not.
+	 */
+	public long getRetryAfter() {
+		return retryAfter;
+	}
+
+}
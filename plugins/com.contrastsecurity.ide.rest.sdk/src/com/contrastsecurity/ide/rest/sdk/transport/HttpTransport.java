@@ -0,0 +1,38 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Contrast Security.
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made available under
+ * the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License.
+ *
+ * The terms of the GNU GPL version 3 which accompanies this distribution
+ * and is available at https://www.gnu.org/licenses/gpl-3.0.en.html
+ *
+ * Contributors:
+ *     Contrast Security - initial API and implementation
+ *******************************************************************************/
+package com.contrastsecurity.ide.rest.sdk.transport;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+
+/**
+ * Sends the requests of a {@link TransportContrastSDK}. Implementations
+ * decide how connections are shared and throttled.
+ */
+public interface HttpTransport {
+
+	/**
+	 * Sends the request of an opened, not yet connected connection.
+	 *
+	 * @param connection
+	 *            Connection with method, headers and timeouts already set.
+	 * @param body
+	 *            Request body, or null for requests without one.
+	 * @return The response. Its body must be closed by the caller, also for
+	 *         error responses.
+	 */
+	HttpResponse send(HttpURLConnection connection, byte[] body) throws IOException;
+
+}
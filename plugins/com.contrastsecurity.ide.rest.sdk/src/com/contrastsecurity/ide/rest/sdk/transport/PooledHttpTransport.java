@@ -0,0 +1,273 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Contrast Security.
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made available under
+ * the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License.
+ *
+ * The terms of the GNU GPL version 3 which accompanies this distribution
+ * and is available at https://www.gnu.org/licenses/gpl-3.0.en.html
+ *
+ * Contributors:
+ *     Contrast Security - initial API and implementation
+ *******************************************************************************/
+package com.contrastsecurity.ide.rest.sdk.transport;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Locale;
+import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Transport that keeps the connections to each Team Server host alive and
+ * limits how many of them are used at once.
+ * <p>
+ * Idle connections are pooled by the JVM wide keep-alive cache of
+ * {@link HttpURLConnection}, and TLS sessions are resumed through the session
+ * cache of the default SSL context. Both only work if every response body is
+ * read to its end and closed, and if connections are never disconnected. This
+ * transport therefore drains what is left of a body when it is closed, also
+ * for error responses, before the connection is handed back. Response bodies
+ * are requested gzip compressed.
+ * <p>
+ * When a host answers with 429 Too Many Requests, or with 503 and a
+ * Retry-After header, later requests to it fail with a
+ * {@link TooManyRequestsException} without being sent until the retry delay
+ * has passed. A request that waits too long for one of the connections fails
+ * with a {@link ConnectionPoolExhaustedException} without being sent.
+ */
+public class PooledHttpTransport implements HttpTransport {
+
+	public static final int DEFAULT_MAX_CONNECTIONS = 4;
+
+	/**
+	 * Unread bytes skipped when a body is closed early. Connections with more
+	 * left are closed instead of reused.
+	 */
+	private static final int MAX_DRAIN_BYTES = 64 * 1024;
+
+	private static final String GZIP = "gzip";
+
+	private static final int TOO_MANY_REQUESTS = 429;
+
+	/**
+	 * Retry delay of a 429 response without a usable Retry-After header.
+	 */
+	private static final long DEFAULT_RETRY_AFTER = 60 * 1000;
+
+	private final int maxConnectionsPerHost;
+	private final long permitTimeout;
+	private final ConcurrentMap<String, Semaphore> hostPermits = new ConcurrentHashMap<>();
+	/**
+	 * Time before which no request is sent to a host, by host.
+	 */
+	private final ConcurrentMap<String, Long> hostRetryTimes = new ConcurrentHashMap<>();
+
+	/**
+	 * @param maxConnectionsPerHost
+	 *            Number of requests sent to the same host at once.
+	 * @param permitTimeout
+	 *            Milliseconds a request waits for one of the connections
+	 *            before it fails, so a body that is never closed can not
+	 *            block all later requests.
+	 */
+	public PooledHttpTransport(int maxConnectionsPerHost, long permitTimeout) {
+		this.maxConnectionsPerHost = Math.max(1, maxConnectionsPerHost);
+		this.permitTimeout = permitTimeout;
+	}
+
+	public int getMaxConnectionsPerHost() {
+		return maxConnectionsPerHost;
+	}
+
+	public long getPermitTimeout() {
+		return permitTimeout;
+	}
+
+	@Override
+	public HttpResponse send(HttpURLConnection connection, byte[] body) throws IOException {
+		String host = getHost(connection.getURL());
+		checkRetryTime(host);
+		Semaphore permits = getPermits(host);
+		if (!acquire(permits)) {
+			throw new ConnectionPoolExhaustedException(host, permitTimeout);
+		}
+		boolean acquired = true;
+		InputStream responseBody = null;
+		try {
+			connection.setRequestProperty("Accept-Encoding", GZIP);
+			if (body != null) {
+				connection.setDoOutput(true);
+				OutputStream out = connection.getOutputStream();
+				try {
+					out.write(body);
+				} finally {
+					out.close();
+				}
+			}
+			int responseCode = connection.getResponseCode();
+			long retryAfter = getRetryAfter(connection, responseCode);
+			if (retryAfter >= 0) {
+				hostRetryTimes.put(host, System.currentTimeMillis() + retryAfter);
+			}
+			InputStream in = responseCode >= 400 ? connection.getErrorStream() : connection.getInputStream();
+			if (in == null) {
+				in = new ByteArrayInputStream(new byte[0]);
+			}
+			responseBody = new PooledInputStream(in, permits);
+			acquired = false;
+			if (GZIP.equalsIgnoreCase(connection.getContentEncoding())) {
+				responseBody = new GZIPInputStream(responseBody);
+			}
+			HttpResponse response = new HttpResponse(responseCode, responseBody, retryAfter);
+			responseBody = null;
+			return response;
+		} finally {
+			if (responseBody != null) {
+				responseBody.close();
+			}
+			if (acquired) {
+				permits.release();
+			}
+		}
+	}
+
+	private static String getHost(URL url) {
+		int port = url.getPort() != -1 ? url.getPort() : url.getDefaultPort();
+		return url.getProtocol() + "://" + url.getHost() + ":" + port;
+	}
+
+	private void checkRetryTime(String host) throws TooManyRequestsException {
+		Long retryTime = hostRetryTimes.get(host);
+		if (retryTime == null) {
+			return;
+		}
+		long wait = retryTime - System.currentTimeMillis();
+		if (wait > 0) {
+			throw new TooManyRequestsException(wait);
+		}
+		hostRetryTimes.remove(host, retryTime);
+	}
+
+	/**
+	 * @return Milliseconds the server asked to wait, or -1 if the response is
+	 *         not one that throttles requests.
+	 */
+	private static long getRetryAfter(HttpURLConnection connection, int responseCode) {
+		if (responseCode != TOO_MANY_REQUESTS && responseCode != HttpURLConnection.HTTP_UNAVAILABLE) {
+			return -1;
+		}
+		long retryAfter = parseRetryAfter(connection.getHeaderField("Retry-After"), System.currentTimeMillis());
+		if (retryAfter < 0 && responseCode == TOO_MANY_REQUESTS) {
+			return DEFAULT_RETRY_AFTER;
+		}
+		return retryAfter;
+	}
+
+	/**
+	 * @param value
+	 *            Retry-After header, either a number of seconds or an HTTP
+	 *            date.
+	 * @return Milliseconds to wait from now on, or -1 if the value can't be
+	 *         parsed.
+	 */
+	static long parseRetryAfter(String value, long now) {
+		if (value == null || value.trim().isEmpty()) {
+			return -1;
+		}
+		value = value.trim();
+		try {
+			return Math.max(0, TimeUnit.SECONDS.toMillis(Long.parseLong(value)));
+		} catch (NumberFormatException e) {
+			// Not a number of seconds, try an HTTP date
+		}
+		SimpleDateFormat format = new SimpleDateFormat("EEE, dd MMM yyyy HH:mm:ss zzz", Locale.US);
+		format.setTimeZone(TimeZone.getTimeZone("GMT"));
+		try {
+			return Math.max(0, format.parse(value).getTime() - now);
+		} catch (ParseException e) {
+			return -1;
+		}
+	}
+
+	private Semaphore getPermits(String host) {
+		Semaphore permits = hostPermits.get(host);
+		if (permits == null) {
+			Semaphore created = new Semaphore(maxConnectionsPerHost, true);
+			permits = hostPermits.putIfAbsent(host, created);
+			if (permits == null) {
+				permits = created;
+			}
+		}
+		return permits;
+	}
+
+	private boolean acquire(Semaphore permits) throws InterruptedIOException {
+		try {
+			return permits.tryAcquire(permitTimeout, TimeUnit.MILLISECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while waiting for a connection");
+		}
+	}
+
+	/**
+	 * Response body that drains the connection and hands back its permit when
+	 * closed.
+	 */
+	private static class PooledInputStream extends FilterInputStream {
+
+		private final Semaphore permits;
+		private boolean closed;
+
+		PooledInputStream(InputStream in, Semaphore permits) {
+			super(in);
+			this.permits = permits;
+		}
+
+		@Override
+		public void close() throws IOException {
+			if (closed) {
+				return;
+			}
+			closed = true;
+			try {
+				drain();
+			} finally {
+				try {
+					in.close();
+				} finally {
+					permits.release();
+				}
+			}
+		}
+
+		private void drain() {
+			byte[] buffer = new byte[4096];
+			int drained = 0;
+			try {
+				int read;
+				while (drained < MAX_DRAIN_BYTES && (read = in.read(buffer)) != -1) {
+					drained += read;
+				}
+			} catch (IOException e) {
+				// The connection is not reused, nothing else to do
+			}
+		}
+	}
+
+}
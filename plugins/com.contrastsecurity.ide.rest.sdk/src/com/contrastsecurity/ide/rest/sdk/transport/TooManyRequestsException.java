@@ -0,0 +1,46 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Contrast Security.
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made available under
+ * the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License.
+ *
+ * The terms of the GNU GPL version 3 which accompanies this distribution
+ * and is available at https://www.gnu.org/licenses/gpl-3.0.en.html
+ *
+ * Contributors:
+ *     Contrast Security - initial API and implementation
+ *******************************************************************************/
+package com.contrastsecurity.ide.rest.sdk.transport;
+
+import java.io.IOException;
+
+/**
+ * Team Server answered with 429 Too Many Requests, or with 503 and a
+ * Retry-After header. Requests to the same host fail with this exception
+ * without being sent until the retry delay has passed.
+ */
+public class TooManyRequestsException extends IOException {
+
+	private static final long serialVersionUID = 1L;
+
+	private final long retryAfter;
+
+	/**
+	 * @param retryAfter
+	 *            Milliseconds to wait before the next request.
+	 */
+	public TooManyRequestsException(long retryAfter) {
+		super("Team Server asked to retry after " + retryAfter + " ms");
+		this.retryAfter = retryAfter;
+	}
+
+	/**
+	 * @return Milliseconds to wait before the next request.
+	 */
+	public long getRetryAfter() {
+		return retryAfter;
+	}
+
+}
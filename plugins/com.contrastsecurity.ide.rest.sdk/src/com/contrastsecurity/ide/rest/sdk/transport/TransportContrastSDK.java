@@ -0,0 +1,114 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Contrast Security.
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made available under
+ * the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License.
+ *
+ * The terms of the GNU GPL version 3 which accompanies this distribution
+ * and is available at https://www.gnu.org/licenses/gpl-3.0.en.html
+ *
+ * Contributors:
+ *     Contrast Security - initial API and implementation
+ *******************************************************************************/
+package com.contrastsecurity.ide.rest.sdk.transport;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.net.HttpURLConnection;
+
+import org.apache.commons.io.IOUtils;
+
+import com.contrastsecurity.exceptions.UnauthorizedException;
+import com.contrastsecurity.http.HttpMethod;
+import com.contrastsecurity.http.MediaType;
+import com.contrastsecurity.models.MakeRequestResponse;
+import com.contrastsecurity.sdk.ContrastSDK;
+
+/**
+ * {@link ContrastSDK} that sends its REST requests through an
+ * {@link HttpTransport} instead of a fresh, unmanaged connection per call.
+ * Credentials, URL, proxy and timeouts are taken from an SDK built with
+ * {@link ContrastSDK.Builder}.
+ */
+public class TransportContrastSDK extends ContrastSDK {
+
+	private final HttpTransport transport;
+
+	public TransportContrastSDK(ContrastSDK configuration, HttpTransport transport) {
+		super();
+		copyConfiguration(configuration);
+		this.transport = transport;
+	}
+
+	public HttpTransport getTransport() {
+		return transport;
+	}
+
+	@Override
+	public InputStream makeRequest(HttpMethod method, String path) throws IOException, UnauthorizedException {
+		HttpURLConnection connection = makeConnection(getRestApiURL() + path, method.toString());
+		return getBody(transport.send(connection, null));
+	}
+
+	@Override
+	public InputStream makeRequestWithBody(HttpMethod method, String path, String body, MediaType mediaType)
+			throws IOException, UnauthorizedException {
+		HttpURLConnection connection = makeConnection(getRestApiURL() + path, method.toString());
+		byte[] bytes = null;
+		if (body != null && mediaType != null
+				&& (HttpMethod.PUT.equals(method) || HttpMethod.POST.equals(method) || HttpMethod.DELETE.equals(method))) {
+			connection.setRequestProperty("Content-Type", mediaType.getType());
+			bytes = body.getBytes("utf-8");
+		}
+		return getBody(transport.send(connection, bytes));
+	}
+
+	@Override
+	public MakeRequestResponse makeRequestWithResponse(HttpMethod method, String path)
+			throws IOException, UnauthorizedException {
+		HttpURLConnection connection = makeConnection(getRestApiURL() + path, method.toString());
+		HttpResponse response = transport.send(connection, null);
+		MakeRequestResponse requestResponse = new MakeRequestResponse();
+		requestResponse.is = getBody(response);
+		requestResponse.rc = response.getResponseCode();
+		return requestResponse;
+	}
+
+	private InputStream getBody(HttpResponse response) throws IOException, UnauthorizedException {
+		if (!response.isError()) {
+			return response.getBody();
+		}
+		// Drains the error body so the connection can be reused
+		IOUtils.closeQuietly(response.getBody());
+		if (response.getRetryAfter() >= 0) {
+			throw new TooManyRequestsException(response.getRetryAfter());
+		}
+		if (response.getResponseCode() < 500) {
+			throw new UnauthorizedException(response.getResponseCode());
+		}
+		throw new IOException("Server returned HTTP response code: " + response.getResponseCode());
+	}
+
+	/**
+	 * The SDK keeps its configuration in private fields that are only set by
+	 * its builder, so they are copied over from a built instance.
+	 */
+	private void copyConfiguration(ContrastSDK configuration) {
+		for (Field field : ContrastSDK.class.getDeclaredFields()) {
+			if (Modifier.isStatic(field.getModifiers())) {
+				continue;
+			}
+			try {
+				field.setAccessible(true);
+				field.set(this, field.get(configuration));
+			} catch (IllegalAccessException e) {
+				throw new IllegalStateException("Can't copy SDK configuration field " + field.getName(), e);
+			}
+		}
+	}
+
+}